@@ -7,17 +7,111 @@ import org.springframework.stereotype.Component;
 public class ApplicationPropertiesResolver {
     private final boolean isProduction;
     private final String SQLiteURL;
+    private final boolean concurrentScraping;
+    private final int scraperMaxInFlight;
+    private final double scraperRequestsPerSecondPerHost;
+    private final int scraperConnectTimeoutMillis;
+    private final int scraperReadTimeoutMillis;
+    private final int scraperMaxRetries;
+    private final int scraperVitalArticlesPerPage;
+    private final long scraperRetryBaseDelayMillis;
+    private final int databaseBatchSize;
+    private final int databaseGroupCommitSize;
+    private final long databaseGroupCommitDelayMillis;
+    private final boolean databaseDeduplicateSections;
+    private final String dumpFile;
+    private final int dumpWorkers;
+    private final boolean incrementalExtraction;
+    private final boolean streamingExtraction;
+    private final String scraperCacheDirectory;
+    private final long scraperCacheMaxSizeMB;
+    private final long scraperCacheTimeToLiveHours;
+    private final String exportDirectory;
+    private final int exportRowGroupSize;
+    private final String scraperWikipediaURL;
+    private final boolean resumableExtraction;
+    private final boolean continuousIngestion;
+    private final int ingestionBatchSize;
+    private final String shardWorkerID;
+    private final String shardCoordinatorDatabase;
+    private final int shardPartitions;
+    private final long shardLeaseSeconds;
+    private final String databaseBackend;
+    private final String databaseURL;
 
     private static final String PRODUCTION_PROFILE_IDENTIFIER = "prod";
 
     public ApplicationPropertiesResolver(
             @Value("${spring.profiles.active}") String springProfile,
-            @Value("${spring.data.sqlite}") String databaseURL
+            @Value("${spring.data.sqlite}") String databaseURL,
+            @Value("${scraper.concurrent:true}") boolean concurrentScraping,
+            @Value("${scraper.max-in-flight:16}") int scraperMaxInFlight,
+            @Value("${scraper.requests-per-second-per-host:20}") double scraperRequestsPerSecondPerHost,
+            @Value("${scraper.connect-timeout-ms:5000}") int scraperConnectTimeoutMillis,
+            @Value("${scraper.read-timeout-ms:10000}") int scraperReadTimeoutMillis,
+            @Value("${scraper.max-retries:3}") int scraperMaxRetries,
+            @Value("${scraper.retry-base-delay-ms:500}") long scraperRetryBaseDelayMillis,
+            @Value("${scraper.vital-articles-per-page:100}") int scraperVitalArticlesPerPage,
+            @Value("${database.batch-size:1000}") int databaseBatchSize,
+            @Value("${database.group-commit-size:64}") int databaseGroupCommitSize,
+            @Value("${database.group-commit-delay-ms:200}") long databaseGroupCommitDelayMillis,
+            @Value("${database.deduplicate-sections:true}") boolean databaseDeduplicateSections,
+            @Value("${dump.file:}") String dumpFile,
+            @Value("${dump.workers:4}") int dumpWorkers,
+            @Value("${extraction.incremental:false}") boolean incrementalExtraction,
+            @Value("${extraction.streaming:false}") boolean streamingExtraction,
+            @Value("${scraper.cache.directory:}") String scraperCacheDirectory,
+            @Value("${scraper.cache.max-size-mb:2048}") long scraperCacheMaxSizeMB,
+            @Value("${scraper.cache.ttl-hours:24}") long scraperCacheTimeToLiveHours,
+            @Value("${export.directory:}") String exportDirectory,
+            @Value("${export.row-group-size:65536}") int exportRowGroupSize,
+            @Value("${scraper.wikipedia-url:https://en.wikipedia.org}") String scraperWikipediaURL,
+            @Value("${extraction.resumable:true}") boolean resumableExtraction,
+            @Value("${ingestion.continuous:true}") boolean continuousIngestion,
+            @Value("${ingestion.batch-size:10}") int ingestionBatchSize,
+            @Value("${sharding.worker-id:}") String shardWorkerID,
+            @Value("${sharding.coordinator-database:wikipedia-shards.db}") String shardCoordinatorDatabase,
+            @Value("${sharding.partitions:64}") int shardPartitions,
+            @Value("${sharding.lease-seconds:120}") long shardLeaseSeconds,
+            @Value("${database.backend:sqlite}") String databaseBackend,
+            @Value("${database.url:}") String storageURL
     ) {
         System.out.println("Use: " + springProfile + " profile");
 
         this.isProduction = springProfile.equals(PRODUCTION_PROFILE_IDENTIFIER);
         this.SQLiteURL = databaseURL;
+        this.concurrentScraping = concurrentScraping;
+        this.scraperMaxInFlight = scraperMaxInFlight;
+        this.scraperRequestsPerSecondPerHost = scraperRequestsPerSecondPerHost;
+        this.scraperConnectTimeoutMillis = scraperConnectTimeoutMillis;
+        this.scraperReadTimeoutMillis = scraperReadTimeoutMillis;
+        this.scraperMaxRetries = scraperMaxRetries;
+        this.scraperRetryBaseDelayMillis = scraperRetryBaseDelayMillis;
+        this.scraperVitalArticlesPerPage = scraperVitalArticlesPerPage;
+        this.databaseBatchSize = databaseBatchSize;
+        this.databaseGroupCommitSize = databaseGroupCommitSize;
+        this.databaseGroupCommitDelayMillis = databaseGroupCommitDelayMillis;
+        this.databaseDeduplicateSections = databaseDeduplicateSections;
+        this.dumpFile = dumpFile;
+        this.dumpWorkers = dumpWorkers;
+        this.incrementalExtraction = incrementalExtraction;
+        this.streamingExtraction = streamingExtraction;
+        this.scraperCacheDirectory = scraperCacheDirectory;
+        this.scraperCacheMaxSizeMB = scraperCacheMaxSizeMB;
+        this.scraperCacheTimeToLiveHours = scraperCacheTimeToLiveHours;
+        this.exportDirectory = exportDirectory;
+        this.exportRowGroupSize = exportRowGroupSize;
+        this.scraperWikipediaURL = scraperWikipediaURL;
+        this.resumableExtraction = resumableExtraction;
+        this.continuousIngestion = continuousIngestion;
+        this.ingestionBatchSize = ingestionBatchSize;
+        this.shardWorkerID = shardWorkerID;
+        this.shardCoordinatorDatabase = shardCoordinatorDatabase;
+        this.shardPartitions = shardPartitions;
+        this.shardLeaseSeconds = shardLeaseSeconds;
+        this.databaseBackend = databaseBackend;
+        // the SQLite URL stays the default, so existing configurations keep working
+        this.databaseURL = storageURL.isEmpty() ? databaseURL : storageURL;
     }
 
     public String getSQLiteURL() {
@@ -27,4 +121,164 @@ public class ApplicationPropertiesResolver {
     public boolean isProduction() {
         return isProduction;
     }
+
+    public boolean isConcurrentScraping() {
+        return concurrentScraping;
+    }
+
+    public int getScraperMaxInFlight() {
+        return scraperMaxInFlight;
+    }
+
+    public double getScraperRequestsPerSecondPerHost() {
+        return scraperRequestsPerSecondPerHost;
+    }
+
+    public int getScraperConnectTimeoutMillis() {
+        return scraperConnectTimeoutMillis;
+    }
+
+    public int getScraperReadTimeoutMillis() {
+        return scraperReadTimeoutMillis;
+    }
+
+    public int getScraperMaxRetries() {
+        return scraperMaxRetries;
+    }
+
+    public long getScraperRetryBaseDelayMillis() {
+        return scraperRetryBaseDelayMillis;
+    }
+
+    /**
+     * @return maximum number of vital articles taken from each vital article list page, 0 for no limit
+     */
+    public int getScraperVitalArticlesPerPage() {
+        return scraperVitalArticlesPerPage;
+    }
+
+    public int getDatabaseBatchSize() {
+        return databaseBatchSize;
+    }
+
+    /**
+     * @return maximum number of articles stored by one commit of the section writer
+     */
+    public int getDatabaseGroupCommitSize() {
+        return databaseGroupCommitSize;
+    }
+
+    /**
+     * @return maximum time the section writer waits for more articles before it commits
+     */
+    public long getDatabaseGroupCommitDelayMillis() {
+        return databaseGroupCommitDelayMillis;
+    }
+
+    /**
+     * @return true if sections whose cleaned text duplicates a stored section are dropped
+     */
+    public boolean isDatabaseDeduplicateSections() {
+        return databaseDeduplicateSections;
+    }
+
+    public String getDumpFile() {
+        return dumpFile;
+    }
+
+    public int getDumpWorkers() {
+        return dumpWorkers;
+    }
+
+    public boolean isIncrementalExtraction() {
+        return incrementalExtraction;
+    }
+
+    public boolean isStreamingExtraction() {
+        return streamingExtraction;
+    }
+
+    public String getScraperCacheDirectory() {
+        return scraperCacheDirectory;
+    }
+
+    public long getScraperCacheMaxSizeMB() {
+        return scraperCacheMaxSizeMB;
+    }
+
+    public long getScraperCacheTimeToLiveHours() {
+        return scraperCacheTimeToLiveHours;
+    }
+
+    /**
+     * @return directory the sections are exported to after each run, empty if the export is disabled
+     */
+    public String getExportDirectory() {
+        return exportDirectory;
+    }
+
+    public int getExportRowGroupSize() {
+        return exportRowGroupSize;
+    }
+
+    /**
+     * @return base URL of wikipedia, e.g. a local stub server in tests
+     */
+    public String getScraperWikipediaURL() {
+        return scraperWikipediaURL;
+    }
+
+    /**
+     * @return true if the progress of a crawl is checkpointed and an interrupted crawl is resumed by the next run
+     */
+    public boolean isResumableExtraction() {
+        return resumableExtraction;
+    }
+
+    /**
+     * @return true if batches of random articles are ingested every ingestion.interval-seconds after the first run
+     */
+    public boolean isContinuousIngestion() {
+        return continuousIngestion;
+    }
+
+    /**
+     * @return number of random articles ingested per scheduled batch
+     */
+    public int getIngestionBatchSize() {
+        return ingestionBatchSize;
+    }
+
+    /**
+     * @return ID of this worker of a sharded extraction, empty if the extraction is not sharded
+     */
+    public String getShardWorkerID() {
+        return shardWorkerID;
+    }
+
+    /**
+     * @return name of the database shared by all workers of a sharded extraction
+     */
+    public String getShardCoordinatorDatabase() {
+        return shardCoordinatorDatabase;
+    }
+
+    public int getShardPartitions() {
+        return shardPartitions;
+    }
+
+    /**
+     * @return seconds until the partition of a worker that stopped renewing its lease can be leased by another worker
+     */
+    public long getShardLeaseSeconds() {
+        return shardLeaseSeconds;
+    }
+
+    public String getDatabaseBackend() {
+        return databaseBackend;
+    }
+
+    public String getDatabaseURL() {
+        return databaseURL;
+    }
 }
@@ -1,56 +1,369 @@
 package kit.edu.wikipediaextraction;
 
 
+import kit.edu.wikipediaextraction.database.checkpoint.CheckpointService;
+import kit.edu.wikipediaextraction.database.checkpoint.CrawlCheckpoint;
 import kit.edu.wikipediaextraction.database.section.SectionService;
+import kit.edu.wikipediaextraction.database.section.SectionWriter;
+import kit.edu.wikipediaextraction.dump.DumpIngestionService;
+import kit.edu.wikipediaextraction.dump.DumpSplit;
+import kit.edu.wikipediaextraction.export.SectionExportService;
 import kit.edu.wikipediaextraction.extraction.ExtractionService;
-import kit.edu.wikipediaextraction.model.WikipediaSection;
+import kit.edu.wikipediaextraction.metrics.PipelineMetrics;
+import kit.edu.wikipediaextraction.model.ArticleRevision;
+import kit.edu.wikipediaextraction.pipeline.ArticleStages;
+import kit.edu.wikipediaextraction.pipeline.FetchedArticle;
+import kit.edu.wikipediaextraction.pipeline.PipelineStage;
+import kit.edu.wikipediaextraction.pipeline.StageQueue;
+import kit.edu.wikipediaextraction.scraper.PageResponse;
 import kit.edu.wikipediaextraction.scraper.ScraperService;
-import org.jsoup.nodes.Document;
+import kit.edu.wikipediaextraction.shard.ShardWorker;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
-import java.util.Collection;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 
 @Service
 @EnableScheduling
 public class ExtractionPipeline {
     private final static int NUMBER_OF_RANDOM_ARTICLES = 40;
+    private final static int STAGE_QUEUE_CAPACITY = 32;
     private final SectionService sectionService;
+    private final SectionWriter sectionWriter;
     private final ScraperService scraperService;
     private final ExtractionService extractionService;
+    private final DumpIngestionService dumpIngestionService;
+    private final SectionExportService sectionExportService;
+    private final CheckpointService checkpointService;
+    private final PipelineMetrics pipelineMetrics;
+    private final int numberOfFetchWorkers;
+    private final String dumpFile;
+    private final int numberOfDumpWorkers;
+    private final boolean incremental;
+    private final String exportDirectory;
+    private final boolean resumable;
+    private final boolean continuousIngestion;
+    private final int ingestionBatchSize;
+    private final ShardWorker shardWorker;
+    // set while the first run or an ingestion batch is running, the first run starts once the application is ready
+    private final AtomicBoolean running;
 
     public ExtractionPipeline(
             SectionService sectionService,
+            SectionWriter sectionWriter,
             ScraperService scraperService,
-            ExtractionService extractionService
+            ExtractionService extractionService,
+            DumpIngestionService dumpIngestionService,
+            SectionExportService sectionExportService,
+            CheckpointService checkpointService,
+            PipelineMetrics pipelineMetrics,
+            ApplicationPropertiesResolver applicationPropertiesResolver
     ) {
         this.sectionService = sectionService;
+        this.sectionWriter = sectionWriter;
         this.scraperService = scraperService;
         this.extractionService = extractionService;
-        this.startExtraction();
+        this.dumpIngestionService = dumpIngestionService;
+        this.sectionExportService = sectionExportService;
+        this.checkpointService = checkpointService;
+        this.pipelineMetrics = pipelineMetrics;
+        this.numberOfFetchWorkers = applicationPropertiesResolver.isConcurrentScraping()
+                ? applicationPropertiesResolver.getScraperMaxInFlight()
+                : 1;
+        this.dumpFile = applicationPropertiesResolver.getDumpFile();
+        this.numberOfDumpWorkers = applicationPropertiesResolver.getDumpWorkers();
+        this.incremental = applicationPropertiesResolver.isIncrementalExtraction();
+        this.exportDirectory = applicationPropertiesResolver.getExportDirectory();
+        this.resumable = applicationPropertiesResolver.isResumableExtraction();
+        this.shardWorker = applicationPropertiesResolver.getShardWorkerID().isEmpty()
+                ? null
+                : new ShardWorker(applicationPropertiesResolver, pipelineMetrics);
+        // articles of a dump are only ingested once, shard workers stop after the merge
+        this.continuousIngestion = applicationPropertiesResolver.isContinuousIngestion() && this.dumpFile.isEmpty() && this.shardWorker == null;
+        this.ingestionBatchSize = applicationPropertiesResolver.getIngestionBatchSize();
+        this.running = new AtomicBoolean(true);
     }
 
     /**
-     * Starts the extraction from sections of wikipedia articles
+     * Starts the first run in the background once the application is ready, so the crawl does not block the startup
      */
-    private void startExtraction() {
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread extraction = new Thread(() -> {
+            try {
+                this.startExtraction();
+            } finally {
+                this.running.set(false);
+            }
+        }, "extraction");
+        extraction.start();
+    }
+
+    /**
+     * Ingests a batch of random articles every ingestion.interval-seconds, each batch is stored once it completes.
+     * Random articles that were stored before are only replaced if they changed.
+     * A batch is skipped if the first run or the previous batch is still running.
+     */
+    @Scheduled(
+            initialDelayString = "${ingestion.interval-seconds:60}",
+            fixedRateString = "${ingestion.interval-seconds:60}",
+            timeUnit = TimeUnit.SECONDS
+    )
+    public void ingestRandomArticles() {
+        if (!this.continuousIngestion) {
+            return;
+        }
+        if (!this.running.compareAndSet(false, true)) {
+            this.pipelineMetrics.recordSkippedIngestionBatch();
+            return;
+        }
+
+        try {
+            this.ingestBatch();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            this.running.set(false);
+        }
+    }
+
+    /**
+     * Crawls a batch of random articles incrementally
+     *
+     * @throws InterruptedException if the thread is interrupted while waiting for the stages
+     */
+    void ingestBatch() throws InterruptedException {
+        try (Stream<String> articleURLs = this.scraperService.getRandomArticleURLs(this.ingestionBatchSize).stream()) {
+            long start = System.nanoTime();
+            this.crawl(articleURLs, null, true);
+            this.pipelineMetrics.recordIngestionBatch(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Starts the extraction from sections of wikipedia articles.
+     * Articles stream through the stages fetch, parse, extract and persist, so only
+     * the articles currently held by the bounded stage queues are kept in memory.
+     * If a dump file is configured, the articles are read from the dump instead of wikipedia.
+     * In incremental mode the stored sections are kept and only changed articles are replaced.
+     * The completed requests of a crawl are checkpointed, a crawl that was interrupted is resumed
+     * by the next run without requesting or storing its completed articles again.
+     * If an export directory is configured, all stored sections are exported afterwards.
+     * A summary of the metrics of the stages, the shard worker and the export is printed at the end of the run.
+     * If a shard worker ID is configured, this process is one worker of a sharded extraction instead.
+     */
+    void startExtraction() {
+        if (this.shardWorker != null) {
+            this.runShardWorker();
+            System.out.println(this.pipelineMetrics.getSummary());
+            return;
+        }
+
+        if (!this.dumpFile.isEmpty()) {
+            if (!this.incremental) {
+                this.sectionService.clearTables();
+            }
+            this.dumpIngestionService.ingest(Path.of(this.dumpFile), this.numberOfDumpWorkers, this.incremental);
+            this.exportSections();
+            System.out.println(this.pipelineMetrics.getSummary());
+            return;
+        }
+
+        try {
+            CrawlCheckpoint checkpoint = this.startOrResumeCrawl();
+            // vital article URLs are requested while they are still discovered
+            try (Stream<String> articleURLs = Stream.concat(
+                    this.scraperService.getRandomArticleURLs(NUMBER_OF_RANDOM_ARTICLES).stream(),
+                    this.scraperService.streamVitalArticleURLs()
+            )) {
+                this.crawl(articleURLs, checkpoint, this.incremental);
+            }
+            if (checkpoint != null) {
+                this.checkpointService.finishRun(checkpoint);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        this.exportSections();
+        System.out.println(this.pipelineMetrics.getSummary());
+        String cacheStatistics = this.scraperService.getCacheStatistics();
+        if (cacheStatistics != null) {
+            System.out.println(cacheStatistics);
+        }
+    }
+
+    /**
+     * Takes part in a sharded extraction. The work items are the byte ranges of the dump if a dump file is configured,
+     * otherwise the article URLs. Each partition is processed incrementally, so a partition that is processed again
+     * after its worker stopped does not store its articles twice.
+     */
+    private void runShardWorker() {
+        try {
+            if (!this.dumpFile.isEmpty()) {
+                Path dumpFile = Path.of(this.dumpFile);
+                this.shardWorker.run(
+                        () -> this.listDumpSplitKeys(dumpFile),
+                        splitKeys -> this.dumpIngestionService.ingest(dumpFile, splitKeys.stream().map(DumpSplit::fromKey).toList(), true)
+                );
+            } else {
+                this.shardWorker.run(
+                        () -> Stream.concat(
+                                this.scraperService.getRandomArticleURLs(NUMBER_OF_RANDOM_ARTICLES).stream(),
+                                this.scraperService.streamVitalArticleURLs()
+                        ),
+                        articleURLs -> {
+                            try {
+                                this.crawl(articleURLs.stream(), null, true);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        }
+                );
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Splits the dump into about as many byte ranges per partition as there are dump workers
+     *
+     * @param dumpFile dump file
+     * @return keys of the splits
+     */
+    private Stream<String> listDumpSplitKeys(Path dumpFile) {
+        try {
+            return DumpSplit.split(dumpFile, this.shardWorker.getNumberOfPartitions() * this.numberOfDumpWorkers).stream()
+                    .map(DumpSplit::toKey);
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+            return Stream.empty();
+        }
+    }
+
+    /**
+     * Runs the fetch, parse, extract and persist stages for the article URLs and waits until all articles are stored
+     *
+     * @param articleURLs URLs of the articles to request
+     * @param checkpoint  checkpoint of the crawl, may be null
+     * @param incremental if true, unchanged articles are skipped and changed articles replace their stored sections
+     * @throws InterruptedException if the thread is interrupted while waiting for the stages
+     */
+    private void crawl(
+            Stream<String> articleURLs,
+            CrawlCheckpoint checkpoint,
+            boolean incremental
+    ) throws InterruptedException {
+        StageQueue<String> urlQueue = new StageQueue<>(STAGE_QUEUE_CAPACITY, 1);
+        StageQueue<FetchedArticle> fetchedQueue = new StageQueue<>(STAGE_QUEUE_CAPACITY, this.numberOfFetchWorkers);
+        this.pipelineMetrics.registerQueue("fetch", urlQueue::size);
+        this.pipelineMetrics.registerFetchRate(this.scraperService::getRequestsPerSecond);
+
         // scrape wikipedia articles
-        Collection<Document> articleDocs = new ArrayList<>();
-        Collection<Document> randomWikipediaArticles = this.scraperService.extractRandomArticles(NUMBER_OF_RANDOM_ARTICLES);
-        Collection<Document> vitalWikipediaArticles = this.scraperService.extractAllVitalArticles();
+        PipelineStage<String, FetchedArticle> fetchStage = new PipelineStage<>("fetch", this.numberOfFetchWorkers, urlQueue, fetchedQueue, articleURL -> this.fetchArticle(articleURL, checkpoint, incremental), this.pipelineMetrics);
+        ArticleStages articleStages = new ArticleStages(this.extractionService, this.sectionService, this.sectionWriter, this.pipelineMetrics, fetchedQueue, incremental, checkpoint);
+        fetchStage.start();
+        articleStages.start();
 
-        articleDocs.addAll(randomWikipediaArticles);
-        articleDocs.addAll(vitalWikipediaArticles);
+        Iterator<String> iterator = articleURLs.iterator();
+        while (iterator.hasNext()) {
+            queueArticleURL(urlQueue, iterator.next(), checkpoint);
+        }
+        urlQueue.close();
 
-        // extract sections from articles
-        Collection<WikipediaSection> sections = this.extractionService.extractSectionsFromArticles(articleDocs);
+        fetchStage.join();
+        articleStages.join();
+    }
+
+    /**
+     * Continues the last crawl if it was interrupted, otherwise starts a new crawl
+     *
+     * @return checkpoint of the crawl or null if the progress is not checkpointed
+     * @throws InterruptedException if the thread is interrupted while the run is started
+     */
+    private CrawlCheckpoint startOrResumeCrawl() throws InterruptedException {
+        CrawlCheckpoint checkpoint = this.resumable ? this.checkpointService.findUnfinishedRun() : null;
+        if (checkpoint != null) {
+            this.pipelineMetrics.recordResumedCrawl(checkpoint.getNumberOfCompletedRequests());
+            this.sectionService.addStoredArticleHeadlines();
+            return checkpoint;
+        }
+
+        // the tables are cleared before the run is started, so an interrupted run never clears the sections it stored
+        if (!this.incremental) {
+            this.sectionService.clearTables();
+        }
+        return this.resumable ? this.checkpointService.startRun() : null;
+    }
 
-        // clear tables
-        this.sectionService.clearTables();
+    /**
+     * Queues the URL of an article unless it was completed before the crawl was interrupted
+     *
+     * @param urlQueue   queue of the fetch stage
+     * @param articleURL URL of the article
+     * @param checkpoint checkpoint of the crawl, may be null
+     * @throws InterruptedException if the thread is interrupted while the queue is full
+     */
+    private static void queueArticleURL(
+            StageQueue<String> urlQueue,
+            String articleURL,
+            CrawlCheckpoint checkpoint
+    ) throws InterruptedException {
+        if (checkpoint == null || !checkpoint.skipCompleted(articleURL)) {
+            urlQueue.put(articleURL);
+        }
+    }
+
+    /**
+     * Exports the stored sections to columnar files if an export directory is configured
+     */
+    private void exportSections() {
+        if (this.exportDirectory.isEmpty()) {
+            return;
+        }
+
+        try {
+            this.sectionExportService.export(Path.of(this.exportDirectory));
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Fetches an article, in incremental mode only if it was modified since the last run
+     *
+     * @param articleURL  URL of the article
+     * @param checkpoint  checkpoint of the crawl, the request is completed if the article was not modified
+     * @param incremental if true, the article is requested conditionally with the validators of its stored revision
+     * @return fetched article or null if it was not modified
+     */
+    private FetchedArticle fetchArticle(
+            String articleURL,
+            CrawlCheckpoint checkpoint,
+            boolean incremental
+    ) throws Exception {
+        ArticleRevision articleRevision = incremental ? this.sectionService.getArticleRevisionByURL(articleURL) : null;
+        long start = System.nanoTime();
+        PageResponse response = articleRevision != null
+                ? this.scraperService.fetchArticle(articleURL, articleRevision.eTag(), articleRevision.lastModified())
+                : this.scraperService.fetchArticle(articleURL, null, null);
 
-        // store sections in database
-        this.sectionService.storeSections(sections.stream().toList());
+        if (response == null) {
+            this.pipelineMetrics.recordNotModified(System.nanoTime() - start);
+            this.sectionWriter.submitCompleted(checkpoint, articleURL);
+            return null;
+        }
+        this.pipelineMetrics.recordFetch(System.nanoTime() - start, response.html().length());
+        return new FetchedArticle(articleURL, response.url(), response.html(), response.eTag(), response.lastModified());
     }
 }
@@ -3,4 +3,6 @@ package kit.edu.wikipediaextraction.database;
 public class DatabaseConstants {
     public static final String DATABASE_NAME = "wikipedia.db";
     public static final String TEST_DATABASE_NAME = "wikipedia.db";
+    // database of a worker of a sharded extraction, formatted with the worker ID
+    public static final String SHARD_DATABASE_NAME = "wikipedia-shard-%s.db";
 }
@@ -3,5 +3,6 @@ package kit.edu.wikipediaextraction.database;
 public enum DatabaseEntryType {
     TEXT,
     BOOLEAN,
-    INT
+    INT,
+    LONG
 }
@@ -1,57 +1,144 @@
 package kit.edu.wikipediaextraction.database;
 
+import jakarta.annotation.PreDestroy;
 import kit.edu.wikipediaextraction.ApplicationPropertiesResolver;
+import kit.edu.wikipediaextraction.database.backend.SQLiteStorageBackend;
+import kit.edu.wikipediaextraction.database.backend.StorageBackend;
+import kit.edu.wikipediaextraction.metrics.PipelineMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.sql.*;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
+/**
+ * Connection of the services to the database. Writes and transactions go through the connection of the writer, which
+ * one thread holds at a time, so the state of a transaction is only seen by the thread that runs it. Other threads read
+ * the last commit through a read-only connection if the storage backend offers one.
+ */
 @Service
-public class DatabaseService {
-    private final static String JDBC_CLASS_NAME = "org.sqlite.JDBC";
+public class DatabaseService implements AutoCloseable {
     private final static String INSERT_INTO_QUERY = "INSERT INTO %s (%s) VALUES (%s)";
     private final static String SELECT_QUERY = "SELECT * FROM %s";
     private final static String DELETE_QUERY = "DELETE FROM %s";
     private final static String VALUES_PLACEHOLDER = "?,";
     private final static String IS_FIRST_SECTION = "isFirstSection";
     private Connection databaseConnection;
-    private final String SQLiteURL;
+    // null if the readers share the connection of the writer
+    private Connection readConnection;
+    private final String databaseURL;
+    private final int batchSize;
+    private final StorageBackend storageBackend;
+    private final PipelineMetrics pipelineMetrics;
+    // held for each write and for a whole transaction, guards the transaction state
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private boolean transactionActive;
+    private boolean transactionFailed;
 
+    @Autowired
     public DatabaseService(
-            ApplicationPropertiesResolver applicationPropertiesResolver
+            ApplicationPropertiesResolver applicationPropertiesResolver,
+            PipelineMetrics pipelineMetrics
     ) {
-        String databaseName;
-        if (applicationPropertiesResolver.isProduction()) {
-            databaseName = DatabaseConstants.DATABASE_NAME;
-        } else {
-            databaseName = DatabaseConstants.TEST_DATABASE_NAME;
-        }
-        this.SQLiteURL = applicationPropertiesResolver.getSQLiteURL();
+        this(
+                applicationPropertiesResolver.getDatabaseURL(),
+                applicationPropertiesResolver.getShardWorkerID().isEmpty()
+                        ? getDatabaseName(applicationPropertiesResolver)
+                        : String.format(DatabaseConstants.SHARD_DATABASE_NAME, applicationPropertiesResolver.getShardWorkerID()),
+                applicationPropertiesResolver.getDatabaseBatchSize(),
+                pipelineMetrics,
+                StorageBackend.create(applicationPropertiesResolver.getDatabaseBackend())
+        );
+    }
+
+    public DatabaseService(
+            String SQLiteURL,
+            String databaseName,
+            int batchSize
+    ) {
+        this(SQLiteURL, databaseName, batchSize, new PipelineMetrics());
+    }
+
+    public DatabaseService(
+            String SQLiteURL,
+            String databaseName,
+            int batchSize,
+            PipelineMetrics pipelineMetrics
+    ) {
+        this(SQLiteURL, databaseName, batchSize, pipelineMetrics, new SQLiteStorageBackend());
+    }
+
+    /**
+     * @param databaseURL     JDBC URL of the engine, a prefix of the database file for file based engines
+     * @param databaseName    name of the database
+     * @param batchSize       number of rows per bulk load
+     * @param pipelineMetrics metrics of the inserts
+     * @param storageBackend  engine of the database, the service owns it
+     */
+    public DatabaseService(
+            String databaseURL,
+            String databaseName,
+            int batchSize,
+            PipelineMetrics pipelineMetrics,
+            StorageBackend storageBackend
+    ) {
+        this.databaseURL = databaseURL;
+        this.batchSize = Math.max(1, batchSize);
+        this.storageBackend = storageBackend;
+        this.pipelineMetrics = pipelineMetrics;
         this.connect(databaseName);
     }
 
 
     /**
-     * Connect with database
+     * @param applicationPropertiesResolver application properties
+     * @return name of the database of the sections, which a sharded extraction merges its shards into
+     */
+    public static String getDatabaseName(ApplicationPropertiesResolver applicationPropertiesResolver) {
+        return applicationPropertiesResolver.isProduction() ? DatabaseConstants.DATABASE_NAME : DatabaseConstants.TEST_DATABASE_NAME;
+    }
+
+
+    /**
+     * Connect with database and tune the connection for bulk loads
      *
      * @param databaseName name of database
+     * @throws IllegalStateException if the driver is missing or the database cannot be opened
      */
     private void connect(String databaseName) {
         try {
-            Class.forName(JDBC_CLASS_NAME);
-            String url = SQLiteURL + databaseName;
+            Class.forName(this.storageBackend.getDriverClassName());
+            String url = this.storageBackend.getURL(this.databaseURL, databaseName);
             this.databaseConnection = DriverManager.getConnection(url);
+            try (Statement statement = this.databaseConnection.createStatement()) {
+                for (String connectionStatement : this.storageBackend.getConnectionStatements(databaseName)) {
+                    statement.execute(connectionStatement);
+                }
+            }
+            this.readConnection = this.storageBackend.openReadConnection(this.databaseURL, databaseName);
         } catch (ClassNotFoundException | SQLException e) {
-            e.printStackTrace();
+            this.close();
+            throw new IllegalStateException("Cannot open the " + this.storageBackend.getName() + " database " + databaseName, e);
         }
     }
 
 
     /**
-     * Close database connection
+     * Close database connections and release the resources of the storage backend
      */
-    private void disconnect() {
+    @Override
+    @PreDestroy
+    public void close() {
         try {
+            this.storageBackend.close();
+
+            if (this.readConnection != null) {
+                this.readConnection.close();
+            }
+
             if (this.databaseConnection != null) {
                 this.databaseConnection.close();
             }
@@ -77,19 +164,347 @@ public class DatabaseService {
             String valuesPlaceholder = VALUES_PLACEHOLDER.repeat(values.size());
             String insertQuery = String.format(INSERT_INTO_QUERY, tableName, columns, valuesPlaceholder.substring(0, valuesPlaceholder.length() - 1));
 
+            this.writeLock.lock();
             try (PreparedStatement preparedStatement = this.databaseConnection.prepareStatement(insertQuery)) {
-                for (int i = 0; i < values.size(); i++) {
-                    switch (values.get(i).type()) {
-                        case TEXT -> preparedStatement.setString(i + 1, values.get(i).value());
-                        case INT -> preparedStatement.setInt(i + 1, Integer.parseInt(values.get(i).value()));
-                        case BOOLEAN ->
-                                preparedStatement.setBoolean(i + 1, Boolean.parseBoolean(values.get(i).value()));
-                    }
-                }
+                bindValues(preparedStatement, values);
                 preparedStatement.executeUpdate();
+            } finally {
+                this.writeLock.unlock();
+            }
+        } catch (SQLException e) {
+            this.handleException(e);
+        }
+    }
+
+
+    /**
+     * Inserts many rows into a table with the bulk load of the storage backend.
+     * Rows are loaded and committed in chunks of the configured batch size.
+     *
+     * @param tableName name of table
+     * @param columns   columns of table
+     * @param rows      values of each row, all rows have the same number of values
+     */
+    public void insertBatch(
+            String tableName,
+            String columns,
+            List<List<DatabaseEntry>> rows
+    ) {
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        this.writeLock.lock();
+        try {
+            if (this.transactionActive) {
+                this.loadInTransaction(tableName, columns, rows);
+            } else {
+                this.loadWithCommits(tableName, columns, rows);
+            }
+        } finally {
+            this.writeLock.unlock();
+        }
+        this.pipelineMetrics.recordInsertBatch(tableName, System.nanoTime() - start, rows.size());
+    }
+
+
+    /**
+     * Loads the rows in chunks and commits after each chunk
+     *
+     * @param tableName name of table
+     * @param columns   columns of table
+     * @param rows      values of each row
+     */
+    private void loadWithCommits(
+            String tableName,
+            String columns,
+            List<List<DatabaseEntry>> rows
+    ) {
+        try {
+            boolean autoCommit = this.databaseConnection.getAutoCommit();
+            this.databaseConnection.setAutoCommit(false);
+
+            try {
+                for (int start = 0; start < rows.size(); start += this.batchSize) {
+                    this.storageBackend.load(this.databaseConnection, tableName, columns, rows.subList(start, Math.min(rows.size(), start + this.batchSize)));
+                    this.databaseConnection.commit();
+                }
+            } catch (SQLException e) {
+                this.databaseConnection.rollback();
+                throw e;
+            } finally {
+                this.databaseConnection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            this.handleException(e);
+        }
+    }
+
+
+    /**
+     * Loads the rows in chunks inside the active transaction, which is committed by its owner
+     *
+     * @param tableName name of table
+     * @param columns   columns of table
+     * @param rows      values of each row
+     */
+    private void loadInTransaction(
+            String tableName,
+            String columns,
+            List<List<DatabaseEntry>> rows
+    ) {
+        try {
+            for (int start = 0; start < rows.size(); start += this.batchSize) {
+                this.storageBackend.load(this.databaseConnection, tableName, columns, rows.subList(start, Math.min(rows.size(), start + this.batchSize)));
+            }
+        } catch (SQLException e) {
+            this.handleException(e);
+        }
+    }
+
+
+    /**
+     * Runs all database operations of the work in a single transaction.
+     * The transaction is rolled back if any of the operations fails.
+     * Writes of other threads wait until the transaction ends.
+     *
+     * @param work database operations
+     * @return true if the transaction was committed
+     */
+    public boolean runInTransaction(Runnable work) {
+        this.writeLock.lock();
+        try {
+            return this.runLockedInTransaction(work);
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+
+    /**
+     * Runs the work in a transaction while the write lock is held, a nested call joins the transaction
+     */
+    private boolean runLockedInTransaction(Runnable work) {
+        if (this.transactionActive) {
+            work.run();
+            return !this.transactionFailed;
+        }
+
+        try {
+            this.databaseConnection.setAutoCommit(false);
+            this.transactionActive = true;
+            this.transactionFailed = false;
+
+            try {
+                work.run();
+            } catch (RuntimeException e) {
+                this.transactionFailed = true;
+                throw e;
+            } finally {
+                if (this.transactionFailed) {
+                    this.databaseConnection.rollback();
+                } else {
+                    this.databaseConnection.commit();
+                }
             }
+            return !this.transactionFailed;
         } catch (SQLException e) {
             e.printStackTrace();
+            return false;
+        } finally {
+            this.transactionActive = false;
+            try {
+                this.databaseConnection.setAutoCommit(true);
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+
+    /**
+     * Executes a statement that changes rows
+     *
+     * @param statement  SQL statement with placeholders
+     * @param parameters values of the placeholders
+     * @return number of changed rows, 0 if the statement failed
+     */
+    public int executeUpdate(
+            String statement,
+            List<DatabaseEntry> parameters
+    ) {
+        this.writeLock.lock();
+        try (PreparedStatement preparedStatement = this.databaseConnection.prepareStatement(this.translateQuery(statement))) {
+            bindValues(preparedStatement, parameters);
+            return preparedStatement.executeUpdate();
+        } catch (SQLException e) {
+            this.handleException(e);
+            return 0;
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+
+    /**
+     * Executes a query and maps every row of the result
+     *
+     * @param query      SQL query with placeholders
+     * @param parameters values of the placeholders
+     * @param mapper     maps the current row of the result
+     * @param <T>        type of the mapped rows
+     * @return mapped rows
+     */
+    public <T> List<T> query(
+            String query,
+            List<DatabaseEntry> parameters,
+            ResultSetMapper<T> mapper
+    ) {
+        List<T> rows = new ArrayList<>();
+        Connection connection = this.acquireReadConnection();
+        try (PreparedStatement preparedStatement = connection.prepareStatement(this.translateQuery(query))) {
+            bindValues(preparedStatement, parameters);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    rows.add(mapper.map(resultSet));
+                }
+            }
+        } catch (SQLException e) {
+            this.handleException(e);
+        } finally {
+            this.releaseReadConnection(connection);
+        }
+        return rows;
+    }
+
+
+    /**
+     * Executes a query and hands every mapped row to the consumer without collecting the result
+     *
+     * @param query      SQL query with placeholders
+     * @param parameters values of the placeholders
+     * @param mapper     maps the current row of the result
+     * @param consumer   receives the mapped rows in result order
+     * @param <T>        type of the mapped rows
+     */
+    public <T> void forEachRow(
+            String query,
+            List<DatabaseEntry> parameters,
+            ResultSetMapper<T> mapper,
+            Consumer<T> consumer
+    ) {
+        Connection connection = this.acquireReadConnection();
+        try (PreparedStatement preparedStatement = connection.prepareStatement(this.translateQuery(query))) {
+            bindValues(preparedStatement, parameters);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    consumer.accept(mapper.map(resultSet));
+                }
+            }
+        } catch (SQLException e) {
+            this.handleException(e);
+        } finally {
+            this.releaseReadConnection(connection);
+        }
+    }
+
+
+    /**
+     * Selects the connection of a read. The thread that holds the write lock reads its own uncommitted rows
+     * through the connection of the writer, other threads read the last commit through the read-only connection.
+     *
+     * @return connection of the read, to be released after the read
+     */
+    private Connection acquireReadConnection() {
+        if (this.readConnection != null && !this.writeLock.isHeldByCurrentThread()) {
+            return this.readConnection;
+        }
+        this.writeLock.lock();
+        return this.databaseConnection;
+    }
+
+
+    private void releaseReadConnection(Connection connection) {
+        if (connection != this.readConnection) {
+            this.writeLock.unlock();
+        }
+    }
+
+
+    /**
+     * Reports the exception and marks an active transaction as failed
+     *
+     * @param e SQL exception
+     */
+    private void handleException(SQLException e) {
+        e.printStackTrace();
+        if (this.writeLock.isHeldByCurrentThread() && this.transactionActive) {
+            this.transactionFailed = true;
+        }
+    }
+
+
+    /**
+     * Executes a statement without result, e.g. to create a table
+     *
+     * @param statement SQL statement
+     */
+    public void execute(String statement) {
+        this.writeLock.lock();
+        try (Statement sqlStatement = this.databaseConnection.createStatement()) {
+            for (String translatedStatement : this.storageBackend.translate(statement)) {
+                sqlStatement.execute(translatedStatement);
+            }
+        } catch (SQLException e) {
+            this.handleException(e);
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+
+    /**
+     * @return true if the sections can be searched with the SQLite full-text index
+     */
+    public boolean supportsFullTextSearch() {
+        return this.storageBackend.supportsFullTextSearch();
+    }
+
+
+    /**
+     * Translates a statement with placeholders to the dialect of the storage backend
+     *
+     * @param statement SQLite statement
+     * @return statement of the engine
+     */
+    private String translateQuery(String statement) throws SQLException {
+        List<String> translatedStatements = this.storageBackend.translate(statement);
+        if (translatedStatements.size() != 1) {
+            throw new SQLException("Statement is not supported by the " + this.storageBackend.getName() + " backend: " + statement);
+        }
+        return translatedStatements.get(0);
+    }
+
+
+    /**
+     * Binds the values to the parameters of the statement
+     *
+     * @param preparedStatement prepared statement
+     * @param values            values in parameter order
+     */
+    public static void bindValues(
+            PreparedStatement preparedStatement,
+            List<DatabaseEntry> values
+    ) throws SQLException {
+        for (int i = 0; i < values.size(); i++) {
+            switch (values.get(i).type()) {
+                case TEXT -> preparedStatement.setString(i + 1, values.get(i).value());
+                case INT -> preparedStatement.setInt(i + 1, Integer.parseInt(values.get(i).value()));
+                case LONG -> preparedStatement.setLong(i + 1, Long.parseLong(values.get(i).value()));
+                case BOOLEAN ->
+                        preparedStatement.setBoolean(i + 1, Boolean.parseBoolean(values.get(i).value()));
+            }
         }
     }
 
@@ -100,9 +515,10 @@ public class DatabaseService {
      * @param tableName name of table
      */
     public void getTable(String tableName) {
+        Connection connection = this.acquireReadConnection();
         try {
             String query = String.format(SELECT_QUERY, tableName);
-            Statement statement = this.databaseConnection.createStatement();
+            Statement statement = connection.createStatement();
             ResultSet resultSet = statement.executeQuery(query);
 
             while (resultSet.next()) {
@@ -113,6 +529,8 @@ public class DatabaseService {
             statement.close();
         } catch (SQLException e) {
             e.printStackTrace();
+        } finally {
+            this.releaseReadConnection(connection);
         }
     }
 
@@ -123,6 +541,7 @@ public class DatabaseService {
      * @param tableName name of table
      */
     public void clearTable(String tableName) {
+        this.writeLock.lock();
         try {
             String query = String.format(DELETE_QUERY, tableName);
             Statement statement = this.databaseConnection.createStatement();
@@ -130,7 +549,9 @@ public class DatabaseService {
             statement.executeUpdate(query);
             statement.close();
         } catch (SQLException e) {
-            e.printStackTrace();
+            this.handleException(e);
+        } finally {
+            this.writeLock.unlock();
         }
     }
 }
@@ -0,0 +1,14 @@
+package kit.edu.wikipediaextraction.database;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the current row of a result set
+ *
+ * @param <T> type of the mapped row
+ */
+@FunctionalInterface
+public interface ResultSetMapper<T> {
+    T map(ResultSet resultSet) throws SQLException;
+}
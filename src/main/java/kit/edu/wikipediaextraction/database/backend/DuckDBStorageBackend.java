@@ -0,0 +1,231 @@
+package kit.edu.wikipediaextraction.database.backend;
+
+import kit.edu.wikipediaextraction.database.DatabaseEntry;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * DuckDB, an embedded engine like SQLite. The configured URL is a prefix of the database file, e.g. jdbc:duckdb:.
+ * Rows are loaded with the appender of the driver, which writes them without parsing any statement.
+ * Rows that do not fill all columns of their table are inserted with many rows per statement instead,
+ * since DuckDB executes every statement of a JDBC batch on its own.
+ * The appender is created by reflection, so the driver is only needed on the class path if DuckDB is selected.
+ * DuckDB understands rowid and the conflict clauses of SQLite, the full-text index of SQLite is not available.
+ * The rowids of DuckDB start at 0, queries read them shifted by one, so that paging from cursor 0 starts at the first row.
+ * A DuckDB file can only be opened by one process, so shard databases of workers in other processes cannot be merged.
+ */
+public class DuckDBStorageBackend implements StorageBackend {
+    private final static String SEQUENCE_NAME = "seq_%s";
+    private final static String CREATE_SEQUENCE = "CREATE SEQUENCE IF NOT EXISTS %s";
+    private final static String PRIMARY_KEY = "BIGINT PRIMARY KEY DEFAULT nextval('%s')";
+    private final static int ROWS_PER_INSERT = 100;
+    private final static String DUCKDB_CONNECTION_CLASS_NAME = "org.duckdb.DuckDBConnection";
+    private final static String SCHEMA_NAME = "main";
+    private final static String SELECT_COLUMNS_QUERY = "SELECT * FROM %s LIMIT 0";
+    private final static Pattern ROWID = Pattern.compile("\\b((?:\\w+\\.)?rowid)\\b");
+    private final static String SHIFTED_ROWID = "($1 + 1)";
+    private final static List<String> CONNECTION_STATEMENTS = List.of(
+            // checkpoints rewrite the table segments, a larger WAL defers them during bulk loads
+            "SET checkpoint_threshold = '256MB'"
+    );
+    private final Map<String, List<String>> translations = new ConcurrentHashMap<>();
+    private final JdbcBatchLoader batchLoader = new JdbcBatchLoader(ROWS_PER_INSERT);
+    // connection of the driver and the methods of its appender, looked up on the first load
+    private Object duckDBConnection;
+    private Method createAppender;
+    private Method beginRow;
+    private Method endRow;
+    private Method appendBoolean;
+    private Method appendInt;
+    private Method appendLong;
+    private Method appendString;
+    private Method closeAppender;
+
+    @Override
+    public String getName() {
+        return DUCKDB;
+    }
+
+    @Override
+    public String getDriverClassName() {
+        return "org.duckdb.DuckDBDriver";
+    }
+
+    @Override
+    public String getURL(
+            String databaseURL,
+            String databaseName
+    ) {
+        return databaseURL + databaseName;
+    }
+
+    @Override
+    public List<String> getConnectionStatements(String databaseName) {
+        return CONNECTION_STATEMENTS;
+    }
+
+    /**
+     * A DuckDB file is opened once per process, the readers share the connection of the writer
+     */
+    @Override
+    public Connection openReadConnection(
+            String databaseURL,
+            String databaseName
+    ) {
+        return null;
+    }
+
+    @Override
+    public List<String> translate(String statement) {
+        return this.translations.computeIfAbsent(statement, DuckDBStorageBackend::translateStatement);
+    }
+
+    @Override
+    public boolean supportsFullTextSearch() {
+        return false;
+    }
+
+    @Override
+    public void load(
+            Connection connection,
+            String tableName,
+            String columns,
+            List<List<DatabaseEntry>> rows
+    ) throws SQLException {
+        if (!fillsAllColumns(connection, tableName, columns)) {
+            this.batchLoader.load(connection, tableName, columns, rows);
+            return;
+        }
+
+        try {
+            this.lookUpAppender(connection);
+            Object appender = this.createAppender.invoke(this.duckDBConnection, SCHEMA_NAME, tableName);
+            try {
+                for (List<DatabaseEntry> row : rows) {
+                    this.beginRow.invoke(appender);
+                    for (DatabaseEntry value : row) {
+                        this.append(appender, value);
+                    }
+                    this.endRow.invoke(appender);
+                }
+            } finally {
+                // flushes the appended rows into the transaction
+                this.closeAppender.invoke(appender);
+            }
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            throw new SQLException(e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new SQLException(e);
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        this.batchLoader.close();
+        this.duckDBConnection = null;
+    }
+
+    private void append(
+            Object appender,
+            DatabaseEntry value
+    ) throws ReflectiveOperationException {
+        if (value.value() == null) {
+            // the driver appends null for a null string, whatever the type of the column
+            this.appendString.invoke(appender, (String) null);
+            return;
+        }
+
+        switch (value.type()) {
+            case BOOLEAN -> this.appendBoolean.invoke(appender, Boolean.parseBoolean(value.value()));
+            case INT -> this.appendInt.invoke(appender, Integer.parseInt(value.value()));
+            case LONG -> this.appendLong.invoke(appender, Long.parseLong(value.value()));
+            case TEXT -> this.appendString.invoke(appender, value.value());
+        }
+    }
+
+    /**
+     * Looks up the connection of the driver and the methods of its appender
+     *
+     * @param connection connection of the database service
+     */
+    private void lookUpAppender(Connection connection) throws SQLException, ReflectiveOperationException {
+        if (this.duckDBConnection != null) {
+            return;
+        }
+
+        Class<?> duckDBConnectionClass = Class.forName(DUCKDB_CONNECTION_CLASS_NAME);
+        this.createAppender = duckDBConnectionClass.getMethod("createAppender", String.class, String.class);
+        Class<?> appenderClass = this.createAppender.getReturnType();
+        this.beginRow = appenderClass.getMethod("beginRow");
+        this.endRow = appenderClass.getMethod("endRow");
+        this.appendBoolean = appenderClass.getMethod("append", boolean.class);
+        this.appendInt = appenderClass.getMethod("append", int.class);
+        this.appendLong = appenderClass.getMethod("append", long.class);
+        this.appendString = appenderClass.getMethod("append", String.class);
+        this.closeAppender = appenderClass.getMethod("close");
+        this.duckDBConnection = connection.unwrap(duckDBConnectionClass);
+    }
+
+    /**
+     * Checks whether the rows fill all columns of the table in order, as the appender requires.
+     * The appender only joins a transaction that a statement has started, the query starts it.
+     *
+     * @param connection connection of the database service
+     * @param tableName  name of table
+     * @param columns    columns of the rows
+     * @return true if the columns of the rows are the columns of the table
+     */
+    private static boolean fillsAllColumns(
+            Connection connection,
+            String tableName,
+            String columns
+    ) throws SQLException {
+        List<String> tableColumns = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(String.format(SELECT_COLUMNS_QUERY, tableName))) {
+            ResultSetMetaData metaData = resultSet.getMetaData();
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                tableColumns.add(metaData.getColumnName(i));
+            }
+        }
+        return String.join(", ", tableColumns).equalsIgnoreCase(columns);
+    }
+
+    static List<String> translateStatement(String statement) {
+        if (SQLiteDialect.isSQLiteOnly(statement)) {
+            return List.of();
+        }
+
+        Matcher createTable = SQLiteDialect.matchCreateTable(statement);
+        if (statement.startsWith("SELECT")) {
+            return List.of(ROWID.matcher(SQLiteDialect.toStandardSQL(statement)).replaceAll(SHIFTED_ROWID));
+        }
+        if (!createTable.matches()) {
+            return List.of(SQLiteDialect.toStandardSQL(statement));
+        }
+
+        // DuckDB has no identity columns, a sequence assigns the keys instead
+        String sequence = String.format(SEQUENCE_NAME, createTable.group(1));
+        String columnDefinitions = SQLiteDialect.toBigIntegers(createTable.group(2), String.format(PRIMARY_KEY, sequence));
+        String createTableStatement = "CREATE TABLE IF NOT EXISTS " + createTable.group(1) + " (" + columnDefinitions + ")";
+        if (!SQLiteDialect.hasIntegerPrimaryKey(createTable.group(2))) {
+            return List.of(createTableStatement);
+        }
+        return List.of(String.format(CREATE_SEQUENCE, sequence), createTableStatement);
+    }
+}
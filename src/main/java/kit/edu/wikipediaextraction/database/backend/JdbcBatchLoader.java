@@ -0,0 +1,117 @@
+package kit.edu.wikipediaextraction.database.backend;
+
+import kit.edu.wikipediaextraction.database.DatabaseEntry;
+import kit.edu.wikipediaextraction.database.DatabaseService;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads rows as JDBC batches of a cached insert statement per table.
+ * An insert statement can hold several rows, for engines that execute each statement of a JDBC batch on its own.
+ */
+class JdbcBatchLoader {
+    private final static String INSERT_INTO_QUERY = "INSERT INTO %s (%s) VALUES %s";
+    private final static String VALUES_PLACEHOLDER = "?,";
+    private final Map<String, PreparedStatement> batchStatements = new HashMap<>();
+    private final int rowsPerStatement;
+
+    JdbcBatchLoader() {
+        this(1);
+    }
+
+    /**
+     * @param rowsPerStatement maximum number of rows per insert statement
+     */
+    JdbcBatchLoader(int rowsPerStatement) {
+        this.rowsPerStatement = Math.max(1, rowsPerStatement);
+    }
+
+    /**
+     * Sends the rows as one JDBC batch, the rows that do not fill a whole statement are sent with one more statement
+     *
+     * @param connection connection of the database service
+     * @param tableName  name of table
+     * @param columns    columns of table
+     * @param rows       values of each row
+     */
+    void load(
+            Connection connection,
+            String tableName,
+            String columns,
+            List<List<DatabaseEntry>> rows
+    ) throws SQLException {
+        int rowsPerStatement = Math.min(this.rowsPerStatement, rows.size());
+        int batchedRows = rows.size() - rows.size() % rowsPerStatement;
+        PreparedStatement preparedStatement = this.getBatchStatement(connection, tableName, columns, rows.get(0).size(), rowsPerStatement);
+        try {
+            for (int start = 0; start < batchedRows; start += rowsPerStatement) {
+                DatabaseService.bindValues(preparedStatement, rowsPerStatement == 1 ? rows.get(start) : flatten(rows.subList(start, start + rowsPerStatement)));
+                preparedStatement.addBatch();
+            }
+            preparedStatement.executeBatch();
+        } catch (SQLException e) {
+            try {
+                preparedStatement.clearBatch();
+            } catch (SQLException clearException) {
+                // DuckDB does not support clearing a batch, it clears the batch itself once it is executed
+                e.addSuppressed(clearException);
+            }
+            throw e;
+        }
+
+        if (batchedRows < rows.size()) {
+            this.load(connection, tableName, columns, rows.subList(batchedRows, rows.size()));
+        }
+    }
+
+    void close() throws SQLException {
+        for (PreparedStatement preparedStatement : this.batchStatements.values()) {
+            preparedStatement.close();
+        }
+        this.batchStatements.clear();
+    }
+
+    /**
+     * Gets the cached insert statement for the table or prepares it
+     *
+     * @param connection      connection of the database service
+     * @param tableName       name of table
+     * @param columns         columns of table
+     * @param numberOfColumns number of values per row
+     * @param numberOfRows    number of rows per statement
+     * @return prepared insert statement
+     */
+    private PreparedStatement getBatchStatement(
+            Connection connection,
+            String tableName,
+            String columns,
+            int numberOfColumns,
+            int numberOfRows
+    ) throws SQLException {
+        String valuesPlaceholder = VALUES_PLACEHOLDER.repeat(numberOfColumns);
+        String rowPlaceholder = "(" + valuesPlaceholder.substring(0, valuesPlaceholder.length() - 1) + "),";
+        String rowsPlaceholder = rowPlaceholder.repeat(numberOfRows);
+        String insertQuery = String.format(INSERT_INTO_QUERY, tableName, columns, rowsPlaceholder.substring(0, rowsPlaceholder.length() - 1));
+
+        PreparedStatement preparedStatement = this.batchStatements.get(insertQuery);
+        if (preparedStatement == null) {
+            preparedStatement = connection.prepareStatement(insertQuery);
+            this.batchStatements.put(insertQuery, preparedStatement);
+        }
+        return preparedStatement;
+    }
+
+    private static List<DatabaseEntry> flatten(List<List<DatabaseEntry>> rows) {
+        List<DatabaseEntry> values = new ArrayList<>(rows.size() * rows.get(0).size());
+        for (List<DatabaseEntry> row : rows) {
+            values.addAll(row);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,214 @@
+package kit.edu.wikipediaextraction.database.backend;
+
+import kit.edu.wikipediaextraction.database.DatabaseEntry;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+
+/**
+ * PostgreSQL, which has no single-writer lock. The configured URL points to the server and database,
+ * every database name of the services becomes a schema, e.g. wikipedia.db becomes the schema wikipedia.
+ * Rows are loaded with COPY in the text format, which skips parsing and planning an insert per row.
+ * The copy API of the driver is called by reflection, so the driver is only needed on the class path if PostgreSQL is selected.
+ * Tables get a rowid identity column, so that the queries that page by rowid keep working.
+ * The full-text index of SQLite is not available.
+ */
+public class PostgreSQLStorageBackend implements StorageBackend {
+    private final static String COPY_QUERY = "COPY %s (%s) FROM STDIN";
+    private final static String PRIMARY_KEY = "BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY";
+    private final static String ROWID_COLUMN = ", rowid BIGINT GENERATED ALWAYS AS IDENTITY";
+    private final static String PG_CONNECTION_CLASS_NAME = "org.postgresql.PGConnection";
+    private final Map<String, List<String>> translations = new ConcurrentHashMap<>();
+    private final String pgConnectionClassName;
+    // copy manager of the connection and its copyIn(String, Reader), looked up on the first load
+    private Object copyManager;
+    private Method copyIn;
+
+    public PostgreSQLStorageBackend() {
+        this(PG_CONNECTION_CLASS_NAME);
+    }
+
+    /**
+     * @param pgConnectionClassName interface the connection is unwrapped to, it has getCopyAPI() like the one of the driver
+     */
+    PostgreSQLStorageBackend(String pgConnectionClassName) {
+        this.pgConnectionClassName = pgConnectionClassName;
+    }
+
+    @Override
+    public String getName() {
+        return POSTGRESQL;
+    }
+
+    @Override
+    public String getDriverClassName() {
+        return "org.postgresql.Driver";
+    }
+
+    @Override
+    public String getURL(
+            String databaseURL,
+            String databaseName
+    ) {
+        return databaseURL;
+    }
+
+    @Override
+    public List<String> getConnectionStatements(String databaseName) {
+        String schema = getSchemaName(databaseName);
+        return List.of(
+                "CREATE SCHEMA IF NOT EXISTS " + schema,
+                "SET search_path TO " + schema,
+                // a commit does not wait for the WAL flush, a crash loses the last commits but never corrupts the database
+                "SET synchronous_commit = off"
+        );
+    }
+
+    /**
+     * Opens a read-only session on the schema of the database, the writer created the schema before
+     */
+    @Override
+    public Connection openReadConnection(
+            String databaseURL,
+            String databaseName
+    ) throws SQLException {
+        Connection connection = DriverManager.getConnection(this.getURL(databaseURL, databaseName));
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET search_path TO " + getSchemaName(databaseName));
+            connection.setReadOnly(true);
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        return connection;
+    }
+
+    @Override
+    public List<String> translate(String statement) {
+        return this.translations.computeIfAbsent(statement, PostgreSQLStorageBackend::translateStatement);
+    }
+
+    @Override
+    public boolean supportsFullTextSearch() {
+        return false;
+    }
+
+    @Override
+    public void load(
+            Connection connection,
+            String tableName,
+            String columns,
+            List<List<DatabaseEntry>> rows
+    ) throws SQLException {
+        StringBuilder copyData = new StringBuilder();
+        for (List<DatabaseEntry> row : rows) {
+            for (int i = 0; i < row.size(); i++) {
+                if (i > 0) {
+                    copyData.append('\t');
+                }
+                appendCopyValue(copyData, row.get(i));
+            }
+            copyData.append('\n');
+        }
+
+        try {
+            this.getCopyIn(connection).invoke(this.copyManager, String.format(COPY_QUERY, tableName, columns), new StringReader(copyData.toString()));
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            throw new SQLException(e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new SQLException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        this.copyManager = null;
+        this.copyIn = null;
+    }
+
+    /**
+     * Gets the copy manager of the connection
+     *
+     * @param connection connection of the database service
+     * @return copyIn method of the copy manager
+     */
+    private Method getCopyIn(Connection connection) throws SQLException, ReflectiveOperationException {
+        if (this.copyIn == null) {
+            Class<?> pgConnectionClass = Class.forName(this.pgConnectionClassName);
+            Object pgConnection = connection.unwrap(pgConnectionClass);
+            this.copyManager = pgConnectionClass.getMethod("getCopyAPI").invoke(pgConnection);
+            this.copyIn = this.copyManager.getClass().getMethod("copyIn", String.class, Reader.class);
+        }
+        return this.copyIn;
+    }
+
+    /**
+     * @param databaseName name of a database of the services
+     * @return name of the schema of the database
+     */
+    static String getSchemaName(String databaseName) {
+        int extension = databaseName.lastIndexOf('.');
+        String name = extension > 0 ? databaseName.substring(0, extension) : databaseName;
+        return name.toLowerCase().replaceAll("[^a-z0-9_]", "_");
+    }
+
+    static List<String> translateStatement(String statement) {
+        if (SQLiteDialect.isSQLiteOnly(statement)) {
+            return List.of();
+        }
+
+        Matcher createTable = SQLiteDialect.matchCreateTable(statement);
+        if (createTable.matches()) {
+            String columnDefinitions = SQLiteDialect.toBigIntegers(createTable.group(2), PRIMARY_KEY);
+            return List.of("CREATE TABLE IF NOT EXISTS " + createTable.group(1) + " (" + columnDefinitions + ROWID_COLUMN + ")");
+        }
+        return List.of(SQLiteDialect.toOnConflict(SQLiteDialect.toStandardSQL(statement)));
+    }
+
+    /**
+     * Appends a value in the text format of COPY, which escapes backslashes, tabs and line breaks and writes null as \N
+     *
+     * @param copyData data of the COPY
+     * @param value    value of a column
+     */
+    static void appendCopyValue(
+            StringBuilder copyData,
+            DatabaseEntry value
+    ) {
+        if (value.value() == null) {
+            copyData.append("\\N");
+            return;
+        }
+
+        switch (value.type()) {
+            case BOOLEAN -> copyData.append(Boolean.parseBoolean(value.value()) ? 't' : 'f');
+            case INT, LONG -> copyData.append(value.value());
+            case TEXT -> {
+                String text = value.value();
+                for (int i = 0; i < text.length(); i++) {
+                    char c = text.charAt(i);
+                    switch (c) {
+                        case '\\' -> copyData.append("\\\\");
+                        case '\t' -> copyData.append("\\t");
+                        case '\n' -> copyData.append("\\n");
+                        case '\r' -> copyData.append("\\r");
+                        default -> copyData.append(c);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package kit.edu.wikipediaextraction.database.backend;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Recognizes the SQLite specific parts of the statements of the services, so that other backends can rewrite them
+ */
+class SQLiteDialect {
+    private final static Pattern CREATE_TABLE = Pattern.compile("^CREATE TABLE IF NOT EXISTS (\\w+) \\((.*)\\)$");
+    private final static Pattern INTEGER_PRIMARY_KEY = Pattern.compile("\\bINTEGER PRIMARY KEY\\b");
+    private final static Pattern INTEGER = Pattern.compile("\\bINTEGER\\b");
+    // commands of an FTS5 table are inserted into a column named like the table
+    private final static Pattern FTS5_COMMAND = Pattern.compile("^INSERT INTO (\\w+) \\(\\1\\b");
+    private final static Pattern INSERT_OR_REPLACE = Pattern.compile("^INSERT OR REPLACE INTO (\\w+) \\(([^)]*)\\)(.*)$");
+    private final static String INSERT_OR_IGNORE = "INSERT OR IGNORE INTO ";
+    private final static String CREATE_VIEW = "CREATE VIEW IF NOT EXISTS ";
+    private final static String SQLITE_TABLE_EXISTS = "FROM sqlite_master WHERE type = 'table' AND name = ?";
+    private final static String TABLE_EXISTS = "FROM information_schema.tables WHERE table_schema = current_schema() AND table_name = ?";
+
+    /**
+     * @param statement SQLite statement
+     * @return true for pragmas and the statements of the full-text index, which have no equivalent in other engines
+     */
+    static boolean isSQLiteOnly(String statement) {
+        return statement.startsWith("PRAGMA ")
+                || statement.startsWith("CREATE VIRTUAL TABLE ")
+                || statement.startsWith("CREATE TRIGGER ")
+                || FTS5_COMMAND.matcher(statement).find();
+    }
+
+    /**
+     * @param statement SQLite statement
+     * @return matcher with the table name as first and the column definitions as second group, if it creates a table
+     */
+    static Matcher matchCreateTable(String statement) {
+        return CREATE_TABLE.matcher(statement);
+    }
+
+    static boolean hasIntegerPrimaryKey(String columnDefinitions) {
+        return INTEGER_PRIMARY_KEY.matcher(columnDefinitions).find();
+    }
+
+    /**
+     * SQLite assigns the next key to an INTEGER PRIMARY KEY that is not set, and all its integers have 64 bits
+     *
+     * @param columnDefinitions column definitions of a SQLite table
+     * @param primaryKey        definition of a 64-bit primary key that is assigned if it is not set
+     * @return column definitions with 64-bit integers
+     */
+    static String toBigIntegers(
+            String columnDefinitions,
+            String primaryKey
+    ) {
+        String withPrimaryKey = INTEGER_PRIMARY_KEY.matcher(columnDefinitions).replaceAll(Matcher.quoteReplacement(primaryKey));
+        return INTEGER.matcher(withPrimaryKey).replaceAll("BIGINT");
+    }
+
+    /**
+     * Rewrites view definitions and the lookup of tables, which are spelled the same in PostgreSQL and DuckDB
+     *
+     * @param statement SQLite statement
+     * @return standard SQL statement
+     */
+    static String toStandardSQL(String statement) {
+        if (statement.startsWith(CREATE_VIEW)) {
+            return "CREATE OR REPLACE VIEW " + statement.substring(CREATE_VIEW.length());
+        }
+        return statement.replace(SQLITE_TABLE_EXISTS, TABLE_EXISTS);
+    }
+
+    /**
+     * Rewrites the conflict clauses of SQLite inserts to ON CONFLICT clauses, the first column is the primary key of a replace
+     *
+     * @param statement SQLite statement
+     * @return PostgreSQL statement
+     */
+    static String toOnConflict(String statement) {
+        if (statement.startsWith(INSERT_OR_IGNORE)) {
+            return "INSERT INTO " + statement.substring(INSERT_OR_IGNORE.length()) + " ON CONFLICT DO NOTHING";
+        }
+
+        Matcher matcher = INSERT_OR_REPLACE.matcher(statement);
+        if (!matcher.matches()) {
+            return statement;
+        }
+        String[] columns = matcher.group(2).split(",\\s*");
+        StringBuilder onConflict = new StringBuilder(" ON CONFLICT (").append(columns[0]).append(") DO UPDATE SET ");
+        for (int i = 1; i < columns.length; i++) {
+            onConflict.append(i > 1 ? ", " : "").append(columns[i]).append(" = EXCLUDED.").append(columns[i]);
+        }
+        return "INSERT INTO " + matcher.group(1) + " (" + matcher.group(2) + ")" + matcher.group(3) + onConflict;
+    }
+}
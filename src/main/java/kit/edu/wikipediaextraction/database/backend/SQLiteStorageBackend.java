@@ -0,0 +1,106 @@
+package kit.edu.wikipediaextraction.database.backend;
+
+import kit.edu.wikipediaextraction.database.DatabaseEntry;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * SQLite, the default backend. A prepared statement that is reused within a transaction is the fastest way
+ * to load rows into SQLite, so rows are sent as JDBC batches of a cached insert statement.
+ */
+public class SQLiteStorageBackend implements StorageBackend {
+    // tuned for bulk loads: WAL lets readers continue while the writer commits, NORMAL only syncs at checkpoints
+    private final static List<String> CONNECTION_PRAGMAS = List.of(
+            "PRAGMA journal_mode = WAL",
+            "PRAGMA synchronous = NORMAL",
+            "PRAGMA cache_size = -65536",
+            "PRAGMA temp_store = MEMORY",
+            // other processes may share the database, e.g. the coordination database of sharded workers
+            "PRAGMA busy_timeout = 10000"
+    );
+    // the journal mode is set by the writer, a read-only connection cannot change it
+    private final static List<String> READ_CONNECTION_PRAGMAS = List.of(
+            "PRAGMA cache_size = -65536",
+            "PRAGMA busy_timeout = 10000"
+    );
+    private final static String READ_ONLY_OPEN_MODE = "?open_mode=1";
+    private final static String IN_MEMORY_DATABASE = ":memory:";
+    private final JdbcBatchLoader batchLoader = new JdbcBatchLoader();
+
+    @Override
+    public String getName() {
+        return SQLITE;
+    }
+
+    @Override
+    public String getDriverClassName() {
+        return "org.sqlite.JDBC";
+    }
+
+    @Override
+    public String getURL(
+            String databaseURL,
+            String databaseName
+    ) {
+        return databaseURL + databaseName;
+    }
+
+    @Override
+    public List<String> getConnectionStatements(String databaseName) {
+        return CONNECTION_PRAGMAS;
+    }
+
+    /**
+     * In WAL mode, a second connection reads the last commit while the writer keeps its transaction open.
+     * An in-memory database belongs to its connection, so its readers share the connection of the writer.
+     */
+    @Override
+    public Connection openReadConnection(
+            String databaseURL,
+            String databaseName
+    ) throws SQLException {
+        if (databaseName.isEmpty() || databaseName.contains(IN_MEMORY_DATABASE)) {
+            return null;
+        }
+
+        Connection connection = DriverManager.getConnection(this.getURL(databaseURL, databaseName) + READ_ONLY_OPEN_MODE);
+        try (Statement statement = connection.createStatement()) {
+            for (String pragma : READ_CONNECTION_PRAGMAS) {
+                statement.execute(pragma);
+            }
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        return connection;
+    }
+
+    @Override
+    public List<String> translate(String statement) {
+        return List.of(statement);
+    }
+
+    @Override
+    public boolean supportsFullTextSearch() {
+        return true;
+    }
+
+    @Override
+    public void load(
+            Connection connection,
+            String tableName,
+            String columns,
+            List<List<DatabaseEntry>> rows
+    ) throws SQLException {
+        this.batchLoader.load(connection, tableName, columns, rows);
+    }
+
+    @Override
+    public void close() throws SQLException {
+        this.batchLoader.close();
+    }
+}
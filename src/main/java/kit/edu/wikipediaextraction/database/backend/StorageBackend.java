@@ -0,0 +1,97 @@
+package kit.edu.wikipediaextraction.database.backend;
+
+import kit.edu.wikipediaextraction.database.DatabaseEntry;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Database engine behind the database service. A backend connects to its engine, tunes the connection,
+ * translates the SQLite statements of the services to its dialect and bulk loads rows with the fastest
+ * mechanism of the engine. A backend belongs to one database service and may cache state of its connection.
+ */
+public interface StorageBackend {
+    String SQLITE = "sqlite";
+    String DUCKDB = "duckdb";
+    String POSTGRESQL = "postgresql";
+
+    /**
+     * @param name name of the backend, one of sqlite, duckdb or postgresql
+     * @return new backend
+     */
+    static StorageBackend create(String name) {
+        return switch (name.toLowerCase()) {
+            case SQLITE -> new SQLiteStorageBackend();
+            case DUCKDB -> new DuckDBStorageBackend();
+            case POSTGRESQL -> new PostgreSQLStorageBackend();
+            default -> throw new IllegalArgumentException("unknown storage backend: " + name);
+        };
+    }
+
+    String getName();
+
+    String getDriverClassName();
+
+    /**
+     * @param databaseURL  configured JDBC URL, a prefix of the database file for file based engines
+     * @param databaseName name of the database
+     * @return JDBC URL of the database
+     */
+    String getURL(
+            String databaseURL,
+            String databaseName
+    );
+
+    /**
+     * @param databaseName name of the database
+     * @return statements that tune a new connection for bulk loads
+     */
+    List<String> getConnectionStatements(String databaseName);
+
+    /**
+     * Opens a read-only connection next to the connection of the database service,
+     * so readers on other threads never share the transaction of the writer
+     *
+     * @param databaseURL  configured JDBC URL, a prefix of the database file for file based engines
+     * @param databaseName name of the database
+     * @return read-only connection, null if the readers have to share the connection of the writer
+     */
+    Connection openReadConnection(
+            String databaseURL,
+            String databaseName
+    ) throws SQLException;
+
+    /**
+     * Translates a SQLite statement of the services to the dialect of the engine
+     *
+     * @param statement SQLite statement
+     * @return statements to execute instead, empty if the engine has no equivalent, e.g. for the full-text index
+     */
+    List<String> translate(String statement);
+
+    /**
+     * @return true if the sections can be searched with the SQLite full-text index
+     */
+    boolean supportsFullTextSearch();
+
+    /**
+     * Loads rows into a table within the current transaction of the connection
+     *
+     * @param connection connection of the database service
+     * @param tableName  name of table
+     * @param columns    columns of table
+     * @param rows       values of each row, all rows have the same number of values
+     */
+    void load(
+            Connection connection,
+            String tableName,
+            String columns,
+            List<List<DatabaseEntry>> rows
+    ) throws SQLException;
+
+    /**
+     * Releases the resources the backend holds for the connection
+     */
+    void close() throws SQLException;
+}
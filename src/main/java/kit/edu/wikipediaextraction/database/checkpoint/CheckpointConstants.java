@@ -0,0 +1,17 @@
+package kit.edu.wikipediaextraction.database.checkpoint;
+
+public class CheckpointConstants {
+    public final static String CREATE_TABLE_WIKIPEDIA_CRAWL_RUNS = "CREATE TABLE IF NOT EXISTS wikipedia_crawl_runs (runID INTEGER PRIMARY KEY, startedAt INTEGER, finishedAt INTEGER)";
+    // one row per completed request, the random article URL is requested several times per run
+    public final static String CREATE_TABLE_WIKIPEDIA_CRAWL_CHECKPOINTS = "CREATE TABLE IF NOT EXISTS wikipedia_crawl_checkpoints (runID INTEGER, requestURL TEXT)";
+    public final static String CREATE_INDEX_CRAWL_CHECKPOINTS_RUN_ID = "CREATE INDEX IF NOT EXISTS idx_wikipedia_crawl_checkpoints_runID ON wikipedia_crawl_checkpoints (runID)";
+
+    public final static String SELECT_UNFINISHED_CRAWL_RUN = "SELECT runID FROM wikipedia_crawl_runs WHERE finishedAt IS NULL ORDER BY runID DESC LIMIT 1";
+    public final static String SELECT_LAST_CRAWL_RUN = "SELECT MAX(runID) FROM wikipedia_crawl_runs";
+    public final static String SELECT_COMPLETED_REQUESTS = "SELECT requestURL, COUNT(*) FROM wikipedia_crawl_checkpoints WHERE runID = ? GROUP BY requestURL";
+
+    public final static String INSERT_CRAWL_RUN = "INSERT INTO wikipedia_crawl_runs (startedAt) VALUES (?)";
+    public final static String INSERT_CRAWL_CHECKPOINT = "INSERT INTO wikipedia_crawl_checkpoints (runID, requestURL) VALUES (?, ?)";
+    public final static String FINISH_CRAWL_RUN = "UPDATE wikipedia_crawl_runs SET finishedAt = ? WHERE runID = ?";
+    public final static String DELETE_CRAWL_CHECKPOINTS = "DELETE FROM wikipedia_crawl_checkpoints WHERE runID = ?";
+}
@@ -0,0 +1,107 @@
+package kit.edu.wikipediaextraction.database.checkpoint;
+
+import kit.edu.wikipediaextraction.database.DatabaseEntry;
+import kit.edu.wikipediaextraction.database.DatabaseEntryType;
+import kit.edu.wikipediaextraction.database.DatabaseService;
+import kit.edu.wikipediaextraction.database.section.SectionWriter;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service for the checkpoints of crawl runs. A run stays unfinished until all of its articles are committed,
+ * the next run continues an unfinished run instead of starting over. Runs are started and finished on the thread
+ * of the section writer, which owns the writes of the crawl.
+ */
+@Service
+public class CheckpointService {
+    private final DatabaseService databaseService;
+    private final SectionWriter sectionWriter;
+
+    /**
+     * @param databaseService database of the checkpoints
+     * @param sectionWriter   writer of the sections, which also writes the checkpoints
+     */
+    public CheckpointService(
+            DatabaseService databaseService,
+            SectionWriter sectionWriter
+    ) {
+        this.databaseService = databaseService;
+        this.sectionWriter = sectionWriter;
+        this.createTables();
+    }
+
+    private void createTables() {
+        this.databaseService.execute(CheckpointConstants.CREATE_TABLE_WIKIPEDIA_CRAWL_RUNS);
+        this.databaseService.execute(CheckpointConstants.CREATE_TABLE_WIKIPEDIA_CRAWL_CHECKPOINTS);
+        this.databaseService.execute(CheckpointConstants.CREATE_INDEX_CRAWL_CHECKPOINTS_RUN_ID);
+    }
+
+    /**
+     * Loads the checkpoint of the last run that was interrupted
+     *
+     * @return checkpoint of the run or null if all runs finished
+     */
+    public CrawlCheckpoint findUnfinishedRun() {
+        List<Long> runIDs = this.databaseService.query(
+                CheckpointConstants.SELECT_UNFINISHED_CRAWL_RUN,
+                List.of(),
+                resultSet -> resultSet.getLong(1)
+        );
+        if (runIDs.isEmpty()) {
+            return null;
+        }
+
+        long runID = runIDs.get(0);
+        Map<String, Integer> completedRequests = new HashMap<>();
+        this.databaseService.forEachRow(
+                CheckpointConstants.SELECT_COMPLETED_REQUESTS,
+                List.of(runIDEntry(runID)),
+                resultSet -> Map.entry(resultSet.getString(1), resultSet.getInt(2)),
+                completedRequest -> completedRequests.put(completedRequest.getKey(), completedRequest.getValue())
+        );
+        return new CrawlCheckpoint(this.databaseService, runID, true, completedRequests);
+    }
+
+    /**
+     * Starts a new run without completed requests
+     *
+     * @return checkpoint of the run
+     * @throws InterruptedException if the thread is interrupted while the writer starts the run
+     */
+    public CrawlCheckpoint startRun() throws InterruptedException {
+        long runID = this.sectionWriter.execute(() -> {
+            this.databaseService.executeUpdate(CheckpointConstants.INSERT_CRAWL_RUN, List.of(
+                    new DatabaseEntry(DatabaseEntryType.LONG, String.valueOf(System.currentTimeMillis()))
+            ));
+            return this.databaseService.query(
+                    CheckpointConstants.SELECT_LAST_CRAWL_RUN,
+                    List.of(),
+                    resultSet -> resultSet.getLong(1)
+            ).get(0);
+        });
+        return new CrawlCheckpoint(this.databaseService, runID, false, Map.of());
+    }
+
+    /**
+     * Marks a run as finished once all of its articles are committed and drops its checkpoints
+     *
+     * @param checkpoint checkpoint of the run
+     * @throws InterruptedException if the thread is interrupted while the writer finishes the run
+     */
+    public void finishRun(CrawlCheckpoint checkpoint) throws InterruptedException {
+        this.sectionWriter.execute(() -> this.databaseService.runInTransaction(() -> {
+            this.databaseService.executeUpdate(CheckpointConstants.FINISH_CRAWL_RUN, List.of(
+                    new DatabaseEntry(DatabaseEntryType.LONG, String.valueOf(System.currentTimeMillis())),
+                    runIDEntry(checkpoint.getRunID())
+            ));
+            this.databaseService.executeUpdate(CheckpointConstants.DELETE_CRAWL_CHECKPOINTS, List.of(runIDEntry(checkpoint.getRunID())));
+        }));
+    }
+
+    private static DatabaseEntry runIDEntry(long runID) {
+        return new DatabaseEntry(DatabaseEntryType.LONG, String.valueOf(runID));
+    }
+}
@@ -0,0 +1,88 @@
+package kit.edu.wikipediaextraction.database.checkpoint;
+
+import kit.edu.wikipediaextraction.database.DatabaseEntry;
+import kit.edu.wikipediaextraction.database.DatabaseEntryType;
+import kit.edu.wikipediaextraction.database.DatabaseService;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Progress of a crawl run. The section writer marks a request as completed in the transaction that
+ * stores its article, so after a crash every checkpointed article is stored and every stored article is checkpointed.
+ */
+public class CrawlCheckpoint {
+    private final DatabaseService databaseService;
+    private final long runID;
+    private final boolean resumed;
+    private final Map<String, Integer> completedRequests;
+    private final int numberOfCompletedRequests;
+
+    /**
+     * @param databaseService   database of the checkpoints
+     * @param runID             ID of the run
+     * @param resumed           true if the run was interrupted before and is continued
+     * @param completedRequests number of completed requests by URL before the run was interrupted
+     */
+    CrawlCheckpoint(
+            DatabaseService databaseService,
+            long runID,
+            boolean resumed,
+            Map<String, Integer> completedRequests
+    ) {
+        this.databaseService = databaseService;
+        this.runID = runID;
+        this.resumed = resumed;
+        this.completedRequests = new HashMap<>(completedRequests);
+        this.numberOfCompletedRequests = completedRequests.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    public long getRunID() {
+        return this.runID;
+    }
+
+    public boolean isResumed() {
+        return this.resumed;
+    }
+
+    /**
+     * @return number of requests completed before the run was interrupted
+     */
+    public int getNumberOfCompletedRequests() {
+        return this.numberOfCompletedRequests;
+    }
+
+    /**
+     * Checks whether a request was completed before the run was interrupted. Every completed request is
+     * skipped once, so a URL that is requested several times is only requested as often as it is still missing.
+     *
+     * @param requestURL requested URL
+     * @return true if the request is skipped
+     */
+    public synchronized boolean skipCompleted(String requestURL) {
+        Integer remaining = this.completedRequests.get(requestURL);
+        if (remaining == null) {
+            return false;
+        }
+
+        if (remaining == 1) {
+            this.completedRequests.remove(requestURL);
+        } else {
+            this.completedRequests.put(requestURL, remaining - 1);
+        }
+        return true;
+    }
+
+    /**
+     * Marks a request as completed, must be called by the database writer inside the transaction that stores the article
+     *
+     * @param requestURL requested URL
+     */
+    public void markCompleted(String requestURL) {
+        this.databaseService.executeUpdate(CheckpointConstants.INSERT_CRAWL_CHECKPOINT, List.of(
+                new DatabaseEntry(DatabaseEntryType.LONG, String.valueOf(this.runID)),
+                new DatabaseEntry(DatabaseEntryType.TEXT, requestURL)
+        ));
+    }
+}
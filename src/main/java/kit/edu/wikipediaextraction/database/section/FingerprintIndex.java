@@ -0,0 +1,224 @@
+package kit.edu.wikipediaextraction.database.section;
+
+import kit.edu.wikipediaextraction.database.DatabaseService;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * In-memory index of the fingerprints of all stored sections, built from primitive arrays only.
+ * Entries are chained per bucket through next arrays: by content hash for exact duplicates, by article for removals
+ * and by each of four bands of four MinHashes for near-duplicates. Two sections with at most three differing
+ * MinHashes agree in at least one band, so only the entries of four buckets are compared.
+ * An entry takes about 70 bytes; removed entries keep their slot until the index is reloaded.
+ */
+public class FingerprintIndex {
+    private final static int NUMBER_OF_BANDS = 4;
+    private final static int BAND_BITS = Long.SIZE / NUMBER_OF_BANDS;
+    // at least 13 of 16 equal MinHashes, which estimates that about 80 % of the word pairs are shared
+    public final static int MIN_EQUAL_MIN_HASHES = SectionFingerprint.NUMBER_OF_MIN_HASHES - NUMBER_OF_BANDS + 1;
+    // bounds the lookup time if many sections share a band, e.g. stubs created from the same template
+    private final static int MAX_CANDIDATES_PER_BAND = 1024;
+    private final static int INITIAL_CAPACITY = 1024;
+    private final static int END = -1;
+    private final DatabaseService databaseService;
+    private final String selectQuery;
+    private final int[][] bandHeads;
+    private final int[][] bandNext;
+    private long[] articleKeys;
+    private long[] contentHashes;
+    private long[] minHashes;
+    private int[] contentHeads;
+    private int[] contentNext;
+    private int[] articleHeads;
+    private int[] articleNext;
+    private BitSet removed;
+    private int size;
+
+    /**
+     * @param databaseService database of the fingerprint table
+     * @param selectQuery     query of all (articleKey, contentHash, minHashes) rows in insertion order
+     */
+    public FingerprintIndex(
+            DatabaseService databaseService,
+            String selectQuery
+    ) {
+        this.databaseService = databaseService;
+        this.selectQuery = selectQuery;
+        this.bandHeads = new int[NUMBER_OF_BANDS][1 << BAND_BITS];
+        this.bandNext = new int[NUMBER_OF_BANDS][];
+        this.reload();
+    }
+
+    /**
+     * Gets the key of an article, fingerprints are stored with the key instead of the headline to keep the rows small
+     *
+     * @param articleHeadline headline of the article
+     * @return 64-bit hash of the headline
+     */
+    public static long getArticleKey(String articleHeadline) {
+        long hash = 0;
+        for (int i = 0; i < articleHeadline.length(); i++) {
+            hash = SectionFingerprint.mix(hash ^ articleHeadline.charAt(i));
+        }
+        return hash;
+    }
+
+    /**
+     * Loads all stored fingerprints, e.g. after a failed transaction dropped new rows
+     */
+    public synchronized void reload() {
+        this.clear();
+        this.databaseService.forEachRow(
+                this.selectQuery,
+                List.of(),
+                resultSet -> new long[]{resultSet.getLong(1), resultSet.getLong(2), resultSet.getLong(3)},
+                row -> this.add(row[0], row[1], row[2])
+        );
+    }
+
+    public synchronized void clear() {
+        this.articleKeys = new long[INITIAL_CAPACITY];
+        this.contentHashes = new long[INITIAL_CAPACITY];
+        this.minHashes = new long[INITIAL_CAPACITY];
+        this.contentNext = new int[INITIAL_CAPACITY];
+        this.articleNext = new int[INITIAL_CAPACITY];
+        this.contentHeads = newHeads(2 * INITIAL_CAPACITY);
+        this.articleHeads = newHeads(2 * INITIAL_CAPACITY);
+        for (int band = 0; band < NUMBER_OF_BANDS; band++) {
+            Arrays.fill(this.bandHeads[band], END);
+            this.bandNext[band] = new int[INITIAL_CAPACITY];
+        }
+        this.removed = new BitSet();
+        this.size = 0;
+    }
+
+    /**
+     * Checks whether a section with the same words is indexed
+     *
+     * @param contentHash content hash of the section
+     * @return true if an exact duplicate is indexed
+     */
+    public synchronized boolean containsContent(long contentHash) {
+        for (int entry = this.contentHeads[bucket(contentHash, this.contentHeads)]; entry != END; entry = this.contentNext[entry]) {
+            if (this.contentHashes[entry] == contentHash && !this.removed.get(entry)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a section with at least {@link #MIN_EQUAL_MIN_HASHES} equal MinHashes is indexed.
+     * Only the newest sections of each band bucket are compared.
+     *
+     * @param minHashes MinHashes of the section
+     * @return true if a near-duplicate is indexed
+     */
+    public synchronized boolean containsSimilar(long minHashes) {
+        for (int band = 0; band < NUMBER_OF_BANDS; band++) {
+            int[] next = this.bandNext[band];
+            int candidates = 0;
+            for (int entry = this.bandHeads[band][band(minHashes, band)]; entry != END && candidates++ < MAX_CANDIDATES_PER_BAND; entry = next[entry]) {
+                if (SectionFingerprint.countEqualMinHashes(this.minHashes[entry], minHashes) >= MIN_EQUAL_MIN_HASHES && !this.removed.get(entry)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds the fingerprints of a section
+     *
+     * @param articleKey  key of the article of the section
+     * @param contentHash content hash of the section
+     * @param minHashes   MinHashes of the section
+     */
+    public synchronized void add(long articleKey, long contentHash, long minHashes) {
+        if (this.size == this.articleKeys.length) {
+            this.grow();
+        }
+
+        int entry = this.size++;
+        this.articleKeys[entry] = articleKey;
+        this.contentHashes[entry] = contentHash;
+        this.minHashes[entry] = minHashes;
+        this.linkKeys(entry);
+        for (int band = 0; band < NUMBER_OF_BANDS; band++) {
+            int value = band(minHashes, band);
+            this.bandNext[band][entry] = this.bandHeads[band][value];
+            this.bandHeads[band][value] = entry;
+        }
+    }
+
+    /**
+     * Removes the fingerprints of all sections of an article, e.g. before the article is replaced
+     *
+     * @param articleKey key of the article
+     * @return number of removed fingerprints
+     */
+    public synchronized int removeArticle(long articleKey) {
+        int removedEntries = 0;
+        for (int entry = this.articleHeads[bucket(articleKey, this.articleHeads)]; entry != END; entry = this.articleNext[entry]) {
+            if (this.articleKeys[entry] == articleKey && !this.removed.get(entry)) {
+                this.removed.set(entry);
+                removedEntries++;
+            }
+        }
+        return removedEntries;
+    }
+
+    /**
+     * @return number of indexed fingerprints without the removed ones
+     */
+    public synchronized int size() {
+        return this.size - this.removed.cardinality();
+    }
+
+    private void linkKeys(int entry) {
+        int contentBucket = bucket(this.contentHashes[entry], this.contentHeads);
+        this.contentNext[entry] = this.contentHeads[contentBucket];
+        this.contentHeads[contentBucket] = entry;
+
+        int articleBucket = bucket(this.articleKeys[entry], this.articleHeads);
+        this.articleNext[entry] = this.articleHeads[articleBucket];
+        this.articleHeads[articleBucket] = entry;
+    }
+
+    /**
+     * Doubles the capacity, the band buckets are fixed while the key buckets are rehashed to keep their chains short
+     */
+    private void grow() {
+        int capacity = 2 * this.articleKeys.length;
+        this.articleKeys = Arrays.copyOf(this.articleKeys, capacity);
+        this.contentHashes = Arrays.copyOf(this.contentHashes, capacity);
+        this.minHashes = Arrays.copyOf(this.minHashes, capacity);
+        this.contentNext = Arrays.copyOf(this.contentNext, capacity);
+        this.articleNext = Arrays.copyOf(this.articleNext, capacity);
+        for (int band = 0; band < NUMBER_OF_BANDS; band++) {
+            this.bandNext[band] = Arrays.copyOf(this.bandNext[band], capacity);
+        }
+
+        this.contentHeads = newHeads(2 * capacity);
+        this.articleHeads = newHeads(2 * capacity);
+        for (int entry = 0; entry < this.size; entry++) {
+            this.linkKeys(entry);
+        }
+    }
+
+    private static int[] newHeads(int numberOfBuckets) {
+        int[] heads = new int[numberOfBuckets];
+        Arrays.fill(heads, END);
+        return heads;
+    }
+
+    private static int bucket(long key, int[] heads) {
+        return (int) (key ^ (key >>> 32)) & (heads.length - 1);
+    }
+
+    private static int band(long minHashes, int band) {
+        return (int) (minHashes >>> (band * BAND_BITS)) & ((1 << BAND_BITS) - 1);
+    }
+}
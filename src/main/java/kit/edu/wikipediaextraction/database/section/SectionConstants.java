@@ -4,9 +4,86 @@ public class SectionConstants {
     public final static String TABLE_WIKIPEDIA_SECTIONS = "wikipedia_sections";
     public final static String TABLE_WIKIPEDIA_REFERENCES = "wikipedia_references";
     public final static String TABLE_WIKIPEDIA_CATEGORIES = "wikipedia_categories";
+    public final static String TABLE_WIKIPEDIA_ARTICLES = "wikipedia_articles";
+    public final static String TABLE_WIKIPEDIA_LINK_TARGETS = "wikipedia_link_targets";
+    public final static String TABLE_WIKIPEDIA_CATEGORY_NAMES = "wikipedia_category_names";
+    public final static String TABLE_WIKIPEDIA_SECTION_REFERENCES = "wikipedia_section_references";
+    public final static String TABLE_WIKIPEDIA_ARTICLE_CATEGORIES = "wikipedia_article_categories";
+    public final static String TABLE_WIKIPEDIA_SECTIONS_SEARCH = "wikipedia_sections_search";
+    public final static String TABLE_WIKIPEDIA_SECTION_FINGERPRINTS = "wikipedia_section_fingerprints";
 
     public final static String COLUMNS_WIKIPEDIA_SECTIONS = "sectionID, articleID, articleHeadline, rawArticleText, cleanedArticleText, sectionHeadline, isFirstSection";
-    public final static String COLUMNS_WIKIPEDIA_REFERENCES = "sectionID, referenceText";
-    public final static String COLUMNS_WIKIPEDIA_CATEGORIES = "sectionID, categoryText";
+    public final static String COLUMNS_WIKIPEDIA_ARTICLES = "articleHeadline, articleURL, articleID, revision, eTag, lastModified";
+    public final static String COLUMNS_WIKIPEDIA_LINK_TARGETS = "linkID, referenceText";
+    public final static String COLUMNS_WIKIPEDIA_CATEGORY_NAMES = "categoryID, categoryText";
+    public final static String COLUMNS_WIKIPEDIA_SECTION_REFERENCES = "sectionID, linkID";
+    public final static String COLUMNS_WIKIPEDIA_ARTICLE_CATEGORIES = "articleID, categoryID";
+    public final static String COLUMNS_WIKIPEDIA_SECTION_FINGERPRINTS = "articleKey, contentHash, minHashes";
+
+    public final static String CREATE_TABLE_WIKIPEDIA_SECTIONS = "CREATE TABLE IF NOT EXISTS wikipedia_sections (sectionID TEXT, articleID TEXT, articleHeadline TEXT, rawArticleText TEXT, cleanedArticleText TEXT, sectionHeadline TEXT, isFirstSection BOOLEAN)";
+    public final static String CREATE_TABLE_WIKIPEDIA_ARTICLES = "CREATE TABLE IF NOT EXISTS wikipedia_articles (articleHeadline TEXT PRIMARY KEY, articleURL TEXT, articleID TEXT, revision TEXT, eTag TEXT, lastModified TEXT)";
+    public final static String CREATE_TABLE_WIKIPEDIA_LINK_TARGETS = "CREATE TABLE IF NOT EXISTS wikipedia_link_targets (linkID INTEGER PRIMARY KEY, referenceText TEXT UNIQUE)";
+    public final static String CREATE_TABLE_WIKIPEDIA_CATEGORY_NAMES = "CREATE TABLE IF NOT EXISTS wikipedia_category_names (categoryID INTEGER PRIMARY KEY, categoryText TEXT UNIQUE)";
+    public final static String CREATE_TABLE_WIKIPEDIA_SECTION_REFERENCES = "CREATE TABLE IF NOT EXISTS wikipedia_section_references (sectionID TEXT, linkID INTEGER)";
+    public final static String CREATE_TABLE_WIKIPEDIA_ARTICLE_CATEGORIES = "CREATE TABLE IF NOT EXISTS wikipedia_article_categories (articleID TEXT, categoryID INTEGER)";
+    // fingerprints of the cleaned texts, the article key is a 64-bit hash of the article headline
+    public final static String CREATE_TABLE_WIKIPEDIA_SECTION_FINGERPRINTS = "CREATE TABLE IF NOT EXISTS wikipedia_section_fingerprints (articleKey INTEGER, contentHash INTEGER, minHashes INTEGER)";
+    public final static String CREATE_INDEX_SECTION_FINGERPRINTS_ARTICLE_KEY = "CREATE INDEX IF NOT EXISTS idx_wikipedia_section_fingerprints_articleKey ON wikipedia_section_fingerprints (articleKey)";
+    public final static String CREATE_INDEX_SECTIONS_ARTICLE_HEADLINE = "CREATE INDEX IF NOT EXISTS idx_wikipedia_sections_articleHeadline ON wikipedia_sections (articleHeadline)";
+    public final static String CREATE_INDEX_SECTION_REFERENCES_SECTION_ID = "CREATE INDEX IF NOT EXISTS idx_wikipedia_section_references_sectionID ON wikipedia_section_references (sectionID)";
+    public final static String CREATE_INDEX_ARTICLE_CATEGORIES_ARTICLE_ID = "CREATE INDEX IF NOT EXISTS idx_wikipedia_article_categories_articleID ON wikipedia_article_categories (articleID)";
+    public final static String CREATE_INDEX_SECTIONS_ARTICLE_ID = "CREATE INDEX IF NOT EXISTS idx_wikipedia_sections_articleID ON wikipedia_sections (articleID)";
+    public final static String CREATE_INDEX_SECTIONS_SECTION_ID = "CREATE INDEX IF NOT EXISTS idx_wikipedia_sections_sectionID ON wikipedia_sections (sectionID)";
+    public final static String CREATE_INDEX_SECTION_REFERENCES_LINK_ID = "CREATE INDEX IF NOT EXISTS idx_wikipedia_section_references_linkID ON wikipedia_section_references (linkID)";
+    public final static String CREATE_INDEX_ARTICLE_CATEGORIES_CATEGORY_ID = "CREATE INDEX IF NOT EXISTS idx_wikipedia_article_categories_categoryID ON wikipedia_article_categories (categoryID)";
+
+    // full-text index over the section headlines and cleaned texts, it stores no copy of the texts and is kept in sync by triggers
+    public final static String CREATE_TABLE_WIKIPEDIA_SECTIONS_SEARCH = "CREATE VIRTUAL TABLE IF NOT EXISTS wikipedia_sections_search USING fts5(sectionHeadline, cleanedArticleText, content='wikipedia_sections', content_rowid='rowid', tokenize='unicode61 remove_diacritics 2')";
+    public final static String CREATE_TRIGGER_SECTIONS_SEARCH_INSERT = "CREATE TRIGGER IF NOT EXISTS wikipedia_sections_search_insert AFTER INSERT ON wikipedia_sections BEGIN INSERT INTO wikipedia_sections_search (rowid, sectionHeadline, cleanedArticleText) VALUES (new.rowid, new.sectionHeadline, new.cleanedArticleText); END";
+    public final static String CREATE_TRIGGER_SECTIONS_SEARCH_DELETE = "CREATE TRIGGER IF NOT EXISTS wikipedia_sections_search_delete AFTER DELETE ON wikipedia_sections BEGIN INSERT INTO wikipedia_sections_search (wikipedia_sections_search, rowid, sectionHeadline, cleanedArticleText) VALUES ('delete', old.rowid, old.sectionHeadline, old.cleanedArticleText); END";
+    public final static String CREATE_TRIGGER_SECTIONS_SEARCH_UPDATE = "CREATE TRIGGER IF NOT EXISTS wikipedia_sections_search_update AFTER UPDATE ON wikipedia_sections BEGIN INSERT INTO wikipedia_sections_search (wikipedia_sections_search, rowid, sectionHeadline, cleanedArticleText) VALUES ('delete', old.rowid, old.sectionHeadline, old.cleanedArticleText); INSERT INTO wikipedia_sections_search (rowid, sectionHeadline, cleanedArticleText) VALUES (new.rowid, new.sectionHeadline, new.cleanedArticleText); END";
+    // matches in a section headline weigh twice as much as matches in the text
+    public final static String CONFIGURE_SECTIONS_SEARCH_RANK = "INSERT INTO wikipedia_sections_search (wikipedia_sections_search, rank) VALUES ('rank', 'bm25(2.0, 1.0)')";
+    public final static String REBUILD_SECTIONS_SEARCH = "INSERT INTO wikipedia_sections_search (wikipedia_sections_search) VALUES ('rebuild')";
+
+    // views with the layout of the former per-section tables, so that existing queries keep working
+    public final static String CREATE_VIEW_WIKIPEDIA_REFERENCES = "CREATE VIEW IF NOT EXISTS wikipedia_references AS SELECT r.sectionID AS sectionID, l.referenceText AS referenceText FROM wikipedia_section_references r JOIN wikipedia_link_targets l ON l.linkID = r.linkID";
+    public final static String CREATE_VIEW_WIKIPEDIA_CATEGORIES = "CREATE VIEW IF NOT EXISTS wikipedia_categories AS SELECT s.sectionID AS sectionID, c.categoryText AS categoryText FROM wikipedia_sections s JOIN wikipedia_article_categories a ON a.articleID = s.articleID JOIN wikipedia_category_names c ON c.categoryID = a.categoryID";
+
+    public final static String SELECT_TABLE_EXISTS = "SELECT COUNT(*) FROM sqlite_master WHERE type = 'table' AND name = ?";
+    public final static String SELECT_WIKIPEDIA_LINK_TARGETS = "SELECT linkID, referenceText FROM wikipedia_link_targets";
+    public final static String SELECT_WIKIPEDIA_CATEGORY_NAMES = "SELECT categoryID, categoryText FROM wikipedia_category_names";
+    public final static String SELECT_WIKIPEDIA_SECTION_FINGERPRINTS = "SELECT articleKey, contentHash, minHashes FROM wikipedia_section_fingerprints ORDER BY rowid";
+    public final static String SELECT_SECTION_TEXTS = "SELECT articleHeadline, cleanedArticleText FROM wikipedia_sections ORDER BY rowid";
+    public final static String MIGRATE_LINK_TARGETS = "INSERT OR IGNORE INTO wikipedia_link_targets (referenceText) SELECT DISTINCT referenceText FROM wikipedia_references";
+    public final static String MIGRATE_SECTION_REFERENCES = "INSERT INTO wikipedia_section_references (sectionID, linkID) SELECT r.sectionID, l.linkID FROM wikipedia_references r JOIN wikipedia_link_targets l ON l.referenceText = r.referenceText";
+    public final static String MIGRATE_CATEGORY_NAMES = "INSERT OR IGNORE INTO wikipedia_category_names (categoryText) SELECT DISTINCT categoryText FROM wikipedia_categories";
+    public final static String MIGRATE_ARTICLE_CATEGORIES = "INSERT INTO wikipedia_article_categories (articleID, categoryID) SELECT DISTINCT s.articleID, n.categoryID FROM wikipedia_categories c JOIN wikipedia_sections s ON s.sectionID = c.sectionID JOIN wikipedia_category_names n ON n.categoryText = c.categoryText";
+    public final static String DROP_TABLE_WIKIPEDIA_REFERENCES = "DROP TABLE wikipedia_references";
+    public final static String DROP_TABLE_WIKIPEDIA_CATEGORIES = "DROP TABLE wikipedia_categories";
+
+    // sections are returned in insertion order, the rowid is the cursor of the keyset pagination
+    public final static String SELECT_SECTIONS_PAGE = "SELECT rowid, sectionID, articleID, articleHeadline, rawArticleText, cleanedArticleText, sectionHeadline, isFirstSection FROM wikipedia_sections WHERE rowid > ? ORDER BY rowid LIMIT ?";
+    public final static String SELECT_SECTION_BY_SECTION_ID = "SELECT rowid, sectionID, articleID, articleHeadline, rawArticleText, cleanedArticleText, sectionHeadline, isFirstSection FROM wikipedia_sections WHERE sectionID = ?";
+    public final static String SELECT_SECTIONS_BY_ARTICLE_ID = "SELECT rowid, sectionID, articleID, articleHeadline, rawArticleText, cleanedArticleText, sectionHeadline, isFirstSection FROM wikipedia_sections WHERE articleID = ? ORDER BY rowid";
+    public final static String SELECT_SECTIONS_BY_ARTICLE_HEADLINE = "SELECT rowid, sectionID, articleID, articleHeadline, rawArticleText, cleanedArticleText, sectionHeadline, isFirstSection FROM wikipedia_sections WHERE articleHeadline = ? ORDER BY rowid";
+    public final static String SELECT_SECTIONS_BY_CATEGORY = "SELECT s.rowid, s.sectionID, s.articleID, s.articleHeadline, s.rawArticleText, s.cleanedArticleText, s.sectionHeadline, s.isFirstSection FROM wikipedia_category_names c JOIN wikipedia_article_categories a ON a.categoryID = c.categoryID JOIN wikipedia_sections s ON s.articleID = a.articleID WHERE c.categoryText = ? AND s.rowid > ? ORDER BY s.rowid LIMIT ?";
+    public final static String SELECT_SECTIONS_BY_REFERENCE = "SELECT s.rowid, s.sectionID, s.articleID, s.articleHeadline, s.rawArticleText, s.cleanedArticleText, s.sectionHeadline, s.isFirstSection FROM wikipedia_link_targets l JOIN wikipedia_section_references r ON r.linkID = l.linkID JOIN wikipedia_sections s ON s.sectionID = r.sectionID WHERE l.referenceText = ? AND s.rowid > ? ORDER BY s.rowid LIMIT ?";
+    // ORDER BY rank lets FTS5 sort the matches itself, so snippets are only built for the returned rows
+    public final static String SELECT_SECTIONS_SEARCH = "SELECT s.rowid, s.sectionID, s.articleID, s.articleHeadline, s.rawArticleText, s.cleanedArticleText, s.sectionHeadline, s.isFirstSection, m.snippet, m.rank FROM (SELECT rowid, snippet(wikipedia_sections_search, 1, '<b>', '</b>', '...', 16) AS snippet, rank FROM wikipedia_sections_search WHERE wikipedia_sections_search MATCH ? ORDER BY rank LIMIT ?) m JOIN wikipedia_sections s ON s.rowid = m.rowid ORDER BY m.rank";
+    // completed with one placeholder per section or article
+    public final static String SELECT_REFERENCES_OF_SECTIONS = "SELECT r.sectionID, l.referenceText FROM wikipedia_section_references r JOIN wikipedia_link_targets l ON l.linkID = r.linkID WHERE r.sectionID IN (%s) ORDER BY r.rowid";
+    public final static String SELECT_CATEGORIES_OF_ARTICLES = "SELECT a.articleID, c.categoryText FROM wikipedia_article_categories a JOIN wikipedia_category_names c ON c.categoryID = a.categoryID WHERE a.articleID IN (%s) ORDER BY a.rowid";
+
+    public final static String SELECT_EXPORT_SECTIONS = "SELECT sectionID, articleID, articleHeadline, rawArticleText, cleanedArticleText, sectionHeadline, isFirstSection FROM wikipedia_sections ORDER BY rowid";
+    public final static String SELECT_EXPORT_REFERENCES = "SELECT r.sectionID, l.referenceText FROM wikipedia_section_references r JOIN wikipedia_link_targets l ON l.linkID = r.linkID";
+    public final static String SELECT_EXPORT_CATEGORIES = "SELECT a.articleID, c.categoryText FROM wikipedia_article_categories a JOIN wikipedia_category_names c ON c.categoryID = a.categoryID";
+
+    public final static String SELECT_WIKIPEDIA_ARTICLES = "SELECT articleHeadline, articleURL, articleID, revision, eTag, lastModified FROM wikipedia_articles";
+    public final static String UPSERT_WIKIPEDIA_ARTICLE = "INSERT OR REPLACE INTO wikipedia_articles (articleHeadline, articleURL, articleID, revision, eTag, lastModified) VALUES (?, ?, ?, ?, ?, ?)";
+    public final static String DELETE_ARTICLE_REFERENCES = "DELETE FROM wikipedia_section_references WHERE sectionID IN (SELECT sectionID FROM wikipedia_sections WHERE articleHeadline = ?)";
+    public final static String DELETE_ARTICLE_CATEGORIES = "DELETE FROM wikipedia_article_categories WHERE articleID IN (SELECT articleID FROM wikipedia_sections WHERE articleHeadline = ?)";
+    public final static String DELETE_ARTICLE_SECTIONS = "DELETE FROM wikipedia_sections WHERE articleHeadline = ?";
+    public final static String DELETE_ARTICLE_FINGERPRINTS = "DELETE FROM wikipedia_section_fingerprints WHERE articleKey = ?";
 
 }
@@ -0,0 +1,114 @@
+package kit.edu.wikipediaextraction.database.section;
+
+import java.util.Arrays;
+
+/**
+ * Fingerprints of the cleaned text of a section. Texts are compared by their lower case words,
+ * so that differences in punctuation and whitespace are ignored.
+ *
+ * @param contentHash   hash of the words, equal for exact duplicates
+ * @param minHashes     16 MinHashes of the set of word pairs, 4 bits each, mostly equal for near-duplicates
+ * @param numberOfWords number of words of the text
+ */
+public record SectionFingerprint(
+        long contentHash,
+        long minHashes,
+        int numberOfWords
+) {
+    public final static int NUMBER_OF_MIN_HASHES = 16;
+    public final static int MIN_HASH_BITS = Long.SIZE / NUMBER_OF_MIN_HASHES;
+    private final static long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private final static long FNV_PRIME = 0x100000001b3L;
+    private final static long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private final static long LOWEST_MIN_HASH_BITS = 0x1111111111111111L;
+
+    /**
+     * Computes the fingerprints of a text in a single pass without creating strings for the words
+     *
+     * @param text cleaned text of a section
+     * @return fingerprints of the text
+     */
+    public static SectionFingerprint of(String text) {
+        long[] minimums = new long[NUMBER_OF_MIN_HASHES];
+        Arrays.fill(minimums, Long.MAX_VALUE);
+        long contentHash = FNV_OFFSET_BASIS;
+        long previousWordHash = 0;
+        int numberOfWords = 0;
+        int length = text == null ? 0 : text.length();
+        int i = 0;
+
+        while (i < length) {
+            int codePoint = text.codePointAt(i);
+            if (!Character.isLetterOrDigit(codePoint)) {
+                i += Character.charCount(codePoint);
+                continue;
+            }
+
+            long wordHash = FNV_OFFSET_BASIS;
+            while (i < length && Character.isLetterOrDigit(codePoint = text.codePointAt(i))) {
+                wordHash = (wordHash ^ Character.toLowerCase(codePoint)) * FNV_PRIME;
+                i += Character.charCount(codePoint);
+            }
+            numberOfWords++;
+            contentHash = mix(contentHash ^ wordHash);
+            // shingles of two words keep frequent words such as "the" from dominating the MinHashes
+            if (numberOfWords > 1) {
+                addShingle(minimums, mix(previousWordHash) ^ wordHash);
+            }
+            previousWordHash = wordHash;
+        }
+        // a single word is its own shingle
+        if (numberOfWords == 1) {
+            addShingle(minimums, previousWordHash);
+        }
+
+        // only the lowest bits of each minimum are kept, equal minimums still give equal bits
+        long minHashes = 0;
+        if (numberOfWords > 0) {
+            for (int minHash = 0; minHash < NUMBER_OF_MIN_HASHES; minHash++) {
+                minHashes |= (minimums[minHash] & ((1L << MIN_HASH_BITS) - 1)) << (minHash * MIN_HASH_BITS);
+            }
+        }
+        return new SectionFingerprint(contentHash, minHashes, numberOfWords);
+    }
+
+    /**
+     * Every MinHash orders the shingles by a different hash function and keeps the minimum
+     *
+     * @param minimums    minimum of each hash function
+     * @param shingleHash hash of the shingle
+     */
+    private static void addShingle(long[] minimums, long shingleHash) {
+        for (int minHash = 0; minHash < NUMBER_OF_MIN_HASHES; minHash++) {
+            minimums[minHash] = Math.min(minimums[minHash], mix(shingleHash + minHash * GOLDEN_GAMMA));
+        }
+    }
+
+    /**
+     * Counts the equal MinHashes of two signatures. The share of equal MinHashes estimates the share of
+     * common word pairs, plus 1/16 for MinHashes that are equal by chance.
+     *
+     * @param minHashes      MinHashes of a section
+     * @param otherMinHashes MinHashes of another section
+     * @return number of equal MinHashes
+     */
+    public static int countEqualMinHashes(long minHashes, long otherMinHashes) {
+        long difference = minHashes ^ otherMinHashes;
+        difference |= difference >>> 1;
+        difference |= difference >>> 2;
+        return NUMBER_OF_MIN_HASHES - Long.bitCount(difference & LOWEST_MIN_HASH_BITS);
+    }
+
+    /**
+     * Finalizer of MurmurHash3, spreads every input bit over all output bits
+     */
+    static long mix(long hash) {
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    public boolean isEmpty() {
+        return this.numberOfWords == 0;
+    }
+}
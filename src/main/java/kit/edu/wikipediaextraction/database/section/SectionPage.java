@@ -0,0 +1,20 @@
+package kit.edu.wikipediaextraction.database.section;
+
+import kit.edu.wikipediaextraction.model.WikipediaSection;
+
+import java.util.List;
+
+/**
+ * Page of stored sections, e.g. of all sections or of the sections of a category
+ *
+ * @param sections   sections of the page in insertion order
+ * @param nextCursor cursor of the next page, equal to the requested cursor if the page is empty
+ */
+public record SectionPage(
+        List<WikipediaSection> sections,
+        long nextCursor
+) {
+    public boolean isEmpty() {
+        return this.sections.isEmpty();
+    }
+}
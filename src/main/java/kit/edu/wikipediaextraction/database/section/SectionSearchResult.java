@@ -0,0 +1,17 @@
+package kit.edu.wikipediaextraction.database.section;
+
+import kit.edu.wikipediaextraction.model.WikipediaSection;
+
+/**
+ * Section found by the full-text search
+ *
+ * @param section section that matches the query
+ * @param snippet part of the cleaned text around the matches, matched terms are enclosed in &lt;b&gt; tags
+ * @param score   BM25 score of the section, higher is more relevant
+ */
+public record SectionSearchResult(
+        WikipediaSection section,
+        String snippet,
+        double score
+) {
+}
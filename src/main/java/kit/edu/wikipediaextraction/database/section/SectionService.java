@@ -1,21 +1,210 @@
 package kit.edu.wikipediaextraction.database.section;
 
+import kit.edu.wikipediaextraction.ApplicationPropertiesResolver;
 import kit.edu.wikipediaextraction.database.DatabaseEntry;
 import kit.edu.wikipediaextraction.database.DatabaseEntryType;
 import kit.edu.wikipediaextraction.database.DatabaseService;
+import kit.edu.wikipediaextraction.model.ArticleRevision;
 import kit.edu.wikipediaextraction.model.WikipediaSection;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Service
 public class SectionService {
+    private final static int MAX_PAGE_SIZE = 10_000;
+    private final static int STREAM_PAGE_SIZE = 1000;
+    // stays below the default limit of host parameters of older SQLite versions
+    private final static int MAX_PARAMETERS_PER_QUERY = 900;
+    // shorter texts have too few shingles for a meaningful MinHash and are only checked for exact duplicates
+    private final static int MIN_NEAR_DUPLICATE_WORDS = 10;
+    private final static int FINGERPRINT_BATCH_SIZE = 10_000;
     private final DatabaseService databaseService;
+    private final boolean deduplicateSections;
     private final Set<String> sectionTitleSet;
+    private final Map<String, ArticleRevision> articleRevisionsByHeadline;
+    private final Map<String, ArticleRevision> articleRevisionsByURL;
+    private final TextDictionary linkTargets;
+    private final TextDictionary categoryNames;
+    private final FingerprintIndex fingerprintIndex;
+    private final LongAdder exactDuplicates;
+    private final LongAdder nearDuplicates;
+
+    @Autowired
+    public SectionService(
+            DatabaseService databaseService,
+            ApplicationPropertiesResolver applicationPropertiesResolver
+    ) {
+        this(databaseService, applicationPropertiesResolver.isDatabaseDeduplicateSections());
+    }
 
+    /**
+     * Creates a service that stores all sections, including duplicates
+     *
+     * @param databaseService database of the sections
+     */
     public SectionService(DatabaseService databaseService) {
+        this(databaseService, false);
+    }
+
+    /**
+     * @param databaseService     database of the sections
+     * @param deduplicateSections if true, sections whose cleaned text is an exact or near duplicate of a stored section are dropped
+     */
+    public SectionService(
+            DatabaseService databaseService,
+            boolean deduplicateSections
+    ) {
         this.databaseService = databaseService;
-        this.sectionTitleSet = new HashSet<>();
+        this.deduplicateSections = deduplicateSections;
+        this.sectionTitleSet = ConcurrentHashMap.newKeySet();
+        this.articleRevisionsByHeadline = new ConcurrentHashMap<>();
+        this.articleRevisionsByURL = new ConcurrentHashMap<>();
+        this.createTables();
+        this.loadArticleRevisions();
+        this.linkTargets = new TextDictionary(databaseService, SectionConstants.SELECT_WIKIPEDIA_LINK_TARGETS);
+        this.categoryNames = new TextDictionary(databaseService, SectionConstants.SELECT_WIKIPEDIA_CATEGORY_NAMES);
+        this.fingerprintIndex = new FingerprintIndex(databaseService, SectionConstants.SELECT_WIKIPEDIA_SECTION_FINGERPRINTS);
+        this.exactDuplicates = new LongAdder();
+        this.nearDuplicates = new LongAdder();
+    }
+
+    /**
+     * Creates all tables that do not exist yet and migrates the former per-section
+     * reference and category tables to the normalized tables
+     */
+    public void createTables() {
+        boolean hasSearchIndex = this.tableExists(SectionConstants.TABLE_WIKIPEDIA_SECTIONS_SEARCH);
+        boolean hasFingerprints = this.tableExists(SectionConstants.TABLE_WIKIPEDIA_SECTION_FINGERPRINTS);
+        this.databaseService.execute(SectionConstants.CREATE_TABLE_WIKIPEDIA_SECTIONS);
+        this.databaseService.execute(SectionConstants.CREATE_TABLE_WIKIPEDIA_ARTICLES);
+        this.databaseService.execute(SectionConstants.CREATE_TABLE_WIKIPEDIA_LINK_TARGETS);
+        this.databaseService.execute(SectionConstants.CREATE_TABLE_WIKIPEDIA_CATEGORY_NAMES);
+        this.databaseService.execute(SectionConstants.CREATE_TABLE_WIKIPEDIA_SECTION_REFERENCES);
+        this.databaseService.execute(SectionConstants.CREATE_TABLE_WIKIPEDIA_ARTICLE_CATEGORIES);
+        this.databaseService.execute(SectionConstants.CREATE_INDEX_SECTIONS_ARTICLE_HEADLINE);
+        this.databaseService.execute(SectionConstants.CREATE_INDEX_SECTION_REFERENCES_SECTION_ID);
+        this.databaseService.execute(SectionConstants.CREATE_INDEX_ARTICLE_CATEGORIES_ARTICLE_ID);
+        this.databaseService.execute(SectionConstants.CREATE_INDEX_SECTIONS_ARTICLE_ID);
+        this.databaseService.execute(SectionConstants.CREATE_INDEX_SECTIONS_SECTION_ID);
+        this.databaseService.execute(SectionConstants.CREATE_INDEX_SECTION_REFERENCES_LINK_ID);
+        this.databaseService.execute(SectionConstants.CREATE_INDEX_ARTICLE_CATEGORIES_CATEGORY_ID);
+        this.migrateDenormalizedTables();
+        this.databaseService.execute(SectionConstants.CREATE_VIEW_WIKIPEDIA_REFERENCES);
+        this.databaseService.execute(SectionConstants.CREATE_VIEW_WIKIPEDIA_CATEGORIES);
+        this.databaseService.execute(SectionConstants.CREATE_TABLE_WIKIPEDIA_SECTIONS_SEARCH);
+        this.databaseService.execute(SectionConstants.CREATE_TRIGGER_SECTIONS_SEARCH_INSERT);
+        this.databaseService.execute(SectionConstants.CREATE_TRIGGER_SECTIONS_SEARCH_DELETE);
+        this.databaseService.execute(SectionConstants.CREATE_TRIGGER_SECTIONS_SEARCH_UPDATE);
+        if (!hasSearchIndex) {
+            this.createSearchIndex();
+        }
+        this.databaseService.execute(SectionConstants.CREATE_TABLE_WIKIPEDIA_SECTION_FINGERPRINTS);
+        this.databaseService.execute(SectionConstants.CREATE_INDEX_SECTION_FINGERPRINTS_ARTICLE_KEY);
+        if (!hasFingerprints) {
+            this.fingerprintStoredSections();
+        }
+    }
+
+    /**
+     * Configures the ranking of the new full-text index and indexes the sections that were stored before it existed.
+     * Afterwards, the triggers on the sections table keep the index up to date.
+     */
+    private void createSearchIndex() {
+        this.databaseService.runInTransaction(() -> {
+            this.databaseService.execute(SectionConstants.CONFIGURE_SECTIONS_SEARCH_RANK);
+            this.databaseService.execute(SectionConstants.REBUILD_SECTIONS_SEARCH);
+        });
+    }
+
+    /**
+     * Moves the rows of the former wikipedia_references and wikipedia_categories tables
+     * into the dictionary and link tables and drops them, their names are reused by views
+     */
+    private void migrateDenormalizedTables() {
+        boolean hasReferences = this.tableExists(SectionConstants.TABLE_WIKIPEDIA_REFERENCES);
+        boolean hasCategories = this.tableExists(SectionConstants.TABLE_WIKIPEDIA_CATEGORIES);
+        if (!hasReferences && !hasCategories) {
+            return;
+        }
+
+        this.databaseService.runInTransaction(() -> {
+            if (hasReferences) {
+                this.databaseService.execute(SectionConstants.MIGRATE_LINK_TARGETS);
+                this.databaseService.execute(SectionConstants.MIGRATE_SECTION_REFERENCES);
+                this.databaseService.execute(SectionConstants.DROP_TABLE_WIKIPEDIA_REFERENCES);
+            }
+            if (hasCategories) {
+                this.databaseService.execute(SectionConstants.MIGRATE_CATEGORY_NAMES);
+                this.databaseService.execute(SectionConstants.MIGRATE_ARTICLE_CATEGORIES);
+                this.databaseService.execute(SectionConstants.DROP_TABLE_WIKIPEDIA_CATEGORIES);
+            }
+        });
+    }
+
+    /**
+     * Fingerprints the sections that were stored before the fingerprint table existed, duplicates among them are kept
+     */
+    private void fingerprintStoredSections() {
+        this.databaseService.runInTransaction(() -> {
+            List<List<DatabaseEntry>> fingerprintRows = new ArrayList<>();
+            this.databaseService.forEachRow(
+                    SectionConstants.SELECT_SECTION_TEXTS,
+                    List.of(),
+                    resultSet -> Map.entry(resultSet.getString(1), SectionFingerprint.of(resultSet.getString(2))),
+                    entry -> {
+                        if (!entry.getValue().isEmpty()) {
+                            fingerprintRows.add(getFingerprintEntries(FingerprintIndex.getArticleKey(entry.getKey()), entry.getValue()));
+                        }
+                        if (fingerprintRows.size() == FINGERPRINT_BATCH_SIZE) {
+                            this.databaseService.insertBatch(SectionConstants.TABLE_WIKIPEDIA_SECTION_FINGERPRINTS, SectionConstants.COLUMNS_WIKIPEDIA_SECTION_FINGERPRINTS, fingerprintRows);
+                            fingerprintRows.clear();
+                        }
+                    }
+            );
+            this.databaseService.insertBatch(SectionConstants.TABLE_WIKIPEDIA_SECTION_FINGERPRINTS, SectionConstants.COLUMNS_WIKIPEDIA_SECTION_FINGERPRINTS, fingerprintRows);
+        });
+    }
+
+    private boolean tableExists(String tableName) {
+        List<Long> count = this.databaseService.query(
+                SectionConstants.SELECT_TABLE_EXISTS,
+                List.of(new DatabaseEntry(DatabaseEntryType.TEXT, tableName)),
+                resultSet -> resultSet.getLong(1)
+        );
+        return !count.isEmpty() && count.get(0) > 0;
+    }
+
+    /**
+     * Loads the stored article revisions, they are kept in memory so that
+     * all pipeline stages can look them up without accessing the database
+     */
+    private void loadArticleRevisions() {
+        List<ArticleRevision> articleRevisions = this.databaseService.query(
+                SectionConstants.SELECT_WIKIPEDIA_ARTICLES,
+                List.of(),
+                resultSet -> new ArticleRevision(
+                        resultSet.getString(1),
+                        resultSet.getString(2),
+                        resultSet.getString(3),
+                        resultSet.getString(4),
+                        resultSet.getString(5),
+                        resultSet.getString(6)
+                )
+        );
+
+        for (ArticleRevision articleRevision : articleRevisions) {
+            this.cacheArticleRevision(articleRevision);
+        }
     }
 
     /**
@@ -23,8 +212,425 @@ public class SectionService {
      */
     public void clearTables() {
         this.databaseService.clearTable(SectionConstants.TABLE_WIKIPEDIA_SECTIONS);
-        this.databaseService.clearTable(SectionConstants.TABLE_WIKIPEDIA_REFERENCES);
-        this.databaseService.clearTable(SectionConstants.TABLE_WIKIPEDIA_CATEGORIES);
+        this.databaseService.clearTable(SectionConstants.TABLE_WIKIPEDIA_SECTION_REFERENCES);
+        this.databaseService.clearTable(SectionConstants.TABLE_WIKIPEDIA_ARTICLE_CATEGORIES);
+        this.databaseService.clearTable(SectionConstants.TABLE_WIKIPEDIA_LINK_TARGETS);
+        this.databaseService.clearTable(SectionConstants.TABLE_WIKIPEDIA_CATEGORY_NAMES);
+        this.databaseService.clearTable(SectionConstants.TABLE_WIKIPEDIA_ARTICLES);
+        this.databaseService.clearTable(SectionConstants.TABLE_WIKIPEDIA_SECTION_FINGERPRINTS);
+        this.articleRevisionsByHeadline.clear();
+        this.articleRevisionsByURL.clear();
+        this.linkTargets.clear();
+        this.categoryNames.clear();
+        this.fingerprintIndex.clear();
+    }
+
+    /**
+     * Treats the stored articles like articles stored in this run, so that a resumed run
+     * does not insert the sections of an article again if it is requested twice
+     */
+    public void addStoredArticleHeadlines() {
+        this.sectionTitleSet.addAll(this.articleRevisionsByHeadline.keySet());
+    }
+
+    /**
+     * @return number of sections dropped because their cleaned text equals the text of a stored section
+     */
+    public long getExactDuplicates() {
+        return this.exactDuplicates.sum();
+    }
+
+    /**
+     * @return number of sections dropped because their cleaned text is nearly equal to the text of a stored section
+     */
+    public long getNearDuplicates() {
+        return this.nearDuplicates.sum();
+    }
+
+    /**
+     * Gets the stored revision of the article with the URL
+     *
+     * @param articleURL URL of the article
+     * @return stored revision or null if the article is unknown
+     */
+    public ArticleRevision getArticleRevisionByURL(String articleURL) {
+        return this.articleRevisionsByURL.get(articleURL);
+    }
+
+    /**
+     * Gets the stored revision of the article with the headline
+     *
+     * @param articleHeadline headline of the article
+     * @return stored revision or null if the article is unknown
+     */
+    public ArticleRevision getArticleRevision(String articleHeadline) {
+        return this.articleRevisionsByHeadline.get(articleHeadline);
+    }
+
+    /**
+     * Checks whether the revision of the article is already stored
+     *
+     * @param articleHeadline headline of the article
+     * @param revision        revision ID or content hash of the article
+     * @return true if the stored sections are up to date
+     */
+    public boolean isArticleUnchanged(String articleHeadline, String revision) {
+        ArticleRevision articleRevision = this.articleRevisionsByHeadline.get(articleHeadline);
+        return articleRevision != null && articleRevision.revision().equals(revision);
+    }
+
+    /**
+     * Gets a page of the stored sections in insertion order. The first page starts at cursor 0,
+     * each further page at the next cursor of the previous page.
+     *
+     * @param cursor position after the last section of the previous page
+     * @param limit  maximum number of sections of the page
+     * @return page of sections
+     */
+    public SectionPage getSections(long cursor, int limit) {
+        return this.findSectionPage(SectionConstants.SELECT_SECTIONS_PAGE, List.of(), cursor, limit);
+    }
+
+    /**
+     * Streams all stored sections in insertion order. The sections are read page by page
+     * while the stream is consumed, so the stream does not keep the database busy between pages.
+     *
+     * @return stream of the stored sections
+     */
+    public Stream<WikipediaSection> streamSections() {
+        Spliterator<WikipediaSection> spliterator = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            private Iterator<WikipediaSection> page = Collections.emptyIterator();
+            private long cursor;
+            private boolean lastPage;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super WikipediaSection> action) {
+                if (!this.page.hasNext() && !this.lastPage) {
+                    SectionPage sectionPage = getSections(this.cursor, STREAM_PAGE_SIZE);
+                    this.page = sectionPage.sections().iterator();
+                    this.cursor = sectionPage.nextCursor();
+                    this.lastPage = sectionPage.sections().size() < STREAM_PAGE_SIZE;
+                }
+                if (!this.page.hasNext()) {
+                    return false;
+                }
+                action.accept(this.page.next());
+                return true;
+            }
+        };
+        return StreamSupport.stream(spliterator, false);
+    }
+
+    /**
+     * Gets a stored section
+     *
+     * @param sectionID ID of the section
+     * @return section or null if the section is unknown
+     */
+    public WikipediaSection getSection(String sectionID) {
+        List<WikipediaSection> sections = this.findSections(SectionConstants.SELECT_SECTION_BY_SECTION_ID, sectionID);
+        return sections.isEmpty() ? null : sections.get(0);
+    }
+
+    public List<WikipediaSection> getSectionsByArticleID(String articleID) {
+        return this.findSections(SectionConstants.SELECT_SECTIONS_BY_ARTICLE_ID, articleID);
+    }
+
+    public List<WikipediaSection> getSectionsByArticleHeadline(String articleHeadline) {
+        return this.findSections(SectionConstants.SELECT_SECTIONS_BY_ARTICLE_HEADLINE, articleHeadline);
+    }
+
+    /**
+     * Gets a page of the sections of the articles in the category, paged like {@link #getSections}
+     *
+     * @param category category text
+     * @param cursor   position after the last section of the previous page
+     * @param limit    maximum number of sections of the page
+     * @return page of sections in insertion order
+     */
+    public SectionPage getSectionsByCategory(String category, long cursor, int limit) {
+        return this.findSectionPage(SectionConstants.SELECT_SECTIONS_BY_CATEGORY, List.of(new DatabaseEntry(DatabaseEntryType.TEXT, category)), cursor, limit);
+    }
+
+    /**
+     * Gets a page of the sections that link to the reference, paged like {@link #getSections}
+     *
+     * @param reference reference text, e.g. /wiki/Physics
+     * @param cursor    position after the last section of the previous page
+     * @param limit     maximum number of sections of the page
+     * @return page of sections in insertion order
+     */
+    public SectionPage getSectionsByReference(String reference, long cursor, int limit) {
+        return this.findSectionPage(SectionConstants.SELECT_SECTIONS_BY_REFERENCE, List.of(new DatabaseEntry(DatabaseEntryType.TEXT, reference)), cursor, limit);
+    }
+
+    /**
+     * Searches the section headlines and cleaned texts with the full-text index
+     *
+     * @param query FTS5 query, e.g. physics AND "quantum mechanics" or electr*
+     * @param limit maximum number of results
+     * @return matching sections, the most relevant first, none if the backend has no full-text index
+     */
+    public List<SectionSearchResult> searchSections(String query, int limit) {
+        if (!this.databaseService.supportsFullTextSearch()) {
+            System.out.println("The full-text search requires the SQLite backend");
+            return List.of();
+        }
+
+        List<String> snippets = new ArrayList<>();
+        List<Double> scores = new ArrayList<>();
+        List<StoredSection> storedSections = this.databaseService.query(
+                SectionConstants.SELECT_SECTIONS_SEARCH,
+                List.of(
+                        new DatabaseEntry(DatabaseEntryType.TEXT, query),
+                        new DatabaseEntry(DatabaseEntryType.INT, String.valueOf(Math.min(Math.max(1, limit), MAX_PAGE_SIZE)))
+                ),
+                resultSet -> {
+                    snippets.add(resultSet.getString(9));
+                    // FTS5 ranks better matches with lower, negative values
+                    scores.add(-resultSet.getDouble(10));
+                    return mapStoredSection(resultSet);
+                }
+        );
+
+        List<WikipediaSection> sections = this.toWikipediaSections(storedSections);
+        List<SectionSearchResult> results = new ArrayList<>(sections.size());
+        for (int i = 0; i < sections.size(); i++) {
+            results.add(new SectionSearchResult(sections.get(i), snippets.get(i), scores.get(i)));
+        }
+        return results;
+    }
+
+    /**
+     * @param query  query whose last two parameters are the cursor and the limit
+     * @param values values of the other parameters
+     */
+    private SectionPage findSectionPage(
+            String query,
+            List<DatabaseEntry> values,
+            long cursor,
+            int limit
+    ) {
+        List<DatabaseEntry> entries = new ArrayList<>(values);
+        entries.add(new DatabaseEntry(DatabaseEntryType.LONG, String.valueOf(cursor)));
+        entries.add(new DatabaseEntry(DatabaseEntryType.INT, String.valueOf(Math.min(Math.max(1, limit), MAX_PAGE_SIZE))));
+        List<StoredSection> storedSections = this.databaseService.query(query, entries, SectionService::mapStoredSection);
+
+        long nextCursor = storedSections.isEmpty() ? cursor : storedSections.get(storedSections.size() - 1).rowID();
+        return new SectionPage(this.toWikipediaSections(storedSections), nextCursor);
+    }
+
+    private List<WikipediaSection> findSections(String query, String value) {
+        List<StoredSection> storedSections = this.databaseService.query(
+                query,
+                List.of(new DatabaseEntry(DatabaseEntryType.TEXT, value)),
+                SectionService::mapStoredSection
+        );
+        return this.toWikipediaSections(storedSections);
+    }
+
+    private static StoredSection mapStoredSection(ResultSet resultSet) throws SQLException {
+        return new StoredSection(
+                resultSet.getLong(1),
+                resultSet.getString(2),
+                resultSet.getString(3),
+                resultSet.getString(4),
+                resultSet.getString(5),
+                resultSet.getString(6),
+                resultSet.getString(7),
+                resultSet.getBoolean(8)
+        );
+    }
+
+    /**
+     * Completes the stored sections with their references and the categories of their articles
+     *
+     * @param storedSections rows of the sections table
+     * @return sections in the same order
+     */
+    private List<WikipediaSection> toWikipediaSections(List<StoredSection> storedSections) {
+        Map<String, List<String>> referencesBySection = this.groupByKey(
+                SectionConstants.SELECT_REFERENCES_OF_SECTIONS,
+                storedSections.stream().map(StoredSection::sectionID).distinct().toList()
+        );
+        Map<String, List<String>> categoriesByArticle = this.groupByKey(
+                SectionConstants.SELECT_CATEGORIES_OF_ARTICLES,
+                storedSections.stream().map(StoredSection::articleID).distinct().toList()
+        );
+
+        List<WikipediaSection> sections = new ArrayList<>(storedSections.size());
+        for (StoredSection storedSection : storedSections) {
+            sections.add(new WikipediaSection(
+                    storedSection.articleID(),
+                    storedSection.articleHeadline(),
+                    storedSection.sectionID(),
+                    storedSection.rawArticleText(),
+                    storedSection.cleanedArticleText(),
+                    storedSection.sectionHeadline(),
+                    storedSection.isFirstSection(),
+                    referencesBySection.getOrDefault(storedSection.sectionID(), List.of()),
+                    categoriesByArticle.getOrDefault(storedSection.articleID(), List.of())
+            ));
+        }
+        return sections;
+    }
+
+    /**
+     * Runs a query with a (key, value) result for all keys and groups the values by key
+     *
+     * @param query query with a placeholder for the list of keys
+     * @param keys  keys to look up
+     * @return values of each key in result order
+     */
+    private Map<String, List<String>> groupByKey(String query, List<String> keys) {
+        Map<String, List<String>> valuesByKey = new HashMap<>();
+        for (int start = 0; start < keys.size(); start += MAX_PARAMETERS_PER_QUERY) {
+            List<String> chunk = keys.subList(start, Math.min(start + MAX_PARAMETERS_PER_QUERY, keys.size()));
+            List<DatabaseEntry> parameters = new ArrayList<>(chunk.size());
+            for (String key : chunk) {
+                parameters.add(new DatabaseEntry(DatabaseEntryType.TEXT, key));
+            }
+
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            this.databaseService.forEachRow(
+                    String.format(query, placeholders),
+                    parameters,
+                    resultSet -> Map.entry(resultSet.getString(1), resultSet.getString(2)),
+                    entry -> valuesByKey.computeIfAbsent(entry.getKey(), key -> new ArrayList<>()).add(entry.getValue())
+            );
+        }
+        return valuesByKey;
+    }
+
+    /**
+     * Row of the sections table
+     */
+    private record StoredSection(
+            long rowID,
+            String sectionID,
+            String articleID,
+            String articleHeadline,
+            String rawArticleText,
+            String cleanedArticleText,
+            String sectionHeadline,
+            boolean isFirstSection
+    ) {
+    }
+
+    /**
+     * Stores the sections of an article together with its revision in a single transaction
+     *
+     * @param sections        sections of the article
+     * @param articleRevision revision of the article
+     */
+    public void storeArticle(
+            List<WikipediaSection> sections,
+            ArticleRevision articleRevision
+    ) {
+        this.writeArticleInTransaction(sections, articleRevision, false);
+    }
+
+    /**
+     * Replaces the stored sections of an article and its revision in a single transaction
+     *
+     * @param sections        new sections of the article
+     * @param articleRevision new revision of the article
+     */
+    public void replaceArticle(
+            List<WikipediaSection> sections,
+            ArticleRevision articleRevision
+    ) {
+        this.writeArticleInTransaction(sections, articleRevision, true);
+    }
+
+    private void writeArticleInTransaction(
+            List<WikipediaSection> sections,
+            ArticleRevision articleRevision,
+            boolean replace
+    ) {
+        boolean[] titleAdded = new boolean[1];
+        boolean committed = this.databaseService.runInTransaction(
+                () -> titleAdded[0] = this.writeArticle(sections, articleRevision, replace)
+        );
+        this.completeArticle(articleRevision, committed, titleAdded[0]);
+    }
+
+    /**
+     * Writes the sections and the revision of an article inside the active transaction.
+     * Without replace, the sections are skipped if sections of the article were stored before.
+     * The caller has to report the outcome of the transaction with {@link #completeArticle}.
+     *
+     * @param sections        sections of the article
+     * @param articleRevision revision of the article
+     * @param replace         if true, the stored sections of the article are deleted first
+     * @return true if the headline of the article was added to the stored headlines
+     */
+    boolean writeArticle(
+            List<WikipediaSection> sections,
+            ArticleRevision articleRevision,
+            boolean replace
+    ) {
+        boolean titleAdded = this.sectionTitleSet.add(articleRevision.articleHeadline());
+        if (replace) {
+            List<DatabaseEntry> articleHeadline = List.of(new DatabaseEntry(DatabaseEntryType.TEXT, articleRevision.articleHeadline()));
+            this.databaseService.executeUpdate(SectionConstants.DELETE_ARTICLE_REFERENCES, articleHeadline);
+            this.databaseService.executeUpdate(SectionConstants.DELETE_ARTICLE_CATEGORIES, articleHeadline);
+            this.databaseService.executeUpdate(SectionConstants.DELETE_ARTICLE_SECTIONS, articleHeadline);
+
+            // the new sections must not be dropped as duplicates of the sections they replace
+            long articleKey = FingerprintIndex.getArticleKey(articleRevision.articleHeadline());
+            this.databaseService.executeUpdate(SectionConstants.DELETE_ARTICLE_FINGERPRINTS, List.of(new DatabaseEntry(DatabaseEntryType.LONG, String.valueOf(articleKey))));
+            this.fingerprintIndex.removeArticle(articleKey);
+        }
+        if (replace || titleAdded) {
+            this.insertSections(sections);
+        }
+        this.storeArticleRevision(articleRevision);
+        return titleAdded;
+    }
+
+    /**
+     * Updates the in-memory state after the transaction of {@link #writeArticle} ended
+     *
+     * @param articleRevision revision of the article
+     * @param committed       true if the transaction was committed
+     * @param titleAdded      result of {@link #writeArticle}
+     */
+    void completeArticle(
+            ArticleRevision articleRevision,
+            boolean committed,
+            boolean titleAdded
+    ) {
+        if (committed) {
+            this.cacheArticleRevision(articleRevision);
+            return;
+        }
+
+        this.rollBack(titleAdded ? List.of(articleRevision.articleHeadline()) : List.of());
+    }
+
+    /**
+     * Stores the revision of an article
+     *
+     * @param articleRevision revision of the article
+     */
+    private void storeArticleRevision(ArticleRevision articleRevision) {
+        List<DatabaseEntry> entriesArticle = new ArrayList<>();
+        entriesArticle.add(new DatabaseEntry(DatabaseEntryType.TEXT, articleRevision.articleHeadline()));
+        entriesArticle.add(new DatabaseEntry(DatabaseEntryType.TEXT, articleRevision.articleURL()));
+        entriesArticle.add(new DatabaseEntry(DatabaseEntryType.TEXT, articleRevision.articleID()));
+        entriesArticle.add(new DatabaseEntry(DatabaseEntryType.TEXT, articleRevision.revision()));
+        entriesArticle.add(new DatabaseEntry(DatabaseEntryType.TEXT, articleRevision.eTag()));
+        entriesArticle.add(new DatabaseEntry(DatabaseEntryType.TEXT, articleRevision.lastModified()));
+
+        this.databaseService.executeUpdate(SectionConstants.UPSERT_WIKIPEDIA_ARTICLE, entriesArticle);
+    }
+
+    private void cacheArticleRevision(ArticleRevision articleRevision) {
+        this.articleRevisionsByHeadline.put(articleRevision.articleHeadline(), articleRevision);
+        if (articleRevision.articleURL() != null) {
+            this.articleRevisionsByURL.put(articleRevision.articleURL(), articleRevision);
+        }
     }
 
     /**
@@ -35,22 +641,117 @@ public class SectionService {
     public void storeSections(
             List<WikipediaSection> sections
     ) {
-        if (!this.sectionTitleSet.contains(sections.get(0).articleHeadline())) {
-            for (WikipediaSection section : sections) {
-                this.insertWikipediaSections(section);
-                this.insertWikipediaReferences(section);
-                this.insertWikipediaCategories(section);
+        String articleHeadline = sections.get(0).articleHeadline();
+        if (this.sectionTitleSet.add(articleHeadline)) {
+            if (!this.databaseService.runInTransaction(() -> this.insertSections(sections))) {
+                this.rollBack(List.of(articleHeadline));
             }
-            this.sectionTitleSet.add(sections.get(0).articleHeadline());
         }
     }
 
     /**
-     * Stores wikipedia sections in database
+     * Drops the in-memory state of a rolled back transaction
+     *
+     * @param addedHeadlines headlines the transaction added to the stored headlines
+     */
+    void rollBack(List<String> addedHeadlines) {
+        this.reloadDictionaries();
+        addedHeadlines.forEach(this.sectionTitleSet::remove);
+    }
+
+    /**
+     * Drops IDs from the dictionaries and fingerprints from the index whose rows were rolled back
+     */
+    private void reloadDictionaries() {
+        this.linkTargets.reload();
+        this.categoryNames.reload();
+        this.fingerprintIndex.reload();
+    }
+
+    /**
+     * Inserts sections with their references and fingerprints, categories are stored once per article.
+     * Reference and category texts are interned, only unknown texts are added to the dictionary tables.
+     * Duplicate sections are dropped before any of their rows are written.
+     *
+     * @param sections list of sections
+     */
+    private void insertSections(
+            List<WikipediaSection> sections
+    ) {
+        List<List<DatabaseEntry>> sectionRows = new ArrayList<>();
+        List<List<DatabaseEntry>> referenceRows = new ArrayList<>();
+        List<List<DatabaseEntry>> categoryRows = new ArrayList<>();
+        List<List<DatabaseEntry>> linkTargetRows = new ArrayList<>();
+        List<List<DatabaseEntry>> categoryNameRows = new ArrayList<>();
+        List<List<DatabaseEntry>> fingerprintRows = new ArrayList<>();
+
+        for (WikipediaSection section : sections) {
+            if (this.addFingerprint(section, fingerprintRows)) {
+                sectionRows.add(this.getWikipediaSectionEntries(section));
+                this.addWikipediaReferenceEntries(section, referenceRows, linkTargetRows);
+            }
+        }
+        if (!sectionRows.isEmpty()) {
+            this.addWikipediaCategoryEntries(sections.get(0), categoryRows, categoryNameRows);
+        }
+
+        this.databaseService.insertBatch(SectionConstants.TABLE_WIKIPEDIA_LINK_TARGETS, SectionConstants.COLUMNS_WIKIPEDIA_LINK_TARGETS, linkTargetRows);
+        this.databaseService.insertBatch(SectionConstants.TABLE_WIKIPEDIA_CATEGORY_NAMES, SectionConstants.COLUMNS_WIKIPEDIA_CATEGORY_NAMES, categoryNameRows);
+        this.databaseService.insertBatch(SectionConstants.TABLE_WIKIPEDIA_SECTIONS, SectionConstants.COLUMNS_WIKIPEDIA_SECTIONS, sectionRows);
+        this.databaseService.insertBatch(SectionConstants.TABLE_WIKIPEDIA_SECTION_REFERENCES, SectionConstants.COLUMNS_WIKIPEDIA_SECTION_REFERENCES, referenceRows);
+        this.databaseService.insertBatch(SectionConstants.TABLE_WIKIPEDIA_ARTICLE_CATEGORIES, SectionConstants.COLUMNS_WIKIPEDIA_ARTICLE_CATEGORIES, categoryRows);
+        this.databaseService.insertBatch(SectionConstants.TABLE_WIKIPEDIA_SECTION_FINGERPRINTS, SectionConstants.COLUMNS_WIKIPEDIA_SECTION_FINGERPRINTS, fingerprintRows);
+    }
+
+    /**
+     * Fingerprints the cleaned text of a section and adds the fingerprint to the index and the fingerprint rows.
+     * Sections without words are not fingerprinted.
+     *
+     * @param section         wikipedia section
+     * @param fingerprintRows rows of the fingerprint table
+     * @return false if the section duplicates a stored section and has to be dropped
+     */
+    private boolean addFingerprint(
+            WikipediaSection section,
+            List<List<DatabaseEntry>> fingerprintRows
+    ) {
+        SectionFingerprint fingerprint = SectionFingerprint.of(section.cleanedArticleText());
+        if (fingerprint.isEmpty()) {
+            return true;
+        }
+
+        if (this.deduplicateSections) {
+            if (this.fingerprintIndex.containsContent(fingerprint.contentHash())) {
+                this.exactDuplicates.increment();
+                return false;
+            }
+            if (fingerprint.numberOfWords() >= MIN_NEAR_DUPLICATE_WORDS && this.fingerprintIndex.containsSimilar(fingerprint.minHashes())) {
+                this.nearDuplicates.increment();
+                return false;
+            }
+        }
+
+        long articleKey = FingerprintIndex.getArticleKey(section.articleHeadline());
+        this.fingerprintIndex.add(articleKey, fingerprint.contentHash(), fingerprint.minHashes());
+        fingerprintRows.add(getFingerprintEntries(articleKey, fingerprint));
+        return true;
+    }
+
+    private static List<DatabaseEntry> getFingerprintEntries(long articleKey, SectionFingerprint fingerprint) {
+        List<DatabaseEntry> entriesFingerprint = new ArrayList<>();
+        entriesFingerprint.add(new DatabaseEntry(DatabaseEntryType.LONG, String.valueOf(articleKey)));
+        entriesFingerprint.add(new DatabaseEntry(DatabaseEntryType.LONG, String.valueOf(fingerprint.contentHash())));
+        entriesFingerprint.add(new DatabaseEntry(DatabaseEntryType.LONG, String.valueOf(fingerprint.minHashes())));
+        return entriesFingerprint;
+    }
+
+    /**
+     * Gets the database entries of a wikipedia section
      *
      * @param section wikipedia section
+     * @return entries in column order
      */
-    private void insertWikipediaSections(WikipediaSection section) {
+    public List<DatabaseEntry> getWikipediaSectionEntries(WikipediaSection section) {
         List<DatabaseEntry> entriesSections = new ArrayList<>();
         entriesSections.add(new DatabaseEntry(DatabaseEntryType.TEXT, section.sectionID()));
         entriesSections.add(new DatabaseEntry(DatabaseEntryType.TEXT, section.articleID()));
@@ -60,48 +761,68 @@ public class SectionService {
         entriesSections.add(new DatabaseEntry(DatabaseEntryType.TEXT, section.sectionHeadline()));
         entriesSections.add(new DatabaseEntry(DatabaseEntryType.BOOLEAN, String.valueOf(section.isFirstSection())));
 
-        this.databaseService.insertData(
-                SectionConstants.TABLE_WIKIPEDIA_SECTIONS,
-                SectionConstants.COLUMNS_WIKIPEDIA_SECTIONS,
-                entriesSections
-        );
+        return entriesSections;
     }
 
     /**
-     * Stores wikipedia references in database
+     * Adds the database entries of all references of a wikipedia section
      *
-     * @param section wikipedia section
+     * @param section        wikipedia section
+     * @param rows           rows of the section references table
+     * @param linkTargetRows rows of the link targets table for unknown references
      */
-    private void insertWikipediaReferences(WikipediaSection section) {
+    private void addWikipediaReferenceEntries(
+            WikipediaSection section,
+            List<List<DatabaseEntry>> rows,
+            List<List<DatabaseEntry>> linkTargetRows
+    ) {
         for (String reference : section.wikipediaReferences()) {
             List<DatabaseEntry> entriesReferences = new ArrayList<>();
             entriesReferences.add(new DatabaseEntry(DatabaseEntryType.TEXT, section.sectionID()));
-            entriesReferences.add(new DatabaseEntry(DatabaseEntryType.TEXT, reference));
-
-            this.databaseService.insertData(
-                    SectionConstants.TABLE_WIKIPEDIA_REFERENCES,
-                    SectionConstants.COLUMNS_WIKIPEDIA_REFERENCES,
-                    entriesReferences
-            );
+            entriesReferences.add(new DatabaseEntry(DatabaseEntryType.INT, String.valueOf(this.linkTargets.getID(reference, linkTargetRows))));
+            rows.add(entriesReferences);
         }
     }
 
     /**
-     * Stores wikipedia categories in database
+     * Adds the database entries of all categories of the article of a wikipedia section
      *
-     * @param section wikipedia section
+     * @param section          wikipedia section
+     * @param rows             rows of the article categories table
+     * @param categoryNameRows rows of the category names table for unknown categories
      */
-    private void insertWikipediaCategories(WikipediaSection section) {
-        for (String category : section.categories()) {
+    private void addWikipediaCategoryEntries(
+            WikipediaSection section,
+            List<List<DatabaseEntry>> rows,
+            List<List<DatabaseEntry>> categoryNameRows
+    ) {
+        for (String category : new LinkedHashSet<>(section.categories())) {
             List<DatabaseEntry> entriesCategories = new ArrayList<>();
-            entriesCategories.add(new DatabaseEntry(DatabaseEntryType.TEXT, section.sectionID()));
-            entriesCategories.add(new DatabaseEntry(DatabaseEntryType.TEXT, category));
-
-            this.databaseService.insertData(
-                    SectionConstants.TABLE_WIKIPEDIA_CATEGORIES,
-                    SectionConstants.COLUMNS_WIKIPEDIA_CATEGORIES,
-                    entriesCategories
-            );
+            entriesCategories.add(new DatabaseEntry(DatabaseEntryType.TEXT, section.articleID()));
+            entriesCategories.add(new DatabaseEntry(DatabaseEntryType.INT, String.valueOf(this.categoryNames.getID(category, categoryNameRows))));
+            rows.add(entriesCategories);
         }
     }
+
+    /**
+     * Gets the interned ID of a reference, new references are added to the link targets rows
+     *
+     * @param reference      reference text
+     * @param linkTargetRows rows of the link targets table for unknown references
+     * @return ID of the reference
+     */
+    public int getLinkTargetID(String reference, List<List<DatabaseEntry>> linkTargetRows) {
+        return this.linkTargets.getID(reference, linkTargetRows);
+    }
+
+    /**
+     * Gets the interned ID of a category, new categories are added to the category names rows
+     *
+     * @param category         category text
+     * @param categoryNameRows rows of the category names table for unknown categories
+     * @return ID of the category
+     */
+    public int getCategoryID(String category, List<List<DatabaseEntry>> categoryNameRows) {
+        return this.categoryNames.getID(category, categoryNameRows);
+    }
 }
@@ -0,0 +1,357 @@
+package kit.edu.wikipediaextraction.database.section;
+
+import kit.edu.wikipediaextraction.ApplicationPropertiesResolver;
+import kit.edu.wikipediaextraction.database.DatabaseService;
+import kit.edu.wikipediaextraction.database.checkpoint.CrawlCheckpoint;
+import kit.edu.wikipediaextraction.metrics.PipelineMetrics;
+import kit.edu.wikipediaextraction.model.ArticleRevision;
+import kit.edu.wikipediaextraction.model.WikipediaSection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Single writer of the sections. Any number of producers hand over articles through a lock-free queue,
+ * a dedicated thread owns all writes to the database connection and stores the articles in group commits.
+ * A group is committed once it holds the maximum number of articles or its first article waited for the maximum delay.
+ * Other writes of the crawl, e.g. of the checkpoints, are run on the same thread between two groups.
+ */
+@Service
+public class SectionWriter implements AutoCloseable {
+    private final static String THREAD_NAME = "section-writer";
+    private final static int QUEUED_GROUPS = 4;
+    private final static long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private final SectionService sectionService;
+    private final DatabaseService databaseService;
+    private final PipelineMetrics pipelineMetrics;
+    private final int maxGroupSize;
+    private final long maxGroupDelayNanos;
+    private final Queue<Write> queue;
+    private final Semaphore capacity;
+    private final AtomicInteger queuedArticles;
+    private final Thread writer;
+    private volatile boolean closed;
+
+    /**
+     * Article handed over to the writer, or a task that runs after the articles submitted before are committed.
+     * Without sections, only the request is marked as completed in the checkpoint.
+     */
+    private record Write(
+            List<WikipediaSection> sections,
+            ArticleRevision articleRevision,
+            boolean replace,
+            CrawlCheckpoint checkpoint,
+            String requestURL,
+            long submittedAt,
+            FutureTask<?> task
+    ) {
+    }
+
+    @Autowired
+    public SectionWriter(
+            SectionService sectionService,
+            DatabaseService databaseService,
+            PipelineMetrics pipelineMetrics,
+            ApplicationPropertiesResolver applicationPropertiesResolver
+    ) {
+        this(
+                sectionService,
+                databaseService,
+                pipelineMetrics,
+                applicationPropertiesResolver.getDatabaseGroupCommitSize(),
+                applicationPropertiesResolver.getDatabaseGroupCommitDelayMillis()
+        );
+    }
+
+    /**
+     * @param sectionService      service that writes the sections
+     * @param databaseService     database of the section service
+     * @param pipelineMetrics     metrics of the commits
+     * @param maxGroupSize        maximum number of articles per commit
+     * @param maxGroupDelayMillis maximum time an article waits for more articles before it is committed
+     */
+    public SectionWriter(
+            SectionService sectionService,
+            DatabaseService databaseService,
+            PipelineMetrics pipelineMetrics,
+            int maxGroupSize,
+            long maxGroupDelayMillis
+    ) {
+        this.sectionService = sectionService;
+        this.databaseService = databaseService;
+        this.pipelineMetrics = pipelineMetrics;
+        this.maxGroupSize = Math.max(1, maxGroupSize);
+        this.maxGroupDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxGroupDelayMillis));
+        this.queue = new ConcurrentLinkedQueue<>();
+        this.capacity = new Semaphore(this.maxGroupSize * QUEUED_GROUPS);
+        this.queuedArticles = new AtomicInteger();
+        pipelineMetrics.registerDuplicateSections(sectionService::getExactDuplicates, sectionService::getNearDuplicates);
+        this.writer = new Thread(this::run, THREAD_NAME);
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Hands the sections of an article over to the writer, waits while too many articles are queued
+     *
+     * @param sections        sections of the article
+     * @param articleRevision revision of the article
+     * @param replace         if true, the stored sections of the article are replaced
+     * @throws InterruptedException if the producer is interrupted while waiting
+     */
+    public void submit(
+            List<WikipediaSection> sections,
+            ArticleRevision articleRevision,
+            boolean replace
+    ) throws InterruptedException {
+        this.submit(sections, articleRevision, replace, null, null);
+    }
+
+    /**
+     * Hands the sections of an article over to the writer, the request of the article is marked
+     * as completed in the same transaction that stores the sections
+     *
+     * @param sections        sections of the article
+     * @param articleRevision revision of the article
+     * @param replace         if true, the stored sections of the article are replaced
+     * @param checkpoint      checkpoint of the crawl run, null if the progress is not checkpointed
+     * @param requestURL      URL the article was requested by
+     * @throws InterruptedException if the producer is interrupted while waiting
+     */
+    public void submit(
+            List<WikipediaSection> sections,
+            ArticleRevision articleRevision,
+            boolean replace,
+            CrawlCheckpoint checkpoint,
+            String requestURL
+    ) throws InterruptedException {
+        this.enqueueWrite(new Write(sections, articleRevision, replace, checkpoint, requestURL, System.nanoTime(), null));
+    }
+
+    /**
+     * Marks a request without sections to store as completed, e.g. an article that was not modified
+     *
+     * @param checkpoint checkpoint of the crawl run, nothing is written if it is null
+     * @param requestURL requested URL
+     * @throws InterruptedException if the producer is interrupted while waiting
+     */
+    public void submitCompleted(
+            CrawlCheckpoint checkpoint,
+            String requestURL
+    ) throws InterruptedException {
+        if (checkpoint != null) {
+            this.enqueueWrite(new Write(null, null, false, checkpoint, requestURL, System.nanoTime(), null));
+        }
+    }
+
+    /**
+     * Waits until all articles submitted before are committed
+     *
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    public void flush() throws InterruptedException {
+        if (this.closed) {
+            this.writer.join();
+            return;
+        }
+
+        this.execute(() -> null);
+    }
+
+    /**
+     * Runs database work on the writer thread after the articles submitted before are committed and waits for its result
+     *
+     * @param work database work, e.g. a transaction of the checkpoints
+     * @param <T>  type of the result
+     * @return result of the work
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    public <T> T execute(Supplier<T> work) throws InterruptedException {
+        if (this.closed) {
+            throw new IllegalStateException(THREAD_NAME + " is closed");
+        }
+
+        FutureTask<T> task = new FutureTask<>(work::get);
+        this.enqueue(new Write(null, null, false, null, null, System.nanoTime(), task));
+        try {
+            return task.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * @return number of articles waiting to be committed
+     */
+    public int size() {
+        return this.queuedArticles.get();
+    }
+
+    /**
+     * Commits the queued articles and stops the writer thread.
+     * If the closing thread is interrupted, it stops waiting for the writer and keeps its interrupt flag.
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        LockSupport.unpark(this.writer);
+        try {
+            this.writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void enqueueWrite(Write write) throws InterruptedException {
+        if (this.closed) {
+            throw new IllegalStateException(THREAD_NAME + " is closed");
+        }
+
+        this.capacity.acquire();
+        this.queuedArticles.incrementAndGet();
+        this.enqueue(write);
+    }
+
+    private void enqueue(Write write) {
+        this.queue.offer(write);
+        LockSupport.unpark(this.writer);
+    }
+
+    private void run() {
+        List<Write> group = new ArrayList<>(this.maxGroupSize);
+        long groupStart = 0;
+
+        while (true) {
+            Write write = this.queue.poll();
+            if (write == null) {
+                if (this.closed && this.queue.isEmpty()) {
+                    this.commit(group);
+                    return;
+                }
+
+                long waited = System.nanoTime() - groupStart;
+                if (!group.isEmpty() && waited >= this.maxGroupDelayNanos) {
+                    this.commit(group);
+                } else {
+                    LockSupport.parkNanos(this, group.isEmpty() ? IDLE_PARK_NANOS : this.maxGroupDelayNanos - waited);
+                }
+                continue;
+            }
+
+            if (write.task() != null) {
+                this.commit(group);
+                write.task().run();
+                continue;
+            }
+
+            if (group.isEmpty()) {
+                groupStart = System.nanoTime();
+            }
+            group.add(write);
+            if (group.size() >= this.maxGroupSize) {
+                this.commit(group);
+            }
+        }
+    }
+
+    /**
+     * Writes all articles of the group in a single transaction. If the transaction fails, its in-memory state
+     * is rolled back once and the articles are written one by one so that a single bad article does not drop the whole group.
+     *
+     * @param group articles to commit, cleared afterwards
+     */
+    private void commit(List<Write> group) {
+        if (group.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean[] titlesAdded = new boolean[group.size()];
+        boolean committed;
+        try {
+            committed = this.databaseService.runInTransaction(() -> {
+                for (int i = 0; i < group.size(); i++) {
+                    titlesAdded[i] = this.write(group.get(i));
+                }
+            });
+        } catch (RuntimeException e) {
+            System.out.println(THREAD_NAME + ": " + e.getMessage());
+            committed = false;
+        }
+
+        if (committed) {
+            for (int i = 0; i < group.size(); i++) {
+                this.complete(group.get(i), true, titlesAdded[i]);
+            }
+        } else {
+            List<String> addedHeadlines = new ArrayList<>();
+            for (int i = 0; i < group.size(); i++) {
+                if (titlesAdded[i]) {
+                    addedHeadlines.add(group.get(i).articleRevision().articleHeadline());
+                }
+            }
+            this.sectionService.rollBack(addedHeadlines);
+            this.commitSeparately(group);
+        }
+        this.pipelineMetrics.recordGroupCommit(System.nanoTime() - start, group.size());
+
+        long end = System.nanoTime();
+        for (Write write : group) {
+            if (write.sections() != null) {
+                this.pipelineMetrics.recordPersist(end - write.submittedAt());
+            }
+        }
+        this.queuedArticles.addAndGet(-group.size());
+        this.capacity.release(group.size());
+        group.clear();
+    }
+
+    private void commitSeparately(List<Write> group) {
+        for (Write write : group) {
+            boolean[] titleAdded = new boolean[1];
+            boolean committed;
+            try {
+                committed = this.databaseService.runInTransaction(() -> titleAdded[0] = this.write(write));
+            } catch (RuntimeException e) {
+                System.out.println(THREAD_NAME + ": " + e.getMessage());
+                committed = false;
+            }
+            this.complete(write, committed, titleAdded[0]);
+        }
+    }
+
+    /**
+     * Writes the sections of an article and marks its request as completed inside the active transaction
+     *
+     * @param write article to write
+     * @return true if the headline of the article was added to the stored headlines
+     */
+    private boolean write(Write write) {
+        boolean titleAdded = write.sections() != null
+                && this.sectionService.writeArticle(write.sections(), write.articleRevision(), write.replace());
+        if (write.checkpoint() != null) {
+            write.checkpoint().markCompleted(write.requestURL());
+        }
+        return titleAdded;
+    }
+
+    private void complete(Write write, boolean committed, boolean titleAdded) {
+        if (write.sections() != null) {
+            this.sectionService.completeArticle(write.articleRevision(), committed, titleAdded);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package kit.edu.wikipediaextraction.database.section;
+
+import kit.edu.wikipediaextraction.database.DatabaseEntry;
+import kit.edu.wikipediaextraction.database.DatabaseEntryType;
+import kit.edu.wikipediaextraction.database.DatabaseService;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interns texts of a dictionary table (ID, text) in memory.
+ * IDs are assigned in process, so that new texts only need a batched insert and no lookup per row.
+ */
+public class TextDictionary {
+    private final DatabaseService databaseService;
+    private final String selectQuery;
+    private final Map<String, Integer> idsByText;
+    private int nextID;
+
+    public TextDictionary(
+            DatabaseService databaseService,
+            String selectQuery
+    ) {
+        this.databaseService = databaseService;
+        this.selectQuery = selectQuery;
+        this.idsByText = new HashMap<>();
+        this.reload();
+    }
+
+    /**
+     * Loads all stored texts with their IDs, e.g. after a failed transaction dropped new entries
+     */
+    public synchronized void reload() {
+        List<Map.Entry<String, Integer>> entries = this.databaseService.query(
+                this.selectQuery,
+                List.of(),
+                resultSet -> Map.entry(resultSet.getString(2), resultSet.getInt(1))
+        );
+
+        this.idsByText.clear();
+        this.nextID = 1;
+        for (Map.Entry<String, Integer> entry : entries) {
+            this.idsByText.put(entry.getKey(), entry.getValue());
+            this.nextID = Math.max(this.nextID, entry.getValue() + 1);
+        }
+    }
+
+    /**
+     * Gets the ID of the text, an unknown text gets the next free ID and its row is added to the new rows
+     *
+     * @param text    text to intern
+     * @param newRows rows of the dictionary table that still have to be inserted
+     * @return ID of the text
+     */
+    public synchronized int getID(String text, List<List<DatabaseEntry>> newRows) {
+        Integer id = this.idsByText.get(text);
+        if (id == null) {
+            id = this.nextID++;
+            this.idsByText.put(text, id);
+
+            List<DatabaseEntry> row = new ArrayList<>();
+            row.add(new DatabaseEntry(DatabaseEntryType.INT, String.valueOf(id)));
+            row.add(new DatabaseEntry(DatabaseEntryType.TEXT, text));
+            newRows.add(row);
+        }
+        return id;
+    }
+
+    public synchronized int size() {
+        return this.idsByText.size();
+    }
+
+    public synchronized void clear() {
+        this.idsByText.clear();
+        this.nextID = 1;
+    }
+}
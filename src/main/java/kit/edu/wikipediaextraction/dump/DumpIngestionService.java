@@ -0,0 +1,136 @@
+package kit.edu.wikipediaextraction.dump;
+
+import kit.edu.wikipediaextraction.database.section.SectionService;
+import kit.edu.wikipediaextraction.database.section.SectionWriter;
+import kit.edu.wikipediaextraction.extraction.ExtractionService;
+import kit.edu.wikipediaextraction.metrics.PipelineMetrics;
+import kit.edu.wikipediaextraction.pipeline.ArticleStages;
+import kit.edu.wikipediaextraction.pipeline.FetchedArticle;
+import kit.edu.wikipediaextraction.pipeline.StageQueue;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service for extracting sections from a local wikipedia XML dump instead of scraping wikipedia
+ */
+@Service
+public class DumpIngestionService {
+    private final static String WIKIPEDIA_ARTICLE_URL = "https://en.wikipedia.org/wiki/";
+    private final static int STAGE_QUEUE_CAPACITY = 32;
+    private final ExtractionService extractionService;
+    private final SectionService sectionService;
+    private final SectionWriter sectionWriter;
+    private final PipelineMetrics pipelineMetrics;
+
+    public DumpIngestionService(
+            ExtractionService extractionService,
+            SectionService sectionService,
+            SectionWriter sectionWriter,
+            PipelineMetrics pipelineMetrics
+    ) {
+        this.extractionService = extractionService;
+        this.sectionService = sectionService;
+        this.sectionWriter = sectionWriter;
+        this.pipelineMetrics = pipelineMetrics;
+    }
+
+    /**
+     * Reads all articles of the dump and stores their sections.
+     * Each worker reads its own byte range of the dump.
+     *
+     * @param dumpFile        uncompressed or gzip compressed XML dump
+     * @param numberOfWorkers number of workers reading the dump
+     * @param incremental     if true, only articles that changed since the last run are stored
+     */
+    public void ingest(
+            Path dumpFile,
+            int numberOfWorkers,
+            boolean incremental
+    ) {
+        List<DumpSplit> splits;
+        try {
+            splits = DumpSplit.split(dumpFile, numberOfWorkers);
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+            return;
+        }
+        this.ingest(dumpFile, splits, incremental);
+    }
+
+    /**
+     * Reads the articles of the splits of the dump and stores their sections, with one worker per split
+     *
+     * @param dumpFile    uncompressed or gzip compressed XML dump
+     * @param splits      byte ranges of the dump
+     * @param incremental if true, only articles that changed since the last run are stored
+     */
+    public void ingest(
+            Path dumpFile,
+            List<DumpSplit> splits,
+            boolean incremental
+    ) {
+        if (splits.isEmpty()) {
+            return;
+        }
+
+        StageQueue<FetchedArticle> articleQueue = new StageQueue<>(STAGE_QUEUE_CAPACITY, splits.size());
+        ArticleStages articleStages = new ArticleStages(this.extractionService, this.sectionService, this.sectionWriter, this.pipelineMetrics, articleQueue, incremental, null);
+        List<Thread> readers = new ArrayList<>();
+
+        for (int i = 0; i < splits.size(); i++) {
+            DumpSplit split = splits.get(i);
+            readers.add(new Thread(() -> this.readSplit(dumpFile, split, articleQueue), "dump-" + i));
+        }
+
+        try {
+            articleStages.start();
+            for (Thread reader : readers) {
+                reader.start();
+            }
+
+            for (Thread reader : readers) {
+                reader.join();
+            }
+            articleStages.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Reads the article pages of one split into the queue
+     *
+     * @param dumpFile     dump file
+     * @param split        byte range of the dump
+     * @param articleQueue queue of the read articles
+     */
+    private void readSplit(
+            Path dumpFile,
+            DumpSplit split,
+            StageQueue<FetchedArticle> articleQueue
+    ) {
+        try {
+            try (DumpPageReader reader = new DumpPageReader(dumpFile, split)) {
+                long start = System.nanoTime();
+                DumpPage page;
+                while ((page = reader.next()) != null) {
+                    String articleURL = WIKIPEDIA_ARTICLE_URL + page.title().replace(' ', '_');
+                    String html = WikitextRenderer.render(page);
+                    this.pipelineMetrics.recordFetch(System.nanoTime() - start, page.wikitext().length());
+                    articleQueue.put(new FetchedArticle(articleURL, articleURL, html, null, null));
+                    start = System.nanoTime();
+                }
+            } catch (IOException e) {
+                System.out.println(e.getMessage());
+            } finally {
+                articleQueue.close();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package kit.edu.wikipediaextraction.dump;
+
+/**
+ * Article page read from a wikipedia dump
+ *
+ * @param title    title of the article
+ * @param wikitext wikitext of the latest revision
+ */
+public record DumpPage(
+        String title,
+        String wikitext
+) {
+}
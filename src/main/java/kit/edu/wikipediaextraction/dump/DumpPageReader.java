@@ -0,0 +1,170 @@
+package kit.edu.wikipediaextraction.dump;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streams the article pages of one split of a wikipedia XML dump.
+ * The file is scanned for {@code <page>} elements with a buffered NIO channel,
+ * only a single page is held in memory and parsed with StAX at a time.
+ */
+public class DumpPageReader implements Closeable {
+    private final static byte[] PAGE_START_TAG = "<page>".getBytes(StandardCharsets.US_ASCII);
+    private final static byte[] PAGE_END_TAG = "</page>".getBytes(StandardCharsets.US_ASCII);
+    private final static int BUFFER_SIZE = 1 << 20;
+    private final static int ARTICLE_NAMESPACE = 0;
+    private final static String TAG_TITLE = "title";
+    private final static String TAG_NAMESPACE = "ns";
+    private final static String TAG_REDIRECT = "redirect";
+    private final static String TAG_TEXT = "text";
+    private final InputStream inputStream;
+    private final XMLInputFactory xmlInputFactory;
+    private final long end;
+    private long position;
+
+    /**
+     * @param dumpFile uncompressed or gzip compressed XML dump
+     * @param split    byte range to read, compressed dumps are always read completely
+     * @throws IOException if the dump cannot be opened
+     */
+    public DumpPageReader(Path dumpFile, DumpSplit split) throws IOException {
+        if (DumpSplit.isGzip(dumpFile)) {
+            this.inputStream = new BufferedInputStream(new GZIPInputStream(new FileInputStream(dumpFile.toFile()), BUFFER_SIZE), BUFFER_SIZE);
+            this.position = 0;
+            this.end = Long.MAX_VALUE;
+        } else if (DumpSplit.isCompressed(dumpFile)) {
+            throw new IOException("Unsupported dump compression, use an uncompressed or gzip compressed dump: " + dumpFile);
+        } else {
+            FileChannel channel = FileChannel.open(dumpFile, StandardOpenOption.READ);
+            channel.position(split.start());
+            this.inputStream = new BufferedInputStream(Channels.newInputStream(channel), BUFFER_SIZE);
+            this.position = split.start();
+            this.end = split.end();
+        }
+
+        this.xmlInputFactory = XMLInputFactory.newInstance();
+        this.xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        this.xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    /**
+     * Reads the next article page of the split, other namespaces and redirects are skipped
+     *
+     * @return next article page or null if the end of the split is reached
+     * @throws IOException if the dump cannot be read or contains an invalid page
+     */
+    public DumpPage next() throws IOException {
+        byte[] pageXml;
+        while ((pageXml = this.nextPageXml()) != null) {
+            DumpPage page = this.parsePage(pageXml);
+            if (page != null) {
+                return page;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.inputStream.close();
+    }
+
+    /**
+     * Reads the bytes of the next page element that starts inside the split
+     *
+     * @return page element or null if no page starts inside the split anymore
+     */
+    private byte[] nextPageXml() throws IOException {
+        if (!this.scanTo(PAGE_START_TAG, null)) {
+            return null;
+        }
+
+        long pageStart = this.position - PAGE_START_TAG.length;
+        if (pageStart >= this.end) {
+            return null;
+        }
+
+        ByteArrayOutputStream pageXml = new ByteArrayOutputStream();
+        pageXml.write(PAGE_START_TAG);
+        if (!this.scanTo(PAGE_END_TAG, pageXml)) {
+            return null;
+        }
+        return pageXml.toByteArray();
+    }
+
+    /**
+     * Reads until the end of the tag, tags only contain their first character once
+     *
+     * @param tag    searched tag
+     * @param output receives all read bytes including the tag, null to skip them
+     * @return false if the end of the file is reached before the tag
+     */
+    private boolean scanTo(byte[] tag, ByteArrayOutputStream output) throws IOException {
+        int matched = 0;
+        int b;
+
+        while ((b = this.inputStream.read()) != -1) {
+            this.position++;
+            if (output != null) {
+                output.write(b);
+            }
+
+            if (b == tag[matched]) {
+                matched++;
+                if (matched == tag.length) {
+                    return true;
+                }
+            } else {
+                matched = b == tag[0] ? 1 : 0;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parses a page element
+     *
+     * @param pageXml page element
+     * @return article page or null if the page is no article
+     */
+    private DumpPage parsePage(byte[] pageXml) throws IOException {
+        String title = null;
+        String text = null;
+        int namespace = ARTICLE_NAMESPACE;
+        boolean redirect = false;
+
+        try {
+            XMLStreamReader reader = this.xmlInputFactory.createXMLStreamReader(new ByteArrayInputStream(pageXml), StandardCharsets.UTF_8.name());
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                        switch (reader.getLocalName()) {
+                            case TAG_TITLE -> title = reader.getElementText();
+                            case TAG_NAMESPACE -> namespace = Integer.parseInt(reader.getElementText().trim());
+                            case TAG_REDIRECT -> redirect = true;
+                            case TAG_TEXT -> text = reader.getElementText();
+                        }
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException | NumberFormatException e) {
+            throw new IOException("Invalid page at byte " + (this.position - pageXml.length), e);
+        }
+
+        if (title == null || text == null || namespace != ARTICLE_NAMESPACE || redirect) {
+            return null;
+        }
+        return new DumpPage(title, text);
+    }
+}
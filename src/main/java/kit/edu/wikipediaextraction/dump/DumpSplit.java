@@ -0,0 +1,77 @@
+package kit.edu.wikipediaextraction.dump;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Byte range of a dump file. A split contains all pages whose {@code <page>} tag starts inside the range.
+ *
+ * @param start first byte of the range
+ * @param end   first byte after the range
+ */
+public record DumpSplit(
+        long start,
+        long end
+) {
+    private final static String GZIP_FILE_EXTENSION = ".gz";
+    private final static String BZIP2_FILE_EXTENSION = ".bz2";
+    private final static String KEY_SEPARATOR = "-";
+
+    /**
+     * Splits a dump file into byte ranges of about the same size.
+     * Compressed dumps can only be read from the beginning and are never split.
+     *
+     * @param dumpFile         dump file
+     * @param numberOfSplits   requested number of splits
+     * @return splits covering the whole file
+     * @throws IOException if the size of the file cannot be read
+     */
+    public static List<DumpSplit> split(Path dumpFile, int numberOfSplits) throws IOException {
+        long size = Files.size(dumpFile);
+        List<DumpSplit> splits = new ArrayList<>();
+
+        if (isCompressed(dumpFile) || numberOfSplits <= 1) {
+            splits.add(new DumpSplit(0, size));
+            return splits;
+        }
+
+        long splitSize = Math.max(1, size / numberOfSplits);
+        for (long start = 0; start < size; start += splitSize) {
+            // the last split takes the remainder
+            long end = size - start < 2 * splitSize ? size : start + splitSize;
+            splits.add(new DumpSplit(start, end));
+            if (end == size) {
+                break;
+            }
+        }
+        return splits;
+    }
+
+    /**
+     * @return key of the split, e.g. to assign the split to a partition of a sharded extraction
+     */
+    public String toKey() {
+        return this.start + KEY_SEPARATOR + this.end;
+    }
+
+    /**
+     * @param key key of a split
+     * @return split of the key
+     */
+    public static DumpSplit fromKey(String key) {
+        int separator = key.indexOf(KEY_SEPARATOR);
+        return new DumpSplit(Long.parseLong(key.substring(0, separator)), Long.parseLong(key.substring(separator + 1)));
+    }
+
+    static boolean isCompressed(Path dumpFile) {
+        String fileName = dumpFile.getFileName().toString();
+        return fileName.endsWith(GZIP_FILE_EXTENSION) || fileName.endsWith(BZIP2_FILE_EXTENSION);
+    }
+
+    static boolean isGzip(Path dumpFile) {
+        return dumpFile.getFileName().toString().endsWith(GZIP_FILE_EXTENSION);
+    }
+}
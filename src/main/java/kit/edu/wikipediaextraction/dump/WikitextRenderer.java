@@ -0,0 +1,204 @@
+package kit.edu.wikipediaextraction.dump;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Renders the wikitext of a dump page into the HTML structure of a wikipedia article page,
+ * so that dump pages can be processed by the extraction service like scraped articles.
+ * Only the elements used by the extraction are rendered: paragraphs, headlines, article links and categories.
+ * Templates, tables, files and references are dropped.
+ */
+public class WikitextRenderer {
+    private final static String WIKIPEDIA_URL_PART = "/wiki/";
+    private final static String CATEGORY_PREFIX = "Category:";
+    private final static List<String> FILE_PREFIXES = List.of("File:", "Image:");
+    private final static Pattern COMMENT = Pattern.compile("<!--.*?-->", Pattern.DOTALL);
+    private final static Pattern REFERENCE = Pattern.compile("<ref[^>]*/>|<ref[^>]*>.*?</ref>", Pattern.DOTALL | Pattern.CASE_INSENSITIVE);
+    private final static Pattern HTML_TAG = Pattern.compile("</?[a-zA-Z][^>]*>");
+    private final static Pattern HEADING = Pattern.compile("^(={2,6})\\s*(.+?)\\s*\\1\\s*$");
+    private final static Pattern MAGIC_WORD = Pattern.compile("^__[A-Z]+__$");
+    private final static Pattern WIKI_LINK = Pattern.compile("\\[\\[([^\\[\\]|]+)(?:\\|([^\\[\\]]*))?]]");
+    private final static Pattern EXTERNAL_LINK = Pattern.compile("\\[(?:https?:)?//[^\\s\\]]+(?:\\s([^\\]]*))?]");
+    private final static Pattern EMPHASIS = Pattern.compile("'{2,}");
+    private final static String LIST_CHARACTERS = "*#:;";
+
+    private WikitextRenderer() {
+    }
+
+    /**
+     * Renders a dump page
+     *
+     * @param page dump page
+     * @return HTML of the article page
+     */
+    public static String render(DumpPage page) {
+        List<String> categories = new ArrayList<>();
+        String text = COMMENT.matcher(page.wikitext()).replaceAll("");
+        text = REFERENCE.matcher(text).replaceAll("");
+        text = removeNested(text, "{{", "}}");
+        text = removeNested(text, "{|", "|}");
+        text = removeFilesAndCategories(text, categories);
+
+        StringBuilder html = new StringBuilder(text.length() + 512);
+        html.append("<!DOCTYPE html><html><head><title>").append(escape(page.title())).append(" - Wikipedia</title></head><body>");
+        html.append("<div id=\"mw-content-text\"><div class=\"mw-parser-output\">\n");
+
+        StringBuilder paragraph = new StringBuilder();
+        for (String line : text.split("\n")) {
+            String trimmedLine = line.strip();
+            Matcher heading = HEADING.matcher(trimmedLine);
+
+            if (trimmedLine.isEmpty() || MAGIC_WORD.matcher(trimmedLine).matches()) {
+                appendParagraph(html, paragraph);
+            } else if (heading.matches()) {
+                appendParagraph(html, paragraph);
+                String tag = heading.group(1).length() == 2 ? "h2" : "h3";
+                html.append('<').append(tag).append("><span class=\"mw-headline\">")
+                        .append(renderInline(heading.group(2)))
+                        .append("</span></").append(tag).append(">\n");
+            } else if (LIST_CHARACTERS.indexOf(trimmedLine.charAt(0)) >= 0) {
+                appendParagraph(html, paragraph);
+                html.append("<ul><li>").append(renderInline(trimmedLine.substring(1))).append("</li></ul>\n");
+            } else {
+                if (!paragraph.isEmpty()) {
+                    paragraph.append(' ');
+                }
+                paragraph.append(trimmedLine);
+            }
+        }
+        appendParagraph(html, paragraph);
+        html.append("</div></div>\n");
+
+        html.append("<div id=\"mw-normal-catlinks\"><a href=\"/wiki/Help:Category\">Categories</a>: <ul>");
+        for (String category : categories) {
+            html.append("<li><a href=\"").append(WIKIPEDIA_URL_PART).append(CATEGORY_PREFIX).append(toPageName(category)).append("\">")
+                    .append(escape(category)).append("</a></li>");
+        }
+        html.append("</ul></div></body></html>");
+
+        return html.toString();
+    }
+
+    private static void appendParagraph(StringBuilder html, StringBuilder paragraph) {
+        if (!paragraph.isEmpty()) {
+            html.append("<p>").append(renderInline(paragraph.toString())).append("</p>\n");
+            paragraph.setLength(0);
+        }
+    }
+
+    /**
+     * Renders links and removes formatting of a single line or paragraph
+     *
+     * @param text wikitext
+     * @return HTML
+     */
+    private static String renderInline(String text) {
+        String html = escape(HTML_TAG.matcher(text).replaceAll(""));
+        html = EMPHASIS.matcher(html).replaceAll("");
+        html = EXTERNAL_LINK.matcher(html).replaceAll(match -> match.group(1) != null ? Matcher.quoteReplacement(match.group(1)) : "");
+        html = WIKI_LINK.matcher(html).replaceAll(match -> {
+            String target = match.group(1).strip();
+            String label = match.group(2) != null ? match.group(2) : target;
+            return Matcher.quoteReplacement("<a href=\"" + WIKIPEDIA_URL_PART + toPageName(target) + "\">" + label + "</a>");
+        });
+        return html;
+    }
+
+    /**
+     * Removes all nested blocks like templates or tables
+     *
+     * @param text  wikitext
+     * @param open  opening delimiter
+     * @param close closing delimiter
+     * @return wikitext without the blocks
+     */
+    private static String removeNested(String text, String open, String close) {
+        if (!text.contains(open)) {
+            return text;
+        }
+
+        StringBuilder result = new StringBuilder(text.length());
+        int depth = 0;
+        int i = 0;
+        while (i < text.length()) {
+            if (text.startsWith(open, i)) {
+                depth++;
+                i += open.length();
+            } else if (depth > 0 && text.startsWith(close, i)) {
+                depth--;
+                i += close.length();
+            } else {
+                if (depth == 0) {
+                    result.append(text.charAt(i));
+                }
+                i++;
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Removes file links and category links, the category names are collected
+     *
+     * @param text       wikitext
+     * @param categories receives the categories of the page
+     * @return wikitext without file and category links
+     */
+    private static String removeFilesAndCategories(String text, List<String> categories) {
+        StringBuilder result = new StringBuilder(text.length());
+        int i = 0;
+
+        while (i < text.length()) {
+            int linkStart = text.indexOf("[[", i);
+            if (linkStart < 0) {
+                result.append(text, i, text.length());
+                break;
+            }
+            result.append(text, i, linkStart);
+
+            int linkEnd = findLinkEnd(text, linkStart);
+            String content = text.substring(linkStart + 2, Math.max(linkStart + 2, linkEnd - 2)).strip();
+
+            if (content.startsWith(CATEGORY_PREFIX)) {
+                int separator = content.indexOf('|');
+                categories.add(content.substring(CATEGORY_PREFIX.length(), separator >= 0 ? separator : content.length()).strip());
+            } else if (FILE_PREFIXES.stream().noneMatch(content::startsWith)) {
+                result.append(text, linkStart, linkEnd);
+            }
+            i = linkEnd;
+        }
+        return result.toString();
+    }
+
+    private static int findLinkEnd(String text, int linkStart) {
+        int depth = 0;
+        int i = linkStart;
+        while (i < text.length()) {
+            if (text.startsWith("[[", i)) {
+                depth++;
+                i += 2;
+            } else if (text.startsWith("]]", i)) {
+                depth--;
+                i += 2;
+                if (depth == 0) {
+                    return i;
+                }
+            } else {
+                i++;
+            }
+        }
+        return text.length();
+    }
+
+    private static String toPageName(String title) {
+        String pageName = title.replace(' ', '_');
+        return pageName.isEmpty() ? pageName : Character.toUpperCase(pageName.charAt(0)) + pageName.substring(1);
+    }
+
+    private static String escape(String text) {
+        return text.replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+}
@@ -0,0 +1,45 @@
+package kit.edu.wikipediaextraction.export;
+
+class ArrowConstants {
+    // Arrow IPC stream format, the fields are the indices of the fields in the flat buffer schema of Arrow
+    final static int CONTINUATION = 0xFFFFFFFF;
+    final static int ALIGNMENT = 8;
+    final static short METADATA_VERSION_V5 = 4;
+
+    // message headers
+    final static byte SCHEMA = 1;
+    final static byte DICTIONARY_BATCH = 2;
+    final static byte RECORD_BATCH = 3;
+
+    // types
+    final static byte TYPE_INT = 2;
+    final static byte TYPE_UTF8 = 5;
+    final static byte TYPE_BOOL = 6;
+
+    final static int MESSAGE_VERSION = 0;
+    final static int MESSAGE_HEADER_TYPE = 1;
+    final static int MESSAGE_HEADER = 2;
+    final static int MESSAGE_BODY_LENGTH = 3;
+
+    final static int SCHEMA_FIELDS = 1;
+
+    final static int FIELD_NAME = 0;
+    final static int FIELD_NULLABLE = 1;
+    final static int FIELD_TYPE_TYPE = 2;
+    final static int FIELD_TYPE = 3;
+    final static int FIELD_DICTIONARY = 4;
+    final static int FIELD_CHILDREN = 5;
+
+    final static int INT_BIT_WIDTH = 0;
+    final static int INT_IS_SIGNED = 1;
+
+    final static int DICTIONARY_ENCODING_ID = 0;
+    final static int DICTIONARY_ENCODING_INDEX_TYPE = 1;
+
+    final static int RECORD_BATCH_LENGTH = 0;
+    final static int RECORD_BATCH_NODES = 1;
+    final static int RECORD_BATCH_BUFFERS = 2;
+
+    final static int DICTIONARY_BATCH_ID = 0;
+    final static int DICTIONARY_BATCH_DATA = 1;
+}
@@ -0,0 +1,26 @@
+package kit.edu.wikipediaextraction.export;
+
+/**
+ * Column of a columnar file
+ *
+ * @param name              name of the column
+ * @param type              value type
+ * @param dictionaryEncoded if true, each row group stores the distinct strings once and an index per row
+ */
+public record Column(
+        String name,
+        ColumnType type,
+        boolean dictionaryEncoded
+) {
+    public static Column string(String name) {
+        return new Column(name, ColumnType.STRING, false);
+    }
+
+    public static Column dictionary(String name) {
+        return new Column(name, ColumnType.STRING, true);
+    }
+
+    public static Column bool(String name) {
+        return new Column(name, ColumnType.BOOLEAN, false);
+    }
+}
@@ -0,0 +1,9 @@
+package kit.edu.wikipediaextraction.export;
+
+/**
+ * Value type of a column of a columnar file
+ */
+public enum ColumnType {
+    STRING,
+    BOOLEAN
+}
@@ -0,0 +1,260 @@
+package kit.edu.wikipediaextraction.export;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static kit.edu.wikipediaextraction.export.ArrowConstants.*;
+
+/**
+ * Reads the row groups of a file written by {@link ColumnarFileWriter}. Opening the file scans the headers of the
+ * Arrow messages, a row group is read with the dictionary batches that precede its record batch.
+ */
+public class ColumnarFileReader implements AutoCloseable {
+    private final static int PREFIX_LENGTH = 2 * Integer.BYTES;
+    private final FileChannel channel;
+    private final List<Column> columns;
+    // position of the first message of each row group and of the end of the stream
+    private final List<Long> rowGroupOffsets;
+    private final long rowCount;
+
+    public ColumnarFileReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            Message schema = this.readMessage(0);
+            if (schema == null || schema.headerType() != SCHEMA) {
+                throw new IOException("Not an Arrow stream: " + file);
+            }
+            this.columns = readColumns(schema);
+
+            this.rowGroupOffsets = new ArrayList<>();
+            long rowCount = 0;
+            long position = schema.end();
+            this.rowGroupOffsets.add(position);
+            for (Message message = this.readMessage(position); message != null; message = this.readMessage(position)) {
+                position = message.end();
+                if (message.headerType() == RECORD_BATCH) {
+                    rowCount += FlatBuffer.getLong(message.metadata(), message.header(), RECORD_BATCH_LENGTH, 0);
+                    this.rowGroupOffsets.add(position);
+                }
+            }
+            this.rowCount = rowCount;
+        } catch (IOException | RuntimeException e) {
+            this.channel.close();
+            throw e;
+        }
+    }
+
+    public List<Column> getColumns() {
+        return columns;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public int getRowGroupCount() {
+        return this.rowGroupOffsets.size() - 1;
+    }
+
+    /**
+     * Reads and decodes all columns of a row group
+     *
+     * @param rowGroup index of the row group
+     * @return rows with String or Boolean values in column order
+     * @throws IOException if the row group cannot be read
+     */
+    public List<Object[]> readRowGroup(int rowGroup) throws IOException {
+        Map<Long, String[]> dictionaries = new HashMap<>();
+        long position = this.rowGroupOffsets.get(rowGroup);
+        while (true) {
+            Message message = this.readMessage(position);
+            if (message == null) {
+                throw new EOFException();
+            }
+            ByteBuffer body = this.read(message.bodyStart(), (int) (message.end() - message.bodyStart()));
+            position = message.end();
+
+            if (message.headerType() == DICTIONARY_BATCH) {
+                ByteBuffer metadata = message.metadata();
+                long id = FlatBuffer.getLong(metadata, message.header(), DICTIONARY_BATCH_ID, 0);
+                int data = FlatBuffer.getTable(metadata, message.header(), DICTIONARY_BATCH_DATA);
+                String[] dictionary = new String[(int) FlatBuffer.getLong(metadata, data, RECORD_BATCH_LENGTH, 0)];
+                decodeStrings(new RecordBatch(metadata, data, body), 0, dictionary);
+                dictionaries.put(id, dictionary);
+            } else if (message.headerType() == RECORD_BATCH) {
+                RecordBatch recordBatch = new RecordBatch(message.metadata(), message.header(), body);
+                return this.decodeRecordBatch(recordBatch, dictionaries);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    private List<Object[]> decodeRecordBatch(RecordBatch recordBatch, Map<Long, String[]> dictionaries) {
+        int numberOfRows = (int) FlatBuffer.getLong(recordBatch.metadata(), recordBatch.table(), RECORD_BATCH_LENGTH, 0);
+        Object[][] rows = new Object[numberOfRows][this.columns.size()];
+        int buffer = 0;
+        for (int column = 0; column < this.columns.size(); column++) {
+            Object[] values = new Object[numberOfRows];
+            if (this.columns.get(column).type() == ColumnType.BOOLEAN) {
+                ByteBuffer bitmap = recordBatch.buffer(buffer + 1);
+                for (int i = 0; i < numberOfRows; i++) {
+                    values[i] = isSet(bitmap, i);
+                }
+                buffer += 2;
+            } else if (this.columns.get(column).dictionaryEncoded()) {
+                String[] dictionary = dictionaries.get((long) column);
+                ByteBuffer validity = recordBatch.buffer(buffer);
+                ByteBuffer indices = recordBatch.buffer(buffer + 1);
+                for (int i = 0; i < numberOfRows; i++) {
+                    values[i] = isValid(validity, i) ? dictionary[indices.getInt(Integer.BYTES * i)] : null;
+                }
+                buffer += 2;
+            } else {
+                decodeStrings(recordBatch, buffer, values);
+                buffer += 3;
+            }
+
+            for (int i = 0; i < numberOfRows; i++) {
+                rows[i][column] = values[i];
+            }
+        }
+        return Arrays.asList(rows);
+    }
+
+    /**
+     * Decodes a Utf8 column from its validity, offsets and data buffers
+     */
+    private static void decodeStrings(RecordBatch recordBatch, int buffer, Object[] values) {
+        ByteBuffer validity = recordBatch.buffer(buffer);
+        ByteBuffer offsets = recordBatch.buffer(buffer + 1);
+        ByteBuffer data = recordBatch.buffer(buffer + 2);
+        for (int i = 0; i < values.length; i++) {
+            if (isValid(validity, i)) {
+                int start = offsets.getInt(Integer.BYTES * i);
+                int end = offsets.getInt(Integer.BYTES * (i + 1));
+                byte[] bytes = new byte[end - start];
+                data.get(start, bytes);
+                values[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+        }
+    }
+
+    private static List<Column> readColumns(Message schema) throws IOException {
+        ByteBuffer metadata = schema.metadata();
+        List<Column> columns = new ArrayList<>();
+        for (int i = 0; i < FlatBuffer.getVectorLength(metadata, schema.header(), SCHEMA_FIELDS); i++) {
+            int field = FlatBuffer.getVectorTable(metadata, schema.header(), SCHEMA_FIELDS, i);
+            byte type = FlatBuffer.getByte(metadata, field, FIELD_TYPE_TYPE, (byte) 0);
+            if (type != TYPE_UTF8 && type != TYPE_BOOL) {
+                throw new IOException("Unsupported Arrow type " + type);
+            }
+            columns.add(new Column(
+                    FlatBuffer.getString(metadata, field, FIELD_NAME),
+                    type == TYPE_BOOL ? ColumnType.BOOLEAN : ColumnType.STRING,
+                    FlatBuffer.getField(metadata, field, FIELD_DICTIONARY) != 0
+            ));
+        }
+        return List.copyOf(columns);
+    }
+
+    /**
+     * @return message at the position, or null at the end of the stream
+     */
+    private Message readMessage(long position) throws IOException {
+        if (position + PREFIX_LENGTH > this.channel.size()) {
+            return null;
+        }
+        ByteBuffer prefix = this.read(position, PREFIX_LENGTH);
+        if (prefix.getInt() != CONTINUATION) {
+            throw new IOException("Missing continuation marker at " + position);
+        }
+        int metadataLength = prefix.getInt();
+        if (metadataLength == 0) {
+            return null;
+        }
+
+        ByteBuffer metadata = this.read(position + PREFIX_LENGTH, metadataLength);
+        int message = FlatBuffer.getRoot(metadata);
+        long bodyStart = position + PREFIX_LENGTH + metadataLength;
+        return new Message(
+                metadata,
+                FlatBuffer.getByte(metadata, message, MESSAGE_HEADER_TYPE, (byte) 0),
+                FlatBuffer.getTable(metadata, message, MESSAGE_HEADER),
+                bodyStart,
+                bodyStart + FlatBuffer.getLong(metadata, message, MESSAGE_BODY_LENGTH, 0)
+        );
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (this.channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException();
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static boolean isValid(ByteBuffer validity, int i) {
+        // an empty validity bitmap means that no value is null
+        return validity.capacity() == 0 || isSet(validity, i);
+    }
+
+    private static boolean isSet(ByteBuffer bitmap, int i) {
+        return (bitmap.get(i >> 3) & (1 << (i & 7))) != 0;
+    }
+
+    /**
+     * Encapsulated message of the stream
+     *
+     * @param metadata   flat buffer of the message
+     * @param headerType type of the header, e.g. a record batch
+     * @param header     position of the header table in the metadata
+     * @param bodyStart  position of the body in the file
+     * @param end        position after the body in the file
+     */
+    private record Message(
+            ByteBuffer metadata,
+            byte headerType,
+            int header,
+            long bodyStart,
+            long end
+    ) {
+    }
+
+    /**
+     * Record batch with its body
+     *
+     * @param metadata flat buffer of the message
+     * @param table    position of the record batch table in the metadata
+     * @param body     body of the message
+     */
+    private record RecordBatch(
+            ByteBuffer metadata,
+            int table,
+            ByteBuffer body
+    ) {
+        /**
+         * @return buffer of the body, the buffers are numbered over all columns
+         */
+        private ByteBuffer buffer(int buffer) {
+            int offset = (int) FlatBuffer.getVectorLong(this.metadata, this.table, RECORD_BATCH_BUFFERS, 2 * buffer);
+            int length = (int) FlatBuffer.getVectorLong(this.metadata, this.table, RECORD_BATCH_BUFFERS, 2 * buffer + 1);
+            return this.body.slice(offset, length).order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+}
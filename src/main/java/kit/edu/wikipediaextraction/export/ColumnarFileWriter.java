@@ -0,0 +1,413 @@
+package kit.edu.wikipediaextraction.export;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+
+import static kit.edu.wikipediaextraction.export.ArrowConstants.*;
+
+/**
+ * Writes rows to a file in the Arrow IPC stream format, which Arrow implementations read directly,
+ * e.g. pyarrow.ipc.open_stream or the ArrowStreamReader of Arrow Java. Rows are collected into row groups,
+ * every row group is encoded as a record batch on the worker pool while the next row group is filled.
+ * At most maxPendingRowGroups row groups are held in memory, encoded row groups are written in row order.
+ * <p>
+ * String columns are Utf8 columns, boolean columns are Bool columns. Dictionary encoded columns are Utf8 columns
+ * with int32 indices, the dictionary of a column has the index of the column as ID and is replaced by a dictionary
+ * batch before every record batch. The buffers are not compressed, Arrow only allows LZ4 and ZSTD compression.
+ */
+public class ColumnarFileWriter implements AutoCloseable {
+    private final static ThreadLocal<RowGroupEncoder> ENCODERS = ThreadLocal.withInitial(RowGroupEncoder::new);
+    private final List<Column> columns;
+    private final int rowGroupSize;
+    private final int maxPendingRowGroups;
+    private final ExecutorService encoders;
+    private final OutputStream output;
+    private final Deque<Future<byte[]>> pendingRowGroups;
+    private List<Object[]> rows;
+    private long rowCount;
+
+    /**
+     * @param file                file to write
+     * @param columns             columns of the rows
+     * @param rowGroupSize        rows per row group
+     * @param maxPendingRowGroups row groups that are encoded or waiting to be written at the same time
+     * @param encoders            pool that encodes the row groups
+     * @throws IOException if the file cannot be created
+     */
+    public ColumnarFileWriter(
+            Path file,
+            List<Column> columns,
+            int rowGroupSize,
+            int maxPendingRowGroups,
+            ExecutorService encoders
+    ) throws IOException {
+        this.columns = List.copyOf(columns);
+        this.rowGroupSize = Math.max(1, rowGroupSize);
+        this.maxPendingRowGroups = Math.max(1, maxPendingRowGroups);
+        this.encoders = encoders;
+        this.output = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16);
+        this.pendingRowGroups = new ArrayDeque<>();
+        this.rows = new ArrayList<>(this.rowGroupSize);
+
+        try {
+            writeMessage(this.output, SCHEMA, schema(this.columns), new byte[0], 0);
+        } catch (IOException e) {
+            this.output.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Adds a row, values are String, UTF-8 encoded byte[] or ByteBuffer, or Boolean in column order.
+     * Buffers are read when their row group is encoded and must not change before.
+     *
+     * @param row values of the row
+     * @throws IOException if a row group cannot be written
+     */
+    public void write(Object... row) throws IOException {
+        if (row.length != this.columns.size()) {
+            throw new IllegalArgumentException("expected " + this.columns.size() + " values, got " + row.length);
+        }
+
+        this.rows.add(row);
+        if (this.rows.size() == this.rowGroupSize) {
+            this.submitRowGroup();
+        }
+    }
+
+    /**
+     * Adds a complete row group, e.g. one whose buffers are views of a section batch. The rows added before
+     * form a row group of their own. The owner of the buffers is closed once the row group is encoded.
+     *
+     * @param rowGroup rows of the row group, with the values of {@link #write(Object...)}
+     * @param owner    owner of the buffers of the rows
+     * @throws IOException if a row group cannot be written
+     */
+    public void writeRowGroup(List<Object[]> rowGroup, AutoCloseable owner) throws IOException {
+        for (Object[] row : rowGroup) {
+            if (row.length != this.columns.size()) {
+                throw new IllegalArgumentException("expected " + this.columns.size() + " values, got " + row.length);
+            }
+        }
+
+        if (!this.rows.isEmpty()) {
+            this.submitRowGroup();
+        }
+        this.submitRowGroup(rowGroup, () -> {
+            try {
+                return encodeRowGroup(this.columns, rowGroup);
+            } finally {
+                owner.close();
+            }
+        });
+    }
+
+    public long getRowCount() {
+        return this.rowCount + this.rows.size();
+    }
+
+    /**
+     * Writes the remaining rows and the end of the stream. A file without rows gets an empty row group,
+     * so that readers find a dictionary for every dictionary encoded column.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (!this.rows.isEmpty() || this.rowCount == 0) {
+                this.submitRowGroup();
+            }
+            while (!this.pendingRowGroups.isEmpty()) {
+                this.writeRowGroup(this.pendingRowGroups.removeFirst());
+            }
+            this.output.write(ByteBuffer.allocate(2 * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).putInt(CONTINUATION).putInt(0).array());
+        } finally {
+            this.output.close();
+        }
+    }
+
+    private void submitRowGroup() throws IOException {
+        List<Object[]> rowGroup = this.rows;
+        this.rows = new ArrayList<>(this.rowGroupSize);
+        this.submitRowGroup(rowGroup, () -> encodeRowGroup(this.columns, rowGroup));
+    }
+
+    private void submitRowGroup(List<Object[]> rowGroup, Callable<byte[]> encoder) throws IOException {
+        this.rowCount += rowGroup.size();
+        if (this.pendingRowGroups.size() == this.maxPendingRowGroups) {
+            this.writeRowGroup(this.pendingRowGroups.removeFirst());
+        }
+        this.pendingRowGroups.addLast(this.encoders.submit(encoder));
+    }
+
+    private void writeRowGroup(Future<byte[]> pendingRowGroup) throws IOException {
+        try {
+            // row groups are written in the order they were submitted
+            this.output.write(pendingRowGroup.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while encoding a row group");
+        } catch (ExecutionException e) {
+            throw new IOException("Could not encode a row group", e.getCause());
+        }
+    }
+
+    private static FlatBuffer.Table schema(List<Column> columns) {
+        List<FlatBuffer.Table> fields = new ArrayList<>(columns.size());
+        for (int i = 0; i < columns.size(); i++) {
+            Column column = columns.get(i);
+            FlatBuffer.Table field = new FlatBuffer.Table()
+                    .addString(FIELD_NAME, column.name())
+                    .addBoolean(FIELD_NULLABLE, true)
+                    .addByte(FIELD_TYPE_TYPE, column.type() == ColumnType.BOOLEAN ? TYPE_BOOL : TYPE_UTF8)
+                    .addTable(FIELD_TYPE, new FlatBuffer.Table())
+                    .addTables(FIELD_CHILDREN, List.of());
+            if (column.dictionaryEncoded()) {
+                field.addTable(FIELD_DICTIONARY, new FlatBuffer.Table()
+                        .addLong(DICTIONARY_ENCODING_ID, i)
+                        .addTable(DICTIONARY_ENCODING_INDEX_TYPE, new FlatBuffer.Table()
+                                .addInt(INT_BIT_WIDTH, Integer.SIZE)
+                                .addBoolean(INT_IS_SIGNED, true)));
+            }
+            fields.add(field);
+        }
+        return new FlatBuffer.Table().addTables(SCHEMA_FIELDS, fields);
+    }
+
+    /**
+     * Encodes the dictionary batches and the record batch of a row group
+     */
+    private static byte[] encodeRowGroup(List<Column> columns, List<Object[]> rows) throws IOException {
+        RowGroupEncoder encoder = ENCODERS.get();
+        ByteArrayOutputStream messages = encoder.messages;
+        messages.reset();
+        RecordBatchBody recordBatch = encoder.recordBatch.reset(rows.size());
+
+        for (int i = 0; i < columns.size(); i++) {
+            int column = i;
+            if (columns.get(column).type() == ColumnType.BOOLEAN) {
+                recordBatch.addBooleans(row -> Boolean.TRUE.equals(rows.get(row)[column]));
+            } else if (columns.get(column).dictionaryEncoded()) {
+                Map<String, Integer> dictionary = new LinkedHashMap<>();
+                int[] indices = new int[rows.size()];
+                for (int row = 0; row < rows.size(); row++) {
+                    String value = toString(rows.get(row)[column]);
+                    indices[row] = value == null ? -1 : dictionary.computeIfAbsent(value, key -> dictionary.size());
+                }
+
+                List<String> values = new ArrayList<>(dictionary.keySet());
+                RecordBatchBody dictionaryBatch = encoder.dictionaryBatch.reset(values.size());
+                dictionaryBatch.addStrings(values::get);
+                FlatBuffer.Table header = new FlatBuffer.Table()
+                        .addLong(DICTIONARY_BATCH_ID, column)
+                        .addTable(DICTIONARY_BATCH_DATA, dictionaryBatch.toTable());
+                writeMessage(messages, DICTIONARY_BATCH, header, dictionaryBatch.body.array(), dictionaryBatch.body.position());
+                recordBatch.addIndices(indices);
+            } else {
+                recordBatch.addStrings(row -> rows.get(row)[column]);
+            }
+        }
+
+        writeMessage(messages, RECORD_BATCH, recordBatch.toTable(), recordBatch.body.array(), recordBatch.body.position());
+        return messages.toByteArray();
+    }
+
+    /**
+     * Writes an encapsulated message: continuation marker, length of the metadata, metadata and body
+     */
+    private static void writeMessage(
+            OutputStream output,
+            byte headerType,
+            FlatBuffer.Table header,
+            byte[] body,
+            int bodyLength
+    ) throws IOException {
+        byte[] metadata = FlatBuffer.serialize(new FlatBuffer.Table()
+                .addShort(MESSAGE_VERSION, METADATA_VERSION_V5)
+                .addByte(MESSAGE_HEADER_TYPE, headerType)
+                .addTable(MESSAGE_HEADER, header)
+                .addLong(MESSAGE_BODY_LENGTH, bodyLength));
+        output.write(ByteBuffer.allocate(2 * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).putInt(CONTINUATION).putInt(metadata.length).array());
+        output.write(metadata);
+        output.write(body, 0, bodyLength);
+    }
+
+    private static String toString(Object value) {
+        if (value instanceof byte[] bytes) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        } else if (value instanceof ByteBuffer bytes) {
+            return StandardCharsets.UTF_8.decode(bytes.duplicate()).toString();
+        }
+        return (String) value;
+    }
+
+    /**
+     * Body of a record batch with its field nodes and buffers, reused for all record batches of an encoder thread
+     */
+    private static class RecordBatchBody {
+        private ByteBuffer body = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        private long[] nodes = new long[16];
+        private long[] buffers = new long[32];
+        private int numberOfNodes;
+        private int numberOfBuffers;
+        private int length;
+
+        private RecordBatchBody reset(int length) {
+            this.body.clear();
+            this.numberOfNodes = 0;
+            this.numberOfBuffers = 0;
+            this.length = length;
+            return this;
+        }
+
+        /**
+         * Adds a Utf8 column: validity bitmap, offsets and UTF-8 bytes
+         *
+         * @param values String, UTF-8 encoded byte[] or ByteBuffer, or null of each row
+         */
+        private void addStrings(IntFunction<Object> values) {
+            Object[] utf8 = new Object[this.length];
+            int nullCount = 0;
+            for (int i = 0; i < this.length; i++) {
+                Object value = values.apply(i);
+                utf8[i] = value instanceof String string ? string.getBytes(StandardCharsets.UTF_8) : value;
+                nullCount += value == null ? 1 : 0;
+            }
+            this.addNode(nullCount);
+            this.addValidity(nullCount, i -> utf8[i] != null);
+
+            int start = this.ensureCapacity(Integer.BYTES * (this.length + 1));
+            int offset = 0;
+            this.body.putInt(offset);
+            for (Object value : utf8) {
+                if (value instanceof byte[] bytes) {
+                    offset += bytes.length;
+                } else if (value instanceof ByteBuffer bytes) {
+                    offset += bytes.remaining();
+                }
+                this.body.putInt(offset);
+            }
+            this.endBuffer(start);
+
+            start = this.ensureCapacity(offset);
+            for (Object value : utf8) {
+                if (value instanceof byte[] bytes) {
+                    this.body.put(bytes);
+                } else if (value instanceof ByteBuffer bytes) {
+                    // the bytes are copied straight from the buffer, e.g. from the off-heap texts of a section batch
+                    this.body.put(bytes.duplicate());
+                }
+            }
+            this.endBuffer(start);
+        }
+
+        /**
+         * Adds a Bool column: empty validity bitmap and the values as bitmap
+         */
+        private void addBooleans(IntPredicate values) {
+            this.addNode(0);
+            this.addValidity(0, null);
+            int start = this.ensureCapacity((this.length + 7) / 8);
+            this.putBitmap(values);
+            this.endBuffer(start);
+        }
+
+        /**
+         * Adds the int32 indices of a dictionary encoded column, -1 for null
+         */
+        private void addIndices(int[] indices) {
+            int nullCount = 0;
+            for (int index : indices) {
+                nullCount += index < 0 ? 1 : 0;
+            }
+            this.addNode(nullCount);
+            this.addValidity(nullCount, i -> indices[i] >= 0);
+
+            int start = this.ensureCapacity(Integer.BYTES * indices.length);
+            for (int index : indices) {
+                this.body.putInt(Math.max(index, 0));
+            }
+            this.endBuffer(start);
+        }
+
+        private FlatBuffer.Table toTable() {
+            return new FlatBuffer.Table()
+                    .addLong(RECORD_BATCH_LENGTH, this.length)
+                    .addStructs(RECORD_BATCH_NODES, Arrays.copyOf(this.nodes, this.numberOfNodes))
+                    .addStructs(RECORD_BATCH_BUFFERS, Arrays.copyOf(this.buffers, this.numberOfBuffers));
+        }
+
+        private void addNode(int nullCount) {
+            if (this.numberOfNodes == this.nodes.length) {
+                this.nodes = Arrays.copyOf(this.nodes, 2 * this.nodes.length);
+            }
+            this.nodes[this.numberOfNodes++] = this.length;
+            this.nodes[this.numberOfNodes++] = nullCount;
+        }
+
+        /**
+         * Adds the validity bitmap, which may be left out if no value is null
+         */
+        private void addValidity(int nullCount, IntPredicate valid) {
+            int start = this.ensureCapacity((this.length + 7) / 8);
+            if (nullCount > 0) {
+                this.putBitmap(valid);
+            }
+            this.endBuffer(start);
+        }
+
+        private void putBitmap(IntPredicate values) {
+            byte[] bitmap = new byte[(this.length + 7) / 8];
+            for (int i = 0; i < this.length; i++) {
+                if (values.test(i)) {
+                    bitmap[i >> 3] |= (byte) (1 << (i & 7));
+                }
+            }
+            this.body.put(bitmap);
+        }
+
+        /**
+         * Records the buffer that starts at the position and pads the body to the alignment of the next buffer
+         */
+        private void endBuffer(int start) {
+            if (this.numberOfBuffers == this.buffers.length) {
+                this.buffers = Arrays.copyOf(this.buffers, 2 * this.buffers.length);
+            }
+            this.buffers[this.numberOfBuffers++] = start;
+            this.buffers[this.numberOfBuffers++] = this.body.position() - start;
+            int padding = (ALIGNMENT - this.body.position() % ALIGNMENT) % ALIGNMENT;
+            this.body.put(new byte[padding]);
+        }
+
+        /**
+         * Grows the body for a buffer of the length and its padding
+         *
+         * @return position of the buffer
+         */
+        private int ensureCapacity(int length) {
+            if (this.body.remaining() < length + ALIGNMENT) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(this.body.capacity() * 2, this.body.position() + length + ALIGNMENT));
+                this.body = grown.order(ByteOrder.LITTLE_ENDIAN).put(this.body.flip());
+            }
+            return this.body.position();
+        }
+    }
+
+    /**
+     * Buffers of an encoder thread, reused for all row groups it encodes
+     */
+    private static class RowGroupEncoder {
+        private final ByteArrayOutputStream messages = new ByteArrayOutputStream(1 << 16);
+        private final RecordBatchBody recordBatch = new RecordBatchBody();
+        private final RecordBatchBody dictionaryBatch = new RecordBatchBody();
+    }
+}
@@ -0,0 +1,303 @@
+package kit.edu.wikipediaextraction.export;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Minimal FlatBuffers support for the metadata of Arrow IPC messages. Tables are built as a tree of fields and
+ * serialized front to back: every table is preceded by its vtable and followed by the objects it references,
+ * so all offsets point forward as the format requires. Scalars, strings, vectors of tables and vectors of
+ * structs of longs are supported, which covers the Schema, RecordBatch and DictionaryBatch messages.
+ * {@link #getTable(ByteBuffer, int, int)} and the other getters read the fields of a serialized table.
+ */
+final class FlatBuffer {
+    private FlatBuffer() {
+    }
+
+    /**
+     * Table of a flat buffer, fields are identified by their index in the schema of the table
+     */
+    static class Table {
+        private final TreeMap<Integer, Object> fields = new TreeMap<>();
+
+        Table addByte(int field, byte value) {
+            this.fields.put(field, value);
+            return this;
+        }
+
+        Table addBoolean(int field, boolean value) {
+            return this.addByte(field, (byte) (value ? 1 : 0));
+        }
+
+        Table addShort(int field, short value) {
+            this.fields.put(field, value);
+            return this;
+        }
+
+        Table addInt(int field, int value) {
+            this.fields.put(field, value);
+            return this;
+        }
+
+        Table addLong(int field, long value) {
+            this.fields.put(field, value);
+            return this;
+        }
+
+        Table addString(int field, String value) {
+            this.fields.put(field, value);
+            return this;
+        }
+
+        Table addTable(int field, Table value) {
+            this.fields.put(field, value);
+            return this;
+        }
+
+        Table addTables(int field, List<Table> value) {
+            this.fields.put(field, new TableVector(value));
+            return this;
+        }
+
+        /**
+         * @param field  index of the field
+         * @param values all longs of the structs, e.g. offset and length of each Arrow buffer
+         */
+        Table addStructs(int field, long[] values) {
+            this.fields.put(field, values);
+            return this;
+        }
+    }
+
+    private record TableVector(List<Table> tables) {
+    }
+
+    /**
+     * @param root root table
+     * @return flat buffer, padded to a multiple of 8 bytes
+     */
+    static byte[] serialize(Table root) {
+        Serializer serializer = new Serializer();
+        serializer.putInt(0);
+        int rootPosition = serializer.writeTable(root);
+        serializer.buffer.putInt(0, rootPosition);
+        serializer.align(Long.BYTES);
+        byte[] bytes = new byte[serializer.buffer.position()];
+        serializer.buffer.get(0, bytes);
+        return bytes;
+    }
+
+    /**
+     * @param buffer flat buffer, positions are relative to its start
+     * @return position of the root table
+     */
+    static int getRoot(ByteBuffer buffer) {
+        return buffer.getInt(0);
+    }
+
+    /**
+     * @return position of the value of the field in the table, or 0 if the field is not set
+     */
+    static int getField(ByteBuffer buffer, int table, int field) {
+        int vtable = table - buffer.getInt(table);
+        int vtableLength = buffer.getShort(vtable);
+        int entry = Short.BYTES * (2 + field);
+        if (entry >= vtableLength) {
+            return 0;
+        }
+        int offset = buffer.getShort(vtable + entry);
+        return offset == 0 ? 0 : table + offset;
+    }
+
+    static byte getByte(ByteBuffer buffer, int table, int field, byte defaultValue) {
+        int position = getField(buffer, table, field);
+        return position == 0 ? defaultValue : buffer.get(position);
+    }
+
+    static long getLong(ByteBuffer buffer, int table, int field, long defaultValue) {
+        int position = getField(buffer, table, field);
+        return position == 0 ? defaultValue : buffer.getLong(position);
+    }
+
+    /**
+     * @return position of the referenced table, string or vector, or 0 if the field is not set
+     */
+    static int getTable(ByteBuffer buffer, int table, int field) {
+        int position = getField(buffer, table, field);
+        return position == 0 ? 0 : position + buffer.getInt(position);
+    }
+
+    static String getString(ByteBuffer buffer, int table, int field) {
+        int string = getTable(buffer, table, field);
+        if (string == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[buffer.getInt(string)];
+        buffer.get(string + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return number of elements of the vector, 0 if the field is not set
+     */
+    static int getVectorLength(ByteBuffer buffer, int table, int field) {
+        int vector = getTable(buffer, table, field);
+        return vector == 0 ? 0 : buffer.getInt(vector);
+    }
+
+    /**
+     * @return position of a table in a vector of tables
+     */
+    static int getVectorTable(ByteBuffer buffer, int table, int field, int index) {
+        int element = getTable(buffer, table, field) + Integer.BYTES * (1 + index);
+        return element + buffer.getInt(element);
+    }
+
+    /**
+     * @return long of a vector of structs of longs, the index counts the longs of all structs
+     */
+    static long getVectorLong(ByteBuffer buffer, int table, int field, int index) {
+        return buffer.getLong(getTable(buffer, table, field) + Integer.BYTES + Long.BYTES * index);
+    }
+
+    private static class Serializer {
+        private ByteBuffer buffer = ByteBuffer.allocate(256).order(ByteOrder.LITTLE_ENDIAN);
+
+        private int writeTable(Table table) {
+            int numberOfFields = table.fields.isEmpty() ? 0 : table.fields.lastKey() + 1;
+            short[] offsets = new short[numberOfFields];
+            // the table starts with the offset to its vtable, the fields follow aligned to their size
+            int length = Integer.BYTES;
+            for (Map.Entry<Integer, Object> field : table.fields.entrySet()) {
+                int size = size(field.getValue());
+                length = (length + size - 1) / size * size;
+                offsets[field.getKey()] = (short) length;
+                length += size;
+            }
+
+            this.align(Short.BYTES);
+            int vtable = this.buffer.position();
+            this.putShort((short) (Short.BYTES * (2 + numberOfFields)));
+            this.putShort((short) length);
+            for (short offset : offsets) {
+                this.putShort(offset);
+            }
+
+            // the table is aligned to 8 bytes, so its longs are aligned as well
+            this.align(Long.BYTES);
+            int start = this.buffer.position();
+            this.ensureCapacity(length);
+            this.buffer.putInt(start - vtable);
+            this.buffer.put(new byte[length - Integer.BYTES]);
+            for (Map.Entry<Integer, Object> field : table.fields.entrySet()) {
+                int position = start + offsets[field.getKey()];
+                if (field.getValue() instanceof Byte value) {
+                    this.buffer.put(position, value);
+                } else if (field.getValue() instanceof Short value) {
+                    this.buffer.putShort(position, value);
+                } else if (field.getValue() instanceof Integer value) {
+                    this.buffer.putInt(position, value);
+                } else if (field.getValue() instanceof Long value) {
+                    this.buffer.putLong(position, value);
+                }
+            }
+
+            // referenced objects follow the table, offsets are relative to the position of the field
+            for (Map.Entry<Integer, Object> field : table.fields.entrySet()) {
+                int position = start + offsets[field.getKey()];
+                int object;
+                if (field.getValue() instanceof Table value) {
+                    object = this.writeTable(value);
+                } else if (field.getValue() instanceof String value) {
+                    object = this.writeString(value);
+                } else if (field.getValue() instanceof TableVector value) {
+                    object = this.writeTables(value.tables());
+                } else if (field.getValue() instanceof long[] value) {
+                    object = this.writeStructs(value);
+                } else {
+                    continue;
+                }
+                this.buffer.putInt(position, object - position);
+            }
+            return start;
+        }
+
+        private int writeString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            this.align(Integer.BYTES);
+            int start = this.buffer.position();
+            this.putInt(bytes.length);
+            this.ensureCapacity(bytes.length + 1);
+            this.buffer.put(bytes).put((byte) 0);
+            return start;
+        }
+
+        private int writeTables(List<Table> tables) {
+            this.align(Integer.BYTES);
+            int start = this.buffer.position();
+            this.putInt(tables.size());
+            for (int i = 0; i < tables.size(); i++) {
+                this.putInt(0);
+            }
+            for (int i = 0; i < tables.size(); i++) {
+                int element = start + Integer.BYTES * (1 + i);
+                // writing the table may grow the buffer
+                int table = this.writeTable(tables.get(i));
+                this.buffer.putInt(element, table - element);
+            }
+            return start;
+        }
+
+        private int writeStructs(long[] values) {
+            // the structs after the length are aligned to 8 bytes
+            this.align(Long.BYTES);
+            this.putInt(0);
+            int start = this.buffer.position();
+            this.putInt(values.length / 2);
+            this.ensureCapacity(Long.BYTES * values.length);
+            for (long value : values) {
+                this.buffer.putLong(value);
+            }
+            return start;
+        }
+
+        private static int size(Object value) {
+            if (value instanceof Byte) {
+                return Byte.BYTES;
+            } else if (value instanceof Short) {
+                return Short.BYTES;
+            } else if (value instanceof Long) {
+                return Long.BYTES;
+            }
+            // ints and offsets to referenced objects
+            return Integer.BYTES;
+        }
+
+        private void putShort(short value) {
+            this.ensureCapacity(Short.BYTES);
+            this.buffer.putShort(value);
+        }
+
+        private void putInt(int value) {
+            this.ensureCapacity(Integer.BYTES);
+            this.buffer.putInt(value);
+        }
+
+        private void align(int alignment) {
+            int padding = (alignment - this.buffer.position() % alignment) % alignment;
+            this.ensureCapacity(padding);
+            this.buffer.put(new byte[padding]);
+        }
+
+        private void ensureCapacity(int length) {
+            if (this.buffer.remaining() < length) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(this.buffer.capacity() * 2, this.buffer.position() + length)).order(ByteOrder.LITTLE_ENDIAN);
+                this.buffer = grown.put(this.buffer.flip());
+            }
+        }
+    }
+}
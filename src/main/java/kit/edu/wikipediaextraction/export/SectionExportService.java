@@ -0,0 +1,177 @@
+package kit.edu.wikipediaextraction.export;
+
+import kit.edu.wikipediaextraction.ApplicationPropertiesResolver;
+import kit.edu.wikipediaextraction.database.DatabaseService;
+import kit.edu.wikipediaextraction.database.section.SectionConstants;
+import kit.edu.wikipediaextraction.metrics.PipelineMetrics;
+import kit.edu.wikipediaextraction.model.WikipediaSection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Exports the stored sections, references and categories to Arrow IPC stream files for analysis and machine learning.
+ * Rows are streamed from the database, so the memory use only depends on the row group size.
+ */
+@Service
+public class SectionExportService {
+    public final static String SECTIONS_FILE = "sections.arrows";
+    public final static String REFERENCES_FILE = "references.arrows";
+    public final static String CATEGORIES_FILE = "categories.arrows";
+    private final static List<Column> SECTION_COLUMNS = List.of(
+            Column.string("sectionID"),
+            Column.string("articleID"),
+            Column.dictionary("articleHeadline"),
+            Column.string("rawArticleText"),
+            Column.string("cleanedArticleText"),
+            Column.dictionary("sectionHeadline"),
+            Column.bool("isFirstSection")
+    );
+    private final static List<Column> REFERENCE_COLUMNS = List.of(
+            Column.dictionary("sectionID"),
+            Column.dictionary("referenceText")
+    );
+    private final static List<Column> CATEGORY_COLUMNS = List.of(
+            Column.dictionary("articleID"),
+            Column.dictionary("categoryText")
+    );
+    private final static int NUMBER_OF_ENCODERS = Runtime.getRuntime().availableProcessors();
+    private final DatabaseService databaseService;
+    private final int rowGroupSize;
+    private final PipelineMetrics pipelineMetrics;
+
+    @Autowired
+    public SectionExportService(
+            DatabaseService databaseService,
+            ApplicationPropertiesResolver applicationPropertiesResolver,
+            PipelineMetrics pipelineMetrics
+    ) {
+        this(databaseService, applicationPropertiesResolver.getExportRowGroupSize(), pipelineMetrics);
+    }
+
+    public SectionExportService(
+            DatabaseService databaseService,
+            int rowGroupSize
+    ) {
+        this(databaseService, rowGroupSize, new PipelineMetrics());
+    }
+
+    /**
+     * @param databaseService database of the sections
+     * @param rowGroupSize    rows per row group
+     * @param pipelineMetrics metrics the exports are recorded in
+     */
+    public SectionExportService(
+            DatabaseService databaseService,
+            int rowGroupSize,
+            PipelineMetrics pipelineMetrics
+    ) {
+        this.databaseService = databaseService;
+        this.rowGroupSize = rowGroupSize;
+        this.pipelineMetrics = pipelineMetrics;
+    }
+
+    /**
+     * Writes the sections, references and categories into one columnar file each
+     *
+     * @param directory target directory, created if it does not exist
+     * @throws IOException if a file cannot be written
+     */
+    public void export(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        ExecutorService encoders = Executors.newFixedThreadPool(NUMBER_OF_ENCODERS, runnable -> {
+            Thread thread = new Thread(runnable, "export-encoder");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            long start = System.nanoTime();
+            long sections = this.exportSections(directory.resolve(SECTIONS_FILE), encoders);
+            long references = this.exportTable(directory.resolve(REFERENCES_FILE), REFERENCE_COLUMNS, SectionConstants.SELECT_EXPORT_REFERENCES, encoders);
+            long categories = this.exportTable(directory.resolve(CATEGORIES_FILE), CATEGORY_COLUMNS, SectionConstants.SELECT_EXPORT_CATEGORIES, encoders);
+            this.pipelineMetrics.recordExport(System.nanoTime() - start, sections, references, categories);
+        } finally {
+            encoders.shutdownNow();
+        }
+    }
+
+    /**
+     * Exports the sections through section batches, see {@link SectionRowGroupBuilder}
+     */
+    private long exportSections(
+            Path file,
+            ExecutorService encoders
+    ) throws IOException {
+        try (ColumnarFileWriter writer = new ColumnarFileWriter(file, SECTION_COLUMNS, this.rowGroupSize, NUMBER_OF_ENCODERS + 1, encoders);
+             SectionRowGroupBuilder rowGroups = new SectionRowGroupBuilder(writer, this.rowGroupSize)) {
+            try {
+                this.databaseService.forEachRow(SectionConstants.SELECT_EXPORT_SECTIONS, List.of(), resultSet -> new WikipediaSection(
+                        resultSet.getString(2),
+                        resultSet.getString(3),
+                        resultSet.getString(1),
+                        resultSet.getString(4),
+                        resultSet.getString(5),
+                        resultSet.getString(6),
+                        resultSet.getBoolean(7),
+                        List.of(),
+                        List.of()
+                ), section -> {
+                    try {
+                        rowGroups.add(section);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            rowGroups.finish();
+            return writer.getRowCount();
+        }
+    }
+
+    private long exportTable(
+            Path file,
+            List<Column> columns,
+            String query,
+            ExecutorService encoders
+    ) throws IOException {
+        // one row group is filled while the others are encoded
+        try (ColumnarFileWriter writer = new ColumnarFileWriter(file, columns, this.rowGroupSize, NUMBER_OF_ENCODERS + 1, encoders)) {
+            try {
+                this.databaseService.forEachRow(query, List.of(), resultSet -> {
+                    Object[] row = new Object[columns.size()];
+                    for (int i = 0; i < columns.size(); i++) {
+                        Column column = columns.get(i);
+                        if (column.type() == ColumnType.BOOLEAN) {
+                            row[i] = resultSet.getBoolean(i + 1);
+                        } else if (column.dictionaryEncoded()) {
+                            row[i] = resultSet.getString(i + 1);
+                        } else {
+                            // plain strings are copied as UTF-8 bytes without decoding them
+                            row[i] = resultSet.getBytes(i + 1);
+                        }
+                    }
+                    return row;
+                }, row -> {
+                    try {
+                        writer.write(row);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            return writer.getRowCount();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package kit.edu.wikipediaextraction.export;
+
+import kit.edu.wikipediaextraction.model.SectionBatch;
+import kit.edu.wikipediaextraction.model.SectionView;
+import kit.edu.wikipediaextraction.model.WikipediaSection;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the row groups of the sections export in section batches. The texts of a row group are written as views
+ * of the off-heap bytes of its batch, so the row groups that wait for an encoder do not hold their texts on the heap.
+ * A batch is closed once its row group is encoded. Row groups end after the article that fills them.
+ */
+class SectionRowGroupBuilder implements AutoCloseable {
+    private final ColumnarFileWriter writer;
+    private final int rowGroupSize;
+    private SectionBatch batch;
+    private List<WikipediaSection> article;
+
+    /**
+     * @param writer       writer of the sections file
+     * @param rowGroupSize minimum number of sections per row group
+     */
+    SectionRowGroupBuilder(
+            ColumnarFileWriter writer,
+            int rowGroupSize
+    ) {
+        this.writer = writer;
+        this.rowGroupSize = Math.max(1, rowGroupSize);
+        this.batch = new SectionBatch();
+        this.article = new ArrayList<>();
+    }
+
+    /**
+     * Adds a section, the sections of an article are expected one after the other
+     *
+     * @param section section in the order of the file
+     * @throws IOException if a row group cannot be written
+     */
+    void add(WikipediaSection section) throws IOException {
+        if (!this.article.isEmpty() && !this.article.get(0).articleID().equals(section.articleID())) {
+            this.addArticle();
+        }
+        this.article.add(section);
+    }
+
+    /**
+     * Writes the remaining sections as the last row group
+     *
+     * @throws IOException if the row group cannot be written
+     */
+    void finish() throws IOException {
+        if (!this.article.isEmpty()) {
+            this.addArticle();
+        }
+        if (this.batch.size() > 0) {
+            this.writeRowGroup();
+        }
+    }
+
+    /**
+     * Closes the batch that has not been handed to the writer
+     */
+    @Override
+    public void close() {
+        this.batch.close();
+    }
+
+    private void addArticle() throws IOException {
+        this.batch.addArticle(this.article);
+        this.article = new ArrayList<>();
+        if (this.batch.size() >= this.rowGroupSize) {
+            this.writeRowGroup();
+        }
+    }
+
+    private void writeRowGroup() throws IOException {
+        SectionBatch batch = this.batch;
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            SectionView section = batch.getSection(i);
+            rows.add(new Object[]{
+                    section.sectionID(),
+                    section.articleID(),
+                    section.articleHeadline(),
+                    section.rawArticleText(),
+                    section.cleanedArticleText(),
+                    section.sectionHeadline(),
+                    section.isFirstSection()
+            });
+        }
+
+        this.batch = new SectionBatch();
+        this.writer.writeRowGroup(rows, batch);
+    }
+}
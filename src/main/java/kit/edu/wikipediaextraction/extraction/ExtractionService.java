@@ -1,14 +1,24 @@
 package kit.edu.wikipediaextraction.extraction;
 
+import kit.edu.wikipediaextraction.ApplicationPropertiesResolver;
 import kit.edu.wikipediaextraction.model.WikipediaSection;
+import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HexFormat;
 import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -28,8 +38,28 @@ public class ExtractionService {
     private final static String HTML_TAG_HEADLINE = "h2";
     private final static String HTML_TAG_PARAGRAPH = "p";
     private final static int LENGTH_OF_WIKIPEDIA_IN_TITLE = 12;
+    private final static Pattern WIKIPEDIA_REVISION_ID = Pattern.compile("\"wgRevisionId\":(\\d+)");
+    private final static String REVISION_ID_PREFIX = "rev:";
+    private final static String CONTENT_HASH_PREFIX = "sha256:";
+    private final static String CONTENT_HASH_ALGORITHM = "SHA-256";
+    private final boolean streamingExtraction;
 
     public ExtractionService() {
+        this.streamingExtraction = false;
+    }
+
+    @Autowired
+    public ExtractionService(
+            ApplicationPropertiesResolver applicationPropertiesResolver
+    ) {
+        this.streamingExtraction = applicationPropertiesResolver.isStreamingExtraction();
+    }
+
+    /**
+     * @return true if articles are extracted from their HTML without parsing them into documents
+     */
+    public boolean isStreamingExtraction() {
+        return streamingExtraction;
     }
 
     /**
@@ -50,21 +80,103 @@ public class ExtractionService {
         return sections;
     }
 
+    /**
+     * Extracts all sections from the wikipedia articles on all available cores.
+     * The sections are returned in the same order as by {@link #extractSectionsFromArticles(Collection)}.
+     *
+     * @param docs wikipedia articles
+     * @return list of extracted sections
+     */
+    public Collection<WikipediaSection> extractSectionsFromArticlesInParallel(
+            Collection<Document> docs
+    ) {
+        return docs.parallelStream()
+                .map(this::extractSectionsFromArticle)
+                .flatMap(Collection::stream)
+                .toList();
+    }
+
+    /**
+     * Extracts all sections from the wikipedia articles on the threads of the pool instead of the common pool,
+     * so the number of threads can be chosen. The sections are returned in the same order as by
+     * {@link #extractSectionsFromArticles(Collection)}.
+     *
+     * @param docs wikipedia articles
+     * @param pool pool whose threads extract the articles
+     * @return list of extracted sections
+     */
+    public Collection<WikipediaSection> extractSectionsFromArticlesInParallel(
+            Collection<Document> docs,
+            ForkJoinPool pool
+    ) {
+        // a parallel stream started by a task of a pool splits its work among the threads of that pool
+        return pool.submit(() -> this.extractSectionsFromArticlesInParallel(docs)).join();
+    }
+
+    /**
+     * Parses the HTML of a wikipedia article
+     *
+     * @param html       HTML of the article
+     * @param articleURL URL of the article
+     * @return wikipedia article
+     */
+    public Document parseArticle(
+            String html,
+            String articleURL
+    ) {
+        return Jsoup.parse(html, articleURL);
+    }
+
+    /**
+     * Gets the revision of a wikipedia article, which is its revision ID or,
+     * if the page does not contain one, the hash of its content
+     *
+     * @param html HTML of the article
+     * @return revision of the article
+     */
+    public String getArticleRevision(
+            String html
+    ) {
+        Matcher matcher = WIKIPEDIA_REVISION_ID.matcher(html);
+        if (matcher.find()) {
+            return REVISION_ID_PREFIX + matcher.group(1);
+        }
+
+        try {
+            byte[] hash = MessageDigest.getInstance(CONTENT_HASH_ALGORITHM).digest(html.getBytes(StandardCharsets.UTF_8));
+            return CONTENT_HASH_PREFIX + HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Extracts the headline of a wikipedia article from its title
+     *
+     * @param doc wikipedia article
+     * @return headline of the article
+     */
+    public String extractArticleHeadline(
+            Document doc
+    ) {
+        String articleTitle = doc.selectFirst(HTML_TAG_TITLE).text();
+        return articleTitle.substring(0, articleTitle.length() - LENGTH_OF_WIKIPEDIA_IN_TITLE);
+    }
+
     /**
      * Extracts all sections of a wikipedia article
      *
      * @param doc wikipedia article
      * @return list of extracted sections
      */
-    private Collection<WikipediaSection> extractSectionsFromArticle(
+    public Collection<WikipediaSection> extractSectionsFromArticle(
             Document doc
     ) {
         Collection<WikipediaSection> sections = new ArrayList<>();
 
         // Extract article information
         UUID articleID = UUID.randomUUID();
-        String articleTitle = doc.selectFirst(HTML_TAG_TITLE).text();
-        String shortArticleTitle = articleTitle.substring(0, articleTitle.length() - LENGTH_OF_WIKIPEDIA_IN_TITLE);
+        String shortArticleTitle = this.extractArticleHeadline(doc);
         Collection<String> categories = this.extractWikipediaCategories(doc);
 
 
@@ -86,7 +198,12 @@ public class ExtractionService {
                 String htmlTag = textElement.tagName();
                 switch (htmlTag) {
                     case HTML_TAG_HEADLINE -> {
-                        lastHeadline = textElement.selectFirst(WIKIPEDIA_MW_HEADLINE_HTML_SELECTOR).text();
+                        Element headline = textElement.selectFirst(WIKIPEDIA_MW_HEADLINE_HTML_SELECTOR);
+                        if (headline == null) {
+                            // a headline without headline element does not start a section
+                            continue;
+                        }
+                        lastHeadline = headline.text();
                         headlineFound = true;
 
                         if (lastHeadline.equals(WIKIPEDIA_SECTION_REFERENCES)) {
@@ -99,7 +216,7 @@ public class ExtractionService {
                         // Each non-empty paragraph creates a new section
                         if (!textElement.classNames().contains(WIKIPEDIA_MW_EMPTY_CLASS_HTML_SELECTOR)) {
                             String rawArticleText = textElement.text();
-                            String cleanedArticleText = this.cleanParagraphText(textElement.text());
+                            String cleanedArticleText = this.cleanParagraphText(rawArticleText);
                             Collection<String> wikipediaReferences = this.extractWikipediaReferences(textElement);
                             UUID sectionID = UUID.randomUUID();
 
@@ -123,13 +240,51 @@ public class ExtractionService {
         return sections;
     }
 
+    /**
+     * Extracts all sections of a wikipedia article in a single pass over its HTML without parsing it into a document.
+     * The sections equal the ones of {@link #extractSectionsFromArticle(Document)}.
+     *
+     * @param html HTML of the article
+     * @return list of extracted sections
+     */
+    public Collection<WikipediaSection> extractSectionsFromHtml(
+            String html
+    ) {
+        return this.extractSectionsFromHtml(new StringReader(html));
+    }
+
+    /**
+     * Extracts all sections of a wikipedia article while its HTML is read, without holding the page in memory.
+     * The sections equal the ones of {@link #extractSectionsFromArticle(Document)}.
+     *
+     * @param html HTML of the article, it is not closed
+     * @return list of extracted sections
+     */
+    public Collection<WikipediaSection> extractSectionsFromHtml(
+            Reader html
+    ) {
+        return new StreamingSectionExtractor(html).extract();
+    }
+
+    /**
+     * Extracts the headline of a wikipedia article from the title in its HTML without parsing it into a document
+     *
+     * @param html HTML of the article
+     * @return headline of the article
+     */
+    public String extractArticleHeadline(
+            String html
+    ) {
+        return new StreamingSectionExtractor(new StringReader(html)).extractArticleHeadline();
+    }
+
     /**
      * Extracts the categories of a wikipedia article
      *
      * @param doc wikipedia article document
      * @return list of categories
      */
-    private Collection<String> extractWikipediaCategories(
+    public Collection<String> extractWikipediaCategories(
             Document doc
     ) {
         Collection<String> categories = new ArrayList<>();
@@ -154,7 +309,7 @@ public class ExtractionService {
      * @param textElement paragraph element
      * @return list of references
      */
-    private Collection<String> extractWikipediaReferences(
+    public Collection<String> extractWikipediaReferences(
             Element textElement
     ) {
         Collection<String> wikipediaReferences = new ArrayList<>();
@@ -176,45 +331,7 @@ public class ExtractionService {
      * @param text paragraph text
      * @return cleaned text
      */
-    private String cleanParagraphText(String text) {
-        return this.cleanText(this.removeBrackets(text));
-    }
-
-    /**
-     * Removes all brackets and their content
-     *
-     * @param text paragraph text
-     * @return cleaned text
-     */
-    private String removeBrackets(String text) {
-        StringBuilder result = new StringBuilder();
-        int bracketLevel = 0;
-
-        for (char c : text.toCharArray()) {
-            if (c == '(' || c == '[') {
-                bracketLevel++;
-            } else if (c == ')' || c == ']') {
-                bracketLevel--;
-            } else if (bracketLevel == 0) {
-                result.append(c);
-            }
-        }
-
-        return result.toString();
-    }
-
-    /**
-     * Cleans text
-     *
-     * @param text paragraph text
-     * @return cleaned text
-     */
-    private String cleanText(String text) {
-        String regex = "[^a-zA-Z0-9.,\\-!\\?\\s]";
-
-        Pattern pattern = Pattern.compile(regex);
-        Matcher matcher = pattern.matcher(text);
-
-        return matcher.replaceAll("");
+    public String cleanParagraphText(String text) {
+        return TextCleaner.clean(text);
     }
 }
@@ -0,0 +1,144 @@
+package kit.edu.wikipediaextraction.extraction;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * Characters of an HTML page that are read from a reader as they are needed.
+ * Positions are counted from the start of the page. The characters before the released position are dropped,
+ * so only the part of the page that is currently tokenized is held in memory.
+ */
+class HtmlInput {
+    private final static int BUFFER_SIZE = 8192;
+    private final Reader reader;
+    private char[] buffer;
+    // position of the first character in the buffer
+    private int start;
+    // position after the last character in the buffer
+    private int end;
+    private int released;
+    private boolean endOfInput;
+
+    /**
+     * @param reader HTML of the page, read up to its end but not closed
+     */
+    HtmlInput(Reader reader) {
+        this.reader = reader;
+        this.buffer = new char[BUFFER_SIZE];
+    }
+
+    /**
+     * @param position position in the page
+     * @return true if the page has a character at the position, reads up to the position if necessary
+     */
+    boolean contains(int position) {
+        return position < this.end || this.fill(position);
+    }
+
+    /**
+     * @param position position in the page, which has to be contained and not released
+     * @return character at the position
+     */
+    char charAt(int position) {
+        return this.buffer[position - this.start];
+    }
+
+    /**
+     * @param from position of the first character
+     * @param to   position after the last character, at most the end of the page
+     * @return characters between the positions
+     */
+    String substring(int from, int to) {
+        this.contains(to - 1);
+        return new String(this.buffer, from - this.start, to - from);
+    }
+
+    /**
+     * @param c    character to look for
+     * @param from position to start at
+     * @return position of the next occurrence of the character, or -1 if the rest of the page does not contain it
+     */
+    int indexOf(char c, int from) {
+        for (int i = from; this.contains(i); i++) {
+            if (this.buffer[i - this.start] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param value characters to look for
+     * @param from  position to start at
+     * @return position of the next occurrence of the characters, or -1 if the rest of the page does not contain them
+     */
+    int indexOf(String value, int from) {
+        for (int i = this.indexOf(value.charAt(0), from); i >= 0; i = this.indexOf(value.charAt(0), i + 1)) {
+            if (this.regionMatches(false, i, value)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param ignoreCase if true, the case of the characters is ignored
+     * @param position   position in the page
+     * @param value      characters to compare with
+     * @return true if the page contains the characters at the position
+     */
+    boolean regionMatches(boolean ignoreCase, int position, String value) {
+        if (!this.contains(position + value.length() - 1)) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = this.buffer[position - this.start + i];
+            char other = value.charAt(i);
+            if (c != other && !(ignoreCase && Character.toLowerCase(c) == Character.toLowerCase(other))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Allows to drop the characters before the position, they are not read anymore
+     *
+     * @param position position in the page
+     */
+    void release(int position) {
+        this.released = Math.max(this.released, position);
+    }
+
+    /**
+     * Reads characters until the buffer contains the position
+     *
+     * @return false if the page ends before the position
+     */
+    private boolean fill(int position) {
+        try {
+            while (!this.endOfInput && position >= this.end) {
+                int kept = this.end - this.released;
+                if (this.released > this.start && kept < this.buffer.length / 2) {
+                    System.arraycopy(this.buffer, this.released - this.start, this.buffer, 0, kept);
+                    this.start = this.released;
+                } else if (this.end - this.start == this.buffer.length) {
+                    this.buffer = Arrays.copyOf(this.buffer, this.buffer.length * 2);
+                }
+
+                int offset = this.end - this.start;
+                int read = this.reader.read(this.buffer, offset, this.buffer.length - offset);
+                if (read < 0) {
+                    this.endOfInput = true;
+                } else {
+                    this.end += read;
+                }
+            }
+            return position < this.end;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
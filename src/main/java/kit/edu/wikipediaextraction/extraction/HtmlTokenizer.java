@@ -0,0 +1,314 @@
+package kit.edu.wikipediaextraction.extraction;
+
+import org.jsoup.parser.Parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Pull tokenizer that reports the tags, texts and comments of an HTML page without building a document.
+ * Texts and attribute values are returned with decoded entities.
+ */
+class HtmlTokenizer {
+    enum Token {
+        START_TAG,
+        END_TAG,
+        TEXT,
+        DATA,
+        COMMENT,
+        END_OF_INPUT
+    }
+
+    private final static Set<String> RAW_TEXT_TAGS = Set.of("script", "style", "xmp", "iframe", "noembed", "noframes");
+    private final static Set<String> ESCAPABLE_RAW_TEXT_TAGS = Set.of("title", "textarea");
+    private final static String COMMENT_START = "<!--";
+    private final static String COMMENT_END = "-->";
+    private final HtmlInput input;
+    private final List<String> attributeNames;
+    private final List<String> attributeValues;
+    private int position;
+    private String rawTextTag;
+    private String tagName;
+    private boolean selfClosing;
+    private String text;
+
+    /**
+     * @param input HTML of the page, the characters before a token are released once the next token is read
+     */
+    HtmlTokenizer(HtmlInput input) {
+        this.input = input;
+        this.attributeNames = new ArrayList<>();
+        this.attributeValues = new ArrayList<>();
+    }
+
+    /**
+     * Reads the next token
+     *
+     * @return type of the token
+     */
+    Token next() {
+        this.input.release(this.position);
+        if (this.rawTextTag != null) {
+            return this.readRawText();
+        }
+
+        if (!this.input.contains(this.position)) {
+            return Token.END_OF_INPUT;
+        }
+
+        if (this.input.charAt(this.position) == '<' && this.input.contains(this.position + 1)) {
+            char next = this.input.charAt(this.position + 1);
+            if (isLetter(next)) {
+                return this.readStartTag();
+            }
+            if (next == '/' && this.input.contains(this.position + 2) && isLetter(this.input.charAt(this.position + 2))) {
+                return this.readEndTag();
+            }
+            if (next == '!' || next == '?' || next == '/') {
+                return this.readComment();
+            }
+        }
+
+        return this.readText();
+    }
+
+    String tagName() {
+        return tagName;
+    }
+
+    boolean isSelfClosing() {
+        return selfClosing;
+    }
+
+    String text() {
+        return text;
+    }
+
+    /**
+     * Skips the page up to the next tag that contains the value, e.g. as the value of an attribute.
+     * The skipped part is not tokenized, so it has to be outside of script and style elements.
+     *
+     * @param value characters to look for
+     * @return true if the next token is the tag, false if the rest of the page contains no such tag
+     */
+    boolean skipToTagContaining(String value) {
+        this.rawTextTag = null;
+        char first = value.charAt(0);
+        int tagStart = this.input.indexOf('<', this.position);
+        while (tagStart >= 0) {
+            this.input.release(tagStart);
+            int tagEnd = this.input.indexOf('>', tagStart);
+            if (tagEnd < 0) {
+                return false;
+            }
+            for (int i = tagStart + 1; i < tagEnd; i++) {
+                if (this.input.charAt(i) == first && this.input.regionMatches(false, i, value)) {
+                    this.position = tagStart;
+                    return true;
+                }
+            }
+            tagStart = this.input.indexOf('<', tagEnd + 1);
+        }
+        return false;
+    }
+
+    /**
+     * Gets an attribute of the last start tag
+     *
+     * @param name lower case attribute name
+     * @return decoded value, empty if the attribute has no value, or null if the tag has no such attribute
+     */
+    String attribute(String name) {
+        int index = this.attributeNames.indexOf(name);
+        if (index < 0) {
+            return null;
+        }
+        return decode(this.attributeValues.get(index), true);
+    }
+
+    private Token readStartTag() {
+        int i = this.position + 1;
+        int nameStart = i;
+        while (this.input.contains(i) && !isTagNameEnd(this.input.charAt(i))) {
+            i++;
+        }
+        this.tagName = this.input.substring(nameStart, i).toLowerCase(Locale.ROOT);
+        this.selfClosing = false;
+        this.attributeNames.clear();
+        this.attributeValues.clear();
+
+        while (this.input.contains(i)) {
+            char c = this.input.charAt(i);
+            if (c == '>') {
+                this.position = i + 1;
+                this.startRawText();
+                return Token.START_TAG;
+            }
+            if (c == '/') {
+                this.selfClosing = this.input.contains(i + 1) && this.input.charAt(i + 1) == '>';
+                i++;
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+
+            int attributeNameStart = i;
+            while (this.input.contains(i) && !isAttributeNameEnd(this.input.charAt(i))) {
+                i++;
+            }
+            String attributeName = this.input.substring(attributeNameStart, i).toLowerCase(Locale.ROOT);
+            while (this.input.contains(i) && Character.isWhitespace(this.input.charAt(i))) {
+                i++;
+            }
+
+            String attributeValue = "";
+            if (this.input.contains(i) && this.input.charAt(i) == '=') {
+                i++;
+                while (this.input.contains(i) && Character.isWhitespace(this.input.charAt(i))) {
+                    i++;
+                }
+                if (this.input.contains(i) && (this.input.charAt(i) == '"' || this.input.charAt(i) == '\'')) {
+                    int valueEnd = this.input.indexOf(this.input.charAt(i), i + 1);
+                    if (valueEnd < 0) {
+                        valueEnd = this.end(i + 1);
+                    }
+                    attributeValue = this.input.substring(i + 1, valueEnd);
+                    i = valueEnd + 1;
+                } else {
+                    int valueStart = i;
+                    while (this.input.contains(i) && !Character.isWhitespace(this.input.charAt(i)) && this.input.charAt(i) != '>') {
+                        i++;
+                    }
+                    attributeValue = this.input.substring(valueStart, i);
+                }
+            }
+
+            // like a parsed document, only the first of duplicate attributes is kept
+            if (!this.attributeNames.contains(attributeName)) {
+                this.attributeNames.add(attributeName);
+                this.attributeValues.add(attributeValue);
+            }
+        }
+
+        // a tag that is not closed before the end of the input is dropped
+        this.position = i;
+        return Token.END_OF_INPUT;
+    }
+
+    private Token readEndTag() {
+        int i = this.position + 2;
+        int nameStart = i;
+        while (this.input.contains(i) && !isTagNameEnd(this.input.charAt(i))) {
+            i++;
+        }
+        this.tagName = this.input.substring(nameStart, i).toLowerCase(Locale.ROOT);
+        this.attributeNames.clear();
+        this.attributeValues.clear();
+
+        int tagEnd = this.input.indexOf('>', i);
+        if (tagEnd < 0) {
+            this.position = this.end(i);
+            return Token.END_OF_INPUT;
+        }
+        this.position = tagEnd + 1;
+        return Token.END_TAG;
+    }
+
+    private Token readComment() {
+        int end;
+        if (this.input.regionMatches(false, this.position, COMMENT_START)) {
+            end = this.input.indexOf(COMMENT_END, this.position + COMMENT_START.length());
+            end = end < 0 ? this.end(this.position) : end + COMMENT_END.length();
+        } else {
+            // doctype, processing instructions and CDATA sections carry no text of the page
+            end = this.input.indexOf('>', this.position);
+            end = end < 0 ? this.end(this.position) : end + 1;
+        }
+        this.position = end;
+        return Token.COMMENT;
+    }
+
+    private Token readText() {
+        int start = this.position;
+        int i = start + 1;
+        while (this.input.contains(i) && !(this.input.charAt(i) == '<' && this.input.contains(i + 1) && isMarkupStart(this.input.charAt(i + 1)))) {
+            i++;
+        }
+        this.position = i;
+        this.text = decode(this.input.substring(start, i), false);
+        return Token.TEXT;
+    }
+
+    /**
+     * Reads the content of a script, style, title or textarea element up to its end tag
+     */
+    private Token readRawText() {
+        String endTag = "</" + this.rawTextTag;
+        boolean escapable = ESCAPABLE_RAW_TEXT_TAGS.contains(this.rawTextTag);
+        this.rawTextTag = null;
+
+        int start = this.position;
+        int end = this.indexOfEndTag(endTag, start);
+        this.position = end;
+        if (end == start) {
+            return this.next();
+        }
+
+        String content = this.input.substring(start, end);
+        this.text = escapable ? decode(content, false) : content;
+        return escapable ? Token.TEXT : Token.DATA;
+    }
+
+    private int indexOfEndTag(String endTag, int from) {
+        int i = from;
+        for (; this.input.contains(i); i++) {
+            if (this.input.charAt(i) == '<'
+                    && this.input.regionMatches(true, i, endTag)
+                    && (!this.input.contains(i + endTag.length()) || isTagNameEnd(this.input.charAt(i + endTag.length())))) {
+                return i;
+            }
+        }
+        return i;
+    }
+
+    /**
+     * @param from position in the page
+     * @return position of the end of the page
+     */
+    private int end(int from) {
+        int i = from;
+        while (this.input.contains(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private void startRawText() {
+        if (!this.selfClosing && (RAW_TEXT_TAGS.contains(this.tagName) || ESCAPABLE_RAW_TEXT_TAGS.contains(this.tagName))) {
+            this.rawTextTag = this.tagName;
+        }
+    }
+    private static String decode(String value, boolean inAttribute) {
+        return value.indexOf('&') < 0 ? value : Parser.unescapeEntities(value, inAttribute);
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isMarkupStart(char c) {
+        return isLetter(c) || c == '/' || c == '!' || c == '?';
+    }
+
+    private static boolean isTagNameEnd(char c) {
+        return Character.isWhitespace(c) || c == '/' || c == '>';
+    }
+
+    private static boolean isAttributeNameEnd(char c) {
+        return Character.isWhitespace(c) || c == '=' || c == '/' || c == '>';
+    }
+}
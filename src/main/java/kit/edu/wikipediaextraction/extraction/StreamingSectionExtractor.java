@@ -0,0 +1,517 @@
+package kit.edu.wikipediaextraction.extraction;
+
+import kit.edu.wikipediaextraction.model.WikipediaSection;
+import org.jsoup.parser.Tag;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Extracts the sections of a wikipedia article in a single pass over its HTML without building a document.
+ * The HTML is read from a reader while it is tokenized, so the page is never held in memory as a whole.
+ * Only the title, the paragraphs and headlines of the article content and the category links are read,
+ * the content after the references headline is skipped. Like in the parsed document, a headline without
+ * a headline element is skipped. The texts follow the rules of jsoup's
+ * {@link org.jsoup.nodes.Element#text()}, so the sections equal the ones extracted from the parsed document.
+ */
+class StreamingSectionExtractor {
+    private final static String WIKIPEDIA_MW_CONTENT_TEXT_ID = "mw-content-text";
+    private final static String WIKIPEDIA_MW_HEADLINE_CLASS = "mw-headline";
+    private final static String WIKIPEDIA_MW_EMPTY_CLASS = "mw-empty-elt";
+    private final static String WIKIPEDIA_LINKS_ID = "mw-normal-catlinks";
+    private final static String WIKIPEDIA_URL_PART = "/wiki";
+    private final static String WIKIPEDIA_SECTION_REFERENCES = "References";
+    private final static String WIKIPEDIA_CATEGORIES = "Categories";
+    private final static String HTML_ATTRIBUTE_ID = "id";
+    private final static String HTML_ATTRIBUTE_CLASS = "class";
+    private final static String HTML_ATTRIBUTE_HREF = "href";
+    private final static String HTML_TAG_TITLE = "title";
+    private final static String HTML_TAG_HEADLINE = "h2";
+    private final static String HTML_TAG_PARAGRAPH = "p";
+    private final static String HTML_TAG_LINK = "a";
+    private final static String HTML_TAG_LINE_BREAK = "br";
+    private final static int LENGTH_OF_WIKIPEDIA_IN_TITLE = 12;
+    private final static int NOT_OPEN = -1;
+    // start tags that close an open paragraph, as in the HTML parsing algorithm
+    private final static Set<String> PARAGRAPH_CLOSING_TAGS = Set.of(
+            "address", "article", "aside", "blockquote", "center", "details", "dialog", "dir", "div", "dl",
+            "fieldset", "figcaption", "figure", "footer", "header", "hgroup", "main", "menu", "nav", "ol", "p",
+            "section", "summary", "ul", "h1", "h2", "h3", "h4", "h5", "h6", "pre", "listing", "form", "plaintext",
+            "table", "hr", "xmp", "li", "dd", "dt"
+    );
+    private final static Set<String> PARAGRAPH_SCOPE_BOUNDARIES = Set.of(
+            "applet", "caption", "html", "table", "td", "th", "marquee", "object", "template", "button"
+    );
+
+    private final HtmlTokenizer tokenizer;
+    private final List<String> openElements;
+    private final List<Paragraph> paragraphs;
+    private final List<String> categories;
+    private String articleTitle;
+    private TextAccumulator titleText;
+    private int titleLevel;
+    private int contentTextLevel;
+    private int containerLevel;
+    private boolean contentDone;
+    private String lastHeadline;
+    private boolean headlineFound;
+    private int paragraphLevel;
+    private TextAccumulator paragraphText;
+    private List<String> paragraphReferences;
+    private int headlineLevel;
+    private TextAccumulator headlineText;
+    private int headlineTextLevel;
+    private String headline;
+    private boolean categoryLinksFound;
+    private int categoryLinksLevel;
+    private TextAccumulator categoryText;
+    private int categoryLevel;
+
+    private record Paragraph(
+            String rawText,
+            String sectionHeadline,
+            boolean isFirstSection,
+            List<String> references
+    ) {
+    }
+
+    /**
+     * @param html HTML of the article, it is not closed
+     */
+    StreamingSectionExtractor(Reader html) {
+        this.tokenizer = new HtmlTokenizer(new HtmlInput(html));
+        this.openElements = new ArrayList<>();
+        this.paragraphs = new ArrayList<>();
+        this.categories = new ArrayList<>();
+        this.titleLevel = NOT_OPEN;
+        this.contentTextLevel = NOT_OPEN;
+        this.containerLevel = NOT_OPEN;
+        this.lastHeadline = "";
+        this.paragraphLevel = NOT_OPEN;
+        this.headlineLevel = NOT_OPEN;
+        this.headlineTextLevel = NOT_OPEN;
+        this.categoryLinksLevel = NOT_OPEN;
+        this.categoryLevel = NOT_OPEN;
+    }
+
+    /**
+     * Extracts all sections of the article
+     *
+     * @return list of extracted sections
+     */
+    List<WikipediaSection> extract() {
+        HtmlTokenizer.Token token;
+        while (!this.contentDone && (token = this.tokenizer.next()) != HtmlTokenizer.Token.END_OF_INPUT) {
+            this.handle(token);
+        }
+
+        String articleHeadline = this.getArticleHeadline();
+        if (this.paragraphs.isEmpty()) {
+            return List.of();
+        }
+        if (!this.categoryLinksFound) {
+            this.readCategoryLinks();
+        }
+
+        List<WikipediaSection> sections = new ArrayList<>(this.paragraphs.size());
+        String articleID = UUID.randomUUID().toString();
+        List<String> categories = List.copyOf(this.categories);
+
+        for (Paragraph paragraph : this.paragraphs) {
+            sections.add(new WikipediaSection(
+                    articleID,
+                    articleHeadline,
+                    UUID.randomUUID().toString(),
+                    paragraph.rawText(),
+                    TextCleaner.clean(paragraph.rawText()),
+                    paragraph.sectionHeadline(),
+                    paragraph.isFirstSection(),
+                    paragraph.references(),
+                    categories
+            ));
+        }
+        return sections;
+    }
+
+    /**
+     * Reads the HTML up to the end of the title and gets the headline of the article from it
+     *
+     * @return headline of the article
+     */
+    String extractArticleHeadline() {
+        HtmlTokenizer.Token token;
+        while (this.articleTitle == null && (token = this.tokenizer.next()) != HtmlTokenizer.Token.END_OF_INPUT) {
+            this.handle(token);
+        }
+        return this.getArticleHeadline();
+    }
+
+    private String getArticleHeadline() {
+        if (this.articleTitle == null) {
+            throw new IllegalStateException("Article has no title");
+        }
+        return this.articleTitle.substring(0, this.articleTitle.length() - LENGTH_OF_WIKIPEDIA_IN_TITLE);
+    }
+
+    /**
+     * Jumps to the category links, which follow the article content at the end of the page
+     */
+    private void readCategoryLinks() {
+        while (!this.categoryLinksFound) {
+            if (!this.tokenizer.skipToTagContaining(WIKIPEDIA_LINKS_ID)) {
+                return;
+            }
+
+            this.openElements.clear();
+            if (this.tokenizer.next() == HtmlTokenizer.Token.START_TAG) {
+                this.handle(HtmlTokenizer.Token.START_TAG);
+            }
+
+            HtmlTokenizer.Token token;
+            while (this.categoryLinksLevel != NOT_OPEN && (token = this.tokenizer.next()) != HtmlTokenizer.Token.END_OF_INPUT) {
+                this.handle(token);
+            }
+        }
+    }
+
+    private void handle(HtmlTokenizer.Token token) {
+        switch (token) {
+            case START_TAG -> this.handleStartTag(this.tokenizer.tagName());
+            case END_TAG -> this.handleEndTag(this.tokenizer.tagName());
+            case TEXT -> this.handleText(this.tokenizer.text());
+            case COMMENT -> this.forEachText(TextAccumulator::comment);
+            default -> {
+                // script and style contents are not part of the text
+            }
+        }
+    }
+
+    private void handleStartTag(String tagName) {
+        if (PARAGRAPH_CLOSING_TAGS.contains(tagName) && this.isParagraphInScope()) {
+            this.closeElement(HTML_TAG_PARAGRAPH);
+        }
+
+        Tag tag = Tag.valueOf(tagName);
+        this.openElements.add(tagName);
+        this.startElement(tagName, tag, this.openElements.size());
+
+        if (tag.isEmpty() || this.tokenizer.isSelfClosing()) {
+            this.popElement();
+        }
+    }
+
+    private void handleEndTag(String tagName) {
+        if (tagName.equals(HTML_TAG_PARAGRAPH) && !this.isParagraphInScope()) {
+            // a parsed document contains an empty paragraph for an end tag without start tag
+            this.openElements.add(tagName);
+            this.startElement(tagName, Tag.valueOf(tagName), this.openElements.size());
+            this.popElement();
+        } else if (tagName.equals(HTML_TAG_LINE_BREAK)) {
+            this.openElements.add(tagName);
+            this.startElement(tagName, Tag.valueOf(tagName), this.openElements.size());
+            this.popElement();
+        } else if (this.openElements.contains(tagName)) {
+            this.closeElement(tagName);
+        }
+    }
+
+    private void handleText(String text) {
+        this.forEachText(accumulator -> accumulator.text(text));
+    }
+
+    private void startElement(String tagName, Tag tag, int level) {
+        this.forEachText(accumulator -> accumulator.startElement(tag));
+
+        if (this.paragraphText != null && tagName.equals(HTML_TAG_LINK)) {
+            String href = this.tokenizer.attribute(HTML_ATTRIBUTE_HREF);
+            if (href != null && href.contains(WIKIPEDIA_URL_PART)) {
+                this.paragraphReferences.add(href);
+            }
+        }
+
+        if (this.articleTitle == null && this.titleText == null && tagName.equals(HTML_TAG_TITLE)) {
+            this.titleText = new TextAccumulator(tag);
+            this.titleLevel = level;
+        }
+
+        if (this.contentTextLevel == NOT_OPEN) {
+            if (WIKIPEDIA_MW_CONTENT_TEXT_ID.equals(this.tokenizer.attribute(HTML_ATTRIBUTE_ID))) {
+                this.contentTextLevel = level;
+            }
+        } else if (this.containerLevel == NOT_OPEN && level == this.contentTextLevel + 1) {
+            this.containerLevel = level;
+        } else if (this.containerLevel != NOT_OPEN && level == this.containerLevel + 1 && !this.contentDone) {
+            this.startContentElement(tagName, tag, level);
+        }
+
+        if (this.headlineLevel != NOT_OPEN && this.headline == null && this.headlineText == null && this.hasClass(WIKIPEDIA_MW_HEADLINE_CLASS)) {
+            this.headlineText = new TextAccumulator(tag);
+            this.headlineTextLevel = level;
+        }
+
+        if (!this.categoryLinksFound) {
+            if (WIKIPEDIA_LINKS_ID.equals(this.tokenizer.attribute(HTML_ATTRIBUTE_ID))) {
+                this.categoryLinksFound = true;
+                this.categoryLinksLevel = level;
+            }
+        } else if (this.categoryLinksLevel != NOT_OPEN && this.categoryText == null && tagName.equals(HTML_TAG_LINK)) {
+            this.categoryText = new TextAccumulator(tag);
+            this.categoryLevel = level;
+        }
+    }
+
+    /**
+     * Starts a paragraph or headline of the article content
+     */
+    private void startContentElement(String tagName, Tag tag, int level) {
+        switch (tagName) {
+            case HTML_TAG_PARAGRAPH -> {
+                this.paragraphLevel = level;
+                String classNames = this.tokenizer.attribute(HTML_ATTRIBUTE_CLASS);
+                if (classNames == null || !List.of(classNames.trim().split("\\s+")).contains(WIKIPEDIA_MW_EMPTY_CLASS)) {
+                    this.paragraphText = new TextAccumulator(tag);
+                    this.paragraphReferences = new ArrayList<>();
+                }
+            }
+
+            case HTML_TAG_HEADLINE -> {
+                this.headlineLevel = level;
+                this.headline = null;
+            }
+        }
+    }
+
+    private void endElement(Tag tag, int level) {
+        this.forEachText(accumulator -> {
+            if (level > this.getRootLevel(accumulator)) {
+                accumulator.endElement(tag);
+            }
+        });
+
+        if (level == this.titleLevel) {
+            this.articleTitle = this.titleText.getText();
+            this.titleText = null;
+            this.titleLevel = NOT_OPEN;
+        }
+
+        if (level == this.paragraphLevel) {
+            if (this.paragraphText != null) {
+                this.paragraphs.add(new Paragraph(this.paragraphText.getText(), this.lastHeadline, !this.headlineFound, this.paragraphReferences));
+            }
+            this.paragraphText = null;
+            this.paragraphReferences = null;
+            this.paragraphLevel = NOT_OPEN;
+        }
+
+        if (level == this.headlineTextLevel) {
+            this.headline = this.headlineText.getText();
+            this.headlineText = null;
+            this.headlineTextLevel = NOT_OPEN;
+        }
+
+        if (level == this.headlineLevel && this.headline == null) {
+            // a headline without headline element does not start a section
+            this.headlineLevel = NOT_OPEN;
+        } else if (level == this.headlineLevel) {
+            this.lastHeadline = this.headline;
+            this.headlineFound = true;
+            this.headlineLevel = NOT_OPEN;
+
+            if (this.lastHeadline.equals(WIKIPEDIA_SECTION_REFERENCES)) {
+                // End of article content is reached
+                this.contentDone = true;
+            }
+        }
+
+        if (level == this.categoryLevel) {
+            String linkText = this.categoryText.getText();
+            if (!linkText.equals(WIKIPEDIA_CATEGORIES)) {
+                this.categories.add(linkText);
+            }
+            this.categoryText = null;
+            this.categoryLevel = NOT_OPEN;
+        }
+
+        if (level == this.categoryLinksLevel) {
+            this.categoryLinksLevel = NOT_OPEN;
+        }
+
+        if (level == this.containerLevel || (level == this.contentTextLevel && this.containerLevel == NOT_OPEN)) {
+            this.contentDone = true;
+        }
+    }
+
+    private int getRootLevel(TextAccumulator accumulator) {
+        if (accumulator == this.paragraphText) {
+            return this.paragraphLevel;
+        }
+        if (accumulator == this.headlineText) {
+            return this.headlineTextLevel;
+        }
+        if (accumulator == this.categoryText) {
+            return this.categoryLevel;
+        }
+        return this.titleLevel;
+    }
+
+    private void forEachText(Consumer<TextAccumulator> action) {
+        if (this.titleText != null) {
+            action.accept(this.titleText);
+        }
+        if (this.paragraphText != null) {
+            action.accept(this.paragraphText);
+        }
+        if (this.headlineText != null) {
+            action.accept(this.headlineText);
+        }
+        if (this.categoryText != null) {
+            action.accept(this.categoryText);
+        }
+    }
+
+    private boolean hasClass(String className) {
+        String classNames = this.tokenizer.attribute(HTML_ATTRIBUTE_CLASS);
+        if (classNames == null) {
+            return false;
+        }
+        for (String name : classNames.trim().split("\\s+")) {
+            if (name.equalsIgnoreCase(className)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isParagraphInScope() {
+        for (int i = this.openElements.size() - 1; i >= 0; i--) {
+            String tagName = this.openElements.get(i);
+            if (tagName.equals(HTML_TAG_PARAGRAPH)) {
+                return true;
+            }
+            if (PARAGRAPH_SCOPE_BOUNDARIES.contains(tagName)) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Closes all elements up to and including the most recently opened element with the tag name
+     */
+    private void closeElement(String tagName) {
+        String closedTagName;
+        do {
+            closedTagName = this.popElement();
+        } while (!closedTagName.equals(tagName));
+    }
+
+    private String popElement() {
+        int level = this.openElements.size();
+        String tagName = this.openElements.remove(level - 1);
+        this.endElement(Tag.valueOf(tagName), level);
+        return tagName;
+    }
+
+    /**
+     * Collects the text of an element like {@link org.jsoup.nodes.Element#text()}:
+     * whitespace is normalized and block elements are separated by a space
+     */
+    private static class TextAccumulator {
+        private final StringBuilder text;
+        private boolean blockEnded;
+        private int preserveWhitespaceDepth;
+
+        /**
+         * @param root tag of the element whose text is collected
+         */
+        TextAccumulator(Tag root) {
+            this.text = new StringBuilder();
+            this.preserveWhitespaceDepth = root.preserveWhitespace() ? 1 : 0;
+        }
+
+        void startElement(Tag tag) {
+            if (this.blockEnded && !tag.formatAsBlock()) {
+                this.appendSpace();
+            }
+            this.blockEnded = false;
+
+            if (this.text.length() > 0 && (tag.isBlock() || tag.getName().equals(HTML_TAG_LINE_BREAK))) {
+                this.appendSpace();
+            }
+            if (tag.preserveWhitespace()) {
+                this.preserveWhitespaceDepth++;
+            }
+        }
+
+        void endElement(Tag tag) {
+            if (tag.preserveWhitespace()) {
+                this.preserveWhitespaceDepth--;
+            }
+            this.blockEnded = tag.isBlock();
+        }
+
+        void text(String value) {
+            if (this.blockEnded) {
+                this.appendSpace();
+            }
+            this.blockEnded = false;
+
+            if (this.preserveWhitespaceDepth > 0) {
+                this.text.append(value);
+            } else {
+                this.appendNormalizedWhitespace(value);
+            }
+        }
+
+        void comment() {
+            this.blockEnded = false;
+        }
+
+        String getText() {
+            return this.text.toString().trim();
+        }
+
+        /**
+         * Appends the value with runs of whitespace collapsed into a single space, like jsoup's text
+         */
+        private void appendNormalizedWhitespace(String value) {
+            boolean lastWasWhite = this.endsWithSpace();
+            for (int i = 0; i < value.length(); ) {
+                int c = value.codePointAt(i);
+                if (isActuallyWhitespace(c)) {
+                    if (!lastWasWhite) {
+                        this.text.append(' ');
+                        lastWasWhite = true;
+                    }
+                } else if (!isInvisibleChar(c)) {
+                    this.text.appendCodePoint(c);
+                    lastWasWhite = false;
+                }
+                i += Character.charCount(c);
+            }
+        }
+
+        private void appendSpace() {
+            if (!this.endsWithSpace()) {
+                this.text.append(' ');
+            }
+        }
+
+        private boolean endsWithSpace() {
+            return this.text.length() > 0 && this.text.charAt(this.text.length() - 1) == ' ';
+        }
+
+        private static boolean isActuallyWhitespace(int c) {
+            return c == ' ' || c == '\t' || c == '\n' || c == '\f' || c == '\r' || c == '\u00A0';
+        }
+
+        // zero width space and soft hyphen
+        private static boolean isInvisibleChar(int c) {
+            return c == '\u200B' || c == '\u00AD';
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package kit.edu.wikipediaextraction.extraction;
+
+/**
+ * Cleans paragraph texts in a single pass without regular expressions
+ */
+public class TextCleaner {
+
+    private TextCleaner() {
+    }
+
+    /**
+     * Removes all brackets with their content and every character that is not
+     * a latin letter, digit, whitespace or one of {@code . , - ! ?}
+     *
+     * @param text paragraph text
+     * @return cleaned text
+     */
+    public static String clean(String text) {
+        int length = text.length();
+        char[] result = new char[length];
+        int resultLength = 0;
+        int bracketLevel = 0;
+
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '(' || c == '[') {
+                bracketLevel++;
+            } else if (c == ')' || c == ']') {
+                bracketLevel--;
+            } else if (bracketLevel == 0 && isAllowed(c)) {
+                result[resultLength++] = c;
+            }
+        }
+
+        return resultLength == length ? text : new String(result, 0, resultLength);
+    }
+
+    /**
+     * Same character class as the regular expression {@code [a-zA-Z0-9.,\-!?\s]}
+     *
+     * @param c character
+     * @return true if the character is kept
+     */
+    private static boolean isAllowed(char c) {
+        return (c >= 'a' && c <= 'z')
+                || (c >= 'A' && c <= 'Z')
+                || (c >= '0' && c <= '9')
+                || c == '.' || c == ',' || c == '-' || c == '!' || c == '?'
+                || c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
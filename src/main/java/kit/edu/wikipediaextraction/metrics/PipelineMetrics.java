@@ -0,0 +1,420 @@
+package kit.edu.wikipediaextraction.metrics;
+
+import io.micrometer.core.instrument.*;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Timers, counters and histograms of the extraction pipeline.
+ * The meters are registered in the Spring meter registry and are exposed through the actuator metrics endpoint.
+ */
+@Component
+public class PipelineMetrics {
+    private final static String FETCH_TIMER = "extraction.fetch";
+    private final static String FETCH_BYTES = "extraction.fetch.bytes";
+    private final static String FETCH_NOT_MODIFIED = "extraction.fetch.not.modified";
+    private final static String PARSE_TIMER = "extraction.parse";
+    private final static String EXTRACT_TIMER = "extraction.extract";
+    private final static String SECTIONS_PER_ARTICLE = "extraction.sections.per.article";
+    private final static String PERSIST_TIMER = "extraction.persist";
+    private final static String GROUP_COMMIT_TIMER = "extraction.persist.commit";
+    private final static String ARTICLES_PER_COMMIT = "extraction.persist.articles.per.commit";
+    private final static String INSERT_BATCH_TIMER = "extraction.insert.batch";
+    private final static String INSERT_ROWS = "extraction.insert.rows";
+    private final static String QUEUE_DEPTH = "extraction.queue.depth";
+    private final static String DUPLICATE_SECTIONS = "extraction.sections.duplicate";
+    private final static String FETCH_RATE = "extraction.fetch.rate";
+    private final static String STAGE_FAILURES = "extraction.stage.failures";
+    private final static String RESUMED_REQUESTS = "extraction.crawl.resumed.requests";
+    private final static String INGESTION_TIMER = "extraction.ingestion.batch";
+    private final static String INGESTION_SKIPPED = "extraction.ingestion.skipped";
+    private final static String SHARD_WORK_ITEMS = "extraction.shard.work.items";
+    private final static String SHARD_PARTITIONS = "extraction.shard.partitions";
+    private final static String SHARD_MERGED_ARTICLES = "extraction.shard.merged.articles";
+    private final static String EXPORT_TIMER = "extraction.export";
+    private final static String EXPORT_ROWS = "extraction.export.rows";
+    private final static String STAGE_TAG = "stage";
+    private final static String TABLE_TAG = "table";
+    private final static String TYPE_TAG = "type";
+    private final static String OUTCOME_TAG = "outcome";
+    private final static double[] PERCENTILES = {0.5, 0.95, 0.99};
+    private final MeterRegistry meterRegistry;
+    private final Timer fetchTimer;
+    private final DistributionSummary fetchBytes;
+    private final Counter fetchNotModified;
+    private final Timer parseTimer;
+    private final Timer extractTimer;
+    private final DistributionSummary sectionsPerArticle;
+    private final Timer persistTimer;
+    private final Timer groupCommitTimer;
+    private final DistributionSummary articlesPerCommit;
+    private final Map<String, IntSupplier> queueDepths;
+    private final Map<String, String> lastFailures;
+
+    /**
+     * Creates metrics that are only kept in memory, for use outside of the application context
+     */
+    public PipelineMetrics() {
+        this(new SimpleMeterRegistry());
+    }
+
+    @Autowired
+    public PipelineMetrics(
+            MeterRegistry meterRegistry
+    ) {
+        this.meterRegistry = meterRegistry;
+        this.fetchTimer = timer(meterRegistry, FETCH_TIMER, "Latency of article requests");
+        this.fetchBytes = DistributionSummary.builder(FETCH_BYTES)
+                .description("Size of downloaded or read articles")
+                .baseUnit("bytes")
+                .publishPercentiles(PERCENTILES)
+                .register(meterRegistry);
+        this.fetchNotModified = Counter.builder(FETCH_NOT_MODIFIED)
+                .description("Articles that were not modified since the last run")
+                .register(meterRegistry);
+        this.parseTimer = timer(meterRegistry, PARSE_TIMER, "Time to parse an article");
+        this.extractTimer = timer(meterRegistry, EXTRACT_TIMER, "Time to extract the sections of an article");
+        this.sectionsPerArticle = DistributionSummary.builder(SECTIONS_PER_ARTICLE)
+                .description("Extracted sections per article")
+                .publishPercentiles(PERCENTILES)
+                .register(meterRegistry);
+        this.persistTimer = timer(meterRegistry, PERSIST_TIMER, "Time from handing an article to the writer until its sections are committed");
+        this.groupCommitTimer = timer(meterRegistry, GROUP_COMMIT_TIMER, "Time to write and commit a group of articles");
+        this.articlesPerCommit = DistributionSummary.builder(ARTICLES_PER_COMMIT)
+                .description("Articles stored by a group commit")
+                .publishPercentiles(PERCENTILES)
+                .register(meterRegistry);
+        this.queueDepths = new ConcurrentHashMap<>();
+        this.lastFailures = new ConcurrentHashMap<>();
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String name, String description) {
+        return Timer.builder(name)
+                .description(description)
+                .publishPercentiles(PERCENTILES)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records a downloaded or read article
+     *
+     * @param nanos duration of the request
+     * @param bytes size of the article
+     */
+    public void recordFetch(long nanos, long bytes) {
+        this.fetchTimer.record(nanos, TimeUnit.NANOSECONDS);
+        this.fetchBytes.record(bytes);
+    }
+
+    /**
+     * Records a request of an article that was not modified
+     *
+     * @param nanos duration of the request
+     */
+    public void recordNotModified(long nanos) {
+        this.fetchTimer.record(nanos, TimeUnit.NANOSECONDS);
+        this.fetchNotModified.increment();
+    }
+
+    public void recordParse(long nanos) {
+        this.parseTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records the extraction of an article
+     *
+     * @param nanos            duration of the extraction
+     * @param numberOfSections number of extracted sections
+     */
+    public void recordExtraction(long nanos, int numberOfSections) {
+        this.extractTimer.record(nanos, TimeUnit.NANOSECONDS);
+        this.sectionsPerArticle.record(numberOfSections);
+    }
+
+    public void recordPersist(long nanos) {
+        this.persistTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records a group commit of the section writer
+     *
+     * @param nanos            duration of the transaction
+     * @param numberOfArticles number of articles in the group
+     */
+    public void recordGroupCommit(long nanos, int numberOfArticles) {
+        this.groupCommitTimer.record(nanos, TimeUnit.NANOSECONDS);
+        this.articlesPerCommit.record(numberOfArticles);
+    }
+
+    /**
+     * Records an executed insert batch
+     *
+     * @param tableName    table the rows were inserted into
+     * @param nanos        duration of the batch including its commit
+     * @param numberOfRows number of inserted rows
+     */
+    public void recordInsertBatch(String tableName, long nanos, int numberOfRows) {
+        Timer.builder(INSERT_BATCH_TIMER)
+                .description("Latency of insert batches")
+                .tag(TABLE_TAG, tableName)
+                .publishPercentiles(PERCENTILES)
+                .register(this.meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        Counter.builder(INSERT_ROWS)
+                .description("Inserted rows")
+                .tag(TABLE_TAG, tableName)
+                .register(this.meterRegistry)
+                .increment(numberOfRows);
+    }
+
+    /**
+     * Records an item that a stage failed to process, the message of the last failure of each stage is kept for the summary
+     *
+     * @param stageName name of the stage
+     * @param message   message of the failure
+     */
+    public void recordStageFailure(String stageName, String message) {
+        Counter.builder(STAGE_FAILURES)
+                .description("Items a stage failed to process")
+                .tag(STAGE_TAG, stageName)
+                .register(this.meterRegistry)
+                .increment();
+        this.lastFailures.put(stageName, String.valueOf(message));
+    }
+
+    /**
+     * Records the requests a resumed crawl does not request again
+     *
+     * @param numberOfCompletedRequests requests completed by the interrupted run
+     */
+    public void recordResumedCrawl(long numberOfCompletedRequests) {
+        Counter.builder(RESUMED_REQUESTS)
+                .description("Requests skipped because an interrupted crawl completed them")
+                .register(this.meterRegistry)
+                .increment(numberOfCompletedRequests);
+    }
+
+    /**
+     * Records a scheduled batch of random articles
+     *
+     * @param nanos duration of the batch until its articles are committed
+     */
+    public void recordIngestionBatch(long nanos) {
+        timer(this.meterRegistry, INGESTION_TIMER, "Time to ingest a scheduled batch of random articles").record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records a scheduled batch that was skipped because the previous run was still running
+     */
+    public void recordSkippedIngestionBatch() {
+        Counter.builder(INGESTION_SKIPPED)
+                .description("Scheduled batches skipped while the previous run was still running")
+                .register(this.meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Records the work items this worker assigned to partitions while it planned a sharded extraction
+     *
+     * @param numberOfWorkItems number of planned work items
+     */
+    public void recordPlannedWorkItems(int numberOfWorkItems) {
+        Counter.builder(SHARD_WORK_ITEMS)
+                .description("Work items planned by this worker")
+                .register(this.meterRegistry)
+                .increment(numberOfWorkItems);
+    }
+
+    /**
+     * Records a partition this worker processed
+     *
+     * @param completed true if the partition was completed, false if its lease expired before
+     */
+    public void recordPartition(boolean completed) {
+        Counter.builder(SHARD_PARTITIONS)
+                .description("Partitions processed by this worker")
+                .tag(OUTCOME_TAG, completed ? "completed" : "expired")
+                .register(this.meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Records the articles of a shard that this worker merged
+     *
+     * @param numberOfArticles number of articles read from the shard
+     */
+    public void recordMergedArticles(int numberOfArticles) {
+        Counter.builder(SHARD_MERGED_ARTICLES)
+                .description("Articles read from the shard databases by the merge")
+                .register(this.meterRegistry)
+                .increment(numberOfArticles);
+    }
+
+    /**
+     * Records an export of the stored sections
+     *
+     * @param nanos              duration of the export
+     * @param numberOfSections   exported sections
+     * @param numberOfReferences exported references
+     * @param numberOfCategories exported categories
+     */
+    public void recordExport(long nanos, long numberOfSections, long numberOfReferences, long numberOfCategories) {
+        timer(this.meterRegistry, EXPORT_TIMER, "Time to export the stored sections").record(nanos, TimeUnit.NANOSECONDS);
+        this.incrementExportRows("sections", numberOfSections);
+        this.incrementExportRows("references", numberOfReferences);
+        this.incrementExportRows("categories", numberOfCategories);
+    }
+
+    private void incrementExportRows(String tableName, long numberOfRows) {
+        Counter.builder(EXPORT_ROWS)
+                .description("Exported rows")
+                .tag(TABLE_TAG, tableName)
+                .register(this.meterRegistry)
+                .increment(numberOfRows);
+    }
+
+    /**
+     * Reports the depth of the input queue of a stage, a later queue of the same stage replaces the earlier one
+     *
+     * @param stageName name of the consuming stage
+     * @param depth     current number of queued items
+     */
+    public void registerQueue(String stageName, IntSupplier depth) {
+        if (this.queueDepths.put(stageName, depth) == null) {
+            Gauge.builder(QUEUE_DEPTH, this.queueDepths, queues -> queues.getOrDefault(stageName, () -> 0).getAsInt())
+                    .description("Items waiting in the input queue of a stage")
+                    .tag(STAGE_TAG, stageName)
+                    .register(this.meterRegistry);
+        }
+    }
+
+    /**
+     * Reports the sections that were dropped as duplicates of stored sections
+     *
+     * @param exactDuplicates number of sections with the same words as a stored section
+     * @param nearDuplicates  number of sections with nearly the same words as a stored section
+     */
+    public void registerDuplicateSections(LongSupplier exactDuplicates, LongSupplier nearDuplicates) {
+        FunctionCounter.builder(DUPLICATE_SECTIONS, exactDuplicates, LongSupplier::getAsLong)
+                .description("Sections dropped as duplicates of stored sections")
+                .tag(TYPE_TAG, "exact")
+                .register(this.meterRegistry);
+        FunctionCounter.builder(DUPLICATE_SECTIONS, nearDuplicates, LongSupplier::getAsLong)
+                .description("Sections dropped as duplicates of stored sections")
+                .tag(TYPE_TAG, "near")
+                .register(this.meterRegistry);
+    }
+
+    /**
+     * Reports the requests per second currently allowed by the adaptive rate limit of the scraper
+     *
+     * @param requestsPerSecond current rate summed over all hosts
+     */
+    public void registerFetchRate(DoubleSupplier requestsPerSecond) {
+        Gauge.builder(FETCH_RATE, requestsPerSecond, DoubleSupplier::getAsDouble)
+                .description("Requests per second currently allowed by the adaptive rate limit")
+                .register(this.meterRegistry);
+    }
+
+    /**
+     * Summarizes all stages since the start of the application
+     *
+     * @return summary report
+     */
+    public String getSummary() {
+        StringBuilder summary = new StringBuilder("Extraction summary:");
+        appendTimer(summary, "fetch", this.fetchTimer);
+        summary.append(String.format("%n  downloaded: %.1f MB, %d articles not modified",
+                this.fetchBytes.totalAmount() / (1024 * 1024), (long) this.fetchNotModified.count()));
+        appendTimer(summary, "parse", this.parseTimer);
+        appendTimer(summary, "extract", this.extractTimer);
+        summary.append(String.format("%n  sections per article: mean %.1f, max %.0f",
+                this.sectionsPerArticle.mean(), this.sectionsPerArticle.max()));
+        appendTimer(summary, "persist", this.persistTimer);
+        appendTimer(summary, "group commit", this.groupCommitTimer);
+        summary.append(String.format("%n  articles per commit: mean %.1f, max %.0f",
+                this.articlesPerCommit.mean(), this.articlesPerCommit.max()));
+        summary.append(String.format("%n  duplicate sections: exact %.0f, near %.0f",
+                this.countDuplicateSections("exact"), this.countDuplicateSections("near")));
+        Gauge fetchRate = this.meterRegistry.find(FETCH_RATE).gauge();
+        if (fetchRate != null) {
+            summary.append(String.format("%n  fetch rate: %.1f requests/s", fetchRate.value()));
+        }
+
+        for (Timer insertTimer : this.meterRegistry.find(INSERT_BATCH_TIMER).timers()) {
+            String tableName = insertTimer.getId().getTag(TABLE_TAG);
+            Counter rows = this.meterRegistry.find(INSERT_ROWS).tag(TABLE_TAG, tableName).counter();
+            double seconds = insertTimer.totalTime(TimeUnit.SECONDS);
+            double rowCount = rows != null ? rows.count() : 0;
+            appendTimer(summary, "insert " + tableName, insertTimer);
+            summary.append(String.format(", %.0f rows, %.0f rows/s", rowCount, seconds > 0 ? rowCount / seconds : 0));
+        }
+
+        for (Counter failures : this.meterRegistry.find(STAGE_FAILURES).counters()) {
+            String stageName = failures.getId().getTag(STAGE_TAG);
+            summary.append(String.format("%n  %s failures: %.0f, last: %s", stageName, failures.count(), this.lastFailures.get(stageName)));
+        }
+        if (this.count(RESUMED_REQUESTS) > 0) {
+            summary.append(String.format("%n  resumed crawl: %.0f completed requests skipped", this.count(RESUMED_REQUESTS)));
+        }
+        Timer ingestionTimer = this.meterRegistry.find(INGESTION_TIMER).timer();
+        if (ingestionTimer != null) {
+            appendTimer(summary, "ingestion batch", ingestionTimer);
+        }
+        if (this.count(INGESTION_SKIPPED) > 0) {
+            summary.append(String.format("%n  skipped ingestion batches: %.0f", this.count(INGESTION_SKIPPED)));
+        }
+        if (this.meterRegistry.find(SHARD_PARTITIONS).counter() != null || this.count(SHARD_WORK_ITEMS) > 0) {
+            summary.append(String.format("%n  shard: %.0f work items planned, %.0f partitions completed, %.0f leases expired, %.0f articles merged",
+                    this.count(SHARD_WORK_ITEMS), this.countPartitions("completed"), this.countPartitions("expired"), this.count(SHARD_MERGED_ARTICLES)));
+        }
+        Timer exportTimer = this.meterRegistry.find(EXPORT_TIMER).timer();
+        if (exportTimer != null) {
+            appendTimer(summary, "export", exportTimer);
+            summary.append(String.format(", %.0f sections, %.0f references, %.0f categories",
+                    this.countExportRows("sections"), this.countExportRows("references"), this.countExportRows("categories")));
+        }
+
+        return summary.toString();
+    }
+
+    private double countDuplicateSections(String type) {
+        FunctionCounter counter = this.meterRegistry.find(DUPLICATE_SECTIONS).tag(TYPE_TAG, type).functionCounter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    private double count(String name) {
+        Counter counter = this.meterRegistry.find(name).counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    private double countPartitions(String outcome) {
+        Counter counter = this.meterRegistry.find(SHARD_PARTITIONS).tag(OUTCOME_TAG, outcome).counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    private double countExportRows(String tableName) {
+        Counter counter = this.meterRegistry.find(EXPORT_ROWS).tag(TABLE_TAG, tableName).counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    private static void appendTimer(StringBuilder summary, String name, Timer timer) {
+        summary.append(String.format("%n  %s: %d, total %.1f s, mean %.1f ms",
+                name, timer.count(), timer.totalTime(TimeUnit.SECONDS), timer.mean(TimeUnit.MILLISECONDS)));
+
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            summary.append(String.format(", p%.0f %.1f ms", percentile.percentile() * 100, percentile.value(TimeUnit.MILLISECONDS)));
+        }
+    }
+}
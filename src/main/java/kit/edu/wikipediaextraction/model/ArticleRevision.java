@@ -0,0 +1,21 @@
+package kit.edu.wikipediaextraction.model;
+
+/**
+ * Stored state of an article, used to skip unchanged articles
+ *
+ * @param articleHeadline headline of the article
+ * @param articleURL      URL the article was fetched from
+ * @param articleID       ID of the article in the sections table
+ * @param revision        revision ID or content hash of the article
+ * @param eTag            ETag header of the last response, may be null
+ * @param lastModified    Last-Modified header of the last response, may be null
+ */
+public record ArticleRevision(
+        String articleHeadline,
+        String articleURL,
+        String articleID,
+        String revision,
+        String eTag,
+        String lastModified
+) {
+}
@@ -0,0 +1,364 @@
+package kit.edu.wikipediaextraction.model;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Compact representation of the sections of many articles. IDs are kept as two longs, the texts and references
+ * of a section are stored as UTF-8 bytes in pooled off-heap chunks, and the headline and categories of an article
+ * are referenced once per article instead of once per section. The heap only holds a few primitive values per section.
+ * Sections are read through {@link SectionView}s whose texts are views of the off-heap bytes, until the batch is closed.
+ * IDs have to be UUIDs. A batch is filled by a single thread and can be read by any number of threads afterwards.
+ */
+public class SectionBatch implements AutoCloseable {
+    private final static int CHUNK_SIZE = 1 << 20;
+    private final static int MAX_POOLED_CHUNKS = 32;
+    private final static Queue<ByteBuffer> CHUNK_POOL = new ConcurrentLinkedQueue<>();
+    private final static int INITIAL_CAPACITY = 64;
+    private final static int NULL_LENGTH = -1;
+
+    // int fields of a section
+    private final static int ARTICLE = 0;
+    private final static int CHUNK = 1;
+    private final static int OFFSET = 2;
+    private final static int RAW_TEXT_LENGTH = 3;
+    private final static int CLEANED_TEXT_LENGTH = 4;
+    private final static int HEADLINE_LENGTH = 5;
+    private final static int REFERENCES_LENGTH = 6;
+    private final static int NUMBER_OF_REFERENCES = 7;
+    private final static int SECTION_FIELDS = 8;
+
+    private final List<ByteBuffer> chunks;
+    private int[] sectionFields;
+    private long[] sectionIDs;
+    private BitSet firstSections;
+    private long[] articleIDs;
+    private String[] articleHeadlines;
+    private Collection<?>[] categories;
+    private int[] firstSectionOfArticle;
+    private int numberOfSections;
+    private int numberOfArticles;
+    private long textBytes;
+    private boolean closed;
+
+    public SectionBatch() {
+        this.chunks = new ArrayList<>();
+        this.sectionFields = new int[INITIAL_CAPACITY * SECTION_FIELDS];
+        this.sectionIDs = new long[INITIAL_CAPACITY * 2];
+        this.firstSections = new BitSet();
+        this.articleIDs = new long[INITIAL_CAPACITY * 2];
+        this.articleHeadlines = new String[INITIAL_CAPACITY];
+        this.categories = new Collection<?>[INITIAL_CAPACITY];
+        this.firstSectionOfArticle = new int[INITIAL_CAPACITY + 1];
+    }
+
+    /**
+     * Adds the sections of an article, the article ID, headline and categories are taken from the first section
+     *
+     * @param sections all sections of the article
+     */
+    public void addArticle(List<WikipediaSection> sections) {
+        this.checkOpen();
+        if (sections.isEmpty()) {
+            return;
+        }
+
+        WikipediaSection firstSection = sections.get(0);
+        int article = this.numberOfArticles;
+        if (article == this.articleHeadlines.length) {
+            int capacity = 2 * this.articleHeadlines.length;
+            this.articleIDs = Arrays.copyOf(this.articleIDs, 2 * capacity);
+            this.articleHeadlines = Arrays.copyOf(this.articleHeadlines, capacity);
+            this.categories = Arrays.copyOf(this.categories, capacity);
+            this.firstSectionOfArticle = Arrays.copyOf(this.firstSectionOfArticle, capacity + 1);
+        }
+        putUUID(this.articleIDs, article, firstSection.articleID());
+        this.articleHeadlines[article] = firstSection.articleHeadline();
+        this.categories[article] = firstSection.categories();
+
+        for (WikipediaSection section : sections) {
+            this.addSection(article, section);
+        }
+        this.numberOfArticles++;
+        this.firstSectionOfArticle[this.numberOfArticles] = this.numberOfSections;
+    }
+
+    private void addSection(int article, WikipediaSection section) {
+        int index = this.numberOfSections;
+        if ((index + 1) * SECTION_FIELDS > this.sectionFields.length) {
+            this.sectionFields = Arrays.copyOf(this.sectionFields, 2 * this.sectionFields.length);
+            this.sectionIDs = Arrays.copyOf(this.sectionIDs, 2 * this.sectionIDs.length);
+        }
+
+        int rawTextLength = getEncodedLength(section.rawArticleText());
+        int cleanedTextLength = getEncodedLength(section.cleanedArticleText());
+        int headlineLength = getEncodedLength(section.sectionHeadline());
+        int referencesLength = 0;
+        if (section.wikipediaReferences() != null) {
+            for (String reference : section.wikipediaReferences()) {
+                referencesLength += Integer.BYTES + getEncodedLength(reference);
+            }
+        }
+
+        // all bytes of a section are stored in the same chunk, so every text is a single slice
+        int length = Math.max(0, rawTextLength) + Math.max(0, cleanedTextLength) + Math.max(0, headlineLength) + referencesLength;
+        ByteBuffer chunk = this.reserve(length);
+        int fields = index * SECTION_FIELDS;
+        this.sectionFields[fields + ARTICLE] = article;
+        this.sectionFields[fields + CHUNK] = this.chunks.size() - 1;
+        this.sectionFields[fields + OFFSET] = chunk.position();
+        this.sectionFields[fields + RAW_TEXT_LENGTH] = rawTextLength;
+        this.sectionFields[fields + CLEANED_TEXT_LENGTH] = cleanedTextLength;
+        this.sectionFields[fields + HEADLINE_LENGTH] = headlineLength;
+        this.sectionFields[fields + REFERENCES_LENGTH] = referencesLength;
+        this.sectionFields[fields + NUMBER_OF_REFERENCES] = section.wikipediaReferences() == null ? NULL_LENGTH : section.wikipediaReferences().size();
+        put(chunk, section.rawArticleText());
+        put(chunk, section.cleanedArticleText());
+        put(chunk, section.sectionHeadline());
+        if (section.wikipediaReferences() != null) {
+            for (String reference : section.wikipediaReferences()) {
+                put(chunk.putInt(getEncodedLength(reference)), reference);
+            }
+        }
+
+        putUUID(this.sectionIDs, index, section.sectionID());
+        this.firstSections.set(index, section.isFirstSection());
+        this.textBytes += length;
+        this.numberOfSections++;
+    }
+
+    /**
+     * @return number of sections
+     */
+    public int size() {
+        return this.numberOfSections;
+    }
+
+    public int getNumberOfArticles() {
+        return this.numberOfArticles;
+    }
+
+    /**
+     * @return number of UTF-8 bytes of the texts and references, stored off-heap
+     */
+    public long getTextBytes() {
+        return this.textBytes;
+    }
+
+    /**
+     * @param section index of the section
+     * @return view of the section
+     */
+    public SectionView getSection(int section) {
+        this.checkOpen();
+        Objects.checkIndex(section, this.numberOfSections);
+        return new SectionView(this, section);
+    }
+
+    /**
+     * Creates the records of the sections of an article
+     *
+     * @param article index of the article
+     * @return sections of the article
+     */
+    public List<WikipediaSection> getArticleSections(int article) {
+        this.checkOpen();
+        Objects.checkIndex(article, this.numberOfArticles);
+        List<WikipediaSection> sections = new ArrayList<>();
+        for (int section = this.firstSectionOfArticle[article]; section < this.firstSectionOfArticle[article + 1]; section++) {
+            sections.add(this.getSection(section).toWikipediaSection());
+        }
+        return sections;
+    }
+
+    /**
+     * Returns the chunks to the pool, the views of the batch must not be used afterwards
+     */
+    @Override
+    public void close() {
+        if (this.closed) {
+            return;
+        }
+
+        this.closed = true;
+        for (ByteBuffer chunk : this.chunks) {
+            if (chunk.capacity() == CHUNK_SIZE && CHUNK_POOL.size() < MAX_POOLED_CHUNKS) {
+                CHUNK_POOL.offer(chunk.clear());
+            }
+        }
+        this.chunks.clear();
+    }
+
+    /**
+     * Gets a chunk with room for the bytes of a section, sections larger than a chunk get a chunk of their own
+     */
+    private ByteBuffer reserve(int length) {
+        ByteBuffer chunk = this.chunks.isEmpty() ? null : this.chunks.get(this.chunks.size() - 1);
+        if (chunk != null && chunk.remaining() >= length) {
+            return chunk;
+        }
+
+        if (length > CHUNK_SIZE) {
+            chunk = ByteBuffer.allocateDirect(length);
+        } else {
+            chunk = CHUNK_POOL.poll();
+            if (chunk == null) {
+                chunk = ByteBuffer.allocateDirect(CHUNK_SIZE);
+            }
+        }
+        this.chunks.add(chunk);
+        return chunk;
+    }
+
+    private void checkOpen() {
+        if (this.closed) {
+            throw new IllegalStateException("section batch is closed");
+        }
+    }
+
+    String getArticleID(int section) {
+        return getUUID(this.articleIDs, this.sectionFields[section * SECTION_FIELDS + ARTICLE]);
+    }
+
+    String getArticleHeadline(int section) {
+        return this.articleHeadlines[this.sectionFields[section * SECTION_FIELDS + ARTICLE]];
+    }
+
+    @SuppressWarnings("unchecked")
+    Collection<String> getCategories(int section) {
+        return (Collection<String>) this.categories[this.sectionFields[section * SECTION_FIELDS + ARTICLE]];
+    }
+
+    String getSectionID(int section) {
+        return getUUID(this.sectionIDs, section);
+    }
+
+    boolean isFirstSection(int section) {
+        return this.firstSections.get(section);
+    }
+
+    ByteBuffer getRawArticleText(int section) {
+        return this.slice(section, 0, RAW_TEXT_LENGTH);
+    }
+
+    ByteBuffer getCleanedArticleText(int section) {
+        return this.slice(section, RAW_TEXT_LENGTH, CLEANED_TEXT_LENGTH);
+    }
+
+    ByteBuffer getSectionHeadline(int section) {
+        return this.slice(section, CLEANED_TEXT_LENGTH, HEADLINE_LENGTH);
+    }
+
+    List<String> getWikipediaReferences(int section) {
+        int fields = section * SECTION_FIELDS;
+        int numberOfReferences = this.sectionFields[fields + NUMBER_OF_REFERENCES];
+        if (numberOfReferences == NULL_LENGTH) {
+            return null;
+        }
+
+        ByteBuffer references = this.slice(section, HEADLINE_LENGTH, REFERENCES_LENGTH);
+        List<String> decodedReferences = new ArrayList<>(numberOfReferences);
+        for (int i = 0; i < numberOfReferences; i++) {
+            int length = references.getInt();
+            decodedReferences.add(decode(references.slice(references.position(), length)));
+            references.position(references.position() + length);
+        }
+        return decodedReferences;
+    }
+
+    /**
+     * Gets a read-only view of the bytes of a field without copying them
+     *
+     * @param section       index of the section
+     * @param previousField length field of the bytes stored before, 0 for the first field
+     * @param field         length field of the bytes
+     * @return view of the bytes or null if the text is null
+     */
+    private ByteBuffer slice(int section, int previousField, int field) {
+        this.checkOpen();
+        int fields = section * SECTION_FIELDS;
+        int length = this.sectionFields[fields + field];
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+
+        int offset = this.sectionFields[fields + OFFSET];
+        for (int lengthField = RAW_TEXT_LENGTH; lengthField <= previousField; lengthField++) {
+            offset += Math.max(0, this.sectionFields[fields + lengthField]);
+        }
+        return this.chunks.get(this.sectionFields[fields + CHUNK]).slice(offset, length).asReadOnlyBuffer();
+    }
+
+    static String decode(ByteBuffer bytes) {
+        return bytes == null ? null : StandardCharsets.UTF_8.decode(bytes.duplicate()).toString();
+    }
+
+    /**
+     * @param text text to encode
+     * @return number of UTF-8 bytes of the text, NULL_LENGTH if the text is null
+     */
+    private static int getEncodedLength(String text) {
+        if (text == null) {
+            return NULL_LENGTH;
+        }
+
+        int length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                // unpaired surrogates are replaced by '?' like String.getBytes does
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Encodes a text as UTF-8 straight into the chunk, without an intermediate byte array
+     */
+    private static void put(ByteBuffer chunk, String text) {
+        if (text == null) {
+            return;
+        }
+
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                chunk.put((byte) c);
+            } else if (c < 0x800) {
+                chunk.put((byte) (0xC0 | c >> 6)).put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                chunk.put((byte) (0xF0 | codePoint >> 18))
+                        .put((byte) (0x80 | codePoint >> 12 & 0x3F))
+                        .put((byte) (0x80 | codePoint >> 6 & 0x3F))
+                        .put((byte) (0x80 | codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                chunk.put((byte) '?');
+            } else {
+                chunk.put((byte) (0xE0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3F)).put((byte) (0x80 | c & 0x3F));
+            }
+        }
+    }
+
+    private static void putUUID(long[] ids, int index, String id) {
+        UUID uuid = UUID.fromString(id);
+        ids[2 * index] = uuid.getMostSignificantBits();
+        ids[2 * index + 1] = uuid.getLeastSignificantBits();
+    }
+
+    private static String getUUID(long[] ids, int index) {
+        return new UUID(ids[2 * index], ids[2 * index + 1]).toString();
+    }
+}
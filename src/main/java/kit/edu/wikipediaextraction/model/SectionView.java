@@ -0,0 +1,90 @@
+package kit.edu.wikipediaextraction.model;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Section of a {@link SectionBatch}. The texts are read-only views of the UTF-8 bytes in the batch and are only valid
+ * until the batch is closed; {@link #toWikipediaSection()} copies the section into a record.
+ */
+public final class SectionView {
+    private final SectionBatch batch;
+    private final int section;
+
+    SectionView(
+            SectionBatch batch,
+            int section
+    ) {
+        this.batch = batch;
+        this.section = section;
+    }
+
+    public String articleID() {
+        return this.batch.getArticleID(this.section);
+    }
+
+    /**
+     * @return headline of the article, shared by all sections of the article
+     */
+    public String articleHeadline() {
+        return this.batch.getArticleHeadline(this.section);
+    }
+
+    public String sectionID() {
+        return this.batch.getSectionID(this.section);
+    }
+
+    /**
+     * @return UTF-8 bytes of the raw text or null
+     */
+    public ByteBuffer rawArticleText() {
+        return this.batch.getRawArticleText(this.section);
+    }
+
+    /**
+     * @return UTF-8 bytes of the cleaned text or null
+     */
+    public ByteBuffer cleanedArticleText() {
+        return this.batch.getCleanedArticleText(this.section);
+    }
+
+    /**
+     * @return UTF-8 bytes of the section headline or null
+     */
+    public ByteBuffer sectionHeadline() {
+        return this.batch.getSectionHeadline(this.section);
+    }
+
+    public boolean isFirstSection() {
+        return this.batch.isFirstSection(this.section);
+    }
+
+    /**
+     * @return references of the section, decoded on every call
+     */
+    public List<String> wikipediaReferences() {
+        return this.batch.getWikipediaReferences(this.section);
+    }
+
+    /**
+     * @return categories of the article, shared by all sections of the article
+     */
+    public Collection<String> categories() {
+        return this.batch.getCategories(this.section);
+    }
+
+    public WikipediaSection toWikipediaSection() {
+        return new WikipediaSection(
+                this.articleID(),
+                this.articleHeadline(),
+                this.sectionID(),
+                SectionBatch.decode(this.rawArticleText()),
+                SectionBatch.decode(this.cleanedArticleText()),
+                SectionBatch.decode(this.sectionHeadline()),
+                this.isFirstSection(),
+                this.wikipediaReferences(),
+                this.categories()
+        );
+    }
+}
@@ -0,0 +1,143 @@
+package kit.edu.wikipediaextraction.pipeline;
+
+import kit.edu.wikipediaextraction.database.checkpoint.CrawlCheckpoint;
+import kit.edu.wikipediaextraction.database.section.SectionService;
+import kit.edu.wikipediaextraction.database.section.SectionWriter;
+import kit.edu.wikipediaextraction.extraction.ExtractionService;
+import kit.edu.wikipediaextraction.metrics.PipelineMetrics;
+import kit.edu.wikipediaextraction.model.ArticleRevision;
+import kit.edu.wikipediaextraction.model.WikipediaSection;
+
+import java.util.List;
+
+/**
+ * Parse, extract and persist stages shared by all article sources.
+ * Extracted articles are handed over to the section writer, which owns all writes to the database.
+ */
+public class ArticleStages {
+    private final static int STAGE_QUEUE_CAPACITY = 32;
+    private final static int NUMBER_OF_PARSE_WORKERS = 2;
+    private final static int NUMBER_OF_EXTRACTION_WORKERS = Runtime.getRuntime().availableProcessors();
+    private final ExtractionService extractionService;
+    private final SectionService sectionService;
+    private final SectionWriter sectionWriter;
+    private final PipelineMetrics pipelineMetrics;
+    private final boolean incremental;
+    private final CrawlCheckpoint checkpoint;
+    private final List<PipelineStage<?, ?>> stages;
+
+    /**
+     * @param extractionService service to parse articles and extract their sections
+     * @param sectionService    service to look up stored revisions
+     * @param sectionWriter     writer that stores the sections
+     * @param pipelineMetrics   metrics of the stages
+     * @param input             queue of downloaded or read articles
+     * @param incremental       if true, unchanged articles are skipped and changed articles replace their stored sections
+     * @param checkpoint        checkpoint of the crawl run the processed requests are marked in, null if the progress is not checkpointed
+     */
+    public ArticleStages(
+            ExtractionService extractionService,
+            SectionService sectionService,
+            SectionWriter sectionWriter,
+            PipelineMetrics pipelineMetrics,
+            StageQueue<FetchedArticle> input,
+            boolean incremental,
+            CrawlCheckpoint checkpoint
+    ) {
+        this.extractionService = extractionService;
+        this.sectionService = sectionService;
+        this.sectionWriter = sectionWriter;
+        this.pipelineMetrics = pipelineMetrics;
+        this.incremental = incremental;
+        this.checkpoint = checkpoint;
+
+        StageQueue<ParsedArticle> documentQueue = new StageQueue<>(STAGE_QUEUE_CAPACITY, NUMBER_OF_PARSE_WORKERS);
+        pipelineMetrics.registerQueue("parse", input::size);
+        pipelineMetrics.registerQueue("extract", documentQueue::size);
+        pipelineMetrics.registerQueue("persist", sectionWriter::size);
+
+        this.stages = List.of(
+                new PipelineStage<>("parse", NUMBER_OF_PARSE_WORKERS, input, documentQueue, this::parse, pipelineMetrics),
+
+                // extract sections from articles and hand them over to the single writer, SQLite only allows a single writer
+                new PipelineStage<ParsedArticle, Void>("extract", NUMBER_OF_EXTRACTION_WORKERS, documentQueue, null, this::extractAndPersist, pipelineMetrics)
+        );
+    }
+
+    /**
+     * Starts all stages
+     */
+    public void start() {
+        for (PipelineStage<?, ?> stage : this.stages) {
+            stage.start();
+        }
+    }
+
+    /**
+     * Waits until all articles of the input queue are stored and committed
+     *
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    public void join() throws InterruptedException {
+        for (PipelineStage<?, ?> stage : this.stages) {
+            stage.join();
+        }
+        this.sectionWriter.flush();
+    }
+
+    private ParsedArticle parse(FetchedArticle article) {
+        long start = System.nanoTime();
+        ParsedArticle parsedArticle = new ParsedArticle(
+                article.requestURL(),
+                article.url(),
+                article.html(),
+                this.extractionService.isStreamingExtraction() ? null : this.extractionService.parseArticle(article.html(), article.url()),
+                this.extractionService.getArticleRevision(article.html()),
+                article.eTag(),
+                article.lastModified()
+        );
+        this.pipelineMetrics.recordParse(System.nanoTime() - start);
+        return parsedArticle;
+    }
+
+    private ExtractedArticle extract(ParsedArticle article) {
+        if (this.incremental) {
+            String articleHeadline = article.document() != null
+                    ? this.extractionService.extractArticleHeadline(article.document())
+                    : this.extractionService.extractArticleHeadline(article.html());
+            if (this.sectionService.isArticleUnchanged(articleHeadline, article.revision())) {
+                return null;
+            }
+        }
+
+        long start = System.nanoTime();
+        List<WikipediaSection> sections = List.copyOf(article.document() != null
+                ? this.extractionService.extractSectionsFromArticle(article.document())
+                : this.extractionService.extractSectionsFromHtml(article.html()));
+        this.pipelineMetrics.recordExtraction(System.nanoTime() - start, sections.size());
+        if (sections.isEmpty()) {
+            return null;
+        }
+
+        ArticleRevision articleRevision = new ArticleRevision(
+                sections.get(0).articleHeadline(),
+                article.url(),
+                sections.get(0).articleID(),
+                article.revision(),
+                article.eTag(),
+                article.lastModified()
+        );
+        return new ExtractedArticle(sections, articleRevision);
+    }
+
+    private Void extractAndPersist(ParsedArticle parsedArticle) throws InterruptedException {
+        ExtractedArticle article = this.extract(parsedArticle);
+        if (article != null) {
+            this.sectionWriter.submit(article.sections(), article.articleRevision(), this.incremental, this.checkpoint, parsedArticle.requestURL());
+        } else {
+            // unchanged articles and articles without sections are completed as well
+            this.sectionWriter.submitCompleted(this.checkpoint, parsedArticle.requestURL());
+        }
+        return null;
+    }
+}
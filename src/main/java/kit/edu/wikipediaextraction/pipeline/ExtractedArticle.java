@@ -0,0 +1,18 @@
+package kit.edu.wikipediaextraction.pipeline;
+
+import kit.edu.wikipediaextraction.model.ArticleRevision;
+import kit.edu.wikipediaextraction.model.WikipediaSection;
+
+import java.util.List;
+
+/**
+ * Sections of an article ready to be stored
+ *
+ * @param sections        sections of the article
+ * @param articleRevision revision of the article
+ */
+public record ExtractedArticle(
+        List<WikipediaSection> sections,
+        ArticleRevision articleRevision
+) {
+}
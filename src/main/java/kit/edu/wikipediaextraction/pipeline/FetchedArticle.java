@@ -0,0 +1,19 @@
+package kit.edu.wikipediaextraction.pipeline;
+
+/**
+ * Downloaded but not yet parsed article
+ *
+ * @param requestURL   URL the article was requested by, e.g. the random article URL
+ * @param url          URL of the article
+ * @param html         HTML of the article
+ * @param eTag         ETag header of the response, may be null
+ * @param lastModified Last-Modified header of the response, may be null
+ */
+public record FetchedArticle(
+        String requestURL,
+        String url,
+        String html,
+        String eTag,
+        String lastModified
+) {
+}
@@ -0,0 +1,25 @@
+package kit.edu.wikipediaextraction.pipeline;
+
+import org.jsoup.nodes.Document;
+
+/**
+ * Parsed article that is not yet extracted
+ *
+ * @param requestURL   URL the article was requested by, e.g. the random article URL
+ * @param url          URL of the article
+ * @param html         HTML of the article
+ * @param document     parsed article, null if the article is extracted from its HTML
+ * @param revision     revision ID or content hash of the article
+ * @param eTag         ETag header of the response, may be null
+ * @param lastModified Last-Modified header of the response, may be null
+ */
+public record ParsedArticle(
+        String requestURL,
+        String url,
+        String html,
+        Document document,
+        String revision,
+        String eTag,
+        String lastModified
+) {
+}
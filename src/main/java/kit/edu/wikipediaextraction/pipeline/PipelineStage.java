@@ -0,0 +1,140 @@
+package kit.edu.wikipediaextraction.pipeline;
+
+import kit.edu.wikipediaextraction.metrics.PipelineMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pipeline stage with a fixed number of workers that move items from an input to an output queue.
+ * Items that fail are dropped and recorded as failures of the stage.
+ *
+ * @param <I> input type
+ * @param <O> output type
+ */
+public class PipelineStage<I, O> {
+    private final String name;
+    private final StageQueue<I> input;
+    private final StageQueue<O> output;
+    private final StageFunction<I, O> function;
+    private final PipelineMetrics pipelineMetrics;
+    private final List<Thread> workers;
+
+    /**
+     * @param name            name of the stage, used for the worker threads
+     * @param numberOfWorkers number of worker threads
+     * @param input           input queue
+     * @param output          output queue with one producer per worker, null for the last stage
+     * @param function        work done for each item
+     */
+    public PipelineStage(
+            String name,
+            int numberOfWorkers,
+            StageQueue<I> input,
+            StageQueue<O> output,
+            StageFunction<I, O> function
+    ) {
+        this(name, numberOfWorkers, input, output, function, new PipelineMetrics());
+    }
+
+    /**
+     * @param name            name of the stage, used for the worker threads
+     * @param numberOfWorkers number of worker threads
+     * @param input           input queue
+     * @param output          output queue with one producer per worker, null for the last stage
+     * @param function        work done for each item
+     * @param pipelineMetrics metrics the failed items are recorded in
+     */
+    public PipelineStage(
+            String name,
+            int numberOfWorkers,
+            StageQueue<I> input,
+            StageQueue<O> output,
+            StageFunction<I, O> function,
+            PipelineMetrics pipelineMetrics
+    ) {
+        this.name = name;
+        this.input = input;
+        this.output = output;
+        this.function = function;
+        this.pipelineMetrics = pipelineMetrics;
+        this.workers = new ArrayList<>(numberOfWorkers);
+
+        for (int i = 0; i < numberOfWorkers; i++) {
+            Thread worker = new Thread(this::work, name + "-" + i);
+            worker.setDaemon(true);
+            this.workers.add(worker);
+        }
+    }
+
+    /**
+     * Starts all workers
+     */
+    public void start() {
+        for (Thread worker : this.workers) {
+            worker.start();
+        }
+    }
+
+    /**
+     * Waits until all workers are done
+     *
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    public void join() throws InterruptedException {
+        for (Thread worker : this.workers) {
+            worker.join();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private void work() {
+        try {
+            I item;
+            while ((item = this.input.take()) != null) {
+                O result = this.process(item);
+                if (result != null && this.output != null) {
+                    this.output.put(result);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (this.output != null) {
+                this.closeOutput();
+            }
+        }
+    }
+
+    /**
+     * Closes the output even if the worker was interrupted or failed, so that the next stage does not wait forever
+     */
+    private void closeOutput() {
+        // the end of the stream can only be queued with the interrupt flag cleared
+        boolean interrupted = Thread.interrupted();
+        try {
+            this.output.close();
+        } catch (InterruptedException e) {
+            interrupted = true;
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private O process(I item) {
+        try {
+            return this.function.apply(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            this.pipelineMetrics.recordStageFailure(this.name, e.getMessage());
+            return null;
+        }
+    }
+}
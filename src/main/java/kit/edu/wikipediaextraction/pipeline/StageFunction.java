@@ -0,0 +1,17 @@
+package kit.edu.wikipediaextraction.pipeline;
+
+/**
+ * Work done by a pipeline stage for a single item
+ *
+ * @param <I> input type
+ * @param <O> output type
+ */
+@FunctionalInterface
+public interface StageFunction<I, O> {
+    /**
+     * @param input item taken from the input queue
+     * @return item for the output queue, null to drop the item
+     * @throws Exception if the item could not be processed, the item is dropped
+     */
+    O apply(I input) throws Exception;
+}
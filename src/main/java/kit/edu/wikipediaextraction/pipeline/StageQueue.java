@@ -0,0 +1,64 @@
+package kit.edu.wikipediaextraction.pipeline;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded queue between two pipeline stages. Producers block while the queue is full,
+ * consumers receive null once every producer has closed the queue and it is drained.
+ *
+ * @param <T> type of the queued items
+ */
+public class StageQueue<T> {
+    private final static Object END_OF_STREAM = new Object();
+    private final BlockingQueue<Object> queue;
+    private final AtomicInteger openProducers;
+
+    public StageQueue(int capacity, int numberOfProducers) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.openProducers = new AtomicInteger(numberOfProducers);
+    }
+
+    /**
+     * Adds an item, waits while the queue is full
+     *
+     * @param item queued item
+     * @throws InterruptedException if the producer is interrupted while waiting
+     */
+    public void put(T item) throws InterruptedException {
+        this.queue.put(item);
+    }
+
+    /**
+     * Takes the next item, waits while the queue is empty
+     *
+     * @return next item or null if all producers are done
+     * @throws InterruptedException if the consumer is interrupted while waiting
+     */
+    @SuppressWarnings("unchecked")
+    public T take() throws InterruptedException {
+        Object item = this.queue.take();
+        if (item == END_OF_STREAM) {
+            // hand the marker on to the remaining consumers
+            this.queue.put(END_OF_STREAM);
+            return null;
+        }
+        return (T) item;
+    }
+
+    /**
+     * Marks one producer as done
+     *
+     * @throws InterruptedException if the producer is interrupted while waiting
+     */
+    public void close() throws InterruptedException {
+        if (this.openProducers.decrementAndGet() == 0) {
+            this.queue.put(END_OF_STREAM);
+        }
+    }
+
+    public int size() {
+        return this.queue.size();
+    }
+}
@@ -0,0 +1,20 @@
+package kit.edu.wikipediaextraction.scraper;
+
+import org.jsoup.nodes.Document;
+
+/**
+ * Outcome of fetching a single article URL
+ *
+ * @param url          requested URL
+ * @param document     parsed document, null if the request failed
+ * @param errorMessage reason of the failure, null if the request succeeded
+ */
+public record ArticleFetchResult(
+        String url,
+        Document document,
+        String errorMessage
+) {
+    public boolean isSuccessful() {
+        return document != null;
+    }
+}
@@ -0,0 +1,77 @@
+package kit.edu.wikipediaextraction.scraper;
+
+import org.jsoup.nodes.Document;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Fetches many articles at once with a bounded number of requests in flight
+ */
+public class ConcurrentArticleFetcher {
+    private final PageFetcher pageFetcher;
+    private final int maxInFlight;
+
+    public ConcurrentArticleFetcher(
+            PageFetcher pageFetcher,
+            int maxInFlight
+    ) {
+        this.pageFetcher = pageFetcher;
+        this.maxInFlight = Math.max(1, maxInFlight);
+    }
+
+    /**
+     * Fetches all URLs concurrently
+     *
+     * @param urls article URLs
+     * @return one result per URL, in the order of the given URLs
+     */
+    public List<ArticleFetchResult> fetchAll(List<String> urls) {
+        List<ArticleFetchResult> results = new ArrayList<>(urls.size());
+        if (urls.isEmpty()) {
+            return results;
+        }
+
+        // The pool size is the in-flight limit, every worker holds at most one open request
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(this.maxInFlight, urls.size()));
+        try {
+            List<Future<ArticleFetchResult>> futures = new ArrayList<>(urls.size());
+            for (String url : urls) {
+                futures.add(executor.submit(() -> this.fetch(url)));
+            }
+
+            for (int i = 0; i < futures.size(); i++) {
+                results.add(this.await(urls.get(i), futures.get(i)));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return results;
+    }
+
+    private ArticleFetchResult fetch(String url) {
+        try {
+            Document doc = this.pageFetcher.fetch(url);
+            return new ArticleFetchResult(url, doc, null);
+        } catch (IOException e) {
+            return new ArticleFetchResult(url, null, e.getMessage());
+        }
+    }
+
+    private ArticleFetchResult await(String url, Future<ArticleFetchResult> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            return new ArticleFetchResult(url, null, String.valueOf(e.getCause()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ArticleFetchResult(url, null, "Interrupted");
+        }
+    }
+}
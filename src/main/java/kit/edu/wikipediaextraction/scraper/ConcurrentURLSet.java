@@ -0,0 +1,99 @@
+package kit.edu.wikipediaextraction.scraper;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact thread safe set of URLs. Instead of the URL strings only their 64 bit hashes are kept
+ * in open addressing tables, which are split into independently locked stripes.
+ * With 64 bit hashes, a false duplicate among a million URLs has a probability below 1e-7.
+ */
+public class ConcurrentURLSet {
+    private final static int NUMBER_OF_STRIPES = 16;
+    private final static int INITIAL_STRIPE_CAPACITY = 256;
+    private final static long EMPTY = 0;
+    private final static long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private final static long FNV_PRIME = 0x100000001b3L;
+    private final Stripe[] stripes;
+
+    public ConcurrentURLSet() {
+        this.stripes = new Stripe[NUMBER_OF_STRIPES];
+        for (int i = 0; i < NUMBER_OF_STRIPES; i++) {
+            this.stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Adds the URL, if it is not yet contained
+     *
+     * @param url URL
+     * @return true if the URL was added
+     */
+    public boolean add(String url) {
+        long hash = hash(url);
+        return this.stripes[(int) (hash >>> 60) & (NUMBER_OF_STRIPES - 1)].add(hash);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : this.stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    /**
+     * 64 bit FNV-1a hash of the UTF-8 bytes with a final mix, never zero
+     */
+    private static long hash(String url) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : url.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= FNV_PRIME;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash == EMPTY ? 1 : hash;
+    }
+
+    private static class Stripe {
+        private long[] table = new long[INITIAL_STRIPE_CAPACITY];
+        private int size;
+
+        synchronized boolean add(long hash) {
+            if (!insert(this.table, hash)) {
+                return false;
+            }
+            this.size++;
+
+            // keep the load factor below 0.5
+            if (this.size * 2 > this.table.length) {
+                long[] resized = new long[this.table.length * 2];
+                for (long entry : this.table) {
+                    if (entry != EMPTY) {
+                        insert(resized, entry);
+                    }
+                }
+                this.table = resized;
+            }
+            return true;
+        }
+
+        synchronized int size() {
+            return this.size;
+        }
+
+        private static boolean insert(long[] table, long hash) {
+            int mask = table.length - 1;
+            for (int i = (int) hash & mask; ; i = (i + 1) & mask) {
+                if (table[i] == hash) {
+                    return false;
+                }
+                if (table[i] == EMPTY) {
+                    table[i] = hash;
+                    return true;
+                }
+            }
+        }
+    }
+}
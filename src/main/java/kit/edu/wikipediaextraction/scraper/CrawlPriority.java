@@ -0,0 +1,11 @@
+package kit.edu.wikipediaextraction.scraper;
+
+/**
+ * Order in which waiting requests to the same host get their turn, the first constant goes first
+ */
+public enum CrawlPriority {
+    // list pages go first, every list page makes many articles available
+    INDEX_PAGE,
+    ARTICLE,
+    RANDOM_ARTICLE
+}
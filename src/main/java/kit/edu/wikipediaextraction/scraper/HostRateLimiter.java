@@ -0,0 +1,296 @@
+package kit.edu.wikipediaextraction.scraper;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Schedules the requests to each host with a token bucket whose rate adapts to the responses of the host.
+ * The rate starts at the configured maximum. It is halved on a rate limit or unavailable response and on a request that
+ * failed without response, e.g. by a timeout. It is reduced on other server errors and if the latency rises to twice
+ * the usual latency of the host. It grows back step by step with every fast response.
+ * A Retry-After header or the backoff of a retry pauses all requests to the host, so a retry only waits here.
+ * Waiting requests get their turn by priority, then in order of arrival.
+ */
+public class HostRateLimiter {
+    private final static int HTTP_TOO_MANY_REQUESTS = 429;
+    private final static int HTTP_UNAVAILABLE = 503;
+    private final static int HTTP_SERVER_ERROR = 500;
+    private final static double MIN_RATE_FRACTION = 1.0 / 32;
+    private final static double INCREASE_FRACTION = 0.05;
+    private final static double THROTTLED_FACTOR = 0.5;
+    private final static double SLOW_FACTOR = 0.8;
+    private final static double SLOW_LATENCY_FACTOR = 2;
+    private final static double LATENCY_SMOOTHING = 0.2;
+    private final static double BASELINE_DRIFT = 0.01;
+    // the responses of the requests in flight reflect the same congestion, so the rate is reduced at most once per interval
+    private final static long DECREASE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private final static long MAX_PAUSE_NANOS = TimeUnit.MINUTES.toNanos(10);
+    private final static long MAX_AWAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private final double maxRate;
+    private final Function<String, CrawlPriority> priorityOfURL;
+    private final Map<String, Host> hosts;
+
+    /**
+     * Token bucket of a host, all fields are guarded by the lock
+     */
+    private static class Host {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition turn = this.lock.newCondition();
+        private final PriorityQueue<Waiter> waiters = new PriorityQueue<>();
+        private double rate;
+        private double tokens = 1;
+        private long refilledAt = System.nanoTime();
+        private long pausedUntil = this.refilledAt;
+        private long decreasedAt = this.refilledAt - DECREASE_INTERVAL_NANOS;
+        private double latencyNanos;
+        private double baselineLatencyNanos;
+        private long nextSequence;
+    }
+
+    private record Waiter(
+            CrawlPriority priority,
+            long sequence
+    ) implements Comparable<Waiter> {
+        @Override
+        public int compareTo(Waiter other) {
+            int order = this.priority.compareTo(other.priority);
+            return order != 0 ? order : Long.compare(this.sequence, other.sequence);
+        }
+    }
+
+    /**
+     * @param requestsPerSecond allowed requests per second and host, values <= 0 disable the limit
+     */
+    public HostRateLimiter(double requestsPerSecond) {
+        this(requestsPerSecond, url -> CrawlPriority.ARTICLE);
+    }
+
+    /**
+     * @param requestsPerSecond maximum requests per second and host, values <= 0 disable the limit
+     * @param priorityOfURL     priority of the request of a URL
+     */
+    public HostRateLimiter(
+            double requestsPerSecond,
+            Function<String, CrawlPriority> priorityOfURL
+    ) {
+        this.maxRate = Math.max(0, requestsPerSecond);
+        this.priorityOfURL = priorityOfURL;
+        this.hosts = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * @return true if requests are limited, otherwise the limiter neither waits nor pauses hosts
+     */
+    public boolean isEnabled() {
+        return this.maxRate > 0;
+    }
+
+    /**
+     * Blocks until a request to the host of the URL is allowed and no request of higher priority is waiting
+     *
+     * @param url requested URL
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    public void acquire(String url) throws InterruptedException {
+        if (this.maxRate == 0) {
+            return;
+        }
+
+        Host host = this.getHost(url);
+        host.lock.lock();
+        try {
+            Waiter waiter = new Waiter(this.priorityOfURL.apply(url), host.nextSequence++);
+            host.waiters.add(waiter);
+            try {
+                while (true) {
+                    long now = System.nanoTime();
+                    refill(host, now);
+                    boolean first = host.waiters.peek() == waiter;
+                    if (first && now >= host.pausedUntil && host.tokens >= 1) {
+                        host.tokens--;
+                        return;
+                    }
+
+                    long waitNanos = first
+                            ? Math.max(host.pausedUntil - now, (long) ((1 - host.tokens) / host.rate * TimeUnit.SECONDS.toNanos(1)))
+                            : MAX_AWAIT_NANOS;
+                    host.turn.awaitNanos(Math.max(1, Math.min(waitNanos, MAX_AWAIT_NANOS)));
+                }
+            } finally {
+                host.waiters.remove(waiter);
+                host.turn.signalAll();
+            }
+        } finally {
+            host.lock.unlock();
+        }
+    }
+
+    /**
+     * Adapts the rate of the host of the URL to a response
+     *
+     * @param url              requested URL
+     * @param statusCode       HTTP status code of the response
+     * @param latencyNanos     time from sending the request until the response arrived
+     * @param retryAfterMillis delay requested by the Retry-After header, negative if there is none
+     */
+    public void onResponse(
+            String url,
+            int statusCode,
+            long latencyNanos,
+            long retryAfterMillis
+    ) {
+        if (this.maxRate == 0) {
+            return;
+        }
+
+        Host host = this.getHost(url);
+        host.lock.lock();
+        try {
+            long now = System.nanoTime();
+            refill(host, now);
+            if (retryAfterMillis >= 0) {
+                host.pausedUntil = Math.max(host.pausedUntil, now + Math.min(TimeUnit.MILLISECONDS.toNanos(retryAfterMillis), MAX_PAUSE_NANOS));
+            }
+
+            if (statusCode == HTTP_TOO_MANY_REQUESTS || statusCode == HTTP_UNAVAILABLE) {
+                this.decrease(host, now, THROTTLED_FACTOR);
+                return;
+            }
+            if (statusCode >= HTTP_SERVER_ERROR) {
+                this.decrease(host, now, SLOW_FACTOR);
+                return;
+            }
+
+            host.latencyNanos = host.latencyNanos == 0
+                    ? latencyNanos
+                    : host.latencyNanos + LATENCY_SMOOTHING * (latencyNanos - host.latencyNanos);
+            host.baselineLatencyNanos = host.baselineLatencyNanos == 0 || host.latencyNanos < host.baselineLatencyNanos
+                    ? host.latencyNanos
+                    : host.baselineLatencyNanos + BASELINE_DRIFT * (host.latencyNanos - host.baselineLatencyNanos);
+
+            if (host.latencyNanos > SLOW_LATENCY_FACTOR * host.baselineLatencyNanos) {
+                this.decrease(host, now, SLOW_FACTOR);
+            } else {
+                host.rate = Math.min(this.maxRate, host.rate + INCREASE_FRACTION * this.maxRate);
+            }
+        } finally {
+            host.turn.signalAll();
+            host.lock.unlock();
+        }
+    }
+
+    /**
+     * Halves the rate of the host of the URL after a request that failed without response, e.g. by a timeout
+     *
+     * @param url requested URL
+     */
+    public void onFailure(String url) {
+        if (this.maxRate == 0) {
+            return;
+        }
+
+        Host host = this.getHost(url);
+        host.lock.lock();
+        try {
+            long now = System.nanoTime();
+            refill(host, now);
+            this.decrease(host, now, THROTTLED_FACTOR);
+        } finally {
+            host.turn.signalAll();
+            host.lock.unlock();
+        }
+    }
+
+    /**
+     * Pauses all requests to the host of the URL, e.g. for the backoff before a retry
+     *
+     * @param url         requested URL
+     * @param delayMillis delay until the next request to the host
+     */
+    public void pause(
+            String url,
+            long delayMillis
+    ) {
+        if (this.maxRate == 0) {
+            return;
+        }
+
+        Host host = this.getHost(url);
+        host.lock.lock();
+        try {
+            long now = System.nanoTime();
+            host.pausedUntil = Math.max(host.pausedUntil, now + Math.min(TimeUnit.MILLISECONDS.toNanos(delayMillis), MAX_PAUSE_NANOS));
+        } finally {
+            host.turn.signalAll();
+            host.lock.unlock();
+        }
+    }
+
+    /**
+     * @param url URL of a host
+     * @return current requests per second allowed for the host
+     */
+    public double getRate(String url) {
+        if (this.maxRate == 0) {
+            return 0;
+        }
+
+        Host host = this.getHost(url);
+        host.lock.lock();
+        try {
+            return host.rate;
+        } finally {
+            host.lock.unlock();
+        }
+    }
+
+    /**
+     * @return current requests per second allowed for all hosts together, 0 if the limit is disabled
+     */
+    public double getTotalRate() {
+        double totalRate = 0;
+        for (Host host : this.hosts.values()) {
+            host.lock.lock();
+            try {
+                totalRate += host.rate;
+            } finally {
+                host.lock.unlock();
+            }
+        }
+        return totalRate;
+    }
+
+    private Host getHost(String url) {
+        return this.hosts.computeIfAbsent(hostOf(url), key -> {
+            Host host = new Host();
+            host.rate = this.maxRate;
+            return host;
+        });
+    }
+
+    private void decrease(Host host, long now, double factor) {
+        if (now - host.decreasedAt >= DECREASE_INTERVAL_NANOS) {
+            host.rate = Math.max(MIN_RATE_FRACTION * this.maxRate, host.rate * factor);
+            host.decreasedAt = now;
+        }
+    }
+
+    /**
+     * Adds the tokens earned since the last refill, at most one token is kept so that requests are spaced out
+     */
+    private static void refill(Host host, long now) {
+        host.tokens = Math.min(1, host.tokens + (now - host.refilledAt) * host.rate / TimeUnit.SECONDS.toNanos(1));
+        host.refilledAt = now;
+    }
+
+    private static String hostOf(String url) {
+        String host = URI.create(url).getHost();
+        return host != null ? host : url;
+    }
+}
@@ -0,0 +1,440 @@
+package kit.edu.wikipediaextraction.scraper;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Persistent on-disk cache of fetched pages.
+ * Page contents are stored gzip compressed in files named by the hash of their content,
+ * a journal maps URLs to contents. The least recently used pages are evicted when the
+ * cache exceeds its size, pages older than the time to live have to be revalidated.
+ * Content files are referenced by their entries and by puts that are still writing them.
+ */
+public class PageCache implements Closeable {
+    private final static String JOURNAL_FILE_NAME = "journal.tsv";
+    private final static String CONTENT_DIRECTORY_NAME = "objects";
+    private final static String CONTENT_FILE_EXTENSION = ".gz";
+    private final static String TEMPORARY_FILE_EXTENSION = ".tmp";
+    private final static String UNCACHEABLE_URL_PART = "/wiki/Special:";
+    private final static String JOURNAL_PUT = "P";
+    private final static String JOURNAL_DELETE = "D";
+    private final static String JOURNAL_SEPARATOR = "\t";
+    private final static String CONTENT_HASH_ALGORITHM = "SHA-256";
+    private final Path directory;
+    private final long maxBytes;
+    private final long timeToLiveMillis;
+    private final LinkedHashMap<String, PageCacheEntry> entries;
+    private final Map<String, Integer> contentReferences;
+    private final Map<String, Long> contentSizes;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final AtomicLong revalidations;
+    private long totalBytes;
+    private Writer journal;
+
+    /**
+     * Opens the cache in the directory, entries of an earlier run are loaded from the journal
+     *
+     * @param directory        cache directory
+     * @param maxBytes         maximum size of all compressed contents
+     * @param timeToLiveMillis age after which a page has to be revalidated
+     * @throws IOException if the directory or the journal cannot be accessed
+     */
+    public PageCache(Path directory, long maxBytes, long timeToLiveMillis) throws IOException {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.timeToLiveMillis = timeToLiveMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.contentReferences = new HashMap<>();
+        this.contentSizes = new HashMap<>();
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+        this.revalidations = new AtomicLong();
+
+        Files.createDirectories(directory.resolve(CONTENT_DIRECTORY_NAME));
+        this.loadJournal();
+    }
+
+    /**
+     * Checks whether a page may be cached, special pages like random articles change on every request
+     *
+     * @param url URL of the page
+     * @return true if the page may be cached
+     */
+    public boolean isCacheable(String url) {
+        return !url.contains(UNCACHEABLE_URL_PART);
+    }
+
+    /**
+     * Looks up a page and counts the lookup as hit or miss
+     *
+     * @param url URL of the page
+     * @return index entry or null if the page is not cached
+     */
+    public synchronized PageCacheEntry get(String url) {
+        PageCacheEntry entry = this.entries.get(url);
+        if (entry == null) {
+            this.misses.incrementAndGet();
+        } else {
+            this.hits.incrementAndGet();
+        }
+        return entry;
+    }
+
+    /**
+     * Checks whether the page can be served without a request, the lookup is not counted
+     *
+     * @param url URL of the page
+     * @return true if the page is cached and not expired
+     */
+    public synchronized boolean isFresh(String url) {
+        PageCacheEntry entry = this.entries.get(url);
+        return entry != null && !this.isExpired(entry);
+    }
+
+    /**
+     * @param entry index entry
+     * @return true if the page has to be revalidated
+     */
+    public boolean isExpired(PageCacheEntry entry) {
+        return System.currentTimeMillis() - entry.fetchedAt() > this.timeToLiveMillis;
+    }
+
+    /**
+     * Reads a cached page through a memory mapping of its content file
+     *
+     * @param entry index entry
+     * @return cached response or null if the content file is missing
+     */
+    public PageResponse read(PageCacheEntry entry) {
+        Path contentFile = this.getContentFile(entry.contentHash());
+
+        try (FileChannel channel = FileChannel.open(contentFile, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            try (InputStream inputStream = new GZIPInputStream(new ByteBufferInputStream(buffer))) {
+                String html = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+                return new PageResponse(entry.responseURL(), html, entry.eTag(), entry.lastModified());
+            }
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+            this.remove(entry);
+            return null;
+        }
+    }
+
+    /**
+     * Stores a downloaded page, nothing is stored after the cache has been closed
+     *
+     * @param url      requested URL
+     * @param response response of the request
+     */
+    public void put(String url, PageResponse response) {
+        byte[] content = response.html().getBytes(StandardCharsets.UTF_8);
+        String contentHash = hash(content);
+
+        // the reference keeps a concurrent release of the same content from deleting the file while it is written
+        synchronized (this) {
+            if (this.journal == null) {
+                return;
+            }
+            this.contentReferences.merge(contentHash, 1, Integer::sum);
+        }
+
+        try {
+            long contentSize = this.writeContent(contentHash, content);
+            synchronized (this) {
+                PageCacheEntry previous = this.entries.remove(url);
+                if (previous != null) {
+                    this.releaseContent(previous.contentHash());
+                }
+
+                PageCacheEntry entry = new PageCacheEntry(url, response.url(), contentHash, System.currentTimeMillis(), response.eTag(), response.lastModified());
+                this.addEntry(entry, contentSize);
+                this.appendToJournal(entry);
+                this.evict();
+            }
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+        } finally {
+            synchronized (this) {
+                this.releaseContent(contentHash);
+            }
+        }
+    }
+
+    /**
+     * Marks a page as revalidated, it is fresh for another time to live
+     *
+     * @param entry index entry
+     * @return updated index entry
+     */
+    public synchronized PageCacheEntry markRevalidated(PageCacheEntry entry) {
+        this.revalidations.incrementAndGet();
+        PageCacheEntry revalidated = new PageCacheEntry(entry.url(), entry.responseURL(), entry.contentHash(), System.currentTimeMillis(), entry.eTag(), entry.lastModified());
+
+        if (this.entries.containsKey(entry.url())) {
+            this.entries.put(entry.url(), revalidated);
+            try {
+                this.appendToJournal(revalidated);
+            } catch (IOException e) {
+                System.out.println(e.getMessage());
+            }
+        }
+        return revalidated;
+    }
+
+    /**
+     * Gets the hit and miss statistics of the cache
+     *
+     * @return statistics as text
+     */
+    public String getStatistics() {
+        long hits = this.hits.get();
+        long misses = this.misses.get();
+        long lookups = hits + misses;
+        double hitRate = lookups == 0 ? 0 : 100.0 * hits / lookups;
+
+        return String.format(
+                "Page cache: %d hits, %d misses, %d revalidations, hit rate %.1f%%, %d pages, %d KB on disk",
+                hits, misses, this.revalidations.get(), hitRate, this.size(), this.getTotalBytes() / 1024
+        );
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Rewrites the journal without outdated lines and closes it, later changes of the cache are not persisted
+     *
+     * @throws IOException if the journal cannot be written
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.journal != null) {
+            this.journal.close();
+            this.journal = null;
+            this.compactJournal();
+        }
+    }
+
+    /**
+     * Removes the entry, unless the page has been stored or revalidated again in the meantime
+     *
+     * @param entry index entry
+     */
+    private synchronized void remove(PageCacheEntry entry) {
+        if (this.entries.get(entry.url()) != entry) {
+            return;
+        }
+        this.entries.remove(entry.url());
+        this.releaseContent(entry.contentHash());
+        try {
+            this.appendToJournal(JOURNAL_DELETE, entry.url());
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Evicts the least recently used pages until the cache fits its size, the newest page is always kept
+     */
+    private void evict() throws IOException {
+        Iterator<PageCacheEntry> iterator = this.entries.values().iterator();
+        while (this.totalBytes > this.maxBytes && this.entries.size() > 1) {
+            PageCacheEntry eldest = iterator.next();
+            iterator.remove();
+            this.releaseContent(eldest.contentHash());
+            this.appendToJournal(JOURNAL_DELETE, eldest.url());
+        }
+    }
+
+    private void addEntry(PageCacheEntry entry, long contentSize) {
+        this.entries.put(entry.url(), entry);
+        this.contentReferences.merge(entry.contentHash(), 1, Integer::sum);
+        if (this.contentSizes.putIfAbsent(entry.contentHash(), contentSize) == null) {
+            this.totalBytes += contentSize;
+        }
+    }
+
+    /**
+     * Releases a reference to a content file, unreferenced content files are deleted
+     *
+     * @param contentHash hash of the content
+     */
+    private void releaseContent(String contentHash) {
+        int references = this.contentReferences.merge(contentHash, -1, Integer::sum);
+        if (references <= 0) {
+            this.contentReferences.remove(contentHash);
+            Long contentSize = this.contentSizes.remove(contentHash);
+            this.totalBytes -= contentSize != null ? contentSize : 0;
+            try {
+                Files.deleteIfExists(this.getContentFile(contentHash));
+            } catch (IOException e) {
+                System.out.println(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Writes the compressed content unless a file with the same content exists
+     *
+     * @return size of the content file
+     */
+    private long writeContent(String contentHash, byte[] content) throws IOException {
+        Path contentFile = this.getContentFile(contentHash);
+        if (Files.exists(contentFile)) {
+            return Files.size(contentFile);
+        }
+
+        Files.createDirectories(contentFile.getParent());
+        Path temporaryFile = Files.createTempFile(contentFile.getParent(), contentHash, TEMPORARY_FILE_EXTENSION);
+        try (OutputStream outputStream = new GZIPOutputStream(Files.newOutputStream(temporaryFile))) {
+            outputStream.write(content);
+        }
+        Files.move(temporaryFile, contentFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return Files.size(contentFile);
+    }
+
+    private Path getContentFile(String contentHash) {
+        return this.directory.resolve(CONTENT_DIRECTORY_NAME).resolve(contentHash.substring(0, 2)).resolve(contentHash + CONTENT_FILE_EXTENSION);
+    }
+
+    /**
+     * Replays the journal of an earlier run and rewrites it without outdated lines
+     */
+    private void loadJournal() throws IOException {
+        Path journalFile = this.directory.resolve(JOURNAL_FILE_NAME);
+        LinkedHashMap<String, PageCacheEntry> journalEntries = new LinkedHashMap<>();
+
+        if (Files.exists(journalFile)) {
+            try (BufferedReader reader = Files.newBufferedReader(journalFile, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] fields = line.split(JOURNAL_SEPARATOR, -1);
+                    if (fields[0].equals(JOURNAL_PUT) && fields.length == 7) {
+                        journalEntries.remove(fields[1]);
+                        journalEntries.put(fields[1], new PageCacheEntry(fields[1], fields[2], fields[3], Long.parseLong(fields[4]), emptyToNull(fields[5]), emptyToNull(fields[6])));
+                    } else if (fields[0].equals(JOURNAL_DELETE) && fields.length == 2) {
+                        journalEntries.remove(fields[1]);
+                    }
+                }
+            }
+        }
+
+        for (PageCacheEntry entry : journalEntries.values()) {
+            Path contentFile = this.getContentFile(entry.contentHash());
+            if (Files.exists(contentFile)) {
+                this.addEntry(entry, Files.size(contentFile));
+            }
+        }
+
+        this.compactJournal();
+        this.journal = Files.newBufferedWriter(journalFile, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        this.evict();
+    }
+
+    /**
+     * Replaces the journal by one line per cached page
+     */
+    private void compactJournal() throws IOException {
+        Path temporaryJournal = this.directory.resolve(JOURNAL_FILE_NAME + TEMPORARY_FILE_EXTENSION);
+        try (Writer writer = Files.newBufferedWriter(temporaryJournal, StandardCharsets.UTF_8)) {
+            for (PageCacheEntry entry : this.entries.values()) {
+                writer.write(journalLine(entry));
+            }
+        }
+        Files.move(temporaryJournal, this.directory.resolve(JOURNAL_FILE_NAME), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void appendToJournal(PageCacheEntry entry) throws IOException {
+        this.appendToJournal(journalLine(entry));
+    }
+
+    private void appendToJournal(String operation, String url) throws IOException {
+        this.appendToJournal(operation + JOURNAL_SEPARATOR + url + "\n");
+    }
+
+    private void appendToJournal(String line) throws IOException {
+        if (this.journal == null) {
+            throw new IOException("Page cache is closed");
+        }
+        this.journal.write(line);
+        this.journal.flush();
+    }
+
+    private static String journalLine(PageCacheEntry entry) {
+        return String.join(JOURNAL_SEPARATOR,
+                JOURNAL_PUT,
+                entry.url(),
+                entry.responseURL(),
+                entry.contentHash(),
+                String.valueOf(entry.fetchedAt()),
+                Objects.requireNonNullElse(entry.eTag(), ""),
+                Objects.requireNonNullElse(entry.lastModified(), "")
+        ) + "\n";
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String hash(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance(CONTENT_HASH_ALGORITHM).digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Input stream over a memory mapped file
+     */
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return this.buffer.hasRemaining() ? this.buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!this.buffer.hasRemaining()) {
+                return -1;
+            }
+            int readBytes = Math.min(length, this.buffer.remaining());
+            this.buffer.get(bytes, offset, readBytes);
+            return readBytes;
+        }
+    }
+}
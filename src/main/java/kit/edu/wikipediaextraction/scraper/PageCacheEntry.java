@@ -0,0 +1,21 @@
+package kit.edu.wikipediaextraction.scraper;
+
+/**
+ * Index entry of a cached page
+ *
+ * @param url          requested URL
+ * @param responseURL  URL of the page after following redirects
+ * @param contentHash  SHA-256 of the HTML, names the compressed content file
+ * @param fetchedAt    time of the last download or revalidation in milliseconds
+ * @param eTag         ETag header, may be null
+ * @param lastModified Last-Modified header, may be null
+ */
+public record PageCacheEntry(
+        String url,
+        String responseURL,
+        String contentHash,
+        long fetchedAt,
+        String eTag,
+        String lastModified
+) {
+}
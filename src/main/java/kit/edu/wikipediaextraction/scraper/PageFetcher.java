@@ -0,0 +1,302 @@
+package kit.edu.wikipediaextraction.scraper;
+
+import kit.edu.wikipediaextraction.utils.ConnectionConstants;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Fetches and parses a single wikipedia page.
+ * All requests share one HTTP client, which keeps its connections alive and multiplexes requests over HTTP/2.
+ */
+public class PageFetcher {
+    private final static RetryPolicy DEFAULT_RETRY_POLICY = new RetryPolicy(3, 500, 10000);
+    private final HttpClient httpClient;
+    private final Duration readTimeout;
+    private final RetryPolicy retryPolicy;
+    private final PageCache pageCache;
+    private final HostRateLimiter hostRateLimiter;
+
+    public PageFetcher(int readTimeout) {
+        this(readTimeout, null);
+    }
+
+    public PageFetcher(
+            int readTimeout,
+            PageCache pageCache
+    ) {
+        this(readTimeout, readTimeout, DEFAULT_RETRY_POLICY, pageCache);
+    }
+
+    /**
+     * @param connectTimeout connect timeout of requests in milliseconds
+     * @param readTimeout    time to wait for a response in milliseconds
+     * @param retryPolicy    retries of requests failing with a rate limit or server error
+     * @param pageCache      cache for fetched pages or null to always request the pages
+     */
+    public PageFetcher(
+            int connectTimeout,
+            int readTimeout,
+            RetryPolicy retryPolicy,
+            PageCache pageCache
+    ) {
+        this(connectTimeout, readTimeout, retryPolicy, pageCache, null);
+    }
+
+    /**
+     * @param connectTimeout  connect timeout of requests in milliseconds
+     * @param readTimeout     time to wait for a response in milliseconds
+     * @param retryPolicy     retries of requests failing with a rate limit or server error
+     * @param pageCache       cache for fetched pages or null to always request the pages
+     * @param hostRateLimiter schedules every request including retries and learns from the responses, null for no limit
+     */
+    public PageFetcher(
+            int connectTimeout,
+            int readTimeout,
+            RetryPolicy retryPolicy,
+            PageCache pageCache,
+            HostRateLimiter hostRateLimiter
+    ) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(Duration.ofMillis(connectTimeout))
+                .build();
+        this.readTimeout = Duration.ofMillis(readTimeout);
+        this.retryPolicy = retryPolicy;
+        this.pageCache = pageCache;
+        this.hostRateLimiter = hostRateLimiter;
+    }
+
+    /**
+     * Checks whether the page would be served from the cache without a request
+     *
+     * @param pageURL URL of the page
+     * @return true if the page is cached and fresh
+     */
+    public boolean isCached(String pageURL) {
+        return this.pageCache != null && this.pageCache.isCacheable(pageURL) && this.pageCache.isFresh(pageURL);
+    }
+
+    /**
+     * @return hit and miss statistics of the cache or null if no cache is used
+     */
+    public String getCacheStatistics() {
+        return this.pageCache != null ? this.pageCache.getStatistics() : null;
+    }
+
+    /**
+     * Closes the journal of the cache, pages fetched afterwards are not cached across runs
+     *
+     * @throws IOException if the journal cannot be written
+     */
+    public void closeCache() throws IOException {
+        if (this.pageCache != null) {
+            this.pageCache.close();
+        }
+    }
+
+    /**
+     * Requests the page and parses it into a document
+     *
+     * @param pageURL URL of the page
+     * @return page document
+     * @throws IOException if the page could not be requested
+     */
+    public Document fetch(String pageURL) throws IOException {
+        return Jsoup.parse(this.fetchHtml(pageURL), pageURL);
+    }
+
+    /**
+     * Requests the page without parsing it
+     *
+     * @param pageURL URL of the page
+     * @return HTML of the page
+     * @throws IOException if the page could not be requested
+     */
+    public String fetchHtml(String pageURL) throws IOException {
+        return this.fetchPage(pageURL, null, null).html();
+    }
+
+    /**
+     * Gets the page conditionally, if validators of an earlier response are given.
+     * Fresh cached pages are served without a request, expired ones are revalidated.
+     *
+     * @param pageURL      URL of the page
+     * @param eTag         ETag of an earlier response or null
+     * @param lastModified Last-Modified of an earlier response or null
+     * @return response or null if the page was not modified
+     * @throws IOException if the page could not be requested
+     */
+    public PageResponse fetchPage(String pageURL, String eTag, String lastModified) throws IOException {
+        if (this.pageCache == null || !this.pageCache.isCacheable(pageURL)) {
+            return this.request(pageURL, eTag, lastModified);
+        }
+
+        PageCacheEntry entry = this.pageCache.get(pageURL);
+        PageResponse response = null;
+
+        if (entry != null && this.pageCache.isExpired(entry)) {
+            PageResponse revalidated = this.request(pageURL, entry.eTag(), entry.lastModified());
+            if (revalidated != null) {
+                this.pageCache.put(pageURL, revalidated);
+                response = revalidated;
+            } else {
+                entry = this.pageCache.markRevalidated(entry);
+            }
+        }
+        if (response == null && entry != null) {
+            response = this.pageCache.read(entry);
+        }
+        if (response == null) {
+            // without a cached page the validators of the caller can spare the download
+            response = entry == null
+                    ? this.request(pageURL, eTag, lastModified)
+                    : this.request(pageURL, null, null);
+            if (response == null) {
+                return null;
+            }
+            this.pageCache.put(pageURL, response);
+        }
+
+        return isSameVersion(response, eTag, lastModified) ? null : response;
+    }
+
+    /**
+     * Checks whether the response matches the validators of an earlier response
+     */
+    private static boolean isSameVersion(PageResponse response, String eTag, String lastModified) {
+        return (eTag != null && eTag.equals(response.eTag()))
+                || (lastModified != null && lastModified.equals(response.lastModified()));
+    }
+
+    /**
+     * Requests the page, conditionally if validators are given.
+     * Responses with a rate limit or server error are retried after a backoff, or after the delay of their Retry-After header if it is longer.
+     * With a rate limiter the delay pauses the host in the rate limiter, so the retry waits there once instead of sleeping first.
+     *
+     * @return response or null if the page was not modified
+     */
+    private PageResponse request(String pageURL, String eTag, String lastModified) throws IOException {
+        HttpRequest.Builder requestBuilder = HttpRequest.newBuilder(URI.create(pageURL))
+                .timeout(this.readTimeout)
+                .header(ConnectionConstants.USER_AGENT, ConnectionConstants.STANDARD_USER_AGENT)
+                .header(ConnectionConstants.ACCEPT_ENCODING, ConnectionConstants.SUPPORTED_ENCODINGS)
+                .GET();
+        if (eTag != null) {
+            requestBuilder.header(ConnectionConstants.IF_NONE_MATCH, eTag);
+        }
+        if (lastModified != null) {
+            requestBuilder.header(ConnectionConstants.IF_MODIFIED_SINCE, lastModified);
+        }
+        HttpRequest request = requestBuilder.build();
+
+        try {
+            HttpResponse<byte[]> response = this.send(pageURL, request);
+            for (int retry = 1; retry <= this.retryPolicy.maxRetries() && this.retryPolicy.isRetryable(response.statusCode()); retry++) {
+                long delayMillis = Math.max(this.retryPolicy.getDelayMillis(retry), getRetryAfterMillis(response));
+                if (this.hostRateLimiter != null && this.hostRateLimiter.isEnabled()) {
+                    this.hostRateLimiter.pause(pageURL, delayMillis);
+                } else {
+                    Thread.sleep(delayMillis);
+                }
+                response = this.send(pageURL, request);
+            }
+
+            return this.toPageResponse(pageURL, response);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while requesting " + pageURL);
+        }
+    }
+
+    /**
+     * Sends the request once the rate limiter allows it and reports the response or the failure to the rate limiter
+     */
+    private HttpResponse<byte[]> send(String pageURL, HttpRequest request) throws IOException, InterruptedException {
+        if (this.hostRateLimiter == null) {
+            return this.httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        }
+
+        this.hostRateLimiter.acquire(pageURL);
+        long start = System.nanoTime();
+        HttpResponse<byte[]> response;
+        try {
+            response = this.httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            this.hostRateLimiter.onFailure(pageURL);
+            throw e;
+        }
+        this.hostRateLimiter.onResponse(pageURL, response.statusCode(), System.nanoTime() - start, getRetryAfterMillis(response));
+        return response;
+    }
+
+    /**
+     * Gets the delay of the Retry-After header, which is either a number of seconds or an HTTP date
+     *
+     * @return delay in milliseconds or -1 if the response has no valid Retry-After header
+     */
+    static long getRetryAfterMillis(HttpResponse<?> response) {
+        String retryAfter = response.headers().firstValue(ConnectionConstants.RETRY_AFTER).orElse(null);
+        if (retryAfter == null) {
+            return -1;
+        }
+
+        try {
+            return Math.max(0, Long.parseLong(retryAfter.trim()) * 1000);
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime date = ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Math.max(0, date.toInstant().toEpochMilli() - System.currentTimeMillis());
+            } catch (DateTimeParseException ignored) {
+                return -1;
+            }
+        }
+    }
+
+    private PageResponse toPageResponse(String pageURL, HttpResponse<byte[]> response) throws IOException {
+        int statusCode = response.statusCode();
+        if (statusCode == HttpURLConnection.HTTP_NOT_MODIFIED) {
+            return null;
+        }
+        if (statusCode < HttpURLConnection.HTTP_OK || statusCode >= HttpURLConnection.HTTP_MULT_CHOICE) {
+            throw new IOException("HTTP " + statusCode + " for " + pageURL);
+        }
+
+        String contentEncoding = response.headers().firstValue(ConnectionConstants.CONTENT_ENCODING).orElse("");
+        try (InputStream inputStream = decode(contentEncoding, new ByteArrayInputStream(response.body()))) {
+            String html = new String(inputStream.readAllBytes(), Charset.forName(ConnectionConstants.CHARSET_NAME));
+            return new PageResponse(
+                    response.uri().toString(),
+                    html,
+                    response.headers().firstValue(ConnectionConstants.ETAG).orElse(null),
+                    response.headers().firstValue(ConnectionConstants.LAST_MODIFIED).orElse(null)
+            );
+        }
+    }
+
+    private static InputStream decode(String contentEncoding, InputStream inputStream) throws IOException {
+        return switch (contentEncoding.trim().toLowerCase(Locale.ROOT)) {
+            case ConnectionConstants.GZIP -> new GZIPInputStream(inputStream);
+            case ConnectionConstants.DEFLATE -> new InflaterInputStream(inputStream);
+            default -> inputStream;
+        };
+    }
+}
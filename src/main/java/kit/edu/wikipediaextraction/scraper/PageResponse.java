@@ -0,0 +1,17 @@
+package kit.edu.wikipediaextraction.scraper;
+
+/**
+ * Response of a page request
+ *
+ * @param url          URL of the page after following redirects
+ * @param html         HTML of the page
+ * @param eTag         ETag header, may be null
+ * @param lastModified Last-Modified header, may be null
+ */
+public record PageResponse(
+        String url,
+        String html,
+        String eTag,
+        String lastModified
+) {
+}
@@ -0,0 +1,45 @@
+package kit.edu.wikipediaextraction.scraper;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retries of requests that failed with a rate limit or server error, with exponential backoff and full jitter
+ *
+ * @param maxRetries      maximum number of retries of a request
+ * @param baseDelayMillis delay before the first retry, doubled for every further retry
+ * @param maxDelayMillis  upper bound of the delay
+ */
+public record RetryPolicy(
+        int maxRetries,
+        long baseDelayMillis,
+        long maxDelayMillis
+) {
+    private final static int HTTP_TOO_MANY_REQUESTS = 429;
+    private final static int HTTP_SERVER_ERROR = 500;
+    private final static int MAX_BACKOFF_EXPONENT = 30;
+
+    /**
+     * Policy that never retries
+     */
+    public final static RetryPolicy NONE = new RetryPolicy(0, 0, 0);
+
+    /**
+     * @param statusCode HTTP status code of the response
+     * @return true if the request may succeed when it is sent again
+     */
+    public boolean isRetryable(int statusCode) {
+        return statusCode == HTTP_TOO_MANY_REQUESTS || statusCode >= HTTP_SERVER_ERROR;
+    }
+
+    /**
+     * Gets a random delay between zero and the exponential backoff of the retry
+     *
+     * @param retry number of the retry, starting at 1
+     * @return delay in milliseconds
+     */
+    public long getDelayMillis(int retry) {
+        long backoff = this.baseDelayMillis << Math.min(retry - 1, MAX_BACKOFF_EXPONENT);
+        long cappedBackoff = Math.min(backoff < 0 ? Long.MAX_VALUE : backoff, this.maxDelayMillis);
+        return cappedBackoff <= 0 ? 0 : ThreadLocalRandom.current().nextLong(cappedBackoff + 1);
+    }
+}
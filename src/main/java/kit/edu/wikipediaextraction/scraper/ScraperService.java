@@ -1,36 +1,219 @@
 package kit.edu.wikipediaextraction.scraper;
 
-import kit.edu.wikipediaextraction.utils.ConnectionConstants;
-import org.jsoup.Jsoup;
+import jakarta.annotation.PreDestroy;
+import kit.edu.wikipediaextraction.ApplicationPropertiesResolver;
+import kit.edu.wikipediaextraction.pipeline.StageQueue;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.URL;
-import java.net.URLConnection;
-import java.util.ArrayList;
-import java.util.Collection;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Service for retrieving article URLs
  */
 @Service
 public class ScraperService {
-    private final static String WIKIPEDIA_URL = "https://en.wikipedia.org";
-    private final static String WIKIPEDIA_RANDOM_URL = "https://en.wikipedia.org/wiki/Special:Random";
-    private final static String WIKIPEDIA_LIST_OF_VITAL_ARTICLE_LISTS_URL = "https://en.wikipedia.org/wiki/Wikipedia:Vital_articles/Level/5";
+    private final static String WIKIPEDIA_RANDOM_PATH = "/wiki/Special:Random";
+    private final static String WIKIPEDIA_LIST_OF_VITAL_ARTICLE_LISTS_PATH = "/wiki/Wikipedia:Vital_articles/Level/5";
+    private final static String WIKIPEDIA_VITAL_ARTICLES_PATH_PREFIX = "/wiki/Wikipedia:Vital_articles";
     private final static String WIKI_TABLE_HTML_CLASS_SELECTOR = ".wikitable";
     private final static String WIKIPEDIA_MW_CONTENT_TEXT_HTML_SELECTOR = "#mw-content-text";
     private final static String HTML_LINK_ELEMENT_SELECTOR = "a";
     private final static String HTML_ATTRIBUTE_HREF = "href";
     private final static String COLON = ":";
+    private final static long MAX_RETRY_DELAY_MILLIS = 30000;
+    private final static int MAX_NUMBER_OF_VITAL_ARTICLES = 9000;
+    private final static int URL_QUEUE_CAPACITY = 1024;
+    private final static long BYTES_PER_MEGABYTE = 1024 * 1024;
+    private final PageFetcher pageFetcher;
+    private final HostRateLimiter hostRateLimiter;
+    private final ConcurrentArticleFetcher concurrentArticleFetcher;
+    private final boolean concurrentScraping;
+    private final int maxInFlight;
+    private final int vitalArticlesPerPage;
+    private final String wikipediaURL;
 
-    public ScraperService() {
+    public ScraperService(
+            ApplicationPropertiesResolver applicationPropertiesResolver
+    ) {
+        this.wikipediaURL = applicationPropertiesResolver.getScraperWikipediaURL();
+        this.hostRateLimiter = new HostRateLimiter(
+                applicationPropertiesResolver.getScraperRequestsPerSecondPerHost(),
+                this::getPriority
+        );
+        this.pageFetcher = new PageFetcher(
+                applicationPropertiesResolver.getScraperConnectTimeoutMillis(),
+                applicationPropertiesResolver.getScraperReadTimeoutMillis(),
+                new RetryPolicy(
+                        applicationPropertiesResolver.getScraperMaxRetries(),
+                        applicationPropertiesResolver.getScraperRetryBaseDelayMillis(),
+                        MAX_RETRY_DELAY_MILLIS
+                ),
+                createPageCache(applicationPropertiesResolver),
+                this.hostRateLimiter
+        );
+        this.concurrentArticleFetcher = new ConcurrentArticleFetcher(
+                this.pageFetcher,
+                applicationPropertiesResolver.getScraperMaxInFlight()
+        );
+        this.concurrentScraping = applicationPropertiesResolver.isConcurrentScraping();
+        this.maxInFlight = Math.max(1, applicationPropertiesResolver.getScraperMaxInFlight());
+        this.vitalArticlesPerPage = applicationPropertiesResolver.getScraperVitalArticlesPerPage();
+    }
+
+    /**
+     * Scrapes without rate limit, e.g. a local stub of wikipedia
+     *
+     * @param wikipediaURL         base URL of wikipedia
+     * @param pageFetcher          fetcher of the pages
+     * @param maxInFlight          maximum number of concurrent requests
+     * @param vitalArticlesPerPage maximum number of vital articles per list page, 0 for no limit
+     */
+    ScraperService(
+            String wikipediaURL,
+            PageFetcher pageFetcher,
+            int maxInFlight,
+            int vitalArticlesPerPage
+    ) {
+        this.wikipediaURL = wikipediaURL;
+        this.hostRateLimiter = new HostRateLimiter(0);
+        this.pageFetcher = pageFetcher;
+        this.concurrentArticleFetcher = new ConcurrentArticleFetcher(pageFetcher, maxInFlight);
+        this.concurrentScraping = true;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.vitalArticlesPerPage = vitalArticlesPerPage;
+    }
+
+    /**
+     * Gets the priority of a request, vital article lists go first since each of them yields many article URLs
+     *
+     * @param url requested URL
+     * @return priority of the request
+     */
+    private CrawlPriority getPriority(String url) {
+        if (url.startsWith(this.wikipediaURL + WIKIPEDIA_VITAL_ARTICLES_PATH_PREFIX)) {
+            return CrawlPriority.INDEX_PAGE;
+        }
+        return url.equals(this.wikipediaURL + WIKIPEDIA_RANDOM_PATH) ? CrawlPriority.RANDOM_ARTICLE : CrawlPriority.ARTICLE;
+    }
+
+    /**
+     * Opens the page cache, if a cache directory is configured
+     *
+     * @param applicationPropertiesResolver application properties
+     * @return page cache or null if pages are not cached
+     */
+    private static PageCache createPageCache(
+            ApplicationPropertiesResolver applicationPropertiesResolver
+    ) {
+        String cacheDirectory = applicationPropertiesResolver.getScraperCacheDirectory();
+        if (cacheDirectory.isEmpty()) {
+            return null;
+        }
+
+        try {
+            return new PageCache(
+                    Path.of(cacheDirectory),
+                    applicationPropertiesResolver.getScraperCacheMaxSizeMB() * BYTES_PER_MEGABYTE,
+                    Duration.ofHours(applicationPropertiesResolver.getScraperCacheTimeToLiveHours()).toMillis()
+            );
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return hit and miss statistics of the page cache or null if pages are not cached
+     */
+    public String getCacheStatistics() {
+        return this.pageFetcher.getCacheStatistics();
+    }
+
+    /**
+     * Closes the page cache on shutdown
+     */
+    @PreDestroy
+    public void close() {
+        try {
+            this.pageFetcher.closeCache();
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /**
+     * @return requests per second currently allowed by the adaptive rate limit, summed over all hosts
+     */
+    public double getRequestsPerSecond() {
+        return this.hostRateLimiter.getTotalRate();
+    }
+
+    /**
+     * Gets the URLs to request for random articles
+     *
+     * @param numberOfArticles number of random articles
+     * @return random article URLs
+     */
+    public List<String> getRandomArticleURLs(
+            int numberOfArticles
+    ) {
+        return Collections.nCopies(numberOfArticles, this.wikipediaURL + WIKIPEDIA_RANDOM_PATH);
+    }
+
+
+    /**
+     * Gets the URLs of the vital articles to request
+     *
+     * @return vital article URLs
+     */
+    public List<String> getVitalArticleURLs() {
+        try (Stream<String> vitalArticleURLs = this.streamVitalArticleURLs()) {
+            return vitalArticleURLs.toList();
+        }
+    }
+
+
+    /**
+     * Streams the URLs of the vital articles to request while they are discovered,
+     * so their articles can be requested before all vital article list pages are read.
+     * The stream has to be closed.
+     *
+     * @return vital article URLs
+     */
+    public Stream<String> streamVitalArticleURLs() {
+        return this.discoverVitalArticleURLs().limit(MAX_NUMBER_OF_VITAL_ARTICLES);
+    }
+
+
+    /**
+     * Requests an article, scheduled by the adaptive rate limit of its host unless it is served from the page cache.
+     * If validators of an earlier response are given, the article is only downloaded if it was modified.
+     *
+     * @param articleURL   URL of the article
+     * @param eTag         ETag of an earlier response or null
+     * @param lastModified Last-Modified of an earlier response or null
+     * @return response or null if the article was not modified
+     * @throws IOException if the article could not be requested or the thread was interrupted while waiting for the rate limit
+     */
+    public PageResponse fetchArticle(
+            String articleURL,
+            String eTag,
+            String lastModified
+    ) throws IOException {
+        return this.pageFetcher.fetchPage(articleURL, eTag, lastModified);
     }
 
+
     /**
      * Extracts random articles from wikipedia
      *
@@ -40,18 +223,16 @@ public class ScraperService {
     public Collection<Document> extractRandomArticles(
             int numberOfArticles
     ) {
+        if (this.concurrentScraping) {
+            return this.fetchConcurrently(this.getRandomArticleURLs(numberOfArticles));
+        }
+
         Collection<Document> docs = new ArrayList<>();
 
         for (int i = 0; i < numberOfArticles; i++) {
             // try to request random URL
             try {
-                URL randomWikipediaURL = new URL(WIKIPEDIA_RANDOM_URL);
-                URLConnection connection = randomWikipediaURL.openConnection();
-                connection.setRequestProperty(ConnectionConstants.USER_AGENT, ConnectionConstants.STANDARD_USER_AGENT);
-
-                InputStream inputStream = connection.getInputStream();
-                Document doc = Jsoup.parse(inputStream, ConnectionConstants.CHARSET_NAME, randomWikipediaURL.toString());
-                docs.add(doc);
+                docs.add(this.pageFetcher.fetch(this.wikipediaURL + WIKIPEDIA_RANDOM_PATH));
             } catch (IOException e) {
                 System.out.println(e.getMessage());
             }
@@ -68,20 +249,22 @@ public class ScraperService {
      */
     public Collection<Document> extractAllVitalArticles() {
         Collection<Document> docs = new ArrayList<>();
-        Collection<String> vitalArticleURLs = this.getAllVitalArticleURLs();
+        Collection<String> vitalArticleURLs;
+        try (Stream<String> discoveredURLs = this.discoverVitalArticleURLs()) {
+            vitalArticleURLs = discoveredURLs.toList();
+        }
+
+        if (this.concurrentScraping) {
+            List<String> urls = vitalArticleURLs.stream().limit(MAX_NUMBER_OF_VITAL_ARTICLES).toList();
+            return this.fetchConcurrently(urls);
+        }
+
         int counter = 0;
 
         for (String articleURL : vitalArticleURLs) {
-            if (counter >= 0 && counter < 9000) {
+            if (counter >= 0 && counter < MAX_NUMBER_OF_VITAL_ARTICLES) {
                 try {
-                    URL vitalArticleURL = new URL(articleURL);
-                    URLConnection connection = vitalArticleURL.openConnection();
-                    connection.setRequestProperty(ConnectionConstants.USER_AGENT, ConnectionConstants.STANDARD_USER_AGENT);
-                    connection.setReadTimeout(10000);
-
-                    InputStream inputStream = connection.getInputStream();
-                    Document doc = Jsoup.parse(inputStream, ConnectionConstants.CHARSET_NAME, vitalArticleURL.toString());
-                    docs.add(doc);
+                    docs.add(this.pageFetcher.fetch(articleURL));
                     counter++;
                 } catch (IOException e) {
                     System.out.println(e.getMessage());
@@ -94,29 +277,48 @@ public class ScraperService {
 
 
     /**
-     * Gets all vital article URLs
+     * Fetches the article documents concurrently and reports failed URLs
      *
-     * @return vital article URLs
+     * @param urls article URLs
+     * @return article documents in the order of the URLs
+     */
+    private Collection<Document> fetchConcurrently(
+            List<String> urls
+    ) {
+        Collection<Document> docs = new ArrayList<>();
+
+        for (ArticleFetchResult result : this.concurrentArticleFetcher.fetchAll(urls)) {
+            if (result.isSuccessful()) {
+                docs.add(result.document());
+            } else {
+                System.out.println(result.url() + ": " + result.errorMessage());
+            }
+        }
+
+        return docs;
+    }
+
+
+    /**
+     * Discovers the vital article URLs on all vital article list pages.
+     * The list pages are requested concurrently and their URLs are streamed as soon as a page is read,
+     * URLs listed on several pages are only streamed once. The stream has to be closed to stop the discovery.
+     *
+     * @return vital article URLs in the order the list pages are read
      */
-    private Collection<String> getAllVitalArticleURLs() {
-        Collection<String> URLs = new ArrayList<>();
-        Collection<String> pageURLrls = new ArrayList<>();
+    private Stream<String> discoverVitalArticleURLs() {
+        List<String> pageURLs = new ArrayList<>();
 
         // get page URLs of all vital article list pages
         try {
-            URL randomWikipediaURL = new URL(WIKIPEDIA_LIST_OF_VITAL_ARTICLE_LISTS_URL);
-            URLConnection connection = randomWikipediaURL.openConnection();
-            connection.setRequestProperty(ConnectionConstants.USER_AGENT, ConnectionConstants.STANDARD_USER_AGENT);
-
-            InputStream inputStream = connection.getInputStream();
-            Document doc = Jsoup.parse(inputStream, ConnectionConstants.CHARSET_NAME, randomWikipediaURL.toString());
+            Document doc = this.pageFetcher.fetch(this.wikipediaURL + WIKIPEDIA_LIST_OF_VITAL_ARTICLE_LISTS_PATH);
             Element wikiTableElement = doc.selectFirst(WIKI_TABLE_HTML_CLASS_SELECTOR);
 
             if (wikiTableElement != null) {
                 Elements wikiTableLinkElements = wikiTableElement.select(HTML_LINK_ELEMENT_SELECTOR);
 
                 for (Element linkElement : wikiTableLinkElements) {
-                    pageURLrls.add(linkElement.attr(HTML_ATTRIBUTE_HREF));
+                    pageURLs.add(linkElement.attr(HTML_ATTRIBUTE_HREF));
                 }
             }
 
@@ -124,12 +326,67 @@ public class ScraperService {
             System.out.println(e.getMessage());
         }
 
+        if (pageURLs.isEmpty()) {
+            return Stream.empty();
+        }
+
+        StageQueue<String> urlQueue = new StageQueue<>(URL_QUEUE_CAPACITY, pageURLs.size());
+        ConcurrentURLSet discoveredURLs = new ConcurrentURLSet();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(this.maxInFlight, pageURLs.size()), runnable -> {
+            Thread thread = new Thread(runnable, "vital-discovery");
+            thread.setDaemon(true);
+            return thread;
+        });
 
-        for (String pageURL : pageURLrls) {
-            Collection<String> pageVitalArticleURLs = this.getVitalArticleURLsFromPage(pageURL);
-            URLs.addAll(pageVitalArticleURLs);
+        for (String pageURL : pageURLs) {
+            executor.submit(() -> {
+                try {
+                    try {
+                        for (String articleURL : this.getVitalArticleURLsFromPage(pageURL)) {
+                            if (discoveredURLs.add(articleURL)) {
+                                urlQueue.put(articleURL);
+                            }
+                        }
+                    } finally {
+                        urlQueue.close();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
         }
-        return URLs;
+        executor.shutdown();
+
+        Iterator<String> iterator = new Iterator<>() {
+            private String next;
+            private boolean done;
+
+            @Override
+            public boolean hasNext() {
+                if (this.next == null && !this.done) {
+                    try {
+                        this.next = urlQueue.take();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    this.done = this.next == null;
+                }
+                return !this.done;
+            }
+
+            @Override
+            public String next() {
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                String url = this.next;
+                this.next = null;
+                return url;
+            }
+        };
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.NONNULL | Spliterator.DISTINCT), false)
+                .onClose(executor::shutdownNow);
     }
 
 
@@ -137,20 +394,16 @@ public class ScraperService {
      * Gets vital article URLs from selected page
      *
      * @param pageURL URL of the selected page
-     * @return list of vital article URLs
+     * @return list of at most the configured number of vital article URLs
      */
-    private Collection<String> getVitalArticleURLsFromPage(
+    private List<String> getVitalArticleURLsFromPage(
             String pageURL
     ) {
-        Collection<String> URLs = new ArrayList<>();
+        List<String> URLs = new ArrayList<>();
 
         try {
-            URL randomWikipediaURL = new URL(WIKIPEDIA_URL + pageURL);
-            URLConnection connection = randomWikipediaURL.openConnection();
-            connection.setRequestProperty(ConnectionConstants.USER_AGENT, ConnectionConstants.STANDARD_USER_AGENT);
-
-            InputStream inputStream = connection.getInputStream();
-            Document doc = Jsoup.parse(inputStream, ConnectionConstants.CHARSET_NAME, randomWikipediaURL.toString());
+            String url = this.wikipediaURL + pageURL;
+            Document doc = this.pageFetcher.fetch(url);
             Element wikipediaMainText = doc.selectFirst(WIKIPEDIA_MW_CONTENT_TEXT_HTML_SELECTOR);
 
             if (wikipediaMainText != null) {
@@ -161,7 +414,7 @@ public class ScraperService {
 
                     // Colon is only used for internal links, not for articles
                     if (!href.contains(COLON)) {
-                        URLs.add(WIKIPEDIA_URL + href);
+                        URLs.add(this.wikipediaURL + href);
                     }
                 }
             }
@@ -169,6 +422,10 @@ public class ScraperService {
         } catch (IOException e) {
             System.out.println(e.getMessage());
         }
-        return URLs.stream().toList().subList(0, 100);
+
+        if (this.vitalArticlesPerPage > 0 && URLs.size() > this.vitalArticlesPerPage) {
+            return URLs.subList(0, this.vitalArticlesPerPage);
+        }
+        return URLs;
     }
 }
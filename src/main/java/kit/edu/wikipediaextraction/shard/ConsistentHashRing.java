@@ -0,0 +1,93 @@
+package kit.edu.wikipediaextraction.shard;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Maps keys, e.g. article URLs or dump byte ranges, to partitions by consistent hashing.
+ * Every partition owns many points on a ring of 64-bit hashes, and a key belongs to the partition of the
+ * first point at or after the hash of the key. If the number of partitions changes, only the keys of the
+ * added or removed partitions move to another partition.
+ */
+public class ConsistentHashRing {
+    private final static int POINTS_PER_PARTITION = 128;
+    private final static long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private final static long FNV_PRIME = 0x100000001b3L;
+    private final static long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private final int numberOfPartitions;
+    // sorted hashes of the points and the partition of each point
+    private final long[] points;
+    private final int[] partitions;
+
+    /**
+     * @param numberOfPartitions number of partitions, at least 1
+     */
+    public ConsistentHashRing(int numberOfPartitions) {
+        if (numberOfPartitions < 1) {
+            throw new IllegalArgumentException("number of partitions must be positive: " + numberOfPartitions);
+        }
+
+        this.numberOfPartitions = numberOfPartitions;
+        long[] pointsWithPartition = new long[numberOfPartitions * POINTS_PER_PARTITION];
+        for (int partition = 0; partition < numberOfPartitions; partition++) {
+            for (int point = 0; point < POINTS_PER_PARTITION; point++) {
+                pointsWithPartition[partition * POINTS_PER_PARTITION + point] = mix((long) partition * POINTS_PER_PARTITION + point);
+            }
+        }
+
+        // sort the points together with their partitions, the index of a point encodes its partition
+        Integer[] order = new Integer[pointsWithPartition.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (first, second) -> Long.compareUnsigned(pointsWithPartition[first], pointsWithPartition[second]));
+        this.points = new long[order.length];
+        this.partitions = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            this.points[i] = pointsWithPartition[order[i]];
+            this.partitions[i] = order[i] / POINTS_PER_PARTITION;
+        }
+    }
+
+    public int getNumberOfPartitions() {
+        return this.numberOfPartitions;
+    }
+
+    /**
+     * @param key key of a work item
+     * @return partition of the key
+     */
+    public int partitionOf(String key) {
+        long hash = hash(key);
+        int low = 0;
+        int high = this.points.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (Long.compareUnsigned(this.points[middle], hash) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        // keys after the last point belong to the first point of the ring
+        return this.partitions[low == this.points.length ? 0 : low];
+    }
+
+    private static long hash(String key) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xff)) * FNV_PRIME;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Finalizer of SplitMix64, spreads similar inputs over the whole ring
+     */
+    private static long mix(long value) {
+        long hash = value + GOLDEN_GAMMA;
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return hash ^ (hash >>> 31);
+    }
+}
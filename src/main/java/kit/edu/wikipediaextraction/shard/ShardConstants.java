@@ -0,0 +1,37 @@
+package kit.edu.wikipediaextraction.shard;
+
+public class ShardConstants {
+    // a single job, planning and merging are leased by one worker at a time like the partitions
+    public final static String CREATE_TABLE_WIKIPEDIA_SHARD_JOB = "CREATE TABLE IF NOT EXISTS wikipedia_shard_job (jobID INTEGER PRIMARY KEY CHECK (jobID = 1), numberOfPartitions INTEGER NOT NULL, plannedBy TEXT, planLeasedUntil INTEGER NOT NULL DEFAULT 0, plannedAt INTEGER, mergedBy TEXT, mergeLeasedUntil INTEGER NOT NULL DEFAULT 0, mergedAt INTEGER)";
+    public final static String CREATE_TABLE_WIKIPEDIA_SHARD_PARTITIONS = "CREATE TABLE IF NOT EXISTS wikipedia_shard_partitions (partitionID INTEGER PRIMARY KEY, workerID TEXT, leasedUntil INTEGER NOT NULL DEFAULT 0, completedAt INTEGER)";
+    public final static String CREATE_TABLE_WIKIPEDIA_SHARD_WORK_ITEMS = "CREATE TABLE IF NOT EXISTS wikipedia_shard_work_items (partitionID INTEGER NOT NULL, item TEXT NOT NULL)";
+    public final static String CREATE_TABLE_WIKIPEDIA_SHARD_WORKERS = "CREATE TABLE IF NOT EXISTS wikipedia_shard_workers (workerID TEXT PRIMARY KEY, databaseName TEXT NOT NULL)";
+    public final static String CREATE_INDEX_SHARD_WORK_ITEMS_PARTITION_ID = "CREATE INDEX IF NOT EXISTS idx_wikipedia_shard_work_items_partitionID ON wikipedia_shard_work_items (partitionID)";
+
+    public final static String TABLE_WIKIPEDIA_SHARD_PARTITIONS = "wikipedia_shard_partitions";
+    public final static String TABLE_WIKIPEDIA_SHARD_WORK_ITEMS = "wikipedia_shard_work_items";
+    public final static String WIKIPEDIA_SHARD_PARTITIONS_COLUMNS = "partitionID";
+    public final static String WIKIPEDIA_SHARD_WORK_ITEMS_COLUMNS = "partitionID, item";
+
+    public final static String INSERT_SHARD_JOB = "INSERT OR IGNORE INTO wikipedia_shard_job (jobID, numberOfPartitions) VALUES (1, ?)";
+    public final static String INSERT_SHARD_WORKER = "INSERT OR REPLACE INTO wikipedia_shard_workers (workerID, databaseName) VALUES (?, ?)";
+
+    public final static String SELECT_NUMBER_OF_PARTITIONS = "SELECT numberOfPartitions FROM wikipedia_shard_job WHERE jobID = 1";
+    public final static String SELECT_IS_PLANNED = "SELECT plannedAt IS NOT NULL FROM wikipedia_shard_job WHERE jobID = 1";
+    public final static String SELECT_IS_MERGED = "SELECT mergedAt IS NOT NULL FROM wikipedia_shard_job WHERE jobID = 1";
+    // partitions this worker leased before it was restarted come first
+    public final static String SELECT_LEASABLE_PARTITIONS = "SELECT partitionID FROM wikipedia_shard_partitions WHERE completedAt IS NULL AND (workerID = ? OR leasedUntil < ?) ORDER BY workerID = ? DESC, partitionID LIMIT ?";
+    public final static String SELECT_NUMBER_OF_OPEN_PARTITIONS = "SELECT COUNT(*) FROM wikipedia_shard_partitions WHERE completedAt IS NULL";
+    public final static String SELECT_WORK_ITEMS = "SELECT item FROM wikipedia_shard_work_items WHERE partitionID = ? ORDER BY rowid";
+    public final static String SELECT_SHARD_DATABASES = "SELECT databaseName FROM wikipedia_shard_workers ORDER BY workerID";
+
+    public final static String CLAIM_PLANNING = "UPDATE wikipedia_shard_job SET plannedBy = ?, planLeasedUntil = ? WHERE jobID = 1 AND plannedAt IS NULL AND (plannedBy = ? OR planLeasedUntil < ?)";
+    public final static String RENEW_PLANNING = "UPDATE wikipedia_shard_job SET planLeasedUntil = ? WHERE jobID = 1 AND plannedAt IS NULL AND plannedBy = ?";
+    public final static String FINISH_PLANNING = "UPDATE wikipedia_shard_job SET plannedAt = ? WHERE jobID = 1 AND plannedAt IS NULL AND plannedBy = ?";
+    public final static String CLAIM_MERGE = "UPDATE wikipedia_shard_job SET mergedBy = ?, mergeLeasedUntil = ? WHERE jobID = 1 AND mergedAt IS NULL AND (mergedBy = ? OR mergeLeasedUntil < ?)";
+    public final static String RENEW_MERGE = "UPDATE wikipedia_shard_job SET mergeLeasedUntil = ? WHERE jobID = 1 AND mergedAt IS NULL AND mergedBy = ?";
+    public final static String FINISH_MERGE = "UPDATE wikipedia_shard_job SET mergedAt = ? WHERE jobID = 1 AND mergedAt IS NULL AND mergedBy = ?";
+    public final static String LEASE_PARTITION = "UPDATE wikipedia_shard_partitions SET workerID = ?, leasedUntil = ? WHERE partitionID = ? AND completedAt IS NULL AND (workerID = ? OR leasedUntil < ?)";
+    public final static String RENEW_PARTITION = "UPDATE wikipedia_shard_partitions SET leasedUntil = ? WHERE partitionID = ? AND completedAt IS NULL AND workerID = ?";
+    public final static String COMPLETE_PARTITION = "UPDATE wikipedia_shard_partitions SET completedAt = ? WHERE partitionID = ? AND completedAt IS NULL AND workerID = ?";
+}
@@ -0,0 +1,280 @@
+package kit.edu.wikipediaextraction.shard;
+
+import kit.edu.wikipediaextraction.database.DatabaseEntry;
+import kit.edu.wikipediaextraction.database.DatabaseEntryType;
+import kit.edu.wikipediaextraction.database.DatabaseService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Coordinates the workers of a sharded extraction through a database shared by all workers.
+ * The work items are assigned to partitions once, and the workers lease one partition at a time.
+ * A lease has to be renewed while the partition is processed; the partition of a worker that stopped
+ * renewing its lease is leased by another worker once the lease expired. Planning and merging are leased the same way.
+ * The methods are synchronized, so the leases can be renewed by another thread while a partition is processed.
+ */
+public class ShardCoordinator {
+    private final static int LEASE_CANDIDATES = 8;
+    private final DatabaseService databaseService;
+    private final String workerID;
+    private final long leaseMillis;
+    private final int numberOfPartitions;
+    // partition currently leased by this worker, -1 if none
+    private int leasedPartition;
+    private boolean planning;
+    private boolean merging;
+
+    /**
+     * @param databaseService    coordination database shared by all workers
+     * @param workerID           unique ID of this worker, a restarted worker continues the partitions it leased before
+     * @param numberOfPartitions number of partitions if this worker is the first one, otherwise the number of the job is used
+     * @param leaseMillis        duration of a lease
+     */
+    public ShardCoordinator(
+            DatabaseService databaseService,
+            String workerID,
+            int numberOfPartitions,
+            long leaseMillis
+    ) {
+        this.databaseService = databaseService;
+        this.workerID = workerID;
+        this.leaseMillis = leaseMillis;
+        this.leasedPartition = -1;
+        this.databaseService.execute(ShardConstants.CREATE_TABLE_WIKIPEDIA_SHARD_JOB);
+        this.databaseService.execute(ShardConstants.CREATE_TABLE_WIKIPEDIA_SHARD_PARTITIONS);
+        this.databaseService.execute(ShardConstants.CREATE_TABLE_WIKIPEDIA_SHARD_WORK_ITEMS);
+        this.databaseService.execute(ShardConstants.CREATE_TABLE_WIKIPEDIA_SHARD_WORKERS);
+        this.databaseService.execute(ShardConstants.CREATE_INDEX_SHARD_WORK_ITEMS_PARTITION_ID);
+        this.databaseService.executeUpdate(ShardConstants.INSERT_SHARD_JOB, List.of(intEntry(Math.max(1, numberOfPartitions))));
+        this.numberOfPartitions = this.databaseService.query(
+                ShardConstants.SELECT_NUMBER_OF_PARTITIONS,
+                List.of(),
+                resultSet -> resultSet.getInt(1)
+        ).get(0);
+    }
+
+    public String getWorkerID() {
+        return this.workerID;
+    }
+
+    public long getLeaseMillis() {
+        return this.leaseMillis;
+    }
+
+    /**
+     * @return number of partitions of the job
+     */
+    public int getNumberOfPartitions() {
+        return this.numberOfPartitions;
+    }
+
+    /**
+     * Registers the database this worker stores its sections in, so that it is merged at the end
+     *
+     * @param databaseName name of the shard database
+     */
+    public synchronized void registerWorker(String databaseName) {
+        this.databaseService.executeUpdate(ShardConstants.INSERT_SHARD_WORKER, List.of(textEntry(this.workerID), textEntry(databaseName)));
+    }
+
+    public synchronized boolean isPlanned() {
+        return this.queryFlag(ShardConstants.SELECT_IS_PLANNED);
+    }
+
+    /**
+     * Leases the planning of the job, unless it is planned or leased by another worker
+     *
+     * @return true if this worker has to plan the job
+     */
+    public synchronized boolean tryClaimPlanning() {
+        long now = System.currentTimeMillis();
+        this.planning = this.databaseService.executeUpdate(ShardConstants.CLAIM_PLANNING, List.of(
+                textEntry(this.workerID),
+                longEntry(now + this.leaseMillis),
+                textEntry(this.workerID),
+                longEntry(now)
+        )) == 1;
+        return this.planning;
+    }
+
+    /**
+     * Stores the work items of all partitions in a single transaction and ends the planning
+     *
+     * @param workItemsByPartition work items of each partition
+     * @return true if the plan was stored, false if the planning lease was lost to another worker
+     */
+    public synchronized boolean finishPlanning(Map<Integer, List<String>> workItemsByPartition) {
+        boolean[] finished = new boolean[1];
+        boolean committed = this.databaseService.runInTransaction(() -> {
+            finished[0] = this.databaseService.executeUpdate(ShardConstants.FINISH_PLANNING, List.of(
+                    longEntry(System.currentTimeMillis()),
+                    textEntry(this.workerID)
+            )) == 1;
+            if (!finished[0]) {
+                return;
+            }
+
+            List<List<DatabaseEntry>> partitionRows = new ArrayList<>();
+            List<List<DatabaseEntry>> workItemRows = new ArrayList<>();
+            for (int partition = 0; partition < this.numberOfPartitions; partition++) {
+                partitionRows.add(List.of(intEntry(partition)));
+                for (String workItem : workItemsByPartition.getOrDefault(partition, List.of())) {
+                    workItemRows.add(List.of(intEntry(partition), textEntry(workItem)));
+                }
+            }
+            this.databaseService.insertBatch(ShardConstants.TABLE_WIKIPEDIA_SHARD_PARTITIONS, ShardConstants.WIKIPEDIA_SHARD_PARTITIONS_COLUMNS, partitionRows);
+            this.databaseService.insertBatch(ShardConstants.TABLE_WIKIPEDIA_SHARD_WORK_ITEMS, ShardConstants.WIKIPEDIA_SHARD_WORK_ITEMS_COLUMNS, workItemRows);
+        });
+        this.planning = false;
+        return committed && finished[0];
+    }
+
+    /**
+     * Leases an open partition, partitions this worker leased before it was restarted come first
+     *
+     * @return leased partition or -1 if all open partitions are leased by other workers
+     */
+    public synchronized int leasePartition() {
+        long now = System.currentTimeMillis();
+        List<Integer> candidates = this.databaseService.query(
+                ShardConstants.SELECT_LEASABLE_PARTITIONS,
+                List.of(textEntry(this.workerID), longEntry(now), textEntry(this.workerID), intEntry(LEASE_CANDIDATES)),
+                resultSet -> resultSet.getInt(1)
+        );
+
+        // another worker may lease a candidate first
+        for (int partition : candidates) {
+            int leased = this.databaseService.executeUpdate(ShardConstants.LEASE_PARTITION, List.of(
+                    textEntry(this.workerID),
+                    longEntry(now + this.leaseMillis),
+                    intEntry(partition),
+                    textEntry(this.workerID),
+                    longEntry(now)
+            ));
+            if (leased == 1) {
+                this.leasedPartition = partition;
+                return partition;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param partition partition
+     * @return work items of the partition in the order they were planned
+     */
+    public synchronized List<String> getWorkItems(int partition) {
+        return this.databaseService.query(
+                ShardConstants.SELECT_WORK_ITEMS,
+                List.of(intEntry(partition)),
+                resultSet -> resultSet.getString(1)
+        );
+    }
+
+    /**
+     * Completes the leased partition once all of its work items are committed to the shard database
+     *
+     * @param partition leased partition
+     * @return false if the lease expired and the partition was leased by another worker
+     */
+    public synchronized boolean completePartition(int partition) {
+        this.leasedPartition = -1;
+        return this.databaseService.executeUpdate(ShardConstants.COMPLETE_PARTITION, List.of(
+                longEntry(System.currentTimeMillis()),
+                intEntry(partition),
+                textEntry(this.workerID)
+        )) == 1;
+    }
+
+    /**
+     * @return number of partitions that are not completed yet
+     */
+    public synchronized int getNumberOfOpenPartitions() {
+        return this.databaseService.query(
+                ShardConstants.SELECT_NUMBER_OF_OPEN_PARTITIONS,
+                List.of(),
+                resultSet -> resultSet.getInt(1)
+        ).get(0);
+    }
+
+    public synchronized boolean isMerged() {
+        return this.queryFlag(ShardConstants.SELECT_IS_MERGED);
+    }
+
+    /**
+     * Leases the merge of the shard databases, unless they are merged or the merge is leased by another worker
+     *
+     * @return true if this worker has to merge the shard databases
+     */
+    public synchronized boolean tryClaimMerge() {
+        long now = System.currentTimeMillis();
+        this.merging = this.databaseService.executeUpdate(ShardConstants.CLAIM_MERGE, List.of(
+                textEntry(this.workerID),
+                longEntry(now + this.leaseMillis),
+                textEntry(this.workerID),
+                longEntry(now)
+        )) == 1;
+        return this.merging;
+    }
+
+    /**
+     * @return names of the databases of all workers
+     */
+    public synchronized List<String> getShardDatabaseNames() {
+        return this.databaseService.query(
+                ShardConstants.SELECT_SHARD_DATABASES,
+                List.of(),
+                resultSet -> resultSet.getString(1)
+        );
+    }
+
+    public synchronized void finishMerge() {
+        this.databaseService.executeUpdate(ShardConstants.FINISH_MERGE, List.of(
+                longEntry(System.currentTimeMillis()),
+                textEntry(this.workerID)
+        ));
+        this.merging = false;
+    }
+
+    /**
+     * Extends the leases this worker holds, has to be called well before a lease expires
+     */
+    public synchronized void renewLeases() {
+        List<DatabaseEntry> renewal = List.of(
+                longEntry(System.currentTimeMillis() + this.leaseMillis),
+                textEntry(this.workerID)
+        );
+        if (this.planning) {
+            this.databaseService.executeUpdate(ShardConstants.RENEW_PLANNING, renewal);
+        }
+        if (this.merging) {
+            this.databaseService.executeUpdate(ShardConstants.RENEW_MERGE, renewal);
+        }
+        if (this.leasedPartition >= 0) {
+            this.databaseService.executeUpdate(ShardConstants.RENEW_PARTITION, List.of(
+                    longEntry(System.currentTimeMillis() + this.leaseMillis),
+                    intEntry(this.leasedPartition),
+                    textEntry(this.workerID)
+            ));
+        }
+    }
+
+    private boolean queryFlag(String query) {
+        List<Boolean> flags = this.databaseService.query(query, List.of(), resultSet -> resultSet.getBoolean(1));
+        return !flags.isEmpty() && flags.get(0);
+    }
+
+    private static DatabaseEntry textEntry(String value) {
+        return new DatabaseEntry(DatabaseEntryType.TEXT, value);
+    }
+
+    private static DatabaseEntry intEntry(int value) {
+        return new DatabaseEntry(DatabaseEntryType.INT, String.valueOf(value));
+    }
+
+    private static DatabaseEntry longEntry(long value) {
+        return new DatabaseEntry(DatabaseEntryType.LONG, String.valueOf(value));
+    }
+}
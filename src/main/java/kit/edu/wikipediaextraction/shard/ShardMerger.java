@@ -0,0 +1,67 @@
+package kit.edu.wikipediaextraction.shard;
+
+import kit.edu.wikipediaextraction.database.section.SectionService;
+import kit.edu.wikipediaextraction.model.ArticleRevision;
+import kit.edu.wikipediaextraction.model.WikipediaSection;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Merges the sections of shard databases into the database of the sections.
+ * The sections of a shard are read page by page and stored one article at a time together with its revision.
+ * Articles whose headline is already stored, e.g. because two workers processed the same partition, are skipped.
+ */
+public class ShardMerger {
+    private final SectionService sectionService;
+
+    /**
+     * @param sectionService sections the shards are merged into
+     */
+    public ShardMerger(SectionService sectionService) {
+        this.sectionService = sectionService;
+        this.sectionService.addStoredArticleHeadlines();
+    }
+
+    /**
+     * Merges the articles of a shard
+     *
+     * @param shardSectionService sections of the shard
+     * @return number of articles read from the shard
+     */
+    public int merge(SectionService shardSectionService) {
+        int numberOfArticles = 0;
+        List<WikipediaSection> article = new ArrayList<>();
+
+        // the sections of an article are stored in one transaction, so they follow each other in insertion order
+        try (Stream<WikipediaSection> sections = shardSectionService.streamSections()) {
+            Iterator<WikipediaSection> iterator = sections.iterator();
+            while (iterator.hasNext()) {
+                WikipediaSection section = iterator.next();
+                if (!article.isEmpty() && !article.get(0).articleID().equals(section.articleID())) {
+                    this.store(article, shardSectionService);
+                    numberOfArticles++;
+                    article = new ArrayList<>();
+                }
+                article.add(section);
+            }
+        }
+
+        if (!article.isEmpty()) {
+            this.store(article, shardSectionService);
+            numberOfArticles++;
+        }
+        return numberOfArticles;
+    }
+
+    private void store(List<WikipediaSection> sections, SectionService shardSectionService) {
+        WikipediaSection firstSection = sections.get(0);
+        ArticleRevision articleRevision = shardSectionService.getArticleRevision(firstSection.articleHeadline());
+        if (articleRevision == null) {
+            articleRevision = new ArticleRevision(firstSection.articleHeadline(), null, firstSection.articleID(), "", null, null);
+        }
+        this.sectionService.storeArticle(sections, articleRevision);
+    }
+}
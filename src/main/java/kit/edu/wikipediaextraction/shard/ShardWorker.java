@@ -0,0 +1,215 @@
+package kit.edu.wikipediaextraction.shard;
+
+import kit.edu.wikipediaextraction.ApplicationPropertiesResolver;
+import kit.edu.wikipediaextraction.database.DatabaseConstants;
+import kit.edu.wikipediaextraction.database.DatabaseService;
+import kit.edu.wikipediaextraction.database.backend.StorageBackend;
+import kit.edu.wikipediaextraction.database.section.SectionService;
+import kit.edu.wikipediaextraction.metrics.PipelineMetrics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Worker of a sharded extraction, any number of worker processes with different IDs can run at once.
+ * The first worker plans the job: it lists all work items, e.g. article URLs or byte ranges of a dump,
+ * and assigns them to partitions by consistent hashing. Then every worker leases one open partition after
+ * the other and stores its articles in its own shard database. Once all partitions are completed,
+ * one worker merges the shard databases into the database of the sections.
+ * The coordination database is always a SQLite database, the shard databases use the configured storage backend.
+ * DuckDB is rejected, because the merging worker has to open the shard files of the other worker processes
+ * and a DuckDB file can only be opened by one process.
+ */
+public class ShardWorker {
+    private final static long POLL_INTERVAL_MILLIS = 1000;
+    private final ShardCoordinator shardCoordinator;
+    private final String databaseURL;
+    private final String databaseBackend;
+    private final String shardDatabaseName;
+    private final String databaseName;
+    private final int databaseBatchSize;
+    private final boolean deduplicateSections;
+    private final PipelineMetrics pipelineMetrics;
+
+    public ShardWorker(
+            ApplicationPropertiesResolver applicationPropertiesResolver,
+            PipelineMetrics pipelineMetrics
+    ) {
+        this(
+                new ShardCoordinator(
+                        new DatabaseService(
+                                applicationPropertiesResolver.getSQLiteURL(),
+                                applicationPropertiesResolver.getShardCoordinatorDatabase(),
+                                applicationPropertiesResolver.getDatabaseBatchSize(),
+                                pipelineMetrics
+                        ),
+                        applicationPropertiesResolver.getShardWorkerID(),
+                        applicationPropertiesResolver.getShardPartitions(),
+                        TimeUnit.SECONDS.toMillis(applicationPropertiesResolver.getShardLeaseSeconds())
+                ),
+                applicationPropertiesResolver.getDatabaseURL(),
+                applicationPropertiesResolver.getDatabaseBackend(),
+                String.format(DatabaseConstants.SHARD_DATABASE_NAME, applicationPropertiesResolver.getShardWorkerID()),
+                DatabaseService.getDatabaseName(applicationPropertiesResolver),
+                applicationPropertiesResolver.getDatabaseBatchSize(),
+                applicationPropertiesResolver.isDatabaseDeduplicateSections(),
+                pipelineMetrics
+        );
+    }
+
+    /**
+     * @param shardCoordinator    coordinator of the job
+     * @param databaseURL         JDBC URL of the shard databases and the merged database
+     * @param databaseBackend     storage backend of the shard databases and the merged database
+     * @param shardDatabaseName   database this worker stores its sections in
+     * @param databaseName        database the shard databases are merged into
+     * @param databaseBatchSize   insert batch size of the databases
+     * @param deduplicateSections if true, duplicate sections are dropped while the shards are merged
+     * @param pipelineMetrics     metrics of the databases
+     * @throws IllegalArgumentException if the storage backend is DuckDB
+     */
+    public ShardWorker(
+            ShardCoordinator shardCoordinator,
+            String databaseURL,
+            String databaseBackend,
+            String shardDatabaseName,
+            String databaseName,
+            int databaseBatchSize,
+            boolean deduplicateSections,
+            PipelineMetrics pipelineMetrics
+    ) {
+        if (StorageBackend.DUCKDB.equalsIgnoreCase(databaseBackend)) {
+            throw new IllegalArgumentException("a sharded extraction needs the sqlite or postgresql storage backend, a DuckDB file can only be opened by one process");
+        }
+        this.shardCoordinator = shardCoordinator;
+        this.databaseURL = databaseURL;
+        this.databaseBackend = databaseBackend;
+        this.shardDatabaseName = shardDatabaseName;
+        this.databaseName = databaseName;
+        this.databaseBatchSize = databaseBatchSize;
+        this.deduplicateSections = deduplicateSections;
+        this.pipelineMetrics = pipelineMetrics;
+    }
+
+    /**
+     * @return number of partitions of the job
+     */
+    public int getNumberOfPartitions() {
+        return this.shardCoordinator.getNumberOfPartitions();
+    }
+
+    /**
+     * Takes part in the job until the shard databases are merged
+     *
+     * @param workItems         lists the work items, only called by the worker that plans the job
+     * @param processWorkItems  stores the articles of the work items of a partition in the shard database and returns once they are committed
+     * @throws InterruptedException if the worker is interrupted while waiting for other workers
+     */
+    public void run(
+            Supplier<Stream<String>> workItems,
+            Consumer<List<String>> processWorkItems
+    ) throws InterruptedException {
+        this.shardCoordinator.registerWorker(this.shardDatabaseName);
+
+        long renewalIntervalMillis = Math.max(1, this.shardCoordinator.getLeaseMillis() / 3);
+        ScheduledExecutorService leaseRenewal = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "shard-lease-renewal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        leaseRenewal.scheduleAtFixedRate(this.shardCoordinator::renewLeases, renewalIntervalMillis, renewalIntervalMillis, TimeUnit.MILLISECONDS);
+
+        try {
+            this.plan(workItems);
+            this.processPartitions(processWorkItems);
+            this.merge();
+        } finally {
+            leaseRenewal.shutdownNow();
+        }
+    }
+
+    private void plan(Supplier<Stream<String>> workItems) throws InterruptedException {
+        while (!this.shardCoordinator.isPlanned()) {
+            if (!this.shardCoordinator.tryClaimPlanning()) {
+                // another worker is planning the job
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+                continue;
+            }
+
+            ConsistentHashRing ring = new ConsistentHashRing(this.shardCoordinator.getNumberOfPartitions());
+            Map<Integer, List<String>> workItemsByPartition = new HashMap<>();
+            int numberOfWorkItems = 0;
+            try (Stream<String> items = workItems.get()) {
+                Iterator<String> iterator = items.iterator();
+                while (iterator.hasNext()) {
+                    String workItem = iterator.next();
+                    workItemsByPartition.computeIfAbsent(ring.partitionOf(workItem), partition -> new ArrayList<>()).add(workItem);
+                    numberOfWorkItems++;
+                }
+            }
+            if (this.shardCoordinator.finishPlanning(workItemsByPartition)) {
+                this.pipelineMetrics.recordPlannedWorkItems(numberOfWorkItems);
+            }
+        }
+    }
+
+    private void processPartitions(Consumer<List<String>> processWorkItems) throws InterruptedException {
+        while (true) {
+            int partition = this.shardCoordinator.leasePartition();
+            if (partition >= 0) {
+                processWorkItems.accept(this.shardCoordinator.getWorkItems(partition));
+                if (Thread.currentThread().isInterrupted()) {
+                    // the work items may not all be committed, the lease expires and the partition is processed again
+                    throw new InterruptedException();
+                }
+                this.pipelineMetrics.recordPartition(this.shardCoordinator.completePartition(partition));
+                continue;
+            }
+
+            if (this.shardCoordinator.getNumberOfOpenPartitions() == 0) {
+                return;
+            }
+            // the open partitions are leased by other workers, unless a worker stops and its lease expires
+            Thread.sleep(POLL_INTERVAL_MILLIS);
+        }
+    }
+
+    private void merge() throws InterruptedException {
+        while (!this.shardCoordinator.isMerged()) {
+            if (!this.shardCoordinator.tryClaimMerge()) {
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+                continue;
+            }
+
+            try (DatabaseService databaseService = this.createDatabaseService(this.databaseName)) {
+                ShardMerger shardMerger = new ShardMerger(new SectionService(databaseService, this.deduplicateSections));
+                for (String shardDatabaseName : this.shardCoordinator.getShardDatabaseNames()) {
+                    try (DatabaseService shardDatabaseService = this.createDatabaseService(shardDatabaseName)) {
+                        SectionService shardSectionService = new SectionService(shardDatabaseService);
+                        this.pipelineMetrics.recordMergedArticles(shardMerger.merge(shardSectionService));
+                    }
+                }
+            }
+            this.shardCoordinator.finishMerge();
+        }
+    }
+
+    private DatabaseService createDatabaseService(String databaseName) {
+        return new DatabaseService(
+                this.databaseURL,
+                databaseName,
+                this.databaseBatchSize,
+                this.pipelineMetrics,
+                StorageBackend.create(this.databaseBackend)
+        );
+    }
+}
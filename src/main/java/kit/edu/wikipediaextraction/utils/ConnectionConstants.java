@@ -4,5 +4,15 @@ public class ConnectionConstants {
     public static final String USER_AGENT = "User-Agent";
     public static final String STANDARD_USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64; rv:109.0) Gecko/20100101 Firefox/113.0";
     public static final String CHARSET_NAME = "UTF-8";
+    public static final String ETAG = "ETag";
+    public static final String LAST_MODIFIED = "Last-Modified";
+    public static final String IF_NONE_MATCH = "If-None-Match";
+    public static final String IF_MODIFIED_SINCE = "If-Modified-Since";
+    public static final String ACCEPT_ENCODING = "Accept-Encoding";
+    public static final String CONTENT_ENCODING = "Content-Encoding";
+    public static final String RETRY_AFTER = "Retry-After";
+    public static final String SUPPORTED_ENCODINGS = "gzip, deflate";
+    public static final String GZIP = "gzip";
+    public static final String DEFLATE = "deflate";
 }
 
@@ -0,0 +1,95 @@
+package kit.edu.wikipediaextraction;
+
+import kit.edu.wikipediaextraction.database.DatabaseService;
+import kit.edu.wikipediaextraction.database.checkpoint.CheckpointService;
+import kit.edu.wikipediaextraction.database.section.SectionService;
+import kit.edu.wikipediaextraction.database.section.SectionWriter;
+import kit.edu.wikipediaextraction.dump.DumpIngestionService;
+import kit.edu.wikipediaextraction.export.SectionExportService;
+import kit.edu.wikipediaextraction.extraction.ExtractionService;
+import kit.edu.wikipediaextraction.metrics.PipelineMetrics;
+import kit.edu.wikipediaextraction.scraper.ScraperService;
+
+import java.io.File;
+import java.nio.file.Path;
+
+/**
+ * Runs a resumable crawl with the services wired like the application, without Spring.
+ * Articles are fetched one at a time and every stored article is committed on its own,
+ * so a test can kill the process right after a known number of completed requests.
+ * Arguments: directory of the database and base URL of the wikipedia stub.
+ */
+class ExtractionPipelineProcess {
+    final static String SQLITE_URL = "jdbc:sqlite:";
+
+    public static void main(String[] arguments) {
+        Path directory = Path.of(arguments[0]);
+        ApplicationPropertiesResolver applicationPropertiesResolver = createApplicationPropertiesResolver(directory, arguments[1]);
+        PipelineMetrics pipelineMetrics = new PipelineMetrics();
+
+        try (DatabaseService databaseService = new DatabaseService(applicationPropertiesResolver, pipelineMetrics)) {
+            SectionService sectionService = new SectionService(databaseService, applicationPropertiesResolver);
+            ScraperService scraperService = new ScraperService(applicationPropertiesResolver);
+            ExtractionService extractionService = new ExtractionService(applicationPropertiesResolver);
+            try (SectionWriter sectionWriter = new SectionWriter(sectionService, databaseService, pipelineMetrics, applicationPropertiesResolver)) {
+                ExtractionPipeline extractionPipeline = new ExtractionPipeline(
+                        sectionService,
+                        sectionWriter,
+                        scraperService,
+                        extractionService,
+                        new DumpIngestionService(extractionService, sectionService, sectionWriter, pipelineMetrics),
+                        new SectionExportService(databaseService, applicationPropertiesResolver, pipelineMetrics),
+                        new CheckpointService(databaseService, sectionWriter),
+                        pipelineMetrics,
+                        applicationPropertiesResolver
+                );
+                extractionPipeline.startExtraction();
+            } finally {
+                scraperService.close();
+            }
+        }
+    }
+
+    private static ApplicationPropertiesResolver createApplicationPropertiesResolver(
+            Path directory,
+            String wikipediaURL
+    ) {
+        return new ApplicationPropertiesResolver(
+                "test",
+                // the database file is created in the directory
+                SQLITE_URL + directory + File.separator,
+                false,
+                1,
+                0,
+                5000,
+                // a held request is answered only after the process is killed
+                60000,
+                0,
+                100,
+                100,
+                1000,
+                1,
+                10,
+                false,
+                "",
+                1,
+                false,
+                false,
+                "",
+                2048,
+                24,
+                "",
+                65536,
+                wikipediaURL,
+                true,
+                false,
+                10,
+                "",
+                "wikipedia-shards.db",
+                64,
+                120,
+                "sqlite",
+                ""
+        );
+    }
+}
@@ -0,0 +1,159 @@
+package kit.edu.wikipediaextraction;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import kit.edu.wikipediaextraction.metrics.PipelineMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExtractionPipelineTests {
+    private final CountDownLatch extractionStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseExtraction = new CountDownLatch(1);
+    private final CountDownLatch batchStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseBatch = new CountDownLatch(1);
+    private final AtomicInteger batches = new AtomicInteger();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private volatile Thread extractionThread;
+    private volatile boolean failBatch;
+    private volatile boolean blockBatch;
+
+    /**
+     * Pipeline whose first run and ingestion batches are replaced by probes, the services except the metrics are not used
+     */
+    private class ProbedExtractionPipeline extends ExtractionPipeline {
+
+        ProbedExtractionPipeline() {
+            super(null, null, null, null, null, null, null, new PipelineMetrics(meterRegistry), createApplicationPropertiesResolver());
+        }
+
+        @Override
+        void startExtraction() {
+            extractionThread = Thread.currentThread();
+            extractionStarted.countDown();
+            try {
+                releaseExtraction.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        void ingestBatch() throws InterruptedException {
+            batches.incrementAndGet();
+            batchStarted.countDown();
+            if (blockBatch) {
+                releaseBatch.await();
+            }
+            if (failBatch) {
+                throw new IllegalStateException("batch failed");
+            }
+        }
+    }
+
+    @AfterEach
+    void releaseProbes() {
+        this.releaseExtraction.countDown();
+        this.releaseBatch.countDown();
+    }
+
+    @Test
+    void firstRunStartsInTheBackgroundAndBlocksBatches() throws InterruptedException {
+        ExtractionPipeline extractionPipeline = new ProbedExtractionPipeline();
+
+        extractionPipeline.onApplicationReady();
+
+        assertTrue(this.extractionStarted.await(5, TimeUnit.SECONDS));
+        assertEquals("extraction", this.extractionThread.getName());
+        assertNotSame(Thread.currentThread(), this.extractionThread);
+        extractionPipeline.ingestRandomArticles();
+        assertEquals(0, this.batches.get());
+        assertEquals(1, this.meterRegistry.get("extraction.ingestion.skipped").counter().count());
+
+        this.finishFirstRun();
+        extractionPipeline.ingestRandomArticles();
+        assertEquals(1, this.batches.get());
+    }
+
+    @Test
+    void tickIsSkippedWhileThePreviousBatchIsRunning() throws InterruptedException {
+        ExtractionPipeline extractionPipeline = new ProbedExtractionPipeline();
+        extractionPipeline.onApplicationReady();
+        this.finishFirstRun();
+        this.blockBatch = true;
+
+        Thread firstBatch = new Thread(extractionPipeline::ingestRandomArticles);
+        firstBatch.start();
+        assertTrue(this.batchStarted.await(5, TimeUnit.SECONDS));
+        extractionPipeline.ingestRandomArticles();
+        assertEquals(1, this.batches.get());
+
+        this.releaseBatch.countDown();
+        firstBatch.join();
+        extractionPipeline.ingestRandomArticles();
+        assertEquals(2, this.batches.get());
+    }
+
+    @Test
+    void failedBatchDoesNotBlockTheNextTick() throws InterruptedException {
+        ExtractionPipeline extractionPipeline = new ProbedExtractionPipeline();
+        extractionPipeline.onApplicationReady();
+        this.finishFirstRun();
+        this.failBatch = true;
+
+        assertThrows(IllegalStateException.class, extractionPipeline::ingestRandomArticles);
+
+        this.failBatch = false;
+        extractionPipeline.ingestRandomArticles();
+        assertEquals(2, this.batches.get());
+    }
+
+    private void finishFirstRun() throws InterruptedException {
+        assertTrue(this.extractionStarted.await(5, TimeUnit.SECONDS));
+        this.releaseExtraction.countDown();
+        this.extractionThread.join();
+    }
+
+    private static ApplicationPropertiesResolver createApplicationPropertiesResolver() {
+        return new ApplicationPropertiesResolver(
+                "test",
+                "jdbc:sqlite:",
+                true,
+                16,
+                20,
+                5000,
+                10000,
+                3,
+                500,
+                100,
+                1000,
+                64,
+                200,
+                true,
+                "",
+                4,
+                false,
+                false,
+                "",
+                2048,
+                24,
+                "",
+                65536,
+                "https://en.wikipedia.org",
+                true,
+                true,
+                10,
+                "",
+                "wikipedia-shards.db",
+                64,
+                120,
+                "sqlite",
+                ""
+        );
+    }
+}
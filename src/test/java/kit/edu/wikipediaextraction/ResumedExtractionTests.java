@@ -0,0 +1,183 @@
+package kit.edu.wikipediaextraction;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import kit.edu.wikipediaextraction.database.DatabaseConstants;
+import kit.edu.wikipediaextraction.database.DatabaseService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static kit.edu.wikipediaextraction.ExtractionPipelineProcess.SQLITE_URL;
+import static kit.edu.wikipediaextraction.benchmark.Fixtures.startJavaProcess;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResumedExtractionTests {
+    private final static String RANDOM_PATH = "/wiki/Special:Random";
+    private final static String LIST_OF_LISTS_PATH = "/wiki/Wikipedia:Vital_articles/Level/5";
+    private final static String LIST_PATH = LIST_OF_LISTS_PATH + "/List";
+    private final static String PAGE = "<html><head><title>%s - Wikipedia</title></head><body>%s</body></html>";
+    private final static int NUMBER_OF_RANDOM_ARTICLES = 40;
+    private final static int NUMBER_OF_VITAL_ARTICLES = 10;
+    // articles served before the crawl is killed
+    private final static int COMPLETED_BEFORE_KILL = 5;
+    private final static long PROCESS_TIMEOUT_SECONDS = 120;
+    @TempDir
+    Path directory;
+    // served responses by path
+    private final Map<String, AtomicInteger> servedPages = new ConcurrentHashMap<>();
+    private final AtomicInteger servedArticles = new AtomicInteger();
+    private final AtomicInteger randomArticles = new AtomicInteger();
+    // while set, the article request after the completed articles waits for the latch and is never answered
+    private volatile CountDownLatch heldArticle;
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private String baseURL;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.server.createContext("/wiki/", this::handle);
+        this.serverExecutor = Executors.newCachedThreadPool();
+        this.server.setExecutor(this.serverExecutor);
+        this.server.start();
+        this.baseURL = "http://127.0.0.1:" + this.server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopServer() {
+        if (this.heldArticle != null) {
+            this.heldArticle.countDown();
+        }
+        this.server.stop(0);
+        this.serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void killedCrawlIsResumedWithoutFetchingOrStoringAnArticleTwice() throws IOException, InterruptedException {
+        this.heldArticle = new CountDownLatch(1);
+        Process killedCrawl = this.startCrawl();
+        try {
+            this.awaitCompletedRequests(killedCrawl);
+        } finally {
+            killedCrawl.destroyForcibly();
+            assertTrue(killedCrawl.waitFor(PROCESS_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        }
+        assertEquals(COMPLETED_BEFORE_KILL, this.servedArticles.get());
+        CountDownLatch heldArticle = this.heldArticle;
+        this.heldArticle = null;
+        heldArticle.countDown();
+
+        Process resumedCrawl = this.startCrawl();
+        assertTrue(resumedCrawl.waitFor(PROCESS_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(0, resumedCrawl.exitValue());
+
+        assertEquals(NUMBER_OF_RANDOM_ARTICLES, this.served(RANDOM_PATH));
+        for (int i = 0; i < NUMBER_OF_VITAL_ARTICLES; i++) {
+            assertEquals(1, this.served("/wiki/Vital_" + i), "Vital_" + i);
+        }
+        try (DatabaseService databaseService = this.createDatabaseService()) {
+            int numberOfArticles = NUMBER_OF_RANDOM_ARTICLES + NUMBER_OF_VITAL_ARTICLES;
+            assertEquals(numberOfArticles, this.count(databaseService, "SELECT COUNT(*) FROM wikipedia_sections"));
+            assertEquals(numberOfArticles, this.count(databaseService, "SELECT COUNT(DISTINCT articleHeadline) FROM wikipedia_sections"));
+            assertEquals(0, this.count(databaseService, "SELECT COUNT(*) FROM wikipedia_crawl_runs WHERE finishedAt IS NULL"));
+        }
+    }
+
+    private Process startCrawl() throws IOException {
+        return startJavaProcess(ExtractionPipelineProcess.class, this.directory, this.directory.toString(), this.baseURL);
+    }
+
+    /**
+     * Waits until the articles served before the held request are checkpointed
+     */
+    private void awaitCompletedRequests(Process crawl) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(PROCESS_TIMEOUT_SECONDS);
+        while (System.nanoTime() < deadline) {
+            assertTrue(crawl.isAlive(), "the crawl stopped before it was killed");
+            if (this.servedArticles.get() == COMPLETED_BEFORE_KILL) {
+                try (DatabaseService databaseService = this.createDatabaseService()) {
+                    if (this.count(databaseService, "SELECT COUNT(*) FROM wikipedia_crawl_checkpoints") == COMPLETED_BEFORE_KILL) {
+                        return;
+                    }
+                }
+            }
+            Thread.sleep(50);
+        }
+        fail("the completed requests were not checkpointed");
+    }
+
+    private DatabaseService createDatabaseService() {
+        return new DatabaseService(SQLITE_URL, this.directory.resolve(DatabaseConstants.TEST_DATABASE_NAME).toString(), 100);
+    }
+
+    private int count(DatabaseService databaseService, String query) {
+        List<Integer> counts = databaseService.query(query, List.of(), resultSet -> resultSet.getInt(1));
+        // the table does not exist before the crawl created it
+        return counts.isEmpty() ? 0 : counts.get(0);
+    }
+
+    private int served(String path) {
+        AtomicInteger served = this.servedPages.get(path);
+        return served == null ? 0 : served.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String page;
+        if (path.equals(LIST_OF_LISTS_PATH)) {
+            page = String.format(PAGE, "Vital articles", "<table class=\"wikitable\"><tr><td><a href=\"" + LIST_PATH + "\">list</a></td></tr></table>");
+        } else if (path.equals(LIST_PATH)) {
+            StringBuilder links = new StringBuilder();
+            IntStream.range(0, NUMBER_OF_VITAL_ARTICLES).forEach(i -> links.append("<a href=\"/wiki/Vital_").append(i).append("\">article</a>"));
+            page = String.format(PAGE, "List", "<div id=\"mw-content-text\">" + links + "</div>");
+        } else {
+            if (!this.awaitTurn()) {
+                exchange.close();
+                return;
+            }
+            String articleHeadline = path.equals(RANDOM_PATH) ? "Random_" + this.randomArticles.getAndIncrement() : path.substring("/wiki/".length());
+            page = String.format(PAGE, articleHeadline, "<div id=\"mw-content-text\"><div><p>Text of " + articleHeadline + "</p></div></div>");
+            this.servedArticles.incrementAndGet();
+        }
+
+        byte[] body = page.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(body);
+        }
+        this.servedPages.computeIfAbsent(path, key -> new AtomicInteger()).incrementAndGet();
+    }
+
+    /**
+     * @return false if the article request is held until the crawl is killed
+     */
+    private boolean awaitTurn() {
+        CountDownLatch heldArticle = this.heldArticle;
+        if (heldArticle == null || this.servedArticles.get() < COMPLETED_BEFORE_KILL) {
+            return true;
+        }
+        try {
+            heldArticle.await(PROCESS_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+}
@@ -0,0 +1,26 @@
+package kit.edu.wikipediaextraction.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs all benchmarks of this package with the GC profiler to report allocation rates.
+ * An optional argument restricts the run to benchmarks matching the given regular expression.
+ * Storage backends without driver are left out of the storage backend comparison.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : BenchmarkRunner.class.getPackageName() + ".*";
+        Options options = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .param("storageBackend", StorageBackendBenchmark.getAvailableBackends())
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,23 @@
+package kit.edu.wikipediaextraction.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Reports the processed articles and sections of a benchmark as additional throughput results
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class Counters {
+    public long articles;
+    public long sections;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        this.articles = 0;
+        this.sections = 0;
+    }
+}
@@ -0,0 +1,115 @@
+package kit.edu.wikipediaextraction.benchmark;
+
+import kit.edu.wikipediaextraction.extraction.ExtractionService;
+import kit.edu.wikipediaextraction.model.WikipediaSection;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the extraction hot path on the fixture articles
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExtractionBenchmark {
+    private final static String PARAGRAPH_SELECTOR = "#mw-content-text > div > p:not(.mw-empty-elt)";
+    private ExtractionService extractionService;
+    private List<String> htmls;
+    private List<Document> docs;
+    private List<Element> paragraphs;
+    private List<String> paragraphTexts;
+
+    @Setup
+    public void loadFixtures() throws IOException {
+        this.extractionService = new ExtractionService();
+        this.htmls = new ArrayList<>();
+        this.docs = new ArrayList<>();
+        this.paragraphs = new ArrayList<>();
+        this.paragraphTexts = new ArrayList<>();
+
+        for (String name : Fixtures.ARTICLE_NAMES) {
+            String html = Fixtures.read(name);
+            Document doc = this.extractionService.parseArticle(html, name);
+            this.htmls.add(html);
+            this.docs.add(doc);
+            for (Element paragraph : doc.select(PARAGRAPH_SELECTOR)) {
+                this.paragraphs.add(paragraph);
+                this.paragraphTexts.add(paragraph.text());
+            }
+        }
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole, Counters counters) {
+        for (int i = 0; i < this.htmls.size(); i++) {
+            blackhole.consume(this.extractionService.parseArticle(this.htmls.get(i), Fixtures.ARTICLE_NAMES.get(i)));
+            counters.articles++;
+        }
+    }
+
+    @Benchmark
+    public void extractSectionsFromArticle(Blackhole blackhole, Counters counters) {
+        for (Document doc : this.docs) {
+            Collection<WikipediaSection> sections = this.extractionService.extractSectionsFromArticle(doc);
+            blackhole.consume(sections);
+            counters.articles++;
+            counters.sections += sections.size();
+        }
+    }
+
+    @Benchmark
+    public void parseAndExtractSectionsFromArticle(Blackhole blackhole, Counters counters) {
+        for (int i = 0; i < this.htmls.size(); i++) {
+            Document doc = this.extractionService.parseArticle(this.htmls.get(i), Fixtures.ARTICLE_NAMES.get(i));
+            Collection<WikipediaSection> sections = this.extractionService.extractSectionsFromArticle(doc);
+            blackhole.consume(sections);
+            counters.articles++;
+            counters.sections += sections.size();
+        }
+    }
+
+    @Benchmark
+    public void extractSectionsFromHtml(Blackhole blackhole, Counters counters) {
+        for (String html : this.htmls) {
+            Collection<WikipediaSection> sections = this.extractionService.extractSectionsFromHtml(html);
+            blackhole.consume(sections);
+            counters.articles++;
+            counters.sections += sections.size();
+        }
+    }
+
+    @Benchmark
+    public void cleanParagraphText(Blackhole blackhole, Counters counters) {
+        for (String paragraphText : this.paragraphTexts) {
+            blackhole.consume(this.extractionService.cleanParagraphText(paragraphText));
+            counters.sections++;
+        }
+    }
+
+    @Benchmark
+    public void extractWikipediaReferences(Blackhole blackhole, Counters counters) {
+        for (Element paragraph : this.paragraphs) {
+            blackhole.consume(this.extractionService.extractWikipediaReferences(paragraph));
+            counters.sections++;
+        }
+    }
+
+    @Benchmark
+    public void extractWikipediaCategories(Blackhole blackhole, Counters counters) {
+        for (Document doc : this.docs) {
+            blackhole.consume(this.extractionService.extractWikipediaCategories(doc));
+            counters.articles++;
+        }
+    }
+}
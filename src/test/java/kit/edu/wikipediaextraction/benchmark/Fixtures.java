@@ -0,0 +1,198 @@
+package kit.edu.wikipediaextraction.benchmark;
+
+import kit.edu.wikipediaextraction.model.ArticleRevision;
+import kit.edu.wikipediaextraction.model.WikipediaSection;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Checked-in wikipedia articles and generated sections used by the tests and benchmarks
+ */
+public class Fixtures {
+    public final static List<String> ARTICLE_NAMES = List.of("Photosynthesis", "Mount_Everest", "Ada_Lovelace");
+    public final static String WIKIPEDIA_ARTICLE_URL = "https://en.wikipedia.org/wiki/";
+    private final static String FIXTURES_DIRECTORY = "/fixtures/";
+
+    private Fixtures() {
+    }
+
+    /**
+     * Reads the HTML of a fixture article
+     *
+     * @param name name of the article
+     * @return HTML of the article
+     * @throws IOException if the fixture is missing
+     */
+    public static String read(String name) throws IOException {
+        try (InputStream inputStream = Fixtures.class.getResourceAsStream(FIXTURES_DIRECTORY + name + ".html")) {
+            if (inputStream == null) {
+                throw new IOException("Missing fixture " + name);
+            }
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Creates the sections of an article, the first section is the introduction without headline
+     *
+     * @param articleHeadline  headline of the article
+     * @param numberOfSections number of sections
+     * @param text             text of the sections, followed by the number of the section
+     * @return sections that reference /wiki/A and /wiki/B and share the category "Category"
+     */
+    public static List<WikipediaSection> sections(String articleHeadline, int numberOfSections, String text) {
+        String articleID = articleID(articleHeadline);
+        List<String> categories = List.of("Category");
+        return IntStream.range(0, numberOfSections)
+                .mapToObj(i -> new WikipediaSection(
+                        articleID,
+                        articleHeadline,
+                        UUID.randomUUID().toString(),
+                        text + " " + i + " [1]",
+                        text + " " + i,
+                        i == 0 ? "" : "Section " + i,
+                        i == 0,
+                        List.of("/wiki/A", "/wiki/B"),
+                        categories
+                ))
+                .toList();
+    }
+
+    /**
+     * @param articleHeadline  headline of the article
+     * @param numberOfSections number of sections
+     * @return sections with the texts "Text 0", "Text 1", ...
+     */
+    public static List<WikipediaSection> sections(String articleHeadline, int numberOfSections) {
+        return sections(articleHeadline, numberOfSections, "Text");
+    }
+
+    /**
+     * Creates a single section with the text as raw and cleaned text
+     *
+     * @param articleHeadline headline of the article
+     * @param sectionHeadline headline of the section, empty for the first section
+     * @param text            text of the section
+     * @return section that references /wiki/A and has the category "Category"
+     */
+    public static WikipediaSection section(String articleHeadline, String sectionHeadline, String text) {
+        return new WikipediaSection(
+                articleID(articleHeadline),
+                articleHeadline,
+                UUID.randomUUID().toString(),
+                text,
+                text,
+                sectionHeadline,
+                sectionHeadline.isEmpty(),
+                List.of("/wiki/A"),
+                List.of("Category")
+        );
+    }
+
+    /**
+     * @param articleHeadline headline of the article
+     * @param revision        revision of the article
+     * @return revision of the article with an ETag but without last modified date
+     */
+    public static ArticleRevision revision(String articleHeadline, String revision) {
+        return new ArticleRevision(
+                articleHeadline,
+                WIKIPEDIA_ARTICLE_URL + articleHeadline.replace(' ', '_'),
+                articleID(articleHeadline),
+                revision,
+                "\"etag-" + articleHeadline + "\"",
+                null
+        );
+    }
+
+    /**
+     * @param articleHeadline headline of the article
+     * @return first revision of the article
+     */
+    public static ArticleRevision revision(String articleHeadline) {
+        return revision(articleHeadline, "rev:1");
+    }
+
+    private static String articleID(String articleHeadline) {
+        return UUID.nameUUIDFromBytes(articleHeadline.getBytes()).toString();
+    }
+
+    /**
+     * Starts a JVM with the class path of the tests, e.g. to kill a process or to run several processes at once.
+     * The output of the process is written to a log file in the directory.
+     *
+     * @param mainClass class with the main method
+     * @param directory directory of the log file
+     * @param arguments arguments of the main method
+     * @return started process
+     * @throws IOException if the process cannot be started
+     */
+    public static Process startJavaProcess(Class<?> mainClass, Path directory, String... arguments) throws IOException {
+        return startJavaProcess(mainClass, List.of(), directory, arguments);
+    }
+
+    /**
+     * Starts a JVM with the class path of the tests and additional options
+     *
+     * @param mainClass  class with the main method
+     * @param jvmOptions options of the JVM, e.g. --add-opens
+     * @param directory  directory of the log file
+     * @param arguments  arguments of the main method
+     * @return started process
+     * @throws IOException if the process cannot be started
+     */
+    public static Process startJavaProcess(Class<?> mainClass, List<String> jvmOptions, Path directory, String... arguments) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        command.addAll(List.of("-cp", getClassPath(), mainClass.getName()));
+        command.addAll(List.of(arguments));
+        Path logFile = directory.resolve(mainClass.getSimpleName() + "-" + System.nanoTime() + ".log");
+        return new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(logFile.toFile()).start();
+    }
+
+    /**
+     * Gets the class path of the tests, test launchers may load the tests with their own class loader
+     */
+    private static String getClassPath() throws IOException {
+        List<String> classPath = new ArrayList<>(List.of(System.getProperty("java.class.path").split(File.pathSeparator)));
+        if (Fixtures.class.getClassLoader() instanceof URLClassLoader classLoader) {
+            try {
+                for (URL url : classLoader.getURLs()) {
+                    classPath.add(Path.of(url.toURI()).toString());
+                }
+            } catch (URISyntaxException e) {
+                throw new IOException(e);
+            }
+        }
+        return String.join(File.pathSeparator, classPath);
+    }
+
+    /**
+     * Deletes a temporary directory of a benchmark with all its files
+     *
+     * @param directory temporary directory
+     * @throws IOException if a file cannot be deleted
+     */
+    public static void deleteDirectory(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package kit.edu.wikipediaextraction.benchmark;
+
+import kit.edu.wikipediaextraction.extraction.ExtractionService;
+import kit.edu.wikipediaextraction.model.WikipediaSection;
+import org.jsoup.nodes.Document;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how the parallel extraction scales with the number of threads.
+ * Every operation extracts copies of the fixture articles on a pool of the given size;
+ * the throughput of one thread is the baseline the other thread counts are compared with.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelExtractionBenchmark {
+    private final static int COPIES_OF_FIXTURES = 32;
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+    private ExtractionService extractionService;
+    private List<Document> docs;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void loadFixtures() throws IOException {
+        this.extractionService = new ExtractionService();
+        this.docs = new ArrayList<>();
+        for (int copy = 0; copy < COPIES_OF_FIXTURES; copy++) {
+            for (String name : Fixtures.ARTICLE_NAMES) {
+                this.docs.add(this.extractionService.parseArticle(Fixtures.read(name), name));
+            }
+        }
+        this.pool = new ForkJoinPool(this.threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdownPool() {
+        this.pool.shutdown();
+    }
+
+    @Benchmark
+    public void extractSectionsFromArticlesInParallel(Blackhole blackhole, Counters counters) {
+        Collection<WikipediaSection> sections = this.extractionService.extractSectionsFromArticlesInParallel(this.docs, this.pool);
+        blackhole.consume(sections);
+        counters.articles += this.docs.size();
+        counters.sections += sections.size();
+    }
+}
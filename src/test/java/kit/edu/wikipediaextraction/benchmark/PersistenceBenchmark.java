@@ -0,0 +1,87 @@
+package kit.edu.wikipediaextraction.benchmark;
+
+import kit.edu.wikipediaextraction.database.DatabaseService;
+import kit.edu.wikipediaextraction.database.section.SectionService;
+import kit.edu.wikipediaextraction.extraction.ExtractionService;
+import kit.edu.wikipediaextraction.model.WikipediaSection;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks storing the sections of the fixture articles in a temporary SQLite database
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersistenceBenchmark {
+    private final static String SQLITE_URL = "jdbc:sqlite:";
+    private final static int BATCH_SIZE = 1000;
+    private Path directory;
+    private SectionService sectionService;
+    private List<List<WikipediaSection>> articles;
+    private List<List<WikipediaSection>> nextArticles;
+    private long articleCounter;
+
+    @Setup(Level.Trial)
+    public void createDatabase() throws IOException {
+        this.directory = Files.createTempDirectory("persistence-benchmark");
+        this.sectionService = new SectionService(new DatabaseService(SQLITE_URL, this.directory.resolve("wikipedia.db").toString(), BATCH_SIZE));
+
+        ExtractionService extractionService = new ExtractionService();
+        this.articles = new ArrayList<>();
+        for (String name : Fixtures.ARTICLE_NAMES) {
+            this.articles.add(List.copyOf(extractionService.extractSectionsFromArticle(extractionService.parseArticle(Fixtures.read(name), name))));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteDatabase() throws IOException {
+        Fixtures.deleteDirectory(this.directory);
+    }
+
+    /**
+     * Renames the articles, storeSections skips headlines that were stored before
+     */
+    @Setup(Level.Invocation)
+    public void renameArticles() {
+        this.nextArticles = new ArrayList<>();
+        for (List<WikipediaSection> sections : this.articles) {
+            String articleID = UUID.randomUUID().toString();
+            String articleHeadline = sections.get(0).articleHeadline() + " " + this.articleCounter++;
+            List<WikipediaSection> renamedSections = new ArrayList<>();
+            for (WikipediaSection section : sections) {
+                renamedSections.add(new WikipediaSection(
+                        articleID,
+                        articleHeadline,
+                        UUID.randomUUID().toString(),
+                        section.rawArticleText(),
+                        section.cleanedArticleText(),
+                        section.sectionHeadline(),
+                        section.isFirstSection(),
+                        section.wikipediaReferences(),
+                        section.categories()
+                ));
+            }
+            this.nextArticles.add(renamedSections);
+        }
+    }
+
+    @Benchmark
+    public void storeSections(Counters counters) {
+        for (List<WikipediaSection> sections : this.nextArticles) {
+            this.sectionService.storeSections(sections);
+            counters.articles++;
+            counters.sections += sections.size();
+        }
+    }
+}
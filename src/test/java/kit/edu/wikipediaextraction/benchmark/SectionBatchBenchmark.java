@@ -0,0 +1,136 @@
+package kit.edu.wikipediaextraction.benchmark;
+
+import kit.edu.wikipediaextraction.extraction.ExtractionService;
+import kit.edu.wikipediaextraction.model.SectionBatch;
+import kit.edu.wikipediaextraction.model.SectionView;
+import kit.edu.wikipediaextraction.model.WikipediaSection;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares holding the sections of the fixture articles as records with holding them in a section batch,
+ * and measures reading the texts of a batch through its views.
+ * Run with the GC profiler of the benchmark runner, gc.alloc.rate.norm is the heap allocated per operation.
+ * The off-heap chunks of the batches are pooled and not part of the allocation, their size is printed at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SectionBatchBenchmark {
+    // copies of the fixture articles per operation, so the initial capacity of a batch does not dominate
+    private final static int COPIES = 100;
+    private List<List<WikipediaSection>> articles;
+    private SectionBatch batch;
+
+    @Setup(Level.Trial)
+    public void extractArticles() throws IOException {
+        ExtractionService extractionService = new ExtractionService();
+        this.articles = new ArrayList<>();
+        for (String name : Fixtures.ARTICLE_NAMES) {
+            this.articles.add(List.copyOf(extractionService.extractSectionsFromArticle(extractionService.parseArticle(Fixtures.read(name), name))));
+        }
+
+        this.batch = new SectionBatch();
+        this.addCopies(this.batch, new Counters());
+        System.out.printf("%d sections per operation, %d off-heap bytes per section%n",
+                this.batch.size(), this.batch.getTextBytes() / this.batch.size());
+    }
+
+    @TearDown(Level.Trial)
+    public void closeBatch() {
+        this.batch.close();
+    }
+
+    /**
+     * Copies the sections into new records with their own strings, like the records the extraction creates
+     */
+    @Benchmark
+    public List<List<WikipediaSection>> holdRecords(Counters counters) {
+        List<List<WikipediaSection>> copies = new ArrayList<>();
+        for (int i = 0; i < COPIES; i++) {
+            for (List<WikipediaSection> sections : this.articles) {
+                String articleID = UUID.randomUUID().toString();
+                String articleHeadline = copy(sections.get(0).articleHeadline());
+                List<String> categories = copy(sections.get(0).categories());
+                List<WikipediaSection> copy = new ArrayList<>();
+                for (WikipediaSection section : sections) {
+                    copy.add(new WikipediaSection(
+                            articleID,
+                            articleHeadline,
+                            UUID.randomUUID().toString(),
+                            copy(section.rawArticleText()),
+                            copy(section.cleanedArticleText()),
+                            copy(section.sectionHeadline()),
+                            section.isFirstSection(),
+                            copy(section.wikipediaReferences()),
+                            categories
+                    ));
+                }
+                copies.add(copy);
+                counters.articles++;
+                counters.sections += copy.size();
+            }
+        }
+        return copies;
+    }
+
+    /**
+     * Adds the sections to a new batch, its chunks are returned to the pool afterwards
+     */
+    @Benchmark
+    public void holdBatch(
+            Counters counters,
+            Blackhole blackhole
+    ) {
+        try (SectionBatch batch = new SectionBatch()) {
+            this.addCopies(batch, counters);
+            blackhole.consume(batch);
+        }
+    }
+
+    /**
+     * Reads the cleaned texts of all sections of a batch through the zero-copy views
+     */
+    @Benchmark
+    public void readViews(
+            Counters counters,
+            Blackhole blackhole
+    ) {
+        for (int i = 0; i < this.batch.size(); i++) {
+            SectionView section = this.batch.getSection(i);
+            blackhole.consume(section.cleanedArticleText());
+            counters.sections++;
+        }
+    }
+
+    private void addCopies(
+            SectionBatch batch,
+            Counters counters
+    ) {
+        for (int i = 0; i < COPIES; i++) {
+            for (List<WikipediaSection> sections : this.articles) {
+                batch.addArticle(sections);
+                counters.articles++;
+                counters.sections += sections.size();
+            }
+        }
+    }
+
+    private static String copy(String text) {
+        return text == null ? null : new String(text);
+    }
+
+    private static List<String> copy(Collection<String> texts) {
+        return texts == null ? null : texts.stream().map(SectionBatchBenchmark::copy).toList();
+    }
+}
@@ -0,0 +1,189 @@
+package kit.edu.wikipediaextraction.benchmark;
+
+import kit.edu.wikipediaextraction.database.DatabaseEntry;
+import kit.edu.wikipediaextraction.database.DatabaseEntryType;
+import kit.edu.wikipediaextraction.database.DatabaseService;
+import kit.edu.wikipediaextraction.database.section.SectionConstants;
+import kit.edu.wikipediaextraction.database.section.SectionService;
+import kit.edu.wikipediaextraction.model.WikipediaSection;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-row insert path with the batched insert path on a load of 100k synthetic sections.
+ * Every invocation loads all rows of the sections, references and categories into a new SQLite database,
+ * the batched path commits after each chunk of the configured chunk size.
+ * The result is the time of a load, so the sections per second are 100k divided by the time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class SectionInsertBenchmark {
+    private final static String SQLITE_URL = "jdbc:sqlite:";
+    private final static int NUMBER_OF_SECTIONS = 100_000;
+    private final static int SECTIONS_PER_ARTICLE = 20;
+    private Path directory;
+    private final List<List<DatabaseEntry>> linkTargetRows = new ArrayList<>();
+    private final List<List<DatabaseEntry>> categoryNameRows = new ArrayList<>();
+    private final List<List<DatabaseEntry>> sectionRows = new ArrayList<>();
+    private final List<List<DatabaseEntry>> referenceRows = new ArrayList<>();
+    private final List<List<DatabaseEntry>> categoryRows = new ArrayList<>();
+
+    /**
+     * Creates the rows of the sections once, the IDs of the link targets and categories are assigned
+     * by the dictionaries of a section service
+     */
+    @Setup(Level.Trial)
+    public void createRows() throws IOException {
+        this.directory = Files.createTempDirectory("section-insert-benchmark");
+        try (DatabaseService databaseService = new DatabaseService(SQLITE_URL, this.directory.resolve("dictionaries.db").toString(), 1)) {
+            SectionService sectionService = new SectionService(databaseService);
+            for (long articleNumber = 0; articleNumber < NUMBER_OF_SECTIONS / SECTIONS_PER_ARTICLE; articleNumber++) {
+                for (WikipediaSection section : createSections(articleNumber)) {
+                    this.sectionRows.add(sectionService.getWikipediaSectionEntries(section));
+                    for (String reference : section.wikipediaReferences()) {
+                        int linkID = sectionService.getLinkTargetID(reference, this.linkTargetRows);
+                        this.referenceRows.add(List.of(
+                                new DatabaseEntry(DatabaseEntryType.TEXT, section.sectionID()),
+                                new DatabaseEntry(DatabaseEntryType.INT, String.valueOf(linkID))
+                        ));
+                    }
+                    if (section.isFirstSection()) {
+                        for (String category : section.categories()) {
+                            int categoryID = sectionService.getCategoryID(category, this.categoryNameRows);
+                            this.categoryRows.add(List.of(
+                                    new DatabaseEntry(DatabaseEntryType.TEXT, section.articleID()),
+                                    new DatabaseEntry(DatabaseEntryType.INT, String.valueOf(categoryID))
+                            ));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteDirectory() throws IOException {
+        Fixtures.deleteDirectory(this.directory);
+    }
+
+    @Benchmark
+    public void insertPerRow(PerRowDatabase database) {
+        this.load(database.databaseService, false);
+    }
+
+    @Benchmark
+    public void insertBatched(BatchedDatabase database) {
+        this.load(database.databaseService, true);
+    }
+
+    private void load(DatabaseService databaseService, boolean batched) {
+        load(databaseService, batched, SectionConstants.TABLE_WIKIPEDIA_LINK_TARGETS, SectionConstants.COLUMNS_WIKIPEDIA_LINK_TARGETS, this.linkTargetRows);
+        load(databaseService, batched, SectionConstants.TABLE_WIKIPEDIA_CATEGORY_NAMES, SectionConstants.COLUMNS_WIKIPEDIA_CATEGORY_NAMES, this.categoryNameRows);
+        load(databaseService, batched, SectionConstants.TABLE_WIKIPEDIA_SECTIONS, SectionConstants.COLUMNS_WIKIPEDIA_SECTIONS, this.sectionRows);
+        load(databaseService, batched, SectionConstants.TABLE_WIKIPEDIA_SECTION_REFERENCES, SectionConstants.COLUMNS_WIKIPEDIA_SECTION_REFERENCES, this.referenceRows);
+        load(databaseService, batched, SectionConstants.TABLE_WIKIPEDIA_ARTICLE_CATEGORIES, SectionConstants.COLUMNS_WIKIPEDIA_ARTICLE_CATEGORIES, this.categoryRows);
+    }
+
+    private static void load(
+            DatabaseService databaseService,
+            boolean batched,
+            String tableName,
+            String columns,
+            List<List<DatabaseEntry>> rows
+    ) {
+        if (batched) {
+            databaseService.insertBatch(tableName, columns, rows);
+            return;
+        }
+        for (List<DatabaseEntry> row : rows) {
+            databaseService.insertData(tableName, columns, row);
+        }
+    }
+
+    private static List<WikipediaSection> createSections(long articleNumber) {
+        List<WikipediaSection> sections = new ArrayList<>(SECTIONS_PER_ARTICLE);
+        String articleID = UUID.randomUUID().toString();
+        List<String> categories = List.of("Category " + articleNumber % 97, "Category " + articleNumber % 89);
+
+        for (int i = 0; i < SECTIONS_PER_ARTICLE; i++) {
+            long sectionNumber = articleNumber * SECTIONS_PER_ARTICLE + i;
+            String text = "Paragraph " + sectionNumber + " of a synthetic article, with some words to fill the row.";
+            sections.add(new WikipediaSection(
+                    articleID,
+                    "Article " + articleNumber,
+                    UUID.randomUUID().toString(),
+                    text + " [1]",
+                    text,
+                    "Section " + i / 4,
+                    i == 0,
+                    List.of("/wiki/Link_" + sectionNumber % 1000, "/wiki/Link_" + sectionNumber % 777, "/wiki/Link_" + sectionNumber % 555),
+                    categories
+            ));
+        }
+        return sections;
+    }
+
+    /**
+     * Empty database of the per-row path, every row is inserted and committed on its own
+     */
+    @State(Scope.Benchmark)
+    public static class PerRowDatabase {
+        private Path directory;
+        private DatabaseService databaseService;
+
+        @Setup(Level.Invocation)
+        public void createDatabase() throws IOException {
+            this.directory = Files.createTempDirectory("section-insert-per-row");
+            this.databaseService = createDatabaseService(this.directory, 1);
+        }
+
+        @TearDown(Level.Invocation)
+        public void deleteDatabase() throws IOException {
+            this.databaseService.close();
+            Fixtures.deleteDirectory(this.directory);
+        }
+    }
+
+    /**
+     * Empty database of the batched path, the rows are loaded in JDBC batches and committed per chunk
+     */
+    @State(Scope.Benchmark)
+    public static class BatchedDatabase {
+        @Param({"100", "1000", "10000"})
+        public int chunkSize;
+        private Path directory;
+        private DatabaseService databaseService;
+
+        @Setup(Level.Invocation)
+        public void createDatabase() throws IOException {
+            this.directory = Files.createTempDirectory("section-insert-batched");
+            this.databaseService = createDatabaseService(this.directory, this.chunkSize);
+        }
+
+        @TearDown(Level.Invocation)
+        public void deleteDatabase() throws IOException {
+            this.databaseService.close();
+            Fixtures.deleteDirectory(this.directory);
+        }
+    }
+
+    /**
+     * Opens a database with the tables of the sections
+     */
+    private static DatabaseService createDatabaseService(Path directory, int chunkSize) {
+        DatabaseService databaseService = new DatabaseService(SQLITE_URL, directory.resolve("sections.db").toString(), chunkSize);
+        new SectionService(databaseService);
+        return databaseService;
+    }
+}
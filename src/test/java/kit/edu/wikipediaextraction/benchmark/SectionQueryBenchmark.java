@@ -0,0 +1,170 @@
+package kit.edu.wikipediaextraction.benchmark;
+
+import kit.edu.wikipediaextraction.database.DatabaseService;
+import kit.edu.wikipediaextraction.database.section.SectionPage;
+import kit.edu.wikipediaextraction.database.section.SectionSearchResult;
+import kit.edu.wikipediaextraction.database.section.SectionService;
+import kit.edu.wikipediaextraction.model.WikipediaSection;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the read API of the section service on a database of synthetic sections.
+ * Every article has 20 sections, every section links to 3 of 100000 link targets and every article is in 2 of 10000 categories.
+ * The sections are generated deterministically, so the database is built once in the temporary directory and reused by all benchmarks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SectionQueryBenchmark {
+    private final static String SQLITE_URL = "jdbc:sqlite:";
+    private final static String DATABASE_FILE = "section-query-benchmark-%d.db";
+    private final static String COMPLETE_MARKER = "section-query-benchmark-%d.complete";
+    private final static int BATCH_SIZE = 1000;
+    private final static int SECTIONS_PER_ARTICLE = 20;
+    private final static int NUMBER_OF_LINK_TARGETS = 100_000;
+    private final static int NUMBER_OF_CATEGORIES = 10_000;
+    private final static int NUMBER_OF_KEYS = 1024;
+    private final static int PAGE_SIZE = 100;
+    private final static int SEARCH_LIMIT = 10;
+    // every section contains this term
+    private final static String COMMON_SEARCH_TERM = "synthetic";
+
+    @Param("1000000")
+    public int numberOfSections;
+
+    private SectionService sectionService;
+    private String[] sectionIDs;
+    private String[] articleIDs;
+    private String[] articleHeadlines;
+    private String[] references;
+    private String[] categories;
+    private String[] searchQueries;
+    private long[] cursors;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void createDatabase() throws IOException {
+        Path directory = Path.of(System.getProperty("java.io.tmpdir"));
+        Path databaseFile = directory.resolve(String.format(DATABASE_FILE, this.numberOfSections));
+        Path completeMarker = directory.resolve(String.format(COMPLETE_MARKER, this.numberOfSections));
+        int numberOfArticles = Math.max(1, this.numberOfSections / SECTIONS_PER_ARTICLE);
+
+        if (!Files.exists(completeMarker)) {
+            Files.deleteIfExists(databaseFile);
+            this.sectionService = new SectionService(new DatabaseService(SQLITE_URL, databaseFile.toString(), BATCH_SIZE));
+            for (int article = 0; article < numberOfArticles; article++) {
+                this.sectionService.storeSections(createArticle(article));
+            }
+            Files.createFile(completeMarker);
+        } else {
+            this.sectionService = new SectionService(new DatabaseService(SQLITE_URL, databaseFile.toString(), BATCH_SIZE));
+        }
+
+        Random random = new Random(42);
+        this.sectionIDs = new String[NUMBER_OF_KEYS];
+        this.articleIDs = new String[NUMBER_OF_KEYS];
+        this.articleHeadlines = new String[NUMBER_OF_KEYS];
+        this.references = new String[NUMBER_OF_KEYS];
+        this.categories = new String[NUMBER_OF_KEYS];
+        this.cursors = new long[NUMBER_OF_KEYS];
+        this.searchQueries = new String[NUMBER_OF_KEYS];
+        for (int key = 0; key < NUMBER_OF_KEYS; key++) {
+            int article = random.nextInt(numberOfArticles);
+            int sectionOfArticle = random.nextInt(SECTIONS_PER_ARTICLE);
+            WikipediaSection section = createArticle(article).get(sectionOfArticle);
+            this.sectionIDs[key] = section.sectionID();
+            this.articleIDs[key] = section.articleID();
+            this.articleHeadlines[key] = section.articleHeadline();
+            this.references[key] = section.wikipediaReferences().iterator().next();
+            this.categories[key] = section.categories().iterator().next();
+            this.cursors[key] = random.nextInt(Math.max(1, this.numberOfSections - PAGE_SIZE));
+            this.searchQueries[key] = "\"paragraph " + (article * SECTIONS_PER_ARTICLE + sectionOfArticle) + "\"";
+        }
+    }
+
+    @Benchmark
+    public WikipediaSection getSection() {
+        return this.sectionService.getSection(this.sectionIDs[this.nextKey()]);
+    }
+
+    @Benchmark
+    public List<WikipediaSection> getSectionsByArticleID() {
+        return this.sectionService.getSectionsByArticleID(this.articleIDs[this.nextKey()]);
+    }
+
+    @Benchmark
+    public List<WikipediaSection> getSectionsByArticleHeadline() {
+        return this.sectionService.getSectionsByArticleHeadline(this.articleHeadlines[this.nextKey()]);
+    }
+
+    @Benchmark
+    public SectionPage getSectionsByReference() {
+        return this.sectionService.getSectionsByReference(this.references[this.nextKey()], 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public SectionPage getSectionsByCategory() {
+        return this.sectionService.getSectionsByCategory(this.categories[this.nextKey()], 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public SectionPage getSectionPage() {
+        return this.sectionService.getSections(this.cursors[this.nextKey()], PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<SectionSearchResult> searchSections() {
+        return this.sectionService.searchSections(this.searchQueries[this.nextKey()], SEARCH_LIMIT);
+    }
+
+    @Benchmark
+    public List<SectionSearchResult> searchCommonTerm() {
+        return this.sectionService.searchSections(COMMON_SEARCH_TERM, SEARCH_LIMIT);
+    }
+
+    private int nextKey() {
+        int key = this.next;
+        this.next = (this.next + 1) % NUMBER_OF_KEYS;
+        return key;
+    }
+
+    private static List<WikipediaSection> createArticle(int article) {
+        String articleID = UUID.nameUUIDFromBytes(("article " + article).getBytes()).toString();
+        String articleHeadline = "Article " + article;
+        List<String> categories = List.of("Category " + article % NUMBER_OF_CATEGORIES, "Category " + (article * 7 + 1) % NUMBER_OF_CATEGORIES);
+        List<WikipediaSection> sections = new ArrayList<>(SECTIONS_PER_ARTICLE);
+
+        for (int i = 0; i < SECTIONS_PER_ARTICLE; i++) {
+            int section = article * SECTIONS_PER_ARTICLE + i;
+            String text = "Paragraph " + section + " of a synthetic article, with some words to fill the row.";
+            sections.add(new WikipediaSection(
+                    articleID,
+                    articleHeadline,
+                    UUID.nameUUIDFromBytes(("section " + section).getBytes()).toString(),
+                    text + " [1]",
+                    text,
+                    i == 0 ? "" : "Section " + i / 4,
+                    i == 0,
+                    List.of(
+                            "/wiki/Link_" + section % NUMBER_OF_LINK_TARGETS,
+                            "/wiki/Link_" + (section * 31 + 7) % NUMBER_OF_LINK_TARGETS,
+                            "/wiki/Link_" + (section * 17 + 3) % NUMBER_OF_LINK_TARGETS
+                    ),
+                    categories
+            ));
+        }
+        return sections;
+    }
+}
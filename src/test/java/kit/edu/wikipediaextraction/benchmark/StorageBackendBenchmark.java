@@ -0,0 +1,102 @@
+package kit.edu.wikipediaextraction.benchmark;
+
+import kit.edu.wikipediaextraction.database.DatabaseEntry;
+import kit.edu.wikipediaextraction.database.DatabaseService;
+import kit.edu.wikipediaextraction.database.backend.StorageBackend;
+import kit.edu.wikipediaextraction.database.section.SectionConstants;
+import kit.edu.wikipediaextraction.database.section.SectionService;
+import kit.edu.wikipediaextraction.extraction.ExtractionService;
+import kit.edu.wikipediaextraction.metrics.PipelineMetrics;
+import kit.edu.wikipediaextraction.model.WikipediaSection;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the bulk loads of the storage backends by loading copies of the fixture sections into a temporary database.
+ * The benchmark runner skips backends whose driver is missing; PostgreSQL also needs the URL of a local database
+ * in the system property benchmark.postgresql.url, every trial creates its own schema there.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StorageBackendBenchmark {
+    public final static String POSTGRESQL_URL_PROPERTY = "benchmark.postgresql.url";
+    private final static int BATCH_SIZE = 1000;
+    private final static int COPIES_OF_FIXTURES = 20;
+    @Param({StorageBackend.SQLITE, StorageBackend.DUCKDB, StorageBackend.POSTGRESQL})
+    public String storageBackend;
+    private Path directory;
+    private DatabaseService databaseService;
+    private List<List<DatabaseEntry>> sectionRows;
+
+    @Setup(Level.Trial)
+    public void createDatabase() throws IOException {
+        StorageBackend backend = StorageBackend.create(this.storageBackend);
+        if (backend.getName().equals(StorageBackend.POSTGRESQL)) {
+            this.databaseService = new DatabaseService(System.getProperty(POSTGRESQL_URL_PROPERTY), "benchmark_" + System.nanoTime(), BATCH_SIZE, new PipelineMetrics(), backend);
+        } else {
+            this.directory = Files.createTempDirectory("storage-benchmark");
+            String databaseName = this.directory.resolve("wikipedia.db").toString();
+            this.databaseService = new DatabaseService("jdbc:" + backend.getName() + ":", databaseName, BATCH_SIZE, new PipelineMetrics(), backend);
+        }
+        SectionService sectionService = new SectionService(this.databaseService);
+
+        ExtractionService extractionService = new ExtractionService();
+        List<WikipediaSection> sections = new ArrayList<>();
+        for (String name : Fixtures.ARTICLE_NAMES) {
+            sections.addAll(extractionService.extractSectionsFromArticle(extractionService.parseArticle(Fixtures.read(name), name)));
+        }
+        // the sections table has no unique columns, so the same rows can be loaded again and again
+        this.sectionRows = new ArrayList<>();
+        for (int copy = 0; copy < COPIES_OF_FIXTURES; copy++) {
+            for (WikipediaSection section : sections) {
+                this.sectionRows.add(sectionService.getWikipediaSectionEntries(section));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteDatabase() throws IOException {
+        this.databaseService.close();
+        if (this.directory != null) {
+            Fixtures.deleteDirectory(this.directory);
+        }
+    }
+
+    @Benchmark
+    public void loadSections(Counters counters) {
+        this.databaseService.runInTransaction(() -> this.databaseService.insertBatch(
+                SectionConstants.TABLE_WIKIPEDIA_SECTIONS,
+                SectionConstants.COLUMNS_WIKIPEDIA_SECTIONS,
+                this.sectionRows
+        ));
+        counters.sections += this.sectionRows.size();
+    }
+
+    /**
+     * @return backends whose driver is on the class path and, for PostgreSQL, whose database is configured
+     */
+    public static String[] getAvailableBackends() {
+        List<String> backends = new ArrayList<>();
+        for (String name : List.of(StorageBackend.SQLITE, StorageBackend.DUCKDB, StorageBackend.POSTGRESQL)) {
+            try {
+                Class.forName(StorageBackend.create(name).getDriverClassName());
+            } catch (ClassNotFoundException e) {
+                continue;
+            }
+            if (!name.equals(StorageBackend.POSTGRESQL) || System.getProperty(POSTGRESQL_URL_PROPERTY) != null) {
+                backends.add(name);
+            }
+        }
+        return backends.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,62 @@
+package kit.edu.wikipediaextraction.benchmark;
+
+import kit.edu.wikipediaextraction.extraction.TextCleaner;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the single-pass cleaner with the former bracket removal plus regex cleaning
+ * on the paragraphs of the fixture articles
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextCleanerBenchmark {
+    private List<String> paragraphs;
+
+    @Setup
+    public void loadParagraphs() throws IOException {
+        this.paragraphs = new ArrayList<>();
+        for (String name : Fixtures.ARTICLE_NAMES) {
+            for (Element paragraph : Jsoup.parse(Fixtures.read(name), name).select("p")) {
+                this.paragraphs.add(paragraph.text());
+            }
+        }
+    }
+
+    @Benchmark
+    public void singlePass(Blackhole blackhole) {
+        for (String paragraph : this.paragraphs) {
+            blackhole.consume(TextCleaner.clean(paragraph));
+        }
+    }
+
+    @Benchmark
+    public void bracketsThenRegex(Blackhole blackhole) {
+        for (String paragraph : this.paragraphs) {
+            StringBuilder result = new StringBuilder();
+            int bracketLevel = 0;
+            for (char c : paragraph.toCharArray()) {
+                if (c == '(' || c == '[') {
+                    bracketLevel++;
+                } else if (c == ')' || c == ']') {
+                    bracketLevel--;
+                } else if (bracketLevel == 0) {
+                    result.append(c);
+                }
+            }
+            blackhole.consume(Pattern.compile("[^a-zA-Z0-9.,\\-!\\?\\s]").matcher(result.toString()).replaceAll(""));
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package kit.edu.wikipediaextraction.database.backend;
+
+import kit.edu.wikipediaextraction.database.DatabaseEntry;
+import kit.edu.wikipediaextraction.database.DatabaseEntryType;
+import kit.edu.wikipediaextraction.database.DatabaseService;
+import kit.edu.wikipediaextraction.database.checkpoint.CheckpointConstants;
+import kit.edu.wikipediaextraction.database.section.SectionConstants;
+import kit.edu.wikipediaextraction.database.section.SectionService;
+import kit.edu.wikipediaextraction.metrics.PipelineMetrics;
+import kit.edu.wikipediaextraction.model.WikipediaSection;
+import kit.edu.wikipediaextraction.shard.ShardConstants;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static kit.edu.wikipediaextraction.benchmark.Fixtures.revision;
+import static kit.edu.wikipediaextraction.benchmark.Fixtures.section;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class StorageBackendTests {
+    // URL of a local PostgreSQL database, the test against PostgreSQL is skipped if it is not set
+    private final static String POSTGRESQL_URL_PROPERTY = "test.postgresql.url";
+    @TempDir
+    Path directory;
+
+    @Test
+    void backendsAreCreatedByName() {
+        assertInstanceOf(SQLiteStorageBackend.class, StorageBackend.create("sqlite"));
+        assertInstanceOf(DuckDBStorageBackend.class, StorageBackend.create("DuckDB"));
+        assertInstanceOf(PostgreSQLStorageBackend.class, StorageBackend.create("postgresql"));
+        assertThrows(IllegalArgumentException.class, () -> StorageBackend.create("mysql"));
+    }
+
+    @Test
+    void postgreSQLTranslatesTheSQLiteDialect() {
+        assertEquals(
+                List.of("CREATE TABLE IF NOT EXISTS wikipedia_crawl_runs (runID BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, startedAt BIGINT, finishedAt BIGINT, rowid BIGINT GENERATED ALWAYS AS IDENTITY)"),
+                PostgreSQLStorageBackend.translateStatement(CheckpointConstants.CREATE_TABLE_WIKIPEDIA_CRAWL_RUNS)
+        );
+        assertEquals(
+                List.of("INSERT INTO wikipedia_articles (articleHeadline, articleURL, articleID, revision, eTag, lastModified) VALUES (?, ?, ?, ?, ?, ?)"
+                        + " ON CONFLICT (articleHeadline) DO UPDATE SET articleURL = EXCLUDED.articleURL, articleID = EXCLUDED.articleID, revision = EXCLUDED.revision, eTag = EXCLUDED.eTag, lastModified = EXCLUDED.lastModified"),
+                PostgreSQLStorageBackend.translateStatement(SectionConstants.UPSERT_WIKIPEDIA_ARTICLE)
+        );
+        assertEquals(
+                List.of("INSERT INTO wikipedia_shard_job (jobID, numberOfPartitions) VALUES (1, ?) ON CONFLICT DO NOTHING"),
+                PostgreSQLStorageBackend.translateStatement(ShardConstants.INSERT_SHARD_JOB)
+        );
+        assertEquals(
+                List.of("SELECT COUNT(*) FROM information_schema.tables WHERE table_schema = current_schema() AND table_name = ?"),
+                PostgreSQLStorageBackend.translateStatement(SectionConstants.SELECT_TABLE_EXISTS)
+        );
+        assertTrue(PostgreSQLStorageBackend.translateStatement(SectionConstants.CREATE_VIEW_WIKIPEDIA_REFERENCES).get(0).startsWith("CREATE OR REPLACE VIEW wikipedia_references AS "));
+        assertEquals("wikipedia_shard_a_1", PostgreSQLStorageBackend.getSchemaName("wikipedia-shard-a.1.db"));
+    }
+
+    @Test
+    void duckDBAssignsKeysWithASequence() {
+        assertEquals(
+                List.of(
+                        "CREATE SEQUENCE IF NOT EXISTS seq_wikipedia_crawl_runs",
+                        "CREATE TABLE IF NOT EXISTS wikipedia_crawl_runs (runID BIGINT PRIMARY KEY DEFAULT nextval('seq_wikipedia_crawl_runs'), startedAt BIGINT, finishedAt BIGINT)"
+                ),
+                DuckDBStorageBackend.translateStatement(CheckpointConstants.CREATE_TABLE_WIKIPEDIA_CRAWL_RUNS)
+        );
+        assertEquals(
+                List.of("CREATE TABLE IF NOT EXISTS wikipedia_section_fingerprints (articleKey BIGINT, contentHash BIGINT, minHashes BIGINT)"),
+                DuckDBStorageBackend.translateStatement(SectionConstants.CREATE_TABLE_WIKIPEDIA_SECTION_FINGERPRINTS)
+        );
+        // DuckDB understands the conflict clauses of SQLite
+        assertEquals(List.of(ShardConstants.INSERT_SHARD_WORKER), DuckDBStorageBackend.translateStatement(ShardConstants.INSERT_SHARD_WORKER));
+        // the rowids of DuckDB start at 0, paging from cursor 0 has to include the first row
+        assertEquals(
+                List.of("SELECT item FROM wikipedia_shard_work_items WHERE partitionID = ? ORDER BY (rowid + 1)"),
+                DuckDBStorageBackend.translateStatement(ShardConstants.SELECT_WORK_ITEMS)
+        );
+        assertTrue(DuckDBStorageBackend.translateStatement(SectionConstants.SELECT_SECTIONS_BY_CATEGORY).get(0).startsWith("SELECT (s.rowid + 1), s.sectionID, "));
+    }
+
+    @Test
+    void fullTextIndexIsOnlyCreatedBySQLite() {
+        for (String statement : List.of(
+                SectionConstants.CREATE_TABLE_WIKIPEDIA_SECTIONS_SEARCH,
+                SectionConstants.CREATE_TRIGGER_SECTIONS_SEARCH_INSERT,
+                SectionConstants.CONFIGURE_SECTIONS_SEARCH_RANK,
+                SectionConstants.REBUILD_SECTIONS_SEARCH
+        )) {
+            assertEquals(List.of(statement), new SQLiteStorageBackend().translate(statement));
+            assertEquals(List.of(), PostgreSQLStorageBackend.translateStatement(statement));
+            assertEquals(List.of(), DuckDBStorageBackend.translateStatement(statement));
+        }
+    }
+
+    @Test
+    void copyValuesAreEscaped() {
+        StringBuilder copyData = new StringBuilder();
+        PostgreSQLStorageBackend.appendCopyValue(copyData, new DatabaseEntry(DatabaseEntryType.TEXT, "a\tb\nc\\d\re"));
+        PostgreSQLStorageBackend.appendCopyValue(copyData, new DatabaseEntry(DatabaseEntryType.TEXT, null));
+        PostgreSQLStorageBackend.appendCopyValue(copyData, new DatabaseEntry(DatabaseEntryType.BOOLEAN, "true"));
+        PostgreSQLStorageBackend.appendCopyValue(copyData, new DatabaseEntry(DatabaseEntryType.LONG, "-42"));
+
+        assertEquals("a\\tb\\nc\\\\d\\re" + "\\N" + "t" + "-42", copyData.toString());
+    }
+
+    @Test
+    void postgreSQLBackendCopiesTheRowsThroughTheCopyAPI() throws SQLException {
+        FakeCopyManager copyManager = new FakeCopyManager();
+        FakePGConnection pgConnection = () -> copyManager;
+        Connection connection = (Connection) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, arguments) -> {
+                    if (method.getName().equals("unwrap") && arguments[0] == FakePGConnection.class) {
+                        return pgConnection;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                }
+        );
+        PostgreSQLStorageBackend storageBackend = new PostgreSQLStorageBackend(FakePGConnection.class.getName());
+
+        storageBackend.load(connection, "numbers", "number, name", List.of(
+                List.of(new DatabaseEntry(DatabaseEntryType.INT, "1"), new DatabaseEntry(DatabaseEntryType.TEXT, "a\tb")),
+                List.of(new DatabaseEntry(DatabaseEntryType.INT, "2"), new DatabaseEntry(DatabaseEntryType.TEXT, null))
+        ));
+        storageBackend.load(connection, "flags", "flag", List.of(List.of(new DatabaseEntry(DatabaseEntryType.BOOLEAN, "false"))));
+
+        assertEquals(List.of("COPY numbers (number, name) FROM STDIN", "COPY flags (flag) FROM STDIN"), copyManager.queries);
+        assertEquals(List.of("1\ta\\tb\n2\t\\N\n", "f\n"), copyManager.data);
+    }
+
+    @Test
+    void duckDBAppendsRowsInTheTransaction() {
+        assumeTrue(isDriverAvailable(new DuckDBStorageBackend()), "DuckDB driver is not available");
+        String databaseName = this.directory.resolve("transactions.duckdb").toString();
+        try (DatabaseService databaseService = new DatabaseService("jdbc:duckdb:", databaseName, 2, new PipelineMetrics(), new DuckDBStorageBackend())) {
+            new SectionService(databaseService);
+            List<List<DatabaseEntry>> linkTargetRows = List.of(
+                    List.of(new DatabaseEntry(DatabaseEntryType.INT, "1"), new DatabaseEntry(DatabaseEntryType.TEXT, "/wiki/A")),
+                    List.of(new DatabaseEntry(DatabaseEntryType.INT, "2"), new DatabaseEntry(DatabaseEntryType.TEXT, null))
+            );
+
+            // the second load violates the primary key, the rows appended before are rolled back
+            assertFalse(databaseService.runInTransaction(() -> {
+                databaseService.insertBatch(SectionConstants.TABLE_WIKIPEDIA_LINK_TARGETS, SectionConstants.COLUMNS_WIKIPEDIA_LINK_TARGETS, linkTargetRows);
+                databaseService.insertBatch(SectionConstants.TABLE_WIKIPEDIA_LINK_TARGETS, SectionConstants.COLUMNS_WIKIPEDIA_LINK_TARGETS, linkTargetRows);
+            }));
+            assertEquals(0, countRows(databaseService, SectionConstants.TABLE_WIKIPEDIA_LINK_TARGETS));
+
+            databaseService.insertBatch(SectionConstants.TABLE_WIKIPEDIA_LINK_TARGETS, SectionConstants.COLUMNS_WIKIPEDIA_LINK_TARGETS, linkTargetRows);
+            assertEquals(2, countRows(databaseService, SectionConstants.TABLE_WIKIPEDIA_LINK_TARGETS));
+            // rows without all columns of their table are inserted, the other columns get their default
+            databaseService.execute(ShardConstants.CREATE_TABLE_WIKIPEDIA_SHARD_PARTITIONS);
+            databaseService.insertBatch(ShardConstants.TABLE_WIKIPEDIA_SHARD_PARTITIONS, ShardConstants.WIKIPEDIA_SHARD_PARTITIONS_COLUMNS, List.of(List.of(new DatabaseEntry(DatabaseEntryType.INT, "7"))));
+            assertEquals(1, countRows(databaseService, ShardConstants.TABLE_WIKIPEDIA_SHARD_PARTITIONS));
+        }
+    }
+
+    @Test
+    void databaseThatCannotBeOpenedFailsFast() {
+        String databaseName = this.directory.resolve("missing").resolve("wikipedia.db").toString();
+
+        assertThrows(IllegalStateException.class, () -> new DatabaseService("jdbc:sqlite:", databaseName, 2));
+    }
+
+    @Test
+    void multiRowInsertsLoadEveryRow() throws SQLException {
+        JdbcBatchLoader batchLoader = new JdbcBatchLoader(3);
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:")) {
+            connection.createStatement().execute("CREATE TABLE numbers (number INTEGER, name TEXT)");
+            List<List<DatabaseEntry>> rows = IntStream.range(0, 8)
+                    .mapToObj(i -> List.of(new DatabaseEntry(DatabaseEntryType.INT, String.valueOf(i)), new DatabaseEntry(DatabaseEntryType.TEXT, "n" + i)))
+                    .toList();
+
+            batchLoader.load(connection, "numbers", "number, name", rows);
+            batchLoader.load(connection, "numbers", "number, name", rows.subList(0, 1));
+            batchLoader.close();
+
+            try (ResultSet resultSet = connection.createStatement().executeQuery("SELECT COUNT(*), SUM(number), MAX(name) FROM numbers")) {
+                assertTrue(resultSet.next());
+                assertEquals(9, resultSet.getInt(1));
+                assertEquals(28, resultSet.getInt(2));
+                assertEquals("n7", resultSet.getString(3));
+            }
+        }
+    }
+
+    @Test
+    void sqliteBackendStoresArticles() {
+        String databaseName = this.directory.resolve("wikipedia.db").toString();
+        try (DatabaseService databaseService = new DatabaseService("jdbc:sqlite:", databaseName, 2, new PipelineMetrics(), new SQLiteStorageBackend())) {
+            assertStoresArticles(databaseService);
+        }
+    }
+
+    @Test
+    void duckDBBackendStoresArticles() {
+        assumeTrue(isDriverAvailable(new DuckDBStorageBackend()), "DuckDB driver is not available");
+        // DuckDB creates the file itself
+        String databaseName = this.directory.resolve("wikipedia.duckdb").toString();
+        try (DatabaseService databaseService = new DatabaseService("jdbc:duckdb:", databaseName, 2, new PipelineMetrics(), new DuckDBStorageBackend())) {
+            assertStoresArticles(databaseService);
+        }
+    }
+
+    @Test
+    void postgreSQLBackendStoresArticles() {
+        String databaseURL = System.getProperty(POSTGRESQL_URL_PROPERTY);
+        assumeTrue(databaseURL != null && isDriverAvailable(new PostgreSQLStorageBackend()), "no local PostgreSQL database is configured");
+        DatabaseService databaseService = new DatabaseService(databaseURL, "test_" + System.nanoTime(), 2, new PipelineMetrics(), new PostgreSQLStorageBackend());
+        assertStoresArticles(databaseService);
+    }
+
+    private static void assertStoresArticles(DatabaseService databaseService) {
+        SectionService sectionService = new SectionService(databaseService);
+        for (String articleHeadline : List.of("Ada Lovelace", "Mount Everest")) {
+            sectionService.storeArticle(List.of(
+                    section(articleHeadline, "", "Intro of " + articleHeadline),
+                    section(articleHeadline, "History", "History of\t" + articleHeadline + "\nwith a \\ backslash"),
+                    section(articleHeadline, "Legacy", "Legacy of " + articleHeadline)
+            ), revision(articleHeadline));
+        }
+
+        // a second service reads what the first one committed
+        List<WikipediaSection> sections = new SectionService(databaseService).getSectionsByArticleHeadline("Mount Everest");
+        assertEquals(3, sections.size());
+        assertEquals("History of\tMount Everest\nwith a \\ backslash", sections.get(1).cleanedArticleText());
+        assertTrue(sections.get(0).isFirstSection());
+        assertEquals(List.of("/wiki/A"), sections.get(1).wikipediaReferences());
+        assertEquals(List.of("Category"), sections.get(2).categories());
+        assertEquals("rev:1", sectionService.getArticleRevision("Ada Lovelace").revision());
+        assertEquals(6, sectionService.getSections(0, 10).sections().size());
+    }
+
+
+    private static int countRows(DatabaseService databaseService, String tableName) {
+        return databaseService.query("SELECT COUNT(*) FROM " + tableName, List.of(), resultSet -> resultSet.getInt(1)).get(0);
+    }
+
+    private static boolean isDriverAvailable(StorageBackend storageBackend) {
+        try {
+            Class.forName(storageBackend.getDriverClassName());
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Stands in for the connection interface of the PostgreSQL driver
+     */
+    interface FakePGConnection {
+        FakeCopyManager getCopyAPI();
+    }
+
+    /**
+     * Records the data of every COPY like the copy manager of the PostgreSQL driver would receive it
+     */
+    static class FakeCopyManager {
+        private final List<String> queries = new ArrayList<>();
+        private final List<String> data = new ArrayList<>();
+
+        public long copyIn(String query, Reader reader) throws IOException {
+            this.queries.add(query);
+            StringWriter copyData = new StringWriter();
+            reader.transferTo(copyData);
+            this.data.add(copyData.toString());
+            return copyData.toString().lines().count();
+        }
+    }
+}
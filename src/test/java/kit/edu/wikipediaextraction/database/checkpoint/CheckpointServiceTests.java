@@ -0,0 +1,105 @@
+package kit.edu.wikipediaextraction.database.checkpoint;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import kit.edu.wikipediaextraction.database.DatabaseService;
+import kit.edu.wikipediaextraction.database.section.SectionService;
+import kit.edu.wikipediaextraction.database.section.SectionWriter;
+import kit.edu.wikipediaextraction.metrics.PipelineMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static kit.edu.wikipediaextraction.benchmark.Fixtures.revision;
+import static kit.edu.wikipediaextraction.benchmark.Fixtures.sections;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckpointServiceTests {
+    private final static String SQLITE_URL = "jdbc:sqlite:";
+    private final static String WIKIPEDIA_URL = "https://en.wikipedia.org/wiki/";
+    private final static String RANDOM_URL = WIKIPEDIA_URL + "Special:Random";
+    @TempDir
+    Path directory;
+    private String databaseFile;
+    private DatabaseService databaseService;
+    private CheckpointService checkpointService;
+    private SectionWriter sectionWriter;
+
+    @BeforeEach
+    void createWriter() {
+        this.databaseFile = this.directory.resolve("checkpoint.db").toString();
+        this.databaseService = new DatabaseService(SQLITE_URL, this.databaseFile, 100);
+        this.sectionWriter = createSectionWriter(this.databaseService);
+        this.checkpointService = new CheckpointService(this.databaseService, this.sectionWriter);
+    }
+
+    @AfterEach
+    void closeServices() {
+        this.sectionWriter.close();
+        this.databaseService.close();
+    }
+
+    @Test
+    void interruptedRunIsResumedWithoutItsCompletedRequests() throws InterruptedException {
+        CrawlCheckpoint checkpoint = this.checkpointService.startRun();
+        this.sectionWriter.submit(sections("Physics", 1), revision("Physics"), false, checkpoint, WIKIPEDIA_URL + "Physics");
+        this.sectionWriter.submit(sections("Random 1", 1), revision("Random 1"), false, checkpoint, RANDOM_URL);
+        this.sectionWriter.submit(sections("Random 2", 1), revision("Random 2"), false, checkpoint, RANDOM_URL);
+        this.sectionWriter.submitCompleted(checkpoint, WIKIPEDIA_URL + "Empty");
+        this.sectionWriter.flush();
+
+        // the process stops without finishing the run
+        CrawlCheckpoint resumed;
+        try (DatabaseService databaseService = new DatabaseService(SQLITE_URL, this.databaseFile, 100);
+             SectionWriter sectionWriter = createSectionWriter(databaseService)) {
+            resumed = new CheckpointService(databaseService, sectionWriter).findUnfinishedRun();
+        }
+
+        assertNotNull(resumed);
+        assertTrue(resumed.isResumed());
+        assertEquals(checkpoint.getRunID(), resumed.getRunID());
+        assertEquals(4, resumed.getNumberOfCompletedRequests());
+        assertTrue(resumed.skipCompleted(WIKIPEDIA_URL + "Physics"));
+        assertTrue(resumed.skipCompleted(WIKIPEDIA_URL + "Empty"));
+        assertFalse(resumed.skipCompleted(WIKIPEDIA_URL + "Chemistry"));
+        // the random article URL is skipped as often as it was completed
+        assertTrue(resumed.skipCompleted(RANDOM_URL));
+        assertTrue(resumed.skipCompleted(RANDOM_URL));
+        assertFalse(resumed.skipCompleted(RANDOM_URL));
+    }
+
+    @Test
+    void requestOfRejectedArticleIsNotCompleted() throws InterruptedException {
+        this.databaseService.execute("CREATE TRIGGER reject_article BEFORE INSERT ON wikipedia_sections WHEN NEW.articleHeadline = 'Bad' BEGIN SELECT RAISE(ABORT, 'rejected'); END");
+        CrawlCheckpoint checkpoint = this.checkpointService.startRun();
+
+        this.sectionWriter.submit(sections("Good", 1), revision("Good"), false, checkpoint, WIKIPEDIA_URL + "Good");
+        this.sectionWriter.submit(sections("Bad", 1), revision("Bad"), false, checkpoint, WIKIPEDIA_URL + "Bad");
+        this.sectionWriter.flush();
+
+        CrawlCheckpoint resumed = this.checkpointService.findUnfinishedRun();
+        assertEquals(1, resumed.getNumberOfCompletedRequests());
+        assertTrue(resumed.skipCompleted(WIKIPEDIA_URL + "Good"));
+        assertFalse(resumed.skipCompleted(WIKIPEDIA_URL + "Bad"));
+    }
+
+    @Test
+    void finishedRunIsNotResumed() throws InterruptedException {
+        CrawlCheckpoint checkpoint = this.checkpointService.startRun();
+        this.sectionWriter.submit(sections("Physics", 1), revision("Physics"), false, checkpoint, WIKIPEDIA_URL + "Physics");
+        this.sectionWriter.flush();
+
+        this.checkpointService.finishRun(checkpoint);
+
+        assertNull(this.checkpointService.findUnfinishedRun());
+        assertEquals(0, this.databaseService.query("SELECT COUNT(*) FROM wikipedia_crawl_checkpoints", List.of(), resultSet -> resultSet.getLong(1)).get(0));
+        assertNotEquals(checkpoint.getRunID(), this.checkpointService.startRun().getRunID());
+    }
+
+    private static SectionWriter createSectionWriter(DatabaseService databaseService) {
+        return new SectionWriter(new SectionService(databaseService), databaseService, new PipelineMetrics(new SimpleMeterRegistry()), 16, 50);
+    }
+}
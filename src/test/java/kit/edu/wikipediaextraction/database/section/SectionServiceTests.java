@@ -0,0 +1,239 @@
+package kit.edu.wikipediaextraction.database.section;
+
+import kit.edu.wikipediaextraction.database.DatabaseService;
+import kit.edu.wikipediaextraction.model.WikipediaSection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static kit.edu.wikipediaextraction.benchmark.Fixtures.revision;
+import static kit.edu.wikipediaextraction.benchmark.Fixtures.section;
+import static kit.edu.wikipediaextraction.benchmark.Fixtures.sections;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SectionServiceTests {
+    private final static String SQLITE_URL = "jdbc:sqlite:";
+    @TempDir
+    Path directory;
+    private Path databaseFile;
+    private DatabaseService databaseService;
+    private SectionService sectionService;
+
+    @BeforeEach
+    void createDatabase() {
+        this.databaseFile = this.directory.resolve("sections.db");
+        this.databaseService = new DatabaseService(SQLITE_URL, this.databaseFile.toString(), 100);
+        this.sectionService = new SectionService(this.databaseService);
+    }
+
+    @Test
+    void replaceArticleReplacesAllRowsOfTheArticle() {
+        this.sectionService.storeArticle(sections("Article", 3), revision("Article", "rev:1"));
+        this.sectionService.storeArticle(sections("Other", 2), revision("Other", "rev:7"));
+
+        this.sectionService.replaceArticle(sections("Article", 1), revision("Article", "rev:2"));
+
+        assertEquals(3, this.count("SELECT COUNT(*) FROM wikipedia_sections"));
+        assertEquals(1, this.count("SELECT COUNT(*) FROM wikipedia_sections WHERE articleHeadline = 'Article'"));
+        assertEquals(3 * 2, this.count("SELECT COUNT(*) FROM wikipedia_references"));
+        assertEquals(3, this.count("SELECT COUNT(*) FROM wikipedia_categories"));
+        assertTrue(this.sectionService.isArticleUnchanged("Article", "rev:2"));
+        assertFalse(this.sectionService.isArticleUnchanged("Article", "rev:1"));
+    }
+
+    @Test
+    void categoriesAndReferencesAreInterned() {
+        this.sectionService.storeArticle(sections("Article", 3), revision("Article", "rev:1"));
+        this.sectionService.storeArticle(sections("Other", 2), revision("Other", "rev:1"));
+
+        SectionService restartedSectionService = new SectionService(new DatabaseService(SQLITE_URL, this.databaseFile.toString(), 100));
+        restartedSectionService.storeArticle(sections("Third", 1), revision("Third", "rev:1"));
+
+        assertEquals(2, this.count("SELECT COUNT(*) FROM wikipedia_link_targets"));
+        assertEquals(1, this.count("SELECT COUNT(*) FROM wikipedia_category_names"));
+        assertEquals(3, this.count("SELECT COUNT(*) FROM wikipedia_article_categories"));
+        assertEquals(6 * 2, this.count("SELECT COUNT(*) FROM wikipedia_references"));
+        assertEquals(6, this.count("SELECT COUNT(*) FROM wikipedia_categories WHERE categoryText = 'Category'"));
+    }
+
+    @Test
+    void denormalizedTablesAreMigrated() {
+        Path legacyDatabaseFile = this.directory.resolve("legacy-sections.db");
+        DatabaseService legacyDatabaseService = new DatabaseService(SQLITE_URL, legacyDatabaseFile.toString(), 100);
+        legacyDatabaseService.execute(SectionConstants.CREATE_TABLE_WIKIPEDIA_SECTIONS);
+        legacyDatabaseService.execute("CREATE TABLE wikipedia_references (sectionID TEXT, referenceText TEXT)");
+        legacyDatabaseService.execute("CREATE TABLE wikipedia_categories (sectionID TEXT, categoryText TEXT)");
+        legacyDatabaseService.execute("INSERT INTO wikipedia_sections (sectionID, articleID, articleHeadline) VALUES ('s1', 'a1', 'Article'), ('s2', 'a1', 'Article')");
+        legacyDatabaseService.execute("INSERT INTO wikipedia_references VALUES ('s1', '/wiki/A'), ('s1', '/wiki/B'), ('s2', '/wiki/A')");
+        legacyDatabaseService.execute("INSERT INTO wikipedia_categories VALUES ('s1', 'Category'), ('s2', 'Category')");
+
+        new SectionService(legacyDatabaseService);
+
+        assertEquals(3, count(legacyDatabaseService, "SELECT COUNT(*) FROM wikipedia_references"));
+        assertEquals(2, count(legacyDatabaseService, "SELECT COUNT(*) FROM wikipedia_link_targets"));
+        assertEquals(1, count(legacyDatabaseService, "SELECT COUNT(*) FROM wikipedia_article_categories"));
+        assertEquals(2, count(legacyDatabaseService, "SELECT COUNT(*) FROM wikipedia_categories"));
+        assertEquals(2, count(legacyDatabaseService, "SELECT COUNT(*) FROM sqlite_master WHERE type = 'view'"));
+    }
+
+    @Test
+    void keysetPagesCoverAllSectionsInOrder() {
+        this.sectionService.storeArticle(sections("Article", 3), revision("Article", "rev:1"));
+        this.sectionService.storeArticle(sections("Other", 2), revision("Other", "rev:1"));
+
+        SectionPage firstPage = this.sectionService.getSections(0, 2);
+        SectionPage secondPage = this.sectionService.getSections(firstPage.nextCursor(), 2);
+        SectionPage thirdPage = this.sectionService.getSections(secondPage.nextCursor(), 2);
+        SectionPage emptyPage = this.sectionService.getSections(thirdPage.nextCursor(), 2);
+
+        assertEquals(List.of("Article", "Article"), firstPage.sections().stream().map(WikipediaSection::articleHeadline).toList());
+        assertEquals(List.of("Text 2", "Text 0"), secondPage.sections().stream().map(WikipediaSection::cleanedArticleText).toList());
+        assertEquals(1, thirdPage.sections().size());
+        assertTrue(emptyPage.isEmpty());
+        assertEquals(thirdPage.nextCursor(), emptyPage.nextCursor());
+        assertEquals(5, this.sectionService.streamSections().count());
+    }
+
+    @Test
+    void sectionsAreFoundByArticleCategoryAndReference() {
+        List<WikipediaSection> sections = sections("Article", 3);
+        this.sectionService.storeArticle(sections, revision("Article", "rev:1"));
+        this.sectionService.storeArticle(sections("Other", 2), revision("Other", "rev:1"));
+
+        WikipediaSection section = this.sectionService.getSection(sections.get(1).sectionID());
+        assertEquals(sections.get(1).cleanedArticleText(), section.cleanedArticleText());
+        assertEquals(List.of("/wiki/A", "/wiki/B"), section.wikipediaReferences());
+        assertEquals(List.of("Category"), section.categories());
+        assertNull(this.sectionService.getSection("unknown"));
+
+        assertEquals(3, this.sectionService.getSectionsByArticleID(sections.get(0).articleID()).size());
+        assertEquals(2, this.sectionService.getSectionsByArticleHeadline("Other").size());
+        SectionPage firstCategoryPage = this.sectionService.getSectionsByCategory("Category", 0, 3);
+        SectionPage secondCategoryPage = this.sectionService.getSectionsByCategory("Category", firstCategoryPage.nextCursor(), 3);
+        assertEquals(List.of("Article", "Article", "Article"), firstCategoryPage.sections().stream().map(WikipediaSection::articleHeadline).toList());
+        assertEquals(List.of("Other", "Other"), secondCategoryPage.sections().stream().map(WikipediaSection::articleHeadline).toList());
+        assertEquals(5, this.sectionService.getSectionsByReference("/wiki/B", 0, 10).sections().size());
+        SectionPage lastReferencePage = this.sectionService.getSectionsByReference("/wiki/B", 0, 4);
+        assertEquals(1, this.sectionService.getSectionsByReference("/wiki/B", lastReferencePage.nextCursor(), 4).sections().size());
+        assertTrue(this.sectionService.getSectionsByReference("/wiki/C", 0, 10).isEmpty());
+    }
+
+    @Test
+    void searchIndexFollowsStoredAndReplacedSections() {
+        this.sectionService.storeArticle(List.of(
+                section("Physics", "", "Physics is the natural science of matter and energy."),
+                section("Physics", "Quantum mechanics", "Quantum mechanics describes nature at the scale of atoms."),
+                section("Physics", "History", "Müller and others studied the motion of bodies.")
+        ), revision("Physics", "rev:1"));
+        this.sectionService.storeArticle(List.of(
+                section("Chemistry", "", "Chemistry studies matter and its reactions, not quantum effects alone.")
+        ), revision("Chemistry", "rev:1"));
+
+        List<SectionSearchResult> results = this.sectionService.searchSections("quantum", 10);
+        assertEquals(List.of("Quantum mechanics", ""), results.stream().map(result -> result.section().sectionHeadline()).toList());
+        assertTrue(results.get(0).score() > results.get(1).score());
+        assertEquals("<b>Quantum</b> mechanics describes nature at the scale of atoms.", results.get(0).snippet());
+        assertEquals(List.of("/wiki/A"), results.get(0).section().wikipediaReferences());
+        assertEquals(1, this.sectionService.searchSections("muller", 10).size());
+        assertEquals(2, this.sectionService.searchSections("matter", 10).size());
+        assertEquals(1, this.sectionService.searchSections("matter", 1).size());
+
+        this.sectionService.replaceArticle(List.of(
+                section("Physics", "", "Physics is the study of energy.")
+        ), revision("Physics", "rev:2"));
+
+        assertEquals(List.of("Chemistry"), this.sectionService.searchSections("quantum", 10).stream().map(result -> result.section().articleHeadline()).toList());
+        assertEquals(1, this.sectionService.searchSections("energy", 10).size());
+        assertTrue(this.sectionService.searchSections("muller", 10).isEmpty());
+    }
+
+    @Test
+    void searchIndexIsBuiltForSectionsStoredBeforeIt() {
+        this.sectionService.storeArticle(List.of(section("Physics", "", "Physics is a natural science.")), revision("Physics", "rev:1"));
+        this.databaseService.execute("DROP TABLE wikipedia_sections_search");
+
+        SectionService restartedSectionService = new SectionService(new DatabaseService(SQLITE_URL, this.databaseFile.toString(), 100));
+
+        assertEquals(1, restartedSectionService.searchSections("science", 10).size());
+    }
+
+    @Test
+    void duplicateSectionsAreDroppedAcrossRestarts() {
+        String paragraph = "Mount Everest is the highest mountain above sea level, located in the Mahalangur Himal sub-range of the Himalayas on the border of Nepal and China.";
+        SectionService deduplicatingSectionService = new SectionService(this.databaseService, true);
+        deduplicatingSectionService.storeArticle(List.of(
+                section("Everest", "", paragraph),
+                section("Everest", "Name", "The mountain is called Sagarmatha in Nepali.")
+        ), revision("Everest", "rev:1"));
+
+        deduplicatingSectionService.storeArticle(List.of(
+                section("Mirror", "", paragraph.toUpperCase().replace(",", " ;")),
+                section("Mirror", "Copy", paragraph.replace("highest", "tallest")),
+                section("Mirror", "Own", "This section only exists in the mirror.")
+        ), revision("Mirror", "rev:1"));
+
+        assertEquals(3, this.count("SELECT COUNT(*) FROM wikipedia_sections"));
+        assertEquals(List.of("Own"), deduplicatingSectionService.getSectionsByArticleHeadline("Mirror").stream().map(WikipediaSection::sectionHeadline).toList());
+        assertEquals(1, deduplicatingSectionService.getExactDuplicates());
+        assertEquals(1, deduplicatingSectionService.getNearDuplicates());
+
+        SectionService restartedSectionService = new SectionService(new DatabaseService(SQLITE_URL, this.databaseFile.toString(), 100), true);
+        restartedSectionService.storeArticle(List.of(
+                section("Everest", "Name", "The mountain is called Sagarmatha in Nepali.")
+        ), revision("Everest", "rev:1"));
+
+        assertEquals(3, this.count("SELECT COUNT(*) FROM wikipedia_sections"));
+        assertEquals(3, this.count("SELECT COUNT(*) FROM wikipedia_section_fingerprints"));
+        assertEquals(1, restartedSectionService.getExactDuplicates());
+    }
+
+    @Test
+    void replacedArticleIsNotADuplicateOfItself() {
+        String paragraph = "Photosynthesis is a process used by plants and other organisms to convert light energy into chemical energy.";
+        SectionService deduplicatingSectionService = new SectionService(this.databaseService, true);
+        deduplicatingSectionService.storeArticle(List.of(section("Photosynthesis", "", paragraph)), revision("Photosynthesis", "rev:1"));
+
+        deduplicatingSectionService.replaceArticle(List.of(
+                section("Photosynthesis", "", "In plants, it takes place in the chloroplasts of the leaf cells."),
+                section("Photosynthesis", "Overview", paragraph)
+        ), revision("Photosynthesis", "rev:2"));
+
+        assertEquals(2, this.count("SELECT COUNT(*) FROM wikipedia_sections"));
+        assertEquals(2, this.count("SELECT COUNT(*) FROM wikipedia_section_fingerprints"));
+        assertEquals(0, deduplicatingSectionService.getExactDuplicates() + deduplicatingSectionService.getNearDuplicates());
+    }
+
+    @Test
+    void rolledBackSectionsCanBeStoredAgain() {
+        this.databaseService.execute("CREATE TRIGGER fail_references BEFORE INSERT ON wikipedia_section_references BEGIN SELECT RAISE(ABORT, 'rejected'); END");
+        this.sectionService.storeSections(sections("Article", 2));
+        assertEquals(0, this.count("SELECT COUNT(*) FROM wikipedia_sections"));
+
+        this.databaseService.execute("DROP TRIGGER fail_references");
+        this.sectionService.storeSections(sections("Article", 2));
+
+        assertEquals(2, this.count("SELECT COUNT(*) FROM wikipedia_sections"));
+        assertEquals(2 * 2, this.count("SELECT COUNT(*) FROM wikipedia_references"));
+    }
+
+    @Test
+    void articleRevisionsSurviveRestart() {
+        this.sectionService.storeArticle(sections("Article", 2), revision("Article", "rev:1"));
+
+        SectionService restartedSectionService = new SectionService(new DatabaseService(SQLITE_URL, this.databaseFile.toString(), 100));
+
+        assertTrue(restartedSectionService.isArticleUnchanged("Article", "rev:1"));
+        assertEquals("\"etag-Article\"", restartedSectionService.getArticleRevisionByURL("https://en.wikipedia.org/wiki/Article").eTag());
+    }
+
+    private long count(String query) {
+        return count(this.databaseService, query);
+    }
+
+    private static long count(DatabaseService databaseService, String query) {
+        return databaseService.query(query, List.of(), resultSet -> resultSet.getLong(1)).get(0);
+    }
+}
@@ -0,0 +1,128 @@
+package kit.edu.wikipediaextraction.database.section;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import kit.edu.wikipediaextraction.database.DatabaseService;
+import kit.edu.wikipediaextraction.metrics.PipelineMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static kit.edu.wikipediaextraction.benchmark.Fixtures.revision;
+import static kit.edu.wikipediaextraction.benchmark.Fixtures.sections;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SectionWriterTests {
+    private final static String SQLITE_URL = "jdbc:sqlite:";
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    @TempDir
+    Path directory;
+    private DatabaseService databaseService;
+    private SectionService sectionService;
+    private SectionWriter sectionWriter;
+
+    @BeforeEach
+    void createWriter() {
+        this.databaseService = new DatabaseService(SQLITE_URL, this.directory.resolve("writer.db").toString(), 100);
+        this.sectionService = new SectionService(this.databaseService);
+        this.sectionWriter = new SectionWriter(this.sectionService, this.databaseService, new PipelineMetrics(this.meterRegistry), 16, 50);
+    }
+
+    @AfterEach
+    void closeWriter() {
+        this.sectionWriter.close();
+        this.databaseService.close();
+    }
+
+    @Test
+    void articlesOfConcurrentProducersAreGroupCommitted() throws InterruptedException {
+        List<Thread> producers = new ArrayList<>();
+        for (int producer = 0; producer < 4; producer++) {
+            int first = producer * 50;
+            producers.add(new Thread(() -> {
+                try {
+                    for (int i = first; i < first + 50; i++) {
+                        this.sectionWriter.submit(sections("Article " + i, 2), revision("Article " + i), false);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+        for (Thread producer : producers) {
+            producer.start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        this.sectionWriter.flush();
+
+        assertEquals(0, this.sectionWriter.size());
+        assertEquals(400, this.count("SELECT COUNT(*) FROM wikipedia_sections"));
+        assertEquals(200, this.count("SELECT COUNT(*) FROM wikipedia_articles"));
+        assertTrue(this.sectionService.isArticleUnchanged("Article 199", "rev:1"));
+        long commits = this.meterRegistry.get("extraction.persist.commit").timer().count();
+        assertTrue(commits < 200, "expected group commits, got " + commits);
+    }
+
+    @Test
+    void failingArticleDoesNotDropItsGroup() throws InterruptedException {
+        this.databaseService.execute("CREATE TRIGGER reject_article BEFORE INSERT ON wikipedia_sections WHEN NEW.articleHeadline = 'Bad' BEGIN SELECT RAISE(ABORT, 'rejected'); END");
+
+        this.sectionWriter.submit(sections("Good", 2), revision("Good"), false);
+        this.sectionWriter.submit(sections("Bad", 2), revision("Bad"), false);
+        this.sectionWriter.submit(sections("Other", 1), revision("Other"), false);
+        this.sectionWriter.flush();
+
+        assertEquals(3, this.count("SELECT COUNT(*) FROM wikipedia_sections"));
+        assertEquals(3, this.count("SELECT COUNT(*) FROM wikipedia_references WHERE referenceText = '/wiki/A'"));
+        assertTrue(this.sectionService.isArticleUnchanged("Other", "rev:1"));
+        assertFalse(this.sectionService.isArticleUnchanged("Bad", "rev:1"));
+    }
+
+    @Test
+    void readersNeitherSeeNorFailTheTransactionOfTheWriter() throws InterruptedException {
+        this.databaseService.execute("CREATE TABLE pending (value INTEGER)");
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch read = new CountDownLatch(1);
+        AtomicBoolean committed = new AtomicBoolean();
+        Thread producer = new Thread(() -> {
+            try {
+                committed.set(this.sectionWriter.execute(() -> this.databaseService.runInTransaction(() -> {
+                    this.databaseService.execute("INSERT INTO pending VALUES (1)");
+                    inserted.countDown();
+                    try {
+                        read.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                })));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+        inserted.await();
+
+        // the reader sees the last commit, its failing query belongs to the read-only connection
+        assertEquals(0, this.count("SELECT COUNT(*) FROM pending"));
+        assertEquals(List.of(), this.databaseService.query("SELECT missing FROM pending", List.of(), resultSet -> resultSet.getLong(1)));
+        read.countDown();
+        producer.join();
+
+        assertTrue(committed.get());
+        assertEquals(1, this.count("SELECT COUNT(*) FROM pending"));
+    }
+
+    private long count(String query) {
+        return this.databaseService.query(query, List.of(), resultSet -> resultSet.getLong(1)).get(0);
+    }
+}
@@ -0,0 +1,123 @@
+package kit.edu.wikipediaextraction.dump;
+
+import kit.edu.wikipediaextraction.extraction.ExtractionService;
+import kit.edu.wikipediaextraction.model.WikipediaSection;
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DumpPageReaderTests {
+    private final static int NUMBER_OF_ARTICLES = 200;
+    private final static String PAGE = """
+              <page>
+                <title>%s</title>
+                <ns>%d</ns>
+                <id>%d</id>%s
+                <revision>
+                  <text bytes="1" xml:space="preserve">%s</text>
+                </revision>
+              </page>
+            """;
+    private final static String ARTICLE_TEXT = """
+            {{Short description|Test article}}
+            {{Infobox thing
+            | name = {{nested|template}}
+            }}
+            '''Article %d''' is a [[test page|test]] about [[Mount Everest]] and &lt;b&gt;things&lt;/b&gt;.&lt;ref&gt;{{cite web|url=https://example.org}}&lt;/ref&gt;
+            It continues on a second line [https://example.org an external link].
+
+            [[File:Example.jpg|thumb|A [[caption]] link]]
+            == History ==
+            The history (with brackets) of the article.
+            * a list item that is no paragraph
+
+            == References ==
+            {{reflist}}
+
+            [[Category:Test articles]]
+            [[Category:Examples|Sort key]]
+            """;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void splitsReadEveryArticleExactlyOnce() throws IOException {
+        Path dumpFile = this.writeDump(this.directory.resolve("dump.xml"), false);
+
+        List<String> sequentialTitles = readTitles(dumpFile, 1);
+        assertEquals(NUMBER_OF_ARTICLES, sequentialTitles.size());
+        for (int numberOfSplits : List.of(2, 3, 7, 64)) {
+            assertEquals(sequentialTitles, readTitles(dumpFile, numberOfSplits));
+        }
+    }
+
+    @Test
+    void readsGzipCompressedDump() throws IOException {
+        Path dumpFile = this.writeDump(this.directory.resolve("dump.xml.gz"), true);
+
+        assertEquals(1, DumpSplit.split(dumpFile, 4).size());
+        assertEquals(NUMBER_OF_ARTICLES, readTitles(dumpFile, 4).size());
+    }
+
+    @Test
+    void renderedPagesAreExtractedLikeArticlePages() throws IOException {
+        Path dumpFile = this.writeDump(this.directory.resolve("dump.xml"), false);
+        DumpPage page;
+        try (DumpPageReader reader = new DumpPageReader(dumpFile, DumpSplit.split(dumpFile, 1).get(0))) {
+            page = reader.next();
+        }
+
+        String html = WikitextRenderer.render(page);
+        List<WikipediaSection> sections = new ArrayList<>(new ExtractionService().extractSectionsFromArticle(Jsoup.parse(html)));
+
+        assertEquals(2, sections.size());
+        assertEquals("Article 0", sections.get(0).articleHeadline());
+        assertEquals("Article 0 is a test about Mount Everest and things. It continues on a second line an external link.", sections.get(0).rawArticleText());
+        assertEquals(List.of("/wiki/Test_page", "/wiki/Mount_Everest"), sections.get(0).wikipediaReferences());
+        assertEquals(List.of("Test articles", "Examples"), sections.get(0).categories());
+        assertEquals("History", sections.get(1).sectionHeadline());
+        assertEquals("The history  of the article.", sections.get(1).cleanedArticleText());
+    }
+
+    private static List<String> readTitles(Path dumpFile, int numberOfSplits) throws IOException {
+        List<String> titles = new ArrayList<>();
+        for (DumpSplit split : DumpSplit.split(dumpFile, numberOfSplits)) {
+            try (DumpPageReader reader = new DumpPageReader(dumpFile, split)) {
+                DumpPage page;
+                while ((page = reader.next()) != null) {
+                    titles.add(page.title());
+                }
+            }
+        }
+        return titles;
+    }
+
+    private Path writeDump(Path dumpFile, boolean compressed) throws IOException {
+        StringBuilder dump = new StringBuilder("<mediawiki xmlns=\"http://www.mediawiki.org/xml/export-0.10/\" xml:lang=\"en\">\n  <siteinfo>\n    <sitename>Wikipedia</sitename>\n  </siteinfo>\n");
+        int id = 0;
+        for (int i = 0; i < NUMBER_OF_ARTICLES; i++) {
+            dump.append(String.format(PAGE, "Article " + i, 0, id++, "", String.format(ARTICLE_TEXT, i)));
+            // pages that have to be skipped
+            dump.append(String.format(PAGE, "Redirect " + i, 0, id++, "\n    <redirect title=\"Article " + i + "\" />", "#REDIRECT [[Article " + i + "]]"));
+            dump.append(String.format(PAGE, "Wikipedia:Project " + i, 4, id++, "", "Project page"));
+        }
+        dump.append("</mediawiki>\n");
+
+        try (OutputStream outputStream = compressed ? new GZIPOutputStream(Files.newOutputStream(dumpFile)) : Files.newOutputStream(dumpFile)) {
+            outputStream.write(dump.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        return dumpFile;
+    }
+}
@@ -0,0 +1,61 @@
+package kit.edu.wikipediaextraction.export;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.dictionary.DictionaryEncoder;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads an exported file with the stream reader of Arrow Java and writes every row as a line of tab separated values.
+ * Arrow Java needs access to java.nio, so the tests run it in a JVM started with
+ * {@link #JVM_OPTIONS}. Arguments: exported file and output file.
+ */
+class ArrowStreamReaderProcess {
+    final static List<String> JVM_OPTIONS = List.of("--add-opens=java.base/java.nio=ALL-UNNAMED");
+
+    public static void main(String[] arguments) throws IOException {
+        try (InputStream input = Files.newInputStream(Path.of(arguments[0]));
+             BufferAllocator allocator = new RootAllocator();
+             ArrowStreamReader reader = new ArrowStreamReader(input, allocator);
+             PrintWriter output = new PrintWriter(Files.newBufferedWriter(Path.of(arguments[1]), StandardCharsets.UTF_8))) {
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            while (reader.loadNextBatch()) {
+                List<ValueVector> columns = new ArrayList<>();
+                for (FieldVector vector : root.getFieldVectors()) {
+                    if (vector.getField().getDictionary() == null) {
+                        columns.add(vector);
+                    } else {
+                        long id = vector.getField().getDictionary().getId();
+                        columns.add(DictionaryEncoder.decode(vector, reader.getDictionaryVectors().get(id)));
+                    }
+                }
+
+                for (int row = 0; row < root.getRowCount(); row++) {
+                    List<String> values = new ArrayList<>();
+                    for (ValueVector column : columns) {
+                        values.add(String.valueOf(column.getObject(row)));
+                    }
+                    output.println(String.join("\t", values));
+                }
+                // decoded dictionary columns are owned by this process
+                for (ValueVector column : columns) {
+                    if (!root.getFieldVectors().contains(column)) {
+                        column.close();
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package kit.edu.wikipediaextraction.export;
+
+import kit.edu.wikipediaextraction.database.DatabaseService;
+import kit.edu.wikipediaextraction.database.section.SectionService;
+import kit.edu.wikipediaextraction.model.SectionBatch;
+import kit.edu.wikipediaextraction.model.SectionView;
+import kit.edu.wikipediaextraction.model.WikipediaSection;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import static kit.edu.wikipediaextraction.benchmark.Fixtures.sections;
+import static kit.edu.wikipediaextraction.benchmark.Fixtures.startJavaProcess;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SectionExportServiceTests {
+    private final static String SQLITE_URL = "jdbc:sqlite:";
+    @TempDir
+    Path directory;
+
+    @Test
+    void exportedSectionsCanBeReadBack() throws IOException {
+        DatabaseService databaseService = new DatabaseService(SQLITE_URL, this.directory.resolve("export.db").toString(), 100);
+        SectionService sectionService = new SectionService(databaseService);
+        for (int article = 0; article < 3; article++) {
+            sectionService.storeSections(sections("Article " + article, 5, "Text über"));
+        }
+        Path directory = this.directory.resolve("export");
+
+        new SectionExportService(databaseService, 4).export(directory);
+
+        List<Object[]> sections = readAll(directory.resolve(SectionExportService.SECTIONS_FILE));
+        assertEquals(15, sections.size());
+        assertEquals("Article 1", sections.get(5)[2]);
+        assertEquals("Section 2", sections.get(7)[5]);
+        assertEquals(true, sections.get(10)[6]);
+        assertEquals(false, sections.get(11)[6]);
+        assertEquals("Text über 3", sections.get(13)[4]);
+        assertEquals(30, readAll(directory.resolve(SectionExportService.REFERENCES_FILE)).size());
+        assertEquals(3, readAll(directory.resolve(SectionExportService.CATEGORIES_FILE)).size());
+    }
+
+    @Test
+    void sectionViewBytesAreWrittenWithoutDecoding() throws IOException {
+        Path file = this.directory.resolve("sections.arrows");
+        ExecutorService encoders = Executors.newFixedThreadPool(2);
+        List<Column> columns = List.of(Column.string("cleanedArticleText"), Column.dictionary("sectionHeadline"));
+        SectionBatch batch = new SectionBatch();
+
+        try (ColumnarFileWriter writer = new ColumnarFileWriter(file, columns, 4, 1, encoders)) {
+            for (int article = 0; article < 3; article++) {
+                batch.addArticle(sections("Article " + article, 5, "Text über"));
+            }
+            List<Object[]> rows = new ArrayList<>();
+            for (int i = 0; i < batch.size(); i++) {
+                SectionView section = batch.getSection(i);
+                rows.add(new Object[]{section.cleanedArticleText(), section.sectionHeadline()});
+            }
+            writer.writeRowGroup(rows, batch);
+        } finally {
+            encoders.shutdown();
+        }
+
+        // the batch is closed once its row group is encoded
+        assertThrows(IllegalStateException.class, () -> batch.getSection(0));
+        List<Object[]> sections = readAll(file);
+        assertEquals(15, sections.size());
+        assertEquals("Text über 3", sections.get(13)[0]);
+        assertEquals("Section 2", sections.get(7)[1]);
+        assertEquals("", sections.get(10)[1]);
+    }
+
+    @Test
+    void sectionRowGroupsEndAfterAnArticle() throws IOException {
+        Path file = this.directory.resolve("sections.arrows");
+        ExecutorService encoders = Executors.newFixedThreadPool(2);
+        List<Column> columns = List.of(
+                Column.string("sectionID"),
+                Column.string("articleID"),
+                Column.dictionary("articleHeadline"),
+                Column.string("rawArticleText"),
+                Column.string("cleanedArticleText"),
+                Column.dictionary("sectionHeadline"),
+                Column.bool("isFirstSection")
+        );
+
+        try (ColumnarFileWriter writer = new ColumnarFileWriter(file, columns, 4, 1, encoders);
+             SectionRowGroupBuilder rowGroups = new SectionRowGroupBuilder(writer, 4)) {
+            for (int article = 0; article < 3; article++) {
+                for (WikipediaSection section : sections("Article " + article, 3, "Text")) {
+                    rowGroups.add(section);
+                }
+            }
+            rowGroups.finish();
+        } finally {
+            encoders.shutdown();
+        }
+
+        try (ColumnarFileReader reader = new ColumnarFileReader(file)) {
+            assertEquals(9, reader.getRowCount());
+            // the first row group ends after the second article, the second one holds the rest
+            assertEquals(2, reader.getRowGroupCount());
+            assertEquals(6, reader.readRowGroup(0).size());
+        }
+        Object[] section = readAll(file).get(4);
+        assertEquals("Article 1", section[2]);
+        assertEquals("Text 1 [1]", section[3]);
+        assertEquals("Text 1", section[4]);
+        assertEquals("Section 1", section[5]);
+        assertEquals(false, section[6]);
+    }
+
+    @Test
+    void nullsAndEmptyRowGroupsAreKept() throws IOException {
+        Path file = this.directory.resolve("columns.arrows");
+        ExecutorService encoders = Executors.newFixedThreadPool(2);
+        List<Column> columns = List.of(Column.string("text"), Column.dictionary("headline"), Column.bool("flag"));
+
+        try (ColumnarFileWriter writer = new ColumnarFileWriter(file, columns, 2, 1, encoders)) {
+            writer.write("a", null, true);
+            writer.write(null, "h", false);
+            writer.write("", "h", true);
+        } finally {
+            encoders.shutdown();
+        }
+
+        try (ColumnarFileReader reader = new ColumnarFileReader(file)) {
+            assertEquals(columns, reader.getColumns());
+            assertEquals(3, reader.getRowCount());
+            assertEquals(2, reader.getRowGroupCount());
+        }
+        List<Object[]> rows = readAll(file);
+        assertArrayEquals(new Object[]{"a", null, true}, rows.get(0));
+        assertArrayEquals(new Object[]{null, "h", false}, rows.get(1));
+        assertArrayEquals(new Object[]{"", "h", true}, rows.get(2));
+    }
+
+    @Test
+    void arrowReadsTheExportedFiles() throws IOException, InterruptedException {
+        Path directory = this.directory.resolve("export");
+        try (DatabaseService databaseService = new DatabaseService(SQLITE_URL, this.directory.resolve("export.db").toString(), 100)) {
+            SectionService sectionService = new SectionService(databaseService);
+            for (int article = 0; article < 3; article++) {
+                sectionService.storeSections(sections("Article " + article, 5, "Text über"));
+            }
+            new SectionExportService(databaseService, 4).export(directory);
+        }
+
+        Path nulls = this.directory.resolve("nulls.arrows");
+        Path empty = this.directory.resolve("empty.arrows");
+        ExecutorService encoders = Executors.newFixedThreadPool(2);
+        List<Column> columns = List.of(Column.string("text"), Column.dictionary("headline"), Column.bool("flag"));
+        try (ColumnarFileWriter writer = new ColumnarFileWriter(nulls, columns, 2, 1, encoders);
+             ColumnarFileWriter ignored = new ColumnarFileWriter(empty, columns, 2, 1, encoders)) {
+            writer.write("a", null, true);
+            writer.write(null, "h", false);
+            writer.write("", "h", true);
+        } finally {
+            encoders.shutdown();
+        }
+
+        for (Path file : List.of(
+                directory.resolve(SectionExportService.SECTIONS_FILE),
+                directory.resolve(SectionExportService.REFERENCES_FILE),
+                directory.resolve(SectionExportService.CATEGORIES_FILE),
+                nulls,
+                empty
+        )) {
+            Path rows = this.directory.resolve(file.getFileName() + ".tsv");
+            Process reader = startJavaProcess(ArrowStreamReaderProcess.class, ArrowStreamReaderProcess.JVM_OPTIONS, this.directory, file.toString(), rows.toString());
+            assertEquals(0, reader.waitFor());
+
+            List<String> expectedRows = readAll(file).stream()
+                    .map(row -> Arrays.stream(row).map(String::valueOf).collect(Collectors.joining("\t")))
+                    .toList();
+            assertFalse(file != empty && expectedRows.isEmpty());
+            assertEquals(expectedRows, Files.readAllLines(rows));
+        }
+    }
+
+    private static List<Object[]> readAll(Path file) throws IOException {
+        List<Object[]> rows = new ArrayList<>();
+        try (ColumnarFileReader reader = new ColumnarFileReader(file)) {
+            for (int i = 0; i < reader.getRowGroupCount(); i++) {
+                rows.addAll(reader.readRowGroup(i));
+            }
+        }
+        return rows;
+    }
+}
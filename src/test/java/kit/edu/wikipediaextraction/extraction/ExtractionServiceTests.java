@@ -0,0 +1,173 @@
+package kit.edu.wikipediaextraction.extraction;
+
+import kit.edu.wikipediaextraction.model.WikipediaSection;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExtractionServiceTests {
+    private final static String FIXTURES_DIRECTORY = "/fixtures";
+    private final static int NUMBER_OF_COPIES = 50;
+    private final static String EDGE_CASE_ARTICLE = """
+            <!DOCTYPE html>
+            <HTML><head><title>  Edge   cases &amp; more - Wikipedia</title>
+            <script>var title = "<title>Wrong</title>";</script></head>
+            <body><div id=mw-content-text><div class="mw-parser-output">
+            <p CLASS="lead">First<br>line&nbsp;&nbsp;two <!-- hidden --> words<b>bold</b><i> italic </i>
+            <a href='/wiki/Link?a=1&amp;b=2'>link</a><a href="https://example.org">external</a>
+            <span>inline<div>block</div>after</span>
+            <p>Implicitly closed<ul><li>item one</li><li>item two</li></ul>
+            </p>
+            <p class="mw-empty-elt"></p>
+            <h2 id="plain">Heading without headline element</h2>
+            <p>Still in the lead</p>
+            <h2 id="x"><span class="MW-Headline">Second &ndash; part</span></h2>
+            <p>Text with <style>p { color: red }</style>style and <img src="x.png"/>image.<sup>[1]</sup></p>
+            <div><p>Nested paragraph is not a section</p></div>
+            <h2><span class="mw-headline">References</span></h2>
+            <p>After references</p>
+            </div></div>
+            <div id="mw-normal-catlinks"><a href="/wiki/Help:Category">Categories</a>: <ul><li><a>One &amp; only</a></li><li><a>Two</a></li></ul></div>
+            </body></HTML>
+            """;
+    private final ExtractionService extractionService = new ExtractionService();
+
+    @Test
+    void extractsSectionsUpToReferences() throws IOException, URISyntaxException {
+        Document doc = Jsoup.parse(fixture("Photosynthesis.html"), "UTF-8");
+        List<WikipediaSection> sections = new ArrayList<>(this.extractionService.extractSectionsFromArticle(doc));
+
+        assertEquals(6, sections.size());
+        assertEquals("Photosynthesis", sections.get(0).articleHeadline());
+        assertTrue(sections.get(0).isFirstSection());
+        assertEquals("History", sections.get(5).sectionHeadline());
+        assertFalse(sections.get(5).isFirstSection());
+        assertEquals(List.of("/wiki/Plant", "/wiki/Light", "/wiki/Chemical_energy"), sections.get(0).wikipediaReferences());
+        assertEquals(List.of("Photosynthesis", "Plant physiology", "Biological processes"), sections.get(0).categories());
+    }
+
+    @Test
+    void parallelExtractionMatchesSequentialExtraction() throws IOException, URISyntaxException {
+        List<Document> docs = new ArrayList<>();
+        for (int i = 0; i < NUMBER_OF_COPIES; i++) {
+            for (String name : List.of("Photosynthesis.html", "Mount_Everest.html", "Ada_Lovelace.html")) {
+                docs.add(Jsoup.parse(fixture(name), "UTF-8"));
+            }
+        }
+
+        List<WikipediaSection> sequential = new ArrayList<>(this.extractionService.extractSectionsFromArticles(docs));
+        List<WikipediaSection> parallel = new ArrayList<>(this.extractionService.extractSectionsFromArticlesInParallel(docs));
+
+        assertEquals(sequential.size(), parallel.size());
+        for (int i = 0; i < sequential.size(); i++) {
+            // IDs are random, everything else has to be identical
+            assertEquals(withoutIDs(sequential.get(i)), withoutIDs(parallel.get(i)));
+        }
+
+        // the sections of each article stay together
+        int numberOfArticles = 1;
+        for (int i = 1; i < parallel.size(); i++) {
+            if (!parallel.get(i).articleID().equals(parallel.get(i - 1).articleID())) {
+                numberOfArticles++;
+            }
+        }
+        assertEquals(docs.size(), numberOfArticles);
+    }
+
+    @Test
+    void extractionOnAPoolMatchesSequentialExtraction() throws IOException, URISyntaxException {
+        List<Document> docs = new ArrayList<>();
+        for (int i = 0; i < NUMBER_OF_COPIES; i++) {
+            docs.add(Jsoup.parse(fixture("Mount_Everest.html"), "UTF-8"));
+        }
+        ForkJoinPool pool = new ForkJoinPool(3);
+
+        try {
+            List<WikipediaSection> sequential = new ArrayList<>(this.extractionService.extractSectionsFromArticles(docs));
+            List<WikipediaSection> pooled = new ArrayList<>(this.extractionService.extractSectionsFromArticlesInParallel(docs, pool));
+
+            assertEquals(sequential.stream().map(ExtractionServiceTests::withoutIDs).toList(), pooled.stream().map(ExtractionServiceTests::withoutIDs).toList());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void streamingExtractionMatchesDocumentExtraction() throws IOException, URISyntaxException {
+        for (String name : List.of("Photosynthesis.html", "Mount_Everest.html", "Ada_Lovelace.html")) {
+            String html = Files.readString(fixture(name).toPath());
+            assertSameSections(html);
+            assertEquals(
+                    this.extractionService.extractArticleHeadline(Jsoup.parse(html)),
+                    this.extractionService.extractArticleHeadline(html)
+            );
+        }
+    }
+
+    @Test
+    void streamingExtractionMatchesDocumentExtractionOnMarkupEdgeCases() {
+        List<WikipediaSection> sections = assertSameSections(EDGE_CASE_ARTICLE);
+
+        assertEquals("Edge   cases & more", sections.get(0).articleHeadline());
+        assertEquals("Second \u2013 part", sections.get(sections.size() - 1).sectionHeadline());
+        assertEquals(List.of("One & only", "Two"), sections.get(0).categories());
+        assertTrue(sections.stream().anyMatch(section -> section.rawArticleText().equals("Still in the lead") && section.isFirstSection()));
+    }
+
+    @Test
+    void streamingExtractionReadsTheHtmlInSmallParts() throws IOException, URISyntaxException {
+        String html = Files.readString(fixture("Mount_Everest.html").toPath());
+        List<WikipediaSection> expected = new ArrayList<>(this.extractionService.extractSectionsFromArticle(Jsoup.parse(html)));
+
+        // the reader returns at most 7 characters per read, so tokens span several reads
+        Reader reader = new StringReader(html) {
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                return super.read(buffer, offset, Math.min(length, 7));
+            }
+        };
+        List<WikipediaSection> actual = new ArrayList<>(this.extractionService.extractSectionsFromHtml(reader));
+
+        assertEquals(expected.stream().map(ExtractionServiceTests::withoutIDs).toList(), actual.stream().map(ExtractionServiceTests::withoutIDs).toList());
+    }
+
+    private List<WikipediaSection> assertSameSections(String html) {
+        List<WikipediaSection> expected = new ArrayList<>(this.extractionService.extractSectionsFromArticle(Jsoup.parse(html)));
+        List<WikipediaSection> actual = new ArrayList<>(this.extractionService.extractSectionsFromHtml(html));
+
+        assertFalse(expected.isEmpty());
+        assertEquals(expected.stream().map(ExtractionServiceTests::withoutIDs).toList(), actual.stream().map(ExtractionServiceTests::withoutIDs).toList());
+        return actual;
+    }
+
+    private static WikipediaSection withoutIDs(WikipediaSection section) {
+        return new WikipediaSection(
+                null,
+                section.articleHeadline(),
+                null,
+                section.rawArticleText(),
+                section.cleanedArticleText(),
+                section.sectionHeadline(),
+                section.isFirstSection(),
+                List.copyOf(section.wikipediaReferences()),
+                List.copyOf(section.categories())
+        );
+    }
+
+    static File fixture(String name) throws URISyntaxException {
+        return new File(Objects.requireNonNull(ExtractionServiceTests.class.getResource(FIXTURES_DIRECTORY + "/" + name)).toURI());
+    }
+}
@@ -0,0 +1,64 @@
+package kit.edu.wikipediaextraction.extraction;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TextCleanerTests {
+    private final static int NUMBER_OF_RANDOM_TEXTS = 100_000;
+    private final static int MAX_RANDOM_TEXT_LENGTH = 64;
+    private final static String ALPHABET = "aZ09 .,-!?\t\n\u000B\f\r()[]{}<>'\"_/:;&#\u00E9\u00DF\u00F1\u20AC\u00A5\u00A0\u2013\u2014\u0938\uD83D\uDE00";
+
+    @Test
+    void matchesRegexImplementationOnRandomTexts() {
+        Random random = new Random(42);
+
+        for (int i = 0; i < NUMBER_OF_RANDOM_TEXTS; i++) {
+            StringBuilder text = new StringBuilder();
+            int length = random.nextInt(MAX_RANDOM_TEXT_LENGTH);
+            for (int j = 0; j < length; j++) {
+                text.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+
+            assertEquals(legacyClean(text.toString()), TextCleaner.clean(text.toString()), text.toString());
+        }
+    }
+
+    @Test
+    void matchesRegexImplementationOnFixtureParagraphs() throws IOException, URISyntaxException {
+        for (String name : List.of("Photosynthesis.html", "Mount_Everest.html", "Ada_Lovelace.html")) {
+            for (Element paragraph : Jsoup.parse(ExtractionServiceTests.fixture(name), "UTF-8").select("p")) {
+                String text = paragraph.text();
+                assertEquals(legacyClean(text), TextCleaner.clean(text), text);
+            }
+        }
+    }
+
+    /**
+     * Cleaning as implemented before the single-pass cleaner
+     */
+    private static String legacyClean(String text) {
+        StringBuilder result = new StringBuilder();
+        int bracketLevel = 0;
+
+        for (char c : text.toCharArray()) {
+            if (c == '(' || c == '[') {
+                bracketLevel++;
+            } else if (c == ')' || c == ']') {
+                bracketLevel--;
+            } else if (bracketLevel == 0) {
+                result.append(c);
+            }
+        }
+
+        return Pattern.compile("[^a-zA-Z0-9.,\\-!\\?\\s]").matcher(result.toString()).replaceAll("");
+    }
+}
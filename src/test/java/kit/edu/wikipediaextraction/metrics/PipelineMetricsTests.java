@@ -0,0 +1,75 @@
+package kit.edu.wikipediaextraction.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PipelineMetricsTests {
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PipelineMetrics pipelineMetrics = new PipelineMetrics(this.meterRegistry);
+
+    @Test
+    void insertBatchesAreRecordedPerTable() {
+        this.pipelineMetrics.recordInsertBatch("sections", TimeUnit.MILLISECONDS.toNanos(20), 500);
+        this.pipelineMetrics.recordInsertBatch("sections", TimeUnit.MILLISECONDS.toNanos(30), 500);
+
+        assertEquals(2, this.meterRegistry.get("extraction.insert.batch").tag("table", "sections").timer().count());
+        assertEquals(1000, this.meterRegistry.get("extraction.insert.rows").tag("table", "sections").counter().count());
+        assertTrue(this.pipelineMetrics.getSummary().contains("1000 rows, 20000 rows/s"));
+    }
+
+    @Test
+    void queueDepthFollowsTheLatestQueueOfAStage() {
+        AtomicInteger firstQueue = new AtomicInteger(3);
+        AtomicInteger secondQueue = new AtomicInteger(7);
+
+        this.pipelineMetrics.registerQueue("parse", firstQueue::get);
+        assertEquals(3, this.meterRegistry.get("extraction.queue.depth").tag("stage", "parse").gauge().value());
+
+        this.pipelineMetrics.registerQueue("parse", secondQueue::get);
+        assertEquals(7, this.meterRegistry.get("extraction.queue.depth").tag("stage", "parse").gauge().value());
+    }
+
+    @Test
+    void stageFailuresAreCountedWithTheirLastMessage() {
+        this.pipelineMetrics.recordStageFailure("fetch", "HTTP 404 for A");
+        this.pipelineMetrics.recordStageFailure("fetch", "HTTP 500 for B");
+
+        assertEquals(2, this.meterRegistry.get("extraction.stage.failures").tag("stage", "fetch").counter().count());
+        assertTrue(this.pipelineMetrics.getSummary().contains("fetch failures: 2, last: HTTP 500 for B"));
+    }
+
+    @Test
+    void shardProgressIsSummarized() {
+        this.pipelineMetrics.recordPlannedWorkItems(40);
+        this.pipelineMetrics.recordPartition(true);
+        this.pipelineMetrics.recordPartition(true);
+        this.pipelineMetrics.recordPartition(false);
+        this.pipelineMetrics.recordMergedArticles(12);
+
+        assertEquals(2, this.meterRegistry.get("extraction.shard.partitions").tag("outcome", "completed").counter().count());
+        assertTrue(this.pipelineMetrics.getSummary().contains("shard: 40 work items planned, 2 partitions completed, 1 leases expired, 12 articles merged"));
+    }
+
+    @Test
+    void exportsAreSummarized() {
+        this.pipelineMetrics.recordExport(TimeUnit.MILLISECONDS.toNanos(40), 100, 250, 30);
+
+        assertEquals(250, this.meterRegistry.get("extraction.export.rows").tag("table", "references").counter().count());
+        assertTrue(this.pipelineMetrics.getSummary().contains("100 sections, 250 references, 30 categories"));
+    }
+
+    @Test
+    void sectionsPerArticleAreSummarized() {
+        this.pipelineMetrics.recordExtraction(1000, 4);
+        this.pipelineMetrics.recordExtraction(1000, 8);
+
+        assertEquals(6, this.meterRegistry.get("extraction.sections.per.article").summary().mean());
+        assertTrue(this.pipelineMetrics.getSummary().contains("sections per article: mean 6.0, max 8"));
+    }
+}
@@ -0,0 +1,102 @@
+package kit.edu.wikipediaextraction.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static kit.edu.wikipediaextraction.benchmark.Fixtures.sections;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SectionBatchTests {
+
+    @Test
+    void sectionsAreReadBackUnchanged() {
+        List<WikipediaSection> physics = sections("Physics", 3, "Text über Physik");
+        List<WikipediaSection> chemistry = sections("Chemistry", 2, "Text of chemistry");
+
+        try (SectionBatch batch = new SectionBatch()) {
+            batch.addArticle(physics);
+            batch.addArticle(chemistry);
+
+            assertEquals(5, batch.size());
+            assertEquals(2, batch.getNumberOfArticles());
+            assertEquals(physics, batch.getArticleSections(0));
+            assertEquals(chemistry, batch.getArticleSections(1));
+            assertEquals(chemistry.get(1), batch.getSection(4).toWikipediaSection());
+        }
+    }
+
+    @Test
+    void textsAreOffHeapViewsAndArticleMetadataIsShared() {
+        List<WikipediaSection> physics = sections("Physics", 2, "Text über Physik");
+
+        try (SectionBatch batch = new SectionBatch()) {
+            batch.addArticle(physics);
+            SectionView first = batch.getSection(0);
+            SectionView second = batch.getSection(1);
+
+            ByteBuffer cleanedText = first.cleanedArticleText();
+            assertTrue(cleanedText.isDirect());
+            assertTrue(cleanedText.isReadOnly());
+            assertEquals("Text über Physik 0", StandardCharsets.UTF_8.decode(cleanedText).toString());
+            assertSame(first.articleHeadline(), second.articleHeadline());
+            assertSame(physics.get(0).categories(), second.categories());
+        }
+    }
+
+    @Test
+    void missingTextsAndReferencesStayMissing() {
+        WikipediaSection section = sections("Physics", 1).get(0);
+        WikipediaSection introduction = new WikipediaSection(section.articleID(), section.articleHeadline(), section.sectionID(), null, section.cleanedArticleText(), "", true, null, section.categories());
+
+        try (SectionBatch batch = new SectionBatch()) {
+            batch.addArticle(List.of(introduction));
+
+            assertNull(batch.getSection(0).rawArticleText());
+            assertNull(batch.getSection(0).wikipediaReferences());
+            assertEquals(introduction, batch.getArticleSections(0).get(0));
+        }
+    }
+
+    @Test
+    void sectionsLargerThanAChunkAreStored() {
+        String text = "x".repeat(3 << 20);
+        List<WikipediaSection> article = sections("Large", 1, text);
+
+        try (SectionBatch batch = new SectionBatch()) {
+            batch.addArticle(sections("Small", 1, "small"));
+            batch.addArticle(article);
+            batch.addArticle(sections("Other", 1, "other"));
+
+            assertEquals(article, batch.getArticleSections(1));
+            assertEquals("other 0", batch.getArticleSections(2).get(0).cleanedArticleText());
+        }
+    }
+
+    @Test
+    void textsAreEncodedLikeStrings() {
+        String text = "a ü € \uD83D\uDE00 \uD800 end";
+        List<WikipediaSection> article = sections("Unicode", 2, text);
+
+        try (SectionBatch batch = new SectionBatch()) {
+            batch.addArticle(article);
+
+            ByteBuffer rawText = batch.getSection(1).rawArticleText();
+            byte[] bytes = new byte[rawText.remaining()];
+            rawText.get(bytes);
+            assertArrayEquals(article.get(1).rawArticleText().getBytes(StandardCharsets.UTF_8), bytes);
+            assertEquals(new String(bytes, StandardCharsets.UTF_8), batch.getArticleSections(0).get(1).rawArticleText());
+        }
+    }
+
+    @Test
+    void closedBatchCannotBeRead() {
+        SectionBatch batch = new SectionBatch();
+        batch.addArticle(sections("Physics", 1, "text"));
+        batch.close();
+
+        assertThrows(IllegalStateException.class, () -> batch.getSection(0));
+    }
+}
@@ -0,0 +1,87 @@
+package kit.edu.wikipediaextraction.pipeline;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PipelineStageTests {
+    private final static long TIMEOUT_MILLIS = 5000;
+
+    @Test
+    void failedItemsAreDroppedAndTheStageContinues() throws InterruptedException {
+        StageQueue<Integer> input = new StageQueue<>(8, 1);
+        StageQueue<Integer> output = new StageQueue<>(8, 1);
+        PipelineStage<Integer, Integer> stage = new PipelineStage<>("double", 1, input, output, item -> {
+            if (item == 2) {
+                throw new IllegalStateException("cannot process " + item);
+            }
+            return item * 2;
+        });
+
+        stage.start();
+        for (int item = 1; item <= 3; item++) {
+            input.put(item);
+        }
+        input.close();
+
+        assertEquals(List.of(2, 6), drain(output));
+        stage.join();
+    }
+
+    @Test
+    void outputIsClosedWhenTheFunctionThrowsAnError() throws InterruptedException {
+        StageQueue<Integer> input = new StageQueue<>(8, 1);
+        StageQueue<Integer> output = new StageQueue<>(8, 2);
+        PipelineStage<Integer, Integer> stage = new PipelineStage<>("failing", 2, input, output, item -> {
+            throw new AssertionError("worker failed on " + item);
+        });
+
+        stage.start();
+        input.put(1);
+        input.put(2);
+        input.close();
+
+        // both workers end with the error, the consumer of the output still sees the end of the stream
+        assertEquals(List.of(), drain(output));
+        stage.join();
+    }
+
+    @Test
+    void outputIsClosedWhenAWorkerIsInterrupted() throws InterruptedException {
+        StageQueue<Integer> input = new StageQueue<>(8, 1);
+        StageQueue<Integer> output = new StageQueue<>(8, 1);
+        PipelineStage<Integer, Integer> stage = new PipelineStage<>("interrupted", 1, input, output, item -> item);
+        stage.start();
+        Thread worker = Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("interrupted-0"))
+                .findFirst()
+                .orElseThrow();
+        StageQueueTests.awaitWaiting(worker);
+        // the worker is waiting for input and is interrupted before the input is closed
+        worker.interrupt();
+
+        assertEquals(List.of(), drain(output));
+        stage.join();
+    }
+
+    private static List<Integer> drain(StageQueue<Integer> queue) throws InterruptedException {
+        List<Integer> items = new ArrayList<>();
+        Thread consumer = new Thread(() -> {
+            try {
+                Integer item;
+                while ((item = queue.take()) != null) {
+                    items.add(item);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        consumer.start();
+        consumer.join(TIMEOUT_MILLIS);
+        assertFalse(consumer.isAlive(), "end of stream was not reached");
+        return items;
+    }
+}
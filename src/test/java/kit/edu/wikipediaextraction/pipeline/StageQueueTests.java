@@ -0,0 +1,99 @@
+package kit.edu.wikipediaextraction.pipeline;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StageQueueTests {
+    private final static long TIMEOUT_MILLIS = 5000;
+
+    @Test
+    void producerBlocksWhileTheQueueIsFull() throws InterruptedException {
+        StageQueue<Integer> queue = new StageQueue<>(2, 1);
+        queue.put(1);
+        queue.put(2);
+
+        Thread producer = new Thread(() -> {
+            try {
+                queue.put(3);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+        awaitWaiting(producer);
+        assertEquals(2, queue.size());
+
+        // taking an item makes room for the blocked producer
+        assertEquals(1, queue.take());
+        producer.join(TIMEOUT_MILLIS);
+        assertFalse(producer.isAlive());
+        assertEquals(2, queue.take());
+        assertEquals(3, queue.take());
+    }
+
+    @Test
+    void endOfStreamFollowsTheCloseOfEveryProducer() throws InterruptedException {
+        StageQueue<String> queue = new StageQueue<>(4, 2);
+        List<String> taken = new CopyOnWriteArrayList<>();
+        Thread consumer = new Thread(() -> {
+            try {
+                String item;
+                while ((item = queue.take()) != null) {
+                    taken.add(item);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        consumer.start();
+
+        queue.put("first");
+        queue.close();
+        queue.put("second");
+        awaitWaiting(consumer);
+        // one producer is still open, so the consumer waits for more items
+        assertTrue(consumer.isAlive());
+        assertEquals(List.of("first", "second"), taken);
+
+        queue.close();
+        consumer.join(TIMEOUT_MILLIS);
+        assertFalse(consumer.isAlive());
+        assertEquals(List.of("first", "second"), taken);
+    }
+
+    @Test
+    void everyConsumerReceivesTheEndOfStream() throws InterruptedException {
+        StageQueue<String> queue = new StageQueue<>(1, 1);
+        List<Thread> consumers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Thread consumer = new Thread(() -> {
+                try {
+                    assertNull(queue.take());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            consumer.start();
+            consumers.add(consumer);
+        }
+
+        queue.close();
+        for (Thread consumer : consumers) {
+            consumer.join(TIMEOUT_MILLIS);
+            assertFalse(consumer.isAlive());
+        }
+    }
+
+    static void awaitWaiting(Thread thread) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (thread.getState() != Thread.State.WAITING) {
+            assertTrue(System.currentTimeMillis() < deadline, thread.getName() + " does not wait");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package kit.edu.wikipediaextraction.scraper;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentArticleFetcherTests {
+    private final static int NUMBER_OF_ARTICLES = 32;
+    private final static int LATENCY_MILLIS = 100;
+    private final static String FIXTURE_PAGE = "<html><head><title>%s - Wikipedia</title></head><body></body></html>";
+    private final static int MAX_IN_FLIGHT = 8;
+    private final AtomicInteger requestsInFlight = new AtomicInteger();
+    private final AtomicInteger peakRequestsInFlight = new AtomicInteger();
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private String baseURL;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.server.createContext("/wiki/", exchange -> {
+            this.peakRequestsInFlight.accumulateAndGet(this.requestsInFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(LATENCY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                this.requestsInFlight.decrementAndGet();
+            }
+            String title = exchange.getRequestURI().getPath().substring("/wiki/".length());
+            byte[] body = String.format(FIXTURE_PAGE, title).getBytes(StandardCharsets.UTF_8);
+            int status = title.startsWith("Missing") ? 404 : 200;
+
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        });
+        this.serverExecutor = Executors.newCachedThreadPool();
+        this.server.setExecutor(this.serverExecutor);
+        this.server.start();
+        this.baseURL = "http://127.0.0.1:" + this.server.getAddress().getPort() + "/wiki/";
+    }
+
+    @AfterEach
+    void stopServer() {
+        this.server.stop(0);
+        this.serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void resultsKeepOrderAndReportFailuresPerURL() {
+        List<String> urls = List.of(this.baseURL + "First", this.baseURL + "Missing", this.baseURL + "Third");
+        ConcurrentArticleFetcher fetcher = new ConcurrentArticleFetcher(new PageFetcher(5000), 4);
+
+        List<ArticleFetchResult> results = fetcher.fetchAll(urls);
+
+        assertEquals(urls.size(), results.size());
+        for (int i = 0; i < urls.size(); i++) {
+            assertEquals(urls.get(i), results.get(i).url());
+        }
+        assertEquals("First - Wikipedia", results.get(0).document().title());
+        assertFalse(results.get(1).isSuccessful());
+        assertNotNull(results.get(1).errorMessage());
+        assertEquals("Third - Wikipedia", results.get(2).document().title());
+    }
+
+    @Test
+    void requestsOverlapUpToTheInFlightLimit() {
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < NUMBER_OF_ARTICLES; i++) {
+            urls.add(this.baseURL + "Article_" + i);
+        }
+        ConcurrentArticleFetcher fetcher = new ConcurrentArticleFetcher(new PageFetcher(5000), MAX_IN_FLIGHT);
+
+        List<ArticleFetchResult> results = fetcher.fetchAll(urls);
+
+        assertTrue(results.stream().allMatch(ArticleFetchResult::isSuccessful));
+        // the server holds every request for a while, so concurrent requests overlap
+        int peak = this.peakRequestsInFlight.get();
+        assertTrue(peak > 1 && peak <= MAX_IN_FLIGHT, "peak of " + peak + " requests in flight");
+    }
+
+    @Test
+    void singleRequestInFlightFetchesSequentially() {
+        List<String> urls = List.of(this.baseURL + "First", this.baseURL + "Second", this.baseURL + "Third");
+        ConcurrentArticleFetcher fetcher = new ConcurrentArticleFetcher(new PageFetcher(5000), 1);
+
+        assertTrue(fetcher.fetchAll(urls).stream().allMatch(ArticleFetchResult::isSuccessful));
+        assertEquals(1, this.peakRequestsInFlight.get());
+    }
+
+    @Test
+    void hostRateLimitSpacesOutRequests() {
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            urls.add(this.baseURL + "Limited_" + i);
+        }
+        PageFetcher pageFetcher = new PageFetcher(5000, 5000, RetryPolicy.NONE, null, new HostRateLimiter(50));
+        ConcurrentArticleFetcher fetcher = new ConcurrentArticleFetcher(pageFetcher, 16);
+
+        long start = System.nanoTime();
+        fetcher.fetchAll(urls);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // 10 requests at 50 per second need at least 9 intervals of 20 ms
+        assertTrue(elapsedMillis >= 180, "elapsed " + elapsedMillis + " ms");
+    }
+}
@@ -0,0 +1,51 @@
+package kit.edu.wikipediaextraction.scraper;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentURLSetTests {
+    private final static int NUMBER_OF_THREADS = 8;
+    private final static int NUMBER_OF_URLS = 50000;
+
+    @Test
+    void duplicatesAreRejected() {
+        ConcurrentURLSet urls = new ConcurrentURLSet();
+
+        assertTrue(urls.add("https://en.wikipedia.org/wiki/Photosynthesis"));
+        assertFalse(urls.add("https://en.wikipedia.org/wiki/Photosynthesis"));
+        assertTrue(urls.add("https://en.wikipedia.org/wiki/Mount_Everest"));
+        assertEquals(2, urls.size());
+    }
+
+    @Test
+    void everyURLIsAddedOnceAcrossThreads() throws InterruptedException {
+        ConcurrentURLSet urls = new ConcurrentURLSet();
+        AtomicInteger added = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+
+        // every thread offers all URLs, so each URL is offered concurrently by several threads
+        for (int t = 0; t < NUMBER_OF_THREADS; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < NUMBER_OF_URLS; i++) {
+                    if (urls.add("https://en.wikipedia.org/wiki/Article_" + i)) {
+                        added.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(NUMBER_OF_URLS, added.get());
+        assertEquals(NUMBER_OF_URLS, urls.size());
+    }
+}
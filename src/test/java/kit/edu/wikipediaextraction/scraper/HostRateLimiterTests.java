@@ -0,0 +1,131 @@
+package kit.edu.wikipediaextraction.scraper;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HostRateLimiterTests {
+    private final static String ARTICLE_URL = "https://en.wikipedia.org/wiki/Physics";
+    private final static String INDEX_URL = "https://en.wikipedia.org/wiki/Wikipedia:Vital_articles/Level/5/Science";
+    private final static String RANDOM_URL = "https://en.wikipedia.org/wiki/Special:Random";
+    private final static long LATENCY_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private static CrawlPriority priorityOf(String url) {
+        if (url.equals(INDEX_URL)) {
+            return CrawlPriority.INDEX_PAGE;
+        }
+        return url.equals(RANDOM_URL) ? CrawlPriority.RANDOM_ARTICLE : CrawlPriority.ARTICLE;
+    }
+
+    @Test
+    void waitingRequestsGetTheirTurnByPriority() throws InterruptedException {
+        HostRateLimiter hostRateLimiter = new HostRateLimiter(5, HostRateLimiterTests::priorityOf);
+        hostRateLimiter.acquire(ARTICLE_URL);
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        Thread random = new Thread(() -> acquire(hostRateLimiter, RANDOM_URL, order));
+        Thread article = new Thread(() -> acquire(hostRateLimiter, ARTICLE_URL, order));
+        Thread index = new Thread(() -> acquire(hostRateLimiter, INDEX_URL, order));
+        random.start();
+        Thread.sleep(20);
+        article.start();
+        Thread.sleep(20);
+        index.start();
+        random.join();
+        article.join();
+        index.join();
+
+        assertEquals(List.of(INDEX_URL, ARTICLE_URL, RANDOM_URL), order);
+    }
+
+    @Test
+    void retryAfterPausesTheHost() throws InterruptedException {
+        HostRateLimiter hostRateLimiter = new HostRateLimiter(1000);
+        hostRateLimiter.onResponse(ARTICLE_URL, 503, LATENCY_NANOS, 300);
+
+        long start = System.nanoTime();
+        hostRateLimiter.acquire(ARTICLE_URL);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMillis >= 250, "elapsed " + elapsedMillis + " ms");
+    }
+
+    @Test
+    void rateIsHalvedWhenThrottledAndRecoversWithFastResponses() {
+        HostRateLimiter hostRateLimiter = new HostRateLimiter(10);
+        hostRateLimiter.onResponse(ARTICLE_URL, 429, LATENCY_NANOS, -1);
+        // responses of requests that were already in flight do not reduce the rate again
+        hostRateLimiter.onResponse(ARTICLE_URL, 429, LATENCY_NANOS, -1);
+
+        assertEquals(5, hostRateLimiter.getRate(ARTICLE_URL), 1e-9);
+        assertEquals(10, hostRateLimiter.getRate("https://de.wikipedia.org/wiki/Physik"), 1e-9);
+
+        for (int i = 0; i < 10; i++) {
+            hostRateLimiter.onResponse(ARTICLE_URL, 200, LATENCY_NANOS, -1);
+        }
+        assertEquals(10, hostRateLimiter.getRate(ARTICLE_URL), 1e-9);
+        assertEquals(20, hostRateLimiter.getTotalRate(), 1e-9);
+    }
+
+    @Test
+    void serverErrorsAndFailedRequestsReduceTheRate() throws InterruptedException {
+        HostRateLimiter hostRateLimiter = new HostRateLimiter(10);
+        hostRateLimiter.onResponse(ARTICLE_URL, 500, LATENCY_NANOS, -1);
+        assertEquals(8, hostRateLimiter.getRate(ARTICLE_URL), 1e-9);
+
+        // the rate is reduced at most once per second
+        Thread.sleep(1010);
+        hostRateLimiter.onFailure(ARTICLE_URL);
+        assertEquals(4, hostRateLimiter.getRate(ARTICLE_URL), 1e-9);
+    }
+
+    @Test
+    void backoffPausesTheHost() throws InterruptedException {
+        HostRateLimiter hostRateLimiter = new HostRateLimiter(1000);
+        hostRateLimiter.pause(ARTICLE_URL, 300);
+
+        long start = System.nanoTime();
+        hostRateLimiter.acquire(ARTICLE_URL);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMillis >= 250, "elapsed " + elapsedMillis + " ms");
+    }
+
+    @Test
+    void risingLatencyReducesTheRate() {
+        HostRateLimiter hostRateLimiter = new HostRateLimiter(10);
+        for (int i = 0; i < 5; i++) {
+            hostRateLimiter.onResponse(ARTICLE_URL, 200, LATENCY_NANOS, -1);
+        }
+        hostRateLimiter.onResponse(ARTICLE_URL, 200, 10 * LATENCY_NANOS, -1);
+
+        assertEquals(8, hostRateLimiter.getRate(ARTICLE_URL), 1e-9);
+    }
+
+    @Test
+    void zeroRateDisablesTheLimit() throws InterruptedException {
+        HostRateLimiter hostRateLimiter = new HostRateLimiter(0);
+        hostRateLimiter.onResponse(ARTICLE_URL, 429, LATENCY_NANOS, 60_000);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            hostRateLimiter.acquire(ARTICLE_URL);
+        }
+
+        assertTrue((System.nanoTime() - start) / 1_000_000 < 100);
+        assertEquals(0, hostRateLimiter.getTotalRate());
+    }
+
+    private static void acquire(HostRateLimiter hostRateLimiter, String url, List<String> order) {
+        try {
+            hostRateLimiter.acquire(url);
+            order.add(url);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package kit.edu.wikipediaextraction.scraper;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageCacheTests {
+    private final static String ETAG = "\"rev-1\"";
+    private final static String PAGE = "<html><head><title>Cached - Wikipedia</title></head><body></body></html>";
+    private final static long MAX_BYTES = 1024 * 1024;
+    private final static long ONE_HOUR_MILLIS = 60 * 60 * 1000;
+    private final AtomicInteger downloads = new AtomicInteger();
+    private final AtomicInteger notModified = new AtomicInteger();
+    private HttpServer server;
+    private String pageURL;
+
+    @TempDir
+    Path cacheDirectory;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.server.createContext("/wiki/", exchange -> {
+            exchange.getResponseHeaders().add("ETag", ETAG);
+            if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                this.notModified.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+
+            this.downloads.incrementAndGet();
+            byte[] body = PAGE.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        });
+        this.server.start();
+        this.pageURL = "http://127.0.0.1:" + this.server.getAddress().getPort() + "/wiki/Cached";
+    }
+
+    @AfterEach
+    void stopServer() {
+        this.server.stop(0);
+    }
+
+    @Test
+    void freshPagesAreServedFromDiskAcrossRuns() throws IOException {
+        PageFetcher firstRun = new PageFetcher(5000, new PageCache(this.cacheDirectory, MAX_BYTES, ONE_HOUR_MILLIS));
+        assertEquals("Cached - Wikipedia", firstRun.fetch(this.pageURL).title());
+
+        PageCache cache = new PageCache(this.cacheDirectory, MAX_BYTES, ONE_HOUR_MILLIS);
+        PageFetcher secondRun = new PageFetcher(5000, cache);
+
+        assertTrue(secondRun.isCached(this.pageURL));
+        assertEquals("Cached - Wikipedia", secondRun.fetch(this.pageURL).title());
+        assertEquals(1, this.downloads.get());
+        assertEquals(1, cache.getHits());
+        assertEquals(0, cache.getMisses());
+    }
+
+    @Test
+    void expiredPagesAreRevalidated() throws IOException {
+        PageFetcher pageFetcher = new PageFetcher(5000, new PageCache(this.cacheDirectory, MAX_BYTES, -1));
+
+        pageFetcher.fetch(this.pageURL);
+        assertEquals(PAGE, pageFetcher.fetchHtml(this.pageURL));
+
+        assertEquals(1, this.downloads.get());
+        assertEquals(1, this.notModified.get());
+    }
+
+    @Test
+    void matchingValidatorsReportUnmodifiedPages() throws IOException {
+        PageFetcher pageFetcher = new PageFetcher(5000, new PageCache(this.cacheDirectory, MAX_BYTES, ONE_HOUR_MILLIS));
+
+        PageResponse response = pageFetcher.fetchPage(this.pageURL, null, null);
+
+        assertNull(pageFetcher.fetchPage(this.pageURL, response.eTag(), null));
+        assertEquals(1, this.downloads.get());
+    }
+
+    @Test
+    void leastRecentlyUsedPagesAreEvicted() throws IOException {
+        PageCache cache = new PageCache(this.cacheDirectory, 1, ONE_HOUR_MILLIS);
+
+        cache.put("https://en.wikipedia.org/wiki/A", new PageResponse("https://en.wikipedia.org/wiki/A", "a", null, null));
+        cache.put("https://en.wikipedia.org/wiki/B", new PageResponse("https://en.wikipedia.org/wiki/B", "b", null, null));
+
+        assertEquals(1, cache.size());
+        assertNull(cache.get("https://en.wikipedia.org/wiki/A"));
+        assertNotNull(cache.get("https://en.wikipedia.org/wiki/B"));
+        assertEquals(1, new PageCache(this.cacheDirectory, 1, ONE_HOUR_MILLIS).size());
+    }
+
+    @Test
+    void sharedContentSurvivesConcurrentReplacements() throws Exception {
+        PageCache cache = new PageCache(this.cacheDirectory, MAX_BYTES, ONE_HOUR_MILLIS);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int thread = 0; thread < 4; thread++) {
+            String url = "https://en.wikipedia.org/wiki/" + thread;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 200; i++) {
+                    cache.put(url, new PageResponse(url, "shared", null, null));
+                    cache.put(url, new PageResponse(url, url + i, null, null));
+                    cache.put(url, new PageResponse(url, "shared", null, null));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        for (int thread = 0; thread < 4; thread++) {
+            PageResponse response = cache.read(cache.get("https://en.wikipedia.org/wiki/" + thread));
+            assertNotNull(response);
+            assertEquals("shared", response.html());
+        }
+    }
+
+    @Test
+    void failedReadsOfReplacedEntriesKeepTheCurrentEntry() throws IOException {
+        PageCache cache = new PageCache(this.cacheDirectory, MAX_BYTES, ONE_HOUR_MILLIS);
+        String url = "https://en.wikipedia.org/wiki/A";
+
+        cache.put(url, new PageResponse(url, "old", null, null));
+        PageCacheEntry replaced = cache.get(url);
+        cache.put(url, new PageResponse(url, "new", null, null));
+
+        assertNull(cache.read(replaced));
+        assertEquals("new", cache.read(cache.get(url)).html());
+    }
+
+    @Test
+    void closingCompactsTheJournal() throws IOException {
+        PageCache cache = new PageCache(this.cacheDirectory, MAX_BYTES, ONE_HOUR_MILLIS);
+        String url = "https://en.wikipedia.org/wiki/A";
+
+        for (int i = 0; i < 10; i++) {
+            cache.put(url, new PageResponse(url, "a" + i, null, null));
+        }
+        cache.close();
+        cache.put(url, new PageResponse(url, "after close", null, null));
+
+        assertEquals(1, Files.readAllLines(this.cacheDirectory.resolve("journal.tsv")).size());
+        PageCache reopened = new PageCache(this.cacheDirectory, MAX_BYTES, ONE_HOUR_MILLIS);
+        assertEquals("a9", reopened.read(reopened.get(url)).html());
+        reopened.close();
+    }
+
+    @Test
+    void specialPagesAreNotCached() throws IOException {
+        PageCache cache = new PageCache(this.cacheDirectory, MAX_BYTES, ONE_HOUR_MILLIS);
+
+        assertFalse(cache.isCacheable("https://en.wikipedia.org/wiki/Special:Random"));
+        assertTrue(cache.isCacheable("https://en.wikipedia.org/wiki/Photosynthesis"));
+    }
+}
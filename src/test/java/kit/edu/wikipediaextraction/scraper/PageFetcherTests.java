@@ -0,0 +1,209 @@
+package kit.edu.wikipediaextraction.scraper;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageFetcherTests {
+    private final static String PAGE = "<html><head><title>Stub - Wikipedia</title></head><body>%s</body></html>";
+    private final static RetryPolicy FAST_RETRIES = new RetryPolicy(3, 1, 5);
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger throttledRequests = new AtomicInteger();
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private HttpServer server;
+    private String baseURL;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.server.createContext("/wiki/", exchange -> {
+            int request = this.requests.incrementAndGet();
+            this.clientPorts.add(exchange.getRemoteAddress().getPort());
+            String title = exchange.getRequestURI().getPath().substring("/wiki/".length());
+
+            switch (title) {
+                case "Flaky" -> {
+                    if (request == 1) {
+                        respond(exchange, 503, "unavailable".getBytes(StandardCharsets.UTF_8), null);
+                    } else if (request == 2) {
+                        respond(exchange, 429, "slow down".getBytes(StandardCharsets.UTF_8), null);
+                    } else {
+                        respond(exchange, 200, page(title), null);
+                    }
+                }
+                case "Throttled_0" -> {
+                    if (this.throttledRequests.incrementAndGet() == 1) {
+                        exchange.getResponseHeaders().add("Retry-After", "1");
+                        respond(exchange, 429, "slow down".getBytes(StandardCharsets.UTF_8), null);
+                    } else {
+                        respond(exchange, 200, page(title), null);
+                    }
+                }
+                case "Broken" -> respond(exchange, 500, "error".getBytes(StandardCharsets.UTF_8), null);
+                case "Slow" -> {
+                    sleep(2000);
+                    respond(exchange, 200, page(title), null);
+                }
+                default -> {
+                    String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+                    if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                        respond(exchange, 200, gzip(page(title)), "gzip");
+                    } else {
+                        respond(exchange, 200, page(title), null);
+                    }
+                }
+            }
+        });
+        this.server.setExecutor(Executors.newCachedThreadPool());
+        this.server.start();
+        this.baseURL = "http://127.0.0.1:" + this.server.getAddress().getPort() + "/wiki/";
+    }
+
+    @AfterEach
+    void stopServer() {
+        this.server.stop(0);
+    }
+
+    @Test
+    void rateLimitsAndServerErrorsAreRetried() throws IOException {
+        PageFetcher pageFetcher = new PageFetcher(1000, 1000, FAST_RETRIES, null);
+
+        assertEquals("Stub - Wikipedia", pageFetcher.fetch(this.baseURL + "Flaky").title());
+        assertEquals(3, this.requests.get());
+    }
+
+    @Test
+    void requestFailsAfterTheLastRetry() {
+        PageFetcher pageFetcher = new PageFetcher(1000, 1000, FAST_RETRIES, null);
+
+        IOException exception = assertThrows(IOException.class, () -> pageFetcher.fetch(this.baseURL + "Broken"));
+        assertTrue(exception.getMessage().contains("500"));
+        assertEquals(FAST_RETRIES.maxRetries() + 1, this.requests.get());
+    }
+
+    @Test
+    void compressedResponsesAreDecoded() throws IOException {
+        PageFetcher pageFetcher = new PageFetcher(1000);
+
+        assertEquals(new String(page("Compressed"), StandardCharsets.UTF_8), pageFetcher.fetchHtml(this.baseURL + "Compressed"));
+    }
+
+    @Test
+    void connectionsAreReused() throws IOException {
+        PageFetcher pageFetcher = new PageFetcher(1000);
+
+        for (int i = 0; i < 20; i++) {
+            pageFetcher.fetch(this.baseURL + "Article_" + i);
+        }
+
+        assertEquals(20, this.requests.get());
+        assertEquals(1, this.clientPorts.size());
+    }
+
+    @Test
+    void throttledHostIsPausedAndSlowedDown() throws IOException {
+        HostRateLimiter hostRateLimiter = new HostRateLimiter(100);
+        PageFetcher pageFetcher = new PageFetcher(1000, 1000, FAST_RETRIES, null, hostRateLimiter);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            assertEquals("Stub - Wikipedia", pageFetcher.fetch(this.baseURL + "Throttled_" + i).title());
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // the retry waits for the Retry-After delay instead of the 1 ms backoff
+        assertTrue(elapsedMillis >= 950, "elapsed " + elapsedMillis + " ms");
+        assertEquals(2, this.throttledRequests.get());
+        assertTrue(hostRateLimiter.getRate(this.baseURL) < 100);
+    }
+
+    @Test
+    void retriesWaitInTheRateLimiterOnly() throws IOException {
+        List<Long> pauses = new CopyOnWriteArrayList<>();
+        HostRateLimiter hostRateLimiter = new HostRateLimiter(100) {
+            @Override
+            public void onResponse(String url, int statusCode, long latencyNanos, long retryAfterMillis) {
+                super.onResponse(url, statusCode, latencyNanos, -1);
+            }
+
+            @Override
+            public void pause(String url, long delayMillis) {
+                pauses.add(delayMillis);
+            }
+        };
+        PageFetcher pageFetcher = new PageFetcher(1000, 1000, FAST_RETRIES, null, hostRateLimiter);
+
+        long start = System.nanoTime();
+        assertEquals("Stub - Wikipedia", pageFetcher.fetch(this.baseURL + "Throttled_0").title());
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // the Retry-After delay is handed to the rate limiter, which skips it here, instead of being slept by the fetcher
+        assertEquals(List.of(1000L), pauses);
+        assertTrue(elapsedMillis < 900, "elapsed " + elapsedMillis + " ms");
+    }
+
+    @Test
+    void failedRequestsSlowDownTheHost() {
+        HostRateLimiter hostRateLimiter = new HostRateLimiter(100);
+        PageFetcher pageFetcher = new PageFetcher(1000, 200, RetryPolicy.NONE, null, hostRateLimiter);
+
+        assertThrows(IOException.class, () -> pageFetcher.fetch(this.baseURL + "Slow"));
+        assertEquals(50, hostRateLimiter.getRate(this.baseURL), 1e-9);
+    }
+
+    @Test
+    void slowResponsesTimeOut() {
+        PageFetcher pageFetcher = new PageFetcher(1000, 200, RetryPolicy.NONE, null);
+
+        long start = System.nanoTime();
+        assertThrows(IOException.class, () -> pageFetcher.fetch(this.baseURL + "Slow"));
+        assertTrue((System.nanoTime() - start) / 1_000_000 < 1500);
+    }
+
+    private static byte[] page(String title) {
+        return String.format(PAGE, title).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream outputStream = new GZIPOutputStream(compressed)) {
+            outputStream.write(body);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body, String contentEncoding) throws IOException {
+        if (contentEncoding != null) {
+            exchange.getResponseHeaders().add("Content-Encoding", contentEncoding);
+        }
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(body);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
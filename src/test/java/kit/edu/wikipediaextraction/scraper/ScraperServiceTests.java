@@ -0,0 +1,155 @@
+package kit.edu.wikipediaextraction.scraper;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScraperServiceTests {
+    private final static String LIST_OF_LISTS_PATH = "/wiki/Wikipedia:Vital_articles/Level/5";
+    private final static String LIST_PATH = LIST_OF_LISTS_PATH + "/";
+    private final static String PAGE = "<html><head><title>Stub - Wikipedia</title></head><body>%s</body></html>";
+    // pages by path, a page waits for its latch before it is sent
+    private final Map<String, String> pages = new ConcurrentHashMap<>();
+    private final Map<String, CountDownLatch> pageLatches = new ConcurrentHashMap<>();
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private String baseURL;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.server.createContext("/wiki/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            CountDownLatch latch = this.pageLatches.get(path);
+            try {
+                if (latch != null && !latch.await(10, TimeUnit.SECONDS)) {
+                    throw new IOException("latch of " + path + " was not released");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            String page = this.pages.get(path);
+            byte[] body = (page == null ? "missing" : page).getBytes(StandardCharsets.UTF_8);
+
+            exchange.sendResponseHeaders(page == null ? 404 : 200, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        });
+        this.serverExecutor = Executors.newCachedThreadPool();
+        this.server.setExecutor(this.serverExecutor);
+        this.server.start();
+        this.baseURL = "http://127.0.0.1:" + this.server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopServer() {
+        this.pageLatches.values().forEach(CountDownLatch::countDown);
+        this.server.stop(0);
+        this.serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void articlesOfAReadPageAreStreamedWhileOtherPagesAreRequested() {
+        this.addListPages(Map.of("Fast", articles("Fast_", 5), "Slow", articles("Slow_", 5)));
+        CountDownLatch slowPage = new CountDownLatch(1);
+        this.pageLatches.put(LIST_PATH + "Slow", slowPage);
+
+        try (Stream<String> urls = this.createScraperService(100).streamVitalArticleURLs()) {
+            Iterator<String> iterator = urls.iterator();
+            List<String> fastURLs = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                fastURLs.add(iterator.next());
+            }
+            // the slow page has not been sent yet
+            assertEquals(1, slowPage.getCount());
+            assertEquals(this.urls("Fast_", 5), fastURLs);
+
+            slowPage.countDown();
+            List<String> slowURLs = new ArrayList<>();
+            iterator.forEachRemaining(slowURLs::add);
+            assertEquals(this.urls("Slow_", 5), slowURLs);
+        }
+    }
+
+    @Test
+    void urlsListedOnSeveralPagesAreStreamedOnce() {
+        List<String> firstPage = articles("Article_", 6);
+        List<String> secondPage = new ArrayList<>(articles("Article_", 3));
+        secondPage.addAll(articles("Other_", 2));
+        this.addListPages(Map.of("First", firstPage, "Second", secondPage));
+
+        List<String> urls = this.createScraperService(100).getVitalArticleURLs();
+
+        assertEquals(8, urls.size());
+        assertEquals(8, urls.stream().distinct().count());
+        assertTrue(urls.containsAll(this.urls("Article_", 6)));
+        assertTrue(urls.containsAll(this.urls("Other_", 2)));
+    }
+
+    @Test
+    void articlesPerPageAreLimited() {
+        this.addListPages(Map.of("Long", articles("Long_", 10)));
+
+        assertEquals(this.urls("Long_", 3), this.createScraperService(3).getVitalArticleURLs());
+        assertEquals(this.urls("Long_", 10), this.createScraperService(0).getVitalArticleURLs());
+    }
+
+    @Test
+    void pageWithFewerArticlesThanTheLimitIsReadCompletely() {
+        List<String> links = new ArrayList<>(articles("Short_", 7));
+        // links with a colon are internal pages, not articles
+        links.add("/wiki/Talk:Short_0");
+        this.addListPages(Map.of("Short", links));
+
+        assertEquals(this.urls("Short_", 7), this.createScraperService(100).getVitalArticleURLs());
+    }
+
+    private ScraperService createScraperService(int vitalArticlesPerPage) {
+        return new ScraperService(this.baseURL, new PageFetcher(5000), 4, vitalArticlesPerPage);
+    }
+
+    private void addListPages(Map<String, List<String>> articlesByListPage) {
+        StringBuilder table = new StringBuilder("<table class=\"wikitable\">");
+        for (Map.Entry<String, List<String>> listPage : articlesByListPage.entrySet()) {
+            table.append("<tr><td><a href=\"").append(LIST_PATH).append(listPage.getKey()).append("\">list</a></td></tr>");
+            this.pages.put(LIST_PATH + listPage.getKey(), page(listPage.getValue()));
+        }
+        this.pages.put(LIST_OF_LISTS_PATH, String.format(PAGE, table.append("</table>")));
+    }
+
+    private List<String> urls(String prefix, int count) {
+        return articles(prefix, count).stream().map(path -> this.baseURL + path).toList();
+    }
+
+    private static List<String> articles(String prefix, int count) {
+        return IntStream.range(0, count).mapToObj(i -> "/wiki/" + prefix + i).toList();
+    }
+
+    private static String page(List<String> links) {
+        StringBuilder content = new StringBuilder("<div id=\"mw-content-text\">");
+        for (String link : links) {
+            content.append("<a href=\"").append(link).append("\">article</a>");
+        }
+        return String.format(PAGE, content.append("</div>"));
+    }
+}
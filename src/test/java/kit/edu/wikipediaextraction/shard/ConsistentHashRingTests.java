@@ -0,0 +1,50 @@
+package kit.edu.wikipediaextraction.shard;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsistentHashRingTests {
+    private final static String WIKIPEDIA_URL = "https://en.wikipedia.org/wiki/Article_";
+    private final static int NUMBER_OF_KEYS = 100_000;
+
+    @Test
+    void keysAreSpreadEvenlyOverThePartitions() {
+        ConsistentHashRing ring = new ConsistentHashRing(16);
+        int[] keysPerPartition = new int[16];
+        for (int i = 0; i < NUMBER_OF_KEYS; i++) {
+            keysPerPartition[ring.partitionOf(WIKIPEDIA_URL + i)]++;
+        }
+
+        int expected = NUMBER_OF_KEYS / 16;
+        for (int keys : keysPerPartition) {
+            assertTrue(Math.abs(keys - expected) < expected / 4, "partition with " + keys + " keys");
+        }
+    }
+
+    @Test
+    void onlyKeysOfTheAddedPartitionMove() {
+        ConsistentHashRing ring = new ConsistentHashRing(16);
+        ConsistentHashRing largerRing = new ConsistentHashRing(17);
+
+        int moved = 0;
+        for (int i = 0; i < NUMBER_OF_KEYS; i++) {
+            int partition = ring.partitionOf(WIKIPEDIA_URL + i);
+            int newPartition = largerRing.partitionOf(WIKIPEDIA_URL + i);
+            if (partition != newPartition) {
+                assertEquals(16, newPartition);
+                moved++;
+            }
+        }
+
+        // about 1/17 of the keys move to the new partition
+        assertTrue(moved > NUMBER_OF_KEYS / 17 / 2 && moved < NUMBER_OF_KEYS / 17 * 2, moved + " keys moved");
+    }
+
+    @Test
+    void partitionOfAKeyIsStable() {
+        assertEquals(new ConsistentHashRing(8).partitionOf("0-1048576"), new ConsistentHashRing(8).partitionOf("0-1048576"));
+        assertEquals(0, new ConsistentHashRing(1).partitionOf(WIKIPEDIA_URL));
+        assertThrows(IllegalArgumentException.class, () -> new ConsistentHashRing(0));
+    }
+}
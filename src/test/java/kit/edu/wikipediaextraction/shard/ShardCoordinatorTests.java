@@ -0,0 +1,137 @@
+package kit.edu.wikipediaextraction.shard;
+
+import kit.edu.wikipediaextraction.database.DatabaseService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardCoordinatorTests {
+    private final static String SQLITE_URL = "jdbc:sqlite:";
+    private final static long LEASE_MILLIS = 60_000;
+    @TempDir
+    Path directory;
+    private String coordinatorDatabase;
+
+    @BeforeEach
+    void createDatabase() {
+        this.coordinatorDatabase = this.directory.resolve("coordinator.db").toString();
+    }
+
+    /**
+     * Every worker process has its own connection to the coordination database
+     */
+    private ShardCoordinator coordinator(String workerID, int numberOfPartitions, long leaseMillis) {
+        return new ShardCoordinator(new DatabaseService(SQLITE_URL, this.coordinatorDatabase, 100), workerID, numberOfPartitions, leaseMillis);
+    }
+
+    @Test
+    void jobIsPlannedByOneWorker() {
+        ShardCoordinator first = this.coordinator("a", 4, LEASE_MILLIS);
+        ShardCoordinator second = this.coordinator("b", 8, LEASE_MILLIS);
+
+        assertEquals(4, second.getNumberOfPartitions());
+        assertTrue(first.tryClaimPlanning());
+        assertFalse(second.tryClaimPlanning());
+        assertFalse(second.isPlanned());
+
+        assertTrue(first.finishPlanning(Map.of(1, List.of("Physics", "Chemistry"), 3, List.of("Biology"))));
+
+        assertTrue(second.isPlanned());
+        assertFalse(second.tryClaimPlanning());
+        assertEquals(List.of("Physics", "Chemistry"), second.getWorkItems(1));
+        assertEquals(List.of(), second.getWorkItems(0));
+        assertEquals(4, second.getNumberOfOpenPartitions());
+    }
+
+    @Test
+    void partitionsAreLeasedByOneWorkerAtATime() {
+        ShardCoordinator first = this.coordinator("a", 4, LEASE_MILLIS);
+        ShardCoordinator second = this.coordinator("b", 4, LEASE_MILLIS);
+        first.tryClaimPlanning();
+        first.finishPlanning(Map.of());
+
+        Set<Integer> leased = new HashSet<>();
+        for (int i = 0; i < 2; i++) {
+            int firstPartition = first.leasePartition();
+            int secondPartition = second.leasePartition();
+            assertTrue(leased.add(firstPartition));
+            assertTrue(leased.add(secondPartition));
+            assertTrue(first.completePartition(firstPartition));
+            assertTrue(second.completePartition(secondPartition));
+        }
+
+        assertEquals(Set.of(0, 1, 2, 3), leased);
+        assertEquals(-1, first.leasePartition());
+        assertEquals(0, second.getNumberOfOpenPartitions());
+    }
+
+    @Test
+    void expiredLeaseIsTakenOverByAnotherWorker() throws InterruptedException {
+        ShardCoordinator stopped = this.coordinator("a", 1, 50);
+        ShardCoordinator second = this.coordinator("b", 1, LEASE_MILLIS);
+        stopped.tryClaimPlanning();
+        stopped.finishPlanning(Map.of(0, List.of("Physics")));
+
+        assertEquals(0, stopped.leasePartition());
+        assertEquals(-1, second.leasePartition());
+        Thread.sleep(100);
+
+        assertEquals(0, second.leasePartition());
+        assertFalse(stopped.completePartition(0));
+        assertTrue(second.completePartition(0));
+    }
+
+    @Test
+    void renewedLeaseIsNotTakenOver() throws InterruptedException {
+        ShardCoordinator first = this.coordinator("a", 1, 200);
+        ShardCoordinator second = this.coordinator("b", 1, LEASE_MILLIS);
+        first.tryClaimPlanning();
+        first.finishPlanning(Map.of());
+        first.leasePartition();
+
+        for (int i = 0; i < 5; i++) {
+            Thread.sleep(60);
+            first.renewLeases();
+        }
+
+        assertEquals(-1, second.leasePartition());
+    }
+
+    @Test
+    void restartedWorkerContinuesItsPartition() {
+        ShardCoordinator first = this.coordinator("a", 4, LEASE_MILLIS);
+        first.tryClaimPlanning();
+        first.finishPlanning(Map.of());
+        first.completePartition(first.leasePartition());
+        assertEquals(1, first.leasePartition());
+
+        // the worker stops while its lease is still valid
+        ShardCoordinator restarted = this.coordinator("a", 4, LEASE_MILLIS);
+
+        assertEquals(1, restarted.leasePartition());
+    }
+
+    @Test
+    void shardsAreMergedByOneWorker() {
+        ShardCoordinator first = this.coordinator("a", 1, LEASE_MILLIS);
+        ShardCoordinator second = this.coordinator("b", 1, LEASE_MILLIS);
+        first.registerWorker("shard-a.db");
+        second.registerWorker("shard-b.db");
+
+        assertTrue(second.tryClaimMerge());
+        assertFalse(first.tryClaimMerge());
+        second.finishMerge();
+
+        assertTrue(first.isMerged());
+        assertFalse(first.tryClaimMerge());
+        assertEquals(List.of("shard-a.db", "shard-b.db"), first.getShardDatabaseNames());
+    }
+}
@@ -0,0 +1,71 @@
+package kit.edu.wikipediaextraction.shard;
+
+import kit.edu.wikipediaextraction.database.DatabaseService;
+import kit.edu.wikipediaextraction.database.backend.StorageBackend;
+import kit.edu.wikipediaextraction.database.section.SectionService;
+import kit.edu.wikipediaextraction.metrics.PipelineMetrics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static kit.edu.wikipediaextraction.benchmark.Fixtures.revision;
+import static kit.edu.wikipediaextraction.benchmark.Fixtures.sections;
+
+/**
+ * Worker process of the sharded extraction tests, it stores generated articles instead of fetching them.
+ * Every stored article is appended to a file of the worker, so the tests see which worker processed it.
+ * Arguments: directory of the databases, worker ID, number of articles, lease in milliseconds
+ * and the number of articles after which the process stops like a killed process, -1 to finish the job.
+ */
+class ShardWorkerProcess {
+    final static String SQLITE_URL = "jdbc:sqlite:";
+    final static String COORDINATOR_DATABASE_FILE_NAME = "coordinator.db";
+    final static String DATABASE_FILE_NAME = "wikipedia.db";
+    final static String PROCESSED_ARTICLES_FILE_NAME = "processed-%s.txt";
+    final static int KILLED_EXIT_CODE = 137;
+
+    public static void main(String[] arguments) throws InterruptedException {
+        Path directory = Path.of(arguments[0]);
+        String workerID = arguments[1];
+        int numberOfArticles = Integer.parseInt(arguments[2]);
+        long leaseMillis = Long.parseLong(arguments[3]);
+        int killAfterArticles = Integer.parseInt(arguments[4]);
+        String shardDatabaseName = directory.resolve("shard-" + workerID + ".db").toString();
+        Path processedArticles = directory.resolve(String.format(PROCESSED_ARTICLES_FILE_NAME, workerID));
+        AtomicInteger storedArticles = new AtomicInteger();
+
+        try (DatabaseService coordinatorDatabaseService = new DatabaseService(SQLITE_URL, directory.resolve(COORDINATOR_DATABASE_FILE_NAME).toString(), 100);
+             DatabaseService shardDatabaseService = new DatabaseService(SQLITE_URL, shardDatabaseName, 100)) {
+            ShardCoordinator shardCoordinator = new ShardCoordinator(coordinatorDatabaseService, workerID, 8, leaseMillis);
+            SectionService shardSectionService = new SectionService(shardDatabaseService);
+            ShardWorker shardWorker = new ShardWorker(shardCoordinator, SQLITE_URL, StorageBackend.SQLITE, shardDatabaseName, directory.resolve(DATABASE_FILE_NAME).toString(), 100, true, new PipelineMetrics());
+
+            shardWorker.run(
+                    () -> IntStream.range(0, numberOfArticles).mapToObj(article -> "Article " + article),
+                    articleHeadlines -> {
+                        for (String articleHeadline : articleHeadlines) {
+                            shardSectionService.storeArticle(sections(articleHeadline, 1, "Text of " + articleHeadline), revision(articleHeadline));
+                            append(processedArticles, articleHeadline);
+                            if (storedArticles.incrementAndGet() == killAfterArticles) {
+                                // neither completes the partition nor releases its lease
+                                Runtime.getRuntime().halt(KILLED_EXIT_CODE);
+                            }
+                        }
+                    }
+            );
+        }
+    }
+
+    private static void append(Path file, String line) {
+        try {
+            Files.writeString(file, line + "\n", StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package kit.edu.wikipediaextraction.shard;
+
+import kit.edu.wikipediaextraction.database.DatabaseService;
+import kit.edu.wikipediaextraction.database.backend.StorageBackend;
+import kit.edu.wikipediaextraction.database.section.SectionService;
+import kit.edu.wikipediaextraction.metrics.PipelineMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static kit.edu.wikipediaextraction.benchmark.Fixtures.revision;
+import static kit.edu.wikipediaextraction.benchmark.Fixtures.sections;
+import static kit.edu.wikipediaextraction.benchmark.Fixtures.startJavaProcess;
+import static kit.edu.wikipediaextraction.shard.ShardWorkerProcess.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardWorkerTests {
+    private final static int NUMBER_OF_ARTICLES = 40;
+    private final static long PROCESS_TIMEOUT_SECONDS = 120;
+    @TempDir
+    Path directory;
+    private String databaseName;
+
+    @BeforeEach
+    void createDatabaseName() {
+        this.databaseName = this.directory.resolve(DATABASE_FILE_NAME).toString();
+    }
+
+    @Test
+    void workersProcessEveryPartitionOnceAndMergeTheirShards() throws InterruptedException {
+        // an article that is stored already is not merged again
+        try (DatabaseService databaseService = new DatabaseService(SQLITE_URL, this.databaseName, 100)) {
+            new SectionService(databaseService).storeArticle(sections("Article 0", 1, "Text of Article 0"), revision("Article 0"));
+        }
+        Map<String, String> workerOfArticle = new ConcurrentHashMap<>();
+        List<String> failures = new CopyOnWriteArrayList<>();
+
+        List<Thread> workers = new ArrayList<>();
+        for (String workerID : List.of("a", "b")) {
+            workers.add(new Thread(() -> {
+                try {
+                    this.runWorker(workerID, workerOfArticle);
+                } catch (InterruptedException | RuntimeException | AssertionError e) {
+                    failures.add(workerID + ": " + e);
+                }
+            }));
+        }
+        workers.forEach(Thread::start);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(List.of(), failures);
+        assertEquals(NUMBER_OF_ARTICLES, workerOfArticle.size());
+        this.assertMergedArticles();
+    }
+
+    @Test
+    void workerProcessesTakeOverThePartitionOfAKilledWorker() throws IOException, InterruptedException {
+        // the worker plans the job and is killed after the first article of its first partition
+        Process killedWorker = this.startWorker("a", 1);
+        assertTrue(killedWorker.waitFor(PROCESS_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(KILLED_EXIT_CODE, killedWorker.exitValue());
+
+        List<Process> workers = List.of(this.startWorker("b", -1), this.startWorker("c", -1));
+        for (Process worker : workers) {
+            assertTrue(worker.waitFor(PROCESS_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            assertEquals(0, worker.exitValue());
+        }
+
+        Set<String> processedArticles = new HashSet<>();
+        for (String workerID : List.of("b", "c")) {
+            for (String articleHeadline : this.readProcessedArticles(workerID)) {
+                assertTrue(processedArticles.add(articleHeadline), articleHeadline + " was processed twice");
+            }
+        }
+        // the expired partition was processed again, the article the killed worker stored is merged once
+        assertEquals(NUMBER_OF_ARTICLES, processedArticles.size());
+        assertEquals(1, this.readProcessedArticles("a").size());
+        this.assertMergedArticles();
+    }
+
+    @Test
+    void duckDBIsRejected() {
+        try (DatabaseService databaseService = new DatabaseService(SQLITE_URL, this.directory.resolve(COORDINATOR_DATABASE_FILE_NAME).toString(), 100)) {
+            ShardCoordinator shardCoordinator = new ShardCoordinator(databaseService, "a", 8, 10_000);
+
+            assertThrows(IllegalArgumentException.class, () -> new ShardWorker(shardCoordinator, "jdbc:duckdb:", StorageBackend.DUCKDB, "shard-a", this.databaseName, 100, true, new PipelineMetrics()));
+        }
+    }
+
+    private void assertMergedArticles() {
+        try (DatabaseService databaseService = new DatabaseService(SQLITE_URL, this.databaseName, 100)) {
+            assertEquals(NUMBER_OF_ARTICLES, databaseService.query("SELECT COUNT(*) FROM wikipedia_sections", List.of(), resultSet -> resultSet.getInt(1)).get(0));
+            assertEquals(NUMBER_OF_ARTICLES, databaseService.query("SELECT COUNT(*) FROM wikipedia_articles", List.of(), resultSet -> resultSet.getInt(1)).get(0));
+            SectionService sectionService = new SectionService(databaseService);
+            String lastArticle = "Article " + (NUMBER_OF_ARTICLES - 1);
+            assertEquals("Text of " + lastArticle + " 0", sectionService.getSectionsByArticleHeadline(lastArticle).get(0).cleanedArticleText());
+            assertEquals("rev:1", sectionService.getArticleRevision(lastArticle).revision());
+        }
+    }
+
+    private void runWorker(String workerID, Map<String, String> workerOfArticle) throws InterruptedException {
+        String shardDatabaseName = this.directory.resolve("shard-" + workerID + ".db").toString();
+        try (DatabaseService coordinatorDatabaseService = new DatabaseService(SQLITE_URL, this.directory.resolve(COORDINATOR_DATABASE_FILE_NAME).toString(), 100);
+             DatabaseService shardDatabaseService = new DatabaseService(SQLITE_URL, shardDatabaseName, 100)) {
+            ShardCoordinator shardCoordinator = new ShardCoordinator(coordinatorDatabaseService, workerID, 8, 10_000);
+            SectionService shardSectionService = new SectionService(shardDatabaseService);
+            ShardWorker shardWorker = new ShardWorker(shardCoordinator, SQLITE_URL, StorageBackend.SQLITE, shardDatabaseName, this.databaseName, 100, true, new PipelineMetrics());
+
+            shardWorker.run(
+                    () -> IntStream.range(0, NUMBER_OF_ARTICLES).mapToObj(article -> "Article " + article),
+                    articleHeadlines -> {
+                        for (String articleHeadline : articleHeadlines) {
+                            assertNull(workerOfArticle.put(articleHeadline, workerID), articleHeadline + " was processed twice");
+                            shardSectionService.storeArticle(sections(articleHeadline, 1, "Text of " + articleHeadline), revision(articleHeadline));
+                        }
+                    }
+            );
+        }
+    }
+
+    private Process startWorker(String workerID, int killAfterArticles) throws IOException {
+        // the lease of the killed worker expires while the other workers start
+        return startJavaProcess(
+                ShardWorkerProcess.class,
+                this.directory,
+                this.directory.toString(),
+                workerID,
+                String.valueOf(NUMBER_OF_ARTICLES),
+                "2000",
+                String.valueOf(killAfterArticles)
+        );
+    }
+
+    private List<String> readProcessedArticles(String workerID) throws IOException {
+        return Files.readAllLines(this.directory.resolve(String.format(PROCESSED_ARTICLES_FILE_NAME, workerID)));
+    }
+}